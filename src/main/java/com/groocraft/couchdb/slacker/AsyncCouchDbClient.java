@@ -0,0 +1,978 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.groocraft.couchdb.slacker.cluster.Node;
+import com.groocraft.couchdb.slacker.cluster.NodeSelector;
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.http.SessionAuthenticator;
+import com.groocraft.couchdb.slacker.resilience.ResilienceHandler;
+import com.groocraft.couchdb.slacker.structure.AllDocumentResponse;
+import com.groocraft.couchdb.slacker.structure.BulkGetRequest;
+import com.groocraft.couchdb.slacker.structure.BulkGetResponse;
+import com.groocraft.couchdb.slacker.structure.DatabaseInfo;
+import com.groocraft.couchdb.slacker.structure.DesignDocument;
+import com.groocraft.couchdb.slacker.structure.DocumentFindResponse;
+import com.groocraft.couchdb.slacker.structure.DocumentPutResponse;
+import com.groocraft.couchdb.slacker.structure.FindResult;
+import com.groocraft.couchdb.slacker.structure.IndexCreateRequest;
+import com.groocraft.couchdb.slacker.structure.View;
+import com.groocraft.couchdb.slacker.structure.ViewPage;
+import com.groocraft.couchdb.slacker.transport.ApacheResponse;
+import com.groocraft.couchdb.slacker.transport.ApacheTransport;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import com.groocraft.couchdb.slacker.transport.CouchResponse;
+import com.groocraft.couchdb.slacker.transport.RequestBody;
+import com.groocraft.couchdb.slacker.utils.BulkChunker;
+import com.groocraft.couchdb.slacker.utils.ThrowingFunction;
+import com.groocraft.couchdb.slacker.utils.ThrowingSupplier;
+import com.groocraft.couchdb.slacker.utils.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.message.BasicNameValuePair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.util.Pair;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous client for CouchDB REST API. All operations return {@link CompletableFuture} and are executed by non-blocking HTTP engine with bounded
+ * number of I/O dispatch threads, so number of requests in flight is not limited by number of calling threads. {@link EntityMetadata}, id generation and
+ * serialization is shared with {@link CouchDbClient} from which the client is created.
+ * <p>
+ * Responses are processed and futures are completed by an own executor, never on I/O dispatch threads, so parsing of large bodies and dependent actions do
+ * not stall other requests in flight. The executor is shut down when the client is closed.
+ *
+ * @author Majlanky
+ * @see CouchDbClientBuilder#buildAsync(CouchDbClient)
+ */
+@Slf4j
+public class AsyncCouchDbClient {
+
+    private static final String DESIGN = "_design";
+    private static final String VIEW = "_view";
+    private static final String DESIGN_DOCS = "_design_docs";
+    private static final String START_KEY = "startkey";
+    private static final String START_KEY_DOC_ID = "startkey_docid";
+
+    private final CouchDbClient client;
+    private final CloseableHttpAsyncClient httpClient;
+    private final NodeSelector nodeSelector;
+    private final ResilienceHandler resilience;
+    private final SessionAuthenticator sessionAuthenticator;
+    private final Supplier<HttpClientContext> httpContextSupplier;
+    private final URI baseURI;
+    private final ObjectMapper mapper;
+    private final Set<String> knownIndexes;
+    private final DesignRegistry designs;
+    private final ExecutorService executor;
+
+    /**
+     * @param client              which is used as source of {@link EntityMetadata}, id generation and serialization. Must not be {@literal null}
+     * @param httpClient          started non-blocking http client. Must not be {@literal null}
+     * @param httpHost            must not be {@literal null}
+     * @param httpContextSupplier of new context for every request. Must not be {@literal null}
+     * @param baseURI             where CouchDB is accessible without database specification. Must not be {@literal null}
+     */
+    AsyncCouchDbClient(@NotNull CouchDbClient client,
+                       @NotNull CloseableHttpAsyncClient httpClient,
+                       @NotNull HttpHost httpHost,
+                       @NotNull Supplier<HttpClientContext> httpContextSupplier,
+                       @NotNull URI baseURI) {
+        this(client, httpClient, new NodeSelector(httpHost), httpContextSupplier, baseURI, createExecutor(false));
+    }
+
+    /**
+     * @param client              which is used as source of {@link EntityMetadata}, id generation and serialization. Must not be {@literal null}
+     * @param httpClient          started non-blocking http client. Must not be {@literal null}
+     * @param nodeSelector        which chooses node of cluster for every request. Must not be {@literal null}
+     * @param httpContextSupplier of new context for every request. Must not be {@literal null}
+     * @param baseURI             where CouchDB is accessible without database specification. Must not be {@literal null}
+     * @param executor            which processes responses and completes futures. It is shut down when the client is closed. Must not be {@literal null}
+     */
+    AsyncCouchDbClient(@NotNull CouchDbClient client,
+                       @NotNull CloseableHttpAsyncClient httpClient,
+                       @NotNull NodeSelector nodeSelector,
+                       @NotNull Supplier<HttpClientContext> httpContextSupplier,
+                       @NotNull URI baseURI,
+                       @NotNull ExecutorService executor) {
+        Assert.notNull(client, "Client must not be null.");
+        Assert.notNull(httpClient, "HttpClient must not be null.");
+        Assert.notNull(nodeSelector, "NodeSelector must not be null.");
+        Assert.notNull(httpContextSupplier, "HttpContextSupplier must not be null.");
+        Assert.notNull(baseURI, "BaseURI must not be null.");
+        Assert.notNull(executor, "Executor must not be null.");
+        this.client = client;
+        this.httpClient = httpClient;
+        this.nodeSelector = nodeSelector;
+        this.resilience = client.getResilienceHandler();
+        this.sessionAuthenticator = client.getSessionAuthenticator();
+        this.httpContextSupplier = httpContextSupplier;
+        this.baseURI = baseURI;
+        this.mapper = client.getMapper();
+        this.knownIndexes = ConcurrentHashMap.newKeySet();
+        this.designs = client.getDesigns();
+        this.executor = executor;
+    }
+
+    /**
+     * Method to create executor which processes responses of {@link AsyncCouchDbClient} out of I/O dispatch threads.
+     *
+     * @param virtualThreads flag if virtual threads should be used. Virtual threads require Java 21 or newer
+     * @return {@link ExecutorService} for {@link AsyncCouchDbClient}
+     */
+    public static @NotNull ExecutorService createExecutor(boolean virtualThreads) {
+        if (virtualThreads) {
+            return VirtualThreads.newExecutor();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "couchdb-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return {@link CouchDbClient} which shares metadata, id generation and serialization with this client
+     */
+    public @NotNull CouchDbClient getBlockingClient() {
+        return client;
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#save(Object)}.
+     *
+     * @param entity    instance to save. Must not be {@literal null}
+     * @param <EntityT> type of entity
+     * @return future of entity instance with id and revision updated to the current state
+     */
+    @SuppressWarnings({"unchecked"})
+    public <EntityT> @NotNull CompletableFuture<EntityT> save(@NotNull EntityT entity) {
+        return supply(() -> {
+            EntityMetadata entityMetadata = client.getEntityMetadata(entity.getClass());
+            String id = entityMetadata.getIdReader().read(entity);
+            if ("".equals(id) || id == null) {
+                id = client.generateId(entity, (Class<EntityT>) entity.getClass());
+                log.debug("New ID {} generated for asynchronously saved document", id);
+            }
+            log.debug("Asynchronous save of document {} with id {} to database {}", entity, id, entityMetadata.getDatabaseName());
+            return put(CouchDbClient.getURI(baseURI, entityMetadata.getDatabaseName(), id),
+                    client.createBody(client.getCodecs().getSavingWriter(entity.getClass()).writeValueAsString(entity)),
+                    r -> mapper.readValue(r.getContent(), DocumentPutResponse.class))
+                    .thenApply(response -> {
+                        entityMetadata.getRevisionWriter().write(entity, response.getRev());
+                        entityMetadata.getIdWriter().write(entity, response.getId());
+                        client.evict(entityMetadata.getDatabaseName(), response.getId());
+                        return entity;
+                    });
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#saveAll(Iterable, Class)}. Entities are split the same way, see
+     * {@link #writeAll(EntityMetadata, List, ObjectWriter)}.
+     *
+     * @param entities  {@link Iterable} of entities to save. Must not be {@literal null}
+     * @param clazz     Class of entities passed to save. Must not be {@literal null}
+     * @param <EntityT> type of entities passed to save
+     * @return future of {@link Iterable} of all passed entities with updated revisions and ids
+     */
+    @SuppressWarnings({"unchecked"})
+    public <EntityT> @NotNull CompletableFuture<Iterable<EntityT>> saveAll(@NotNull Iterable<EntityT> entities, @NotNull Class<?> clazz) {
+        return supply(() -> {
+            EntityMetadata entityMetadata = client.getEntityMetadata(clazz);
+            List<EntityT> list = new ArrayList<>();
+            for (EntityT e : entities) {
+                String id = entityMetadata.getIdReader().read(e);
+                if ("".equals(id) || id == null) {
+                    entityMetadata.getIdWriter().write(e, client.generateId(e, (Class<EntityT>) e.getClass()));
+                }
+                list.add(e);
+            }
+            log.debug("Asynchronous bulk save of {} documents to database {}", list.size(), entityMetadata.getDatabaseName());
+            return writeAll(entityMetadata, list, client.getCodecs().getSavingWriter(clazz))
+                    .thenApply(responses -> {
+                        for (int i = 0; i < list.size(); i++) {
+                            EntityT e = list.get(i);
+                            DocumentPutResponse response = responses.get(i);
+                            if ("true".equals(response.getOk())) {
+                                entityMetadata.getRevisionWriter().write(e, response.getRev());
+                            } else {
+                                log.warn("Document {} with id: {} and rev: {} saving failed with reason {}", e, response.getId(), response.getRev(),
+                                        response.getError());
+                            }
+                        }
+                        return entities;
+                    });
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#read(String, Class)}. Documents of entities annotated by
+     * {@link com.groocraft.couchdb.slacker.annotation.ReadBatched} are read by {@link CouchDbClient#readBatched(String, Class)}.
+     *
+     * @param id        Id of wanted document. Must not be {@literal null}
+     * @param clazz     of entity in which document will be read. Must not be {@literal null}
+     * @param <EntityT> type of entity
+     * @return future of instance of the given class with data of document
+     */
+    public <EntityT> @NotNull CompletableFuture<EntityT> read(@NotNull String id, @NotNull Class<EntityT> clazz) {
+        if (client.getEntityMetadata(clazz).isReadBatched()) {
+            return client.readBatched(id, clazz);
+        }
+        return supply(() -> get(CouchDbClient.getURI(baseURI, client.getDatabaseName(clazz), id), r -> mapper.readValue(r.getContent(), clazz)));
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#readAll(Iterable, Class)}.
+     *
+     * @param ids       of wanted documents. Must not be {@literal null}
+     * @param clazz     of documents. Must not be {@literal null}
+     * @param <EntityT> type of documents
+     * @return future of {@link List} of read documents
+     */
+    public <EntityT> @NotNull CompletableFuture<List<EntityT>> readAll(@NotNull Iterable<String> ids, @NotNull Class<EntityT> clazz) {
+        return supply(() -> {
+            ObjectReader reader = client.getCodecs().getBulkGetReader(clazz);
+            return post(CouchDbClient.getURI(baseURI, client.getDatabaseName(clazz), "_bulk_get"), client.createBody(mapper.writer(), new BulkGetRequest(ids)),
+                    r -> reader.<BulkGetResponse<EntityT>>readValue(r.getContent()).getDocs());
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#readAll(Class, Long, Integer, Sort)}.
+     *
+     * @param clazz of wanted entity. Must not be {@literal null}
+     * @param skip  number of skipped documents. Can be {@literal null}
+     * @param limit of document in a result. Can be {@literal null} if no limitation is wanted.
+     * @param sort  information for the result. Must not be {@literal null}
+     * @return future of ids of documents
+     */
+    public @NotNull CompletableFuture<List<String>> readAll(@NotNull Class<?> clazz, @Nullable Long skip, @Nullable Integer limit, @NotNull Sort sort) {
+        return supply(() -> {
+            EntityMetadata em = client.getEntityMetadata(clazz);
+            return getDesignAndView(sort, em).thenCompose(dv -> readFromView(em.getDatabaseName(), dv.getFirst(), dv.getSecond(), skip, limit, sort));
+        });
+    }
+
+    /**
+     * Method to read one page of ids of all documents of the given entity in the given order. The page continues after the last row of the given previous
+     * page by startkey and startkey_docid (the last row itself is skipped), so reading of a page does not get slower with number of already read documents
+     * as it does with skip.
+     *
+     * @param clazz    of wanted entity. Must not be {@literal null}
+     * @param previous page after which the read page continues or {@literal null} (or empty page) if the first page is wanted
+     * @param limit    of documents in the page
+     * @param sort     information for the result. Must not be {@literal null}
+     * @return future of the page of ids
+     */
+    public @NotNull CompletableFuture<ViewPage> readPage(@NotNull Class<?> clazz, @Nullable ViewPage previous, int limit, @NotNull Sort sort) {
+        return supply(() -> {
+            EntityMetadata em = client.getEntityMetadata(clazz);
+            boolean after = previous != null && previous.getLastId() != null;
+            List<NameValuePair> parameters = CouchDbClient.getViewParameters(after ? 1L : null, limit, sort);
+            if (after) {
+                parameters.add(new BasicNameValuePair(START_KEY, mapper.writeValueAsString(previous.getLastKey())));
+                parameters.add(new BasicNameValuePair(START_KEY_DOC_ID, previous.getLastId()));
+            }
+            return getDesignAndView(sort, em).thenCompose(dv -> get(CouchDbClient.getURI(baseURI, Arrays.asList(em.getDatabaseName(), DESIGN,
+                    dv.getFirst(), VIEW, dv.getSecond()), parameters), this::readPage));
+        });
+    }
+
+    /**
+     * @param response of view request. Must not be {@literal null}
+     * @return {@link ViewPage} with ids and position of the last row
+     * @throws IOException if json processing fail
+     */
+    private @NotNull ViewPage readPage(@NotNull CouchResponse response) throws IOException {
+        List<String> ids = new ArrayList<>();
+        JsonNode lastKey = null;
+        String lastId = null;
+        for (JsonNode row : mapper.readTree(response.getContent()).path("rows")) {
+            lastKey = row.path("key");
+            lastId = row.path("id").asText();
+            ids.add(lastId);
+        }
+        return ViewPage.of(ids, lastKey, lastId);
+    }
+
+    /**
+     * @param sort of documents. Must not be {@literal null}
+     * @param em   metadata of the entity. Must not be {@literal null}
+     * @return future of pair of design and view name where ids of all documents of the entity are stored in the given order
+     */
+    private CompletableFuture<Pair<String, String>> getDesignAndView(@NotNull Sort sort, @NotNull EntityMetadata em) {
+        if (sort.isSorted()) {
+            Sort.Direction direction = null;
+            for (Sort.Order order : sort) {
+                direction = CouchDbClient.assertSameDirection(direction, order.getDirection());
+            }
+            return ensureSortedView(sort, em);
+        }
+        if (em.isViewed()) {
+            return CompletableFuture.completedFuture(Pair.of(em.getDesign(), em.getView()));
+        }
+        return CompletableFuture.completedFuture(Pair.of(CouchDbClient.ALL_DESIGN, CouchDbClient.ALL_DATA_VIEW));
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#countAll(Class)}. Counts are not cached, number of design documents is remembered in the design registry
+     * shared with the blocking client together with update_seq it was read at.
+     *
+     * @param clazz of wanted entity. Must not be {@literal null}
+     * @return future of count of documents of the given entity
+     */
+    public @NotNull CompletableFuture<Long> countAll(@NotNull Class<?> clazz) {
+        return supply(() -> {
+            EntityMetadata em = client.getEntityMetadata(clazz);
+            if (em.isViewed()) {
+                return get(CouchDbClient.getURI(baseURI, em.getDatabaseName(), DESIGN, em.getDesign(), VIEW, em.getView()), client::readCount);
+            }
+            String databaseName = em.getDatabaseName();
+            return get(CouchDbClient.getURI(baseURI, databaseName), r -> mapper.readValue(r.getContent(), DatabaseInfo.class)).thenCompose(info -> {
+                Long known = designs.getDesignCount(databaseName, info.getUpdateSeq());
+                if (known != null) {
+                    return CompletableFuture.completedFuture(info.getDocCount() - known);
+                }
+                return get(CouchDbClient.getURI(baseURI, databaseName, DESIGN_DOCS), r -> (long) mapper.readValue(r.getContent(), AllDocumentResponse.class)
+                        .getRows().size()).thenApply(designDocs -> {
+                    designs.setDesignCount(databaseName, info.getUpdateSeq(), designDocs);
+                    return info.getDocCount() - designDocs;
+                });
+            });
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#delete(Object)}.
+     *
+     * @param entity    to delete. Must not be {@literal null}
+     * @param <EntityT> type of entity
+     * @return future of deleted entity
+     */
+    public <EntityT> @NotNull CompletableFuture<EntityT> delete(@NotNull EntityT entity) {
+        return supply(() -> {
+            EntityMetadata entityMetadata = client.getEntityMetadata(entity.getClass());
+            String id = entityMetadata.getIdReader().read(entity);
+            String revision = entityMetadata.getRevisionReader().read(entity);
+            log.debug("Asynchronous delete of document with id {} and revision {} from database {}", id, revision, entityMetadata.getDatabaseName());
+            return delete(CouchDbClient.getURI(baseURI, Arrays.asList(entityMetadata.getDatabaseName(), id),
+                    Collections.singletonList(new BasicNameValuePair("rev", revision))), r -> {
+                client.evict(entityMetadata.getDatabaseName(), id);
+                return entity;
+            });
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#deleteById(String, Class)}.
+     *
+     * @param id        of document which should be deleted. Must not be {@literal null}
+     * @param clazz     of entity to get database. Must not be {@literal null}
+     * @param <EntityT> type of entity
+     * @return future of deleted entity
+     */
+    public <EntityT> @NotNull CompletableFuture<EntityT> deleteById(@NotNull String id, @NotNull Class<EntityT> clazz) {
+        return read(id, clazz).thenCompose(this::delete);
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#deleteAll(Iterable, Class)}. Entities are split the same way, see
+     * {@link #writeAll(EntityMetadata, List, ObjectWriter)}.
+     *
+     * @param entities  {@link Iterable} of entities to be erased. Must not be {@literal null}
+     * @param clazz     of given entities. Must not be {@literal null}
+     * @param <EntityT> type of entities
+     * @return future of {@link List} of deleted entities
+     */
+    public <EntityT> @NotNull CompletableFuture<List<EntityT>> deleteAll(@NotNull Iterable<EntityT> entities, @NotNull Class<?> clazz) {
+        return supply(() -> {
+            EntityMetadata entityMetadata = client.getEntityMetadata(clazz);
+            List<EntityT> list = new ArrayList<>();
+            entities.forEach(list::add);
+            log.debug("Asynchronous bulk delete of {} documents from database {}", list.size(), entityMetadata.getDatabaseName());
+            return writeAll(entityMetadata, list, client.getCodecs().getDeletingWriter(clazz))
+                    .thenApply(responses -> {
+                        List<EntityT> deleted = new LinkedList<>();
+                        for (int i = 0; i < list.size(); i++) {
+                            EntityT e = list.get(i);
+                            DocumentPutResponse response = responses.get(i);
+                            if ("true".equals(response.getOk())) {
+                                entityMetadata.getRevisionWriter().write(e, response.getRev());
+                                deleted.add(e);
+                            } else {
+                                log.warn("Document {} with id: {} and rev: {} deleting failed with reason {}", e, response.getId(), response.getRev(),
+                                        response.getError());
+                            }
+                        }
+                        return deleted;
+                    });
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#find(String, Class)}.
+     *
+     * @param json      query of valid Mango query. Must not be {@literal null}
+     * @param clazz     of entities expected as result. Must not be {@literal null}
+     * @param <EntityT> type of entity
+     * @return future of pair of found entities and bookmark of the result
+     */
+    public <EntityT> @NotNull CompletableFuture<Pair<List<EntityT>, String>> find(@NotNull String json, @NotNull Class<EntityT> clazz) {
+        return supply(() -> {
+            ObjectReader reader = client.getCodecs().getFindReader(clazz);
+            log.debug("Asynchronous execution of Mango query {}", json);
+            return post(CouchDbClient.getURI(baseURI, client.getDatabaseName(clazz), "_find"), client.createBody(json),
+                    r -> reader.<DocumentFindResponse<EntityT>>readValue(r.getContent()))
+                    .thenApply(response -> {
+                        response.getWarning().ifPresent(w -> log.info("{} for query {}", w, json));
+                        response.getExecutionStats().ifPresent(s -> log.info("{} for query {}", s, json));
+                        return Pair.of(response.getDocuments(), response.getBookmark());
+                    });
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#find(FindRequest, Class, Integer)}.
+     *
+     * @param request    that will be executed depending on query strategy configuration. Must not be {@literal null}
+     * @param clazz      that will be used to obtain database name. Must not be {@literal null}
+     * @param bookmarkBy number of how many documents should be between two bookmarks. Null turns of chunking to bookmarks
+     * @param <EntityT>  type of entities that should be in a result of query
+     * @return future of {@link FindResult} with entities matching the provided request
+     */
+    public <EntityT> @NotNull CompletableFuture<FindResult<EntityT>> find(@NotNull FindRequest request, @NotNull Class<EntityT> clazz,
+                                                                          @Nullable Integer bookmarkBy) {
+        QueryStrategy pickedStrategy = request.getQueryStrategy() != null ? request.getQueryStrategy() : client.getQueryStrategy();
+        log.debug("{} will be asynchronously executed by {} strategy", request, pickedStrategy);
+        if (pickedStrategy == QueryStrategy.MANGO) {
+            return findByMango(request, clazz, bookmarkBy);
+        } else {
+            return findByView(request, clazz);
+        }
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#findByView(FindRequest, Class)}.
+     *
+     * @param request   that will be executed. Must not be {@literal null}
+     * @param clazz     that will be used to obtain database name. Must not be {@literal null}
+     * @param <EntityT> type of entities that should be in a result of query
+     * @return future of {@link FindResult} with entities matching the provided request
+     */
+    public <EntityT> @NotNull CompletableFuture<FindResult<EntityT>> findByView(@NotNull FindRequest request, @NotNull Class<EntityT> clazz) {
+        return supply(() -> ensureView(request.getSort(), request.getJavaScriptCondition(mapper), clazz)
+                .thenCompose(designId -> readFromView(client.getDatabaseName(clazz), designId, CouchDbClient.ALL_DATA_VIEW, request.getSkip(),
+                        request.getLimit(), request.getSort()))
+                .thenCompose(ids -> readAll(ids, clazz))
+                .thenApply(entities -> FindResult.of(entities, Collections.emptyMap())));
+    }
+
+    /**
+     * Asynchronous variant of {@link CouchDbClient#findByMango(FindRequest, Class, Integer)}. Next page is requested when the previous one is read.
+     *
+     * @param request    that will be executed. Must not be {@literal null}
+     * @param clazz      that will be used to obtain database name. Must not be {@literal null}
+     * @param bookmarkBy number of how many documents should be between two bookmarks. Null turns of chunking to bookmarks
+     * @param <EntityT>  type of entities that should be in a result of query
+     * @return future of {@link FindResult} with entities matching the provided request
+     */
+    public <EntityT> @NotNull CompletableFuture<FindResult<EntityT>> findByMango(@NotNull FindRequest request, @NotNull Class<EntityT> clazz,
+                                                                                 @Nullable Integer bookmarkBy) {
+        return supply(() -> {
+            Integer originalLimit = request.getLimit();
+            int limit = bookmarkBy == null ? client.getBulkMaxSize() : bookmarkBy;
+            if (originalLimit == null || bookmarkBy != null) {
+                request.setLimit(limit);
+            }
+            CompletableFuture<Void> index = request.getSort().isSorted() ? ensureIndex(request.getSort(), clazz) : CompletableFuture.completedFuture(null);
+            return index.thenCompose(v -> findPage(request, clazz, originalLimit, limit, new LinkedList<>(), new HashMap<>()));
+        });
+    }
+
+    /**
+     * Method to read one page of Mango query and to request the next one if needed.
+     *
+     * @param request       that is executed. Must not be {@literal null}
+     * @param clazz         of entities. Must not be {@literal null}
+     * @param originalLimit limit of the request given by a caller. Can be {@literal null}
+     * @param limit         size of one page
+     * @param result        accumulated entities. Must not be {@literal null}
+     * @param bookmarks     accumulated bookmarks. Must not be {@literal null}
+     * @param <EntityT>     type of entities
+     * @return future of {@link FindResult} completed when the last page is read
+     */
+    private <EntityT> CompletableFuture<FindResult<EntityT>> findPage(FindRequest request, Class<EntityT> clazz, @Nullable Integer originalLimit, int limit,
+                                                                      List<EntityT> result, Map<Integer, String> bookmarks) {
+        int pageLimit = limit;
+        //if we are limited by request and we can see that next request cause overflow of the limit, we request as less as needed.
+        if (originalLimit != null && result.size() + pageLimit > originalLimit) {
+            pageLimit = originalLimit - result.size();
+            request.setLimit(pageLimit);
+        }
+        int requested = pageLimit;
+        return supply(() -> find(mapper.writeValueAsString(request), clazz).thenCompose(page -> {
+            result.addAll(page.getFirst());
+            bookmarks.put(result.size(), page.getSecond());
+            request.setBookmark(page.getSecond());
+            if ((originalLimit != null && result.size() < originalLimit && page.getFirst().size() == requested)
+                    || (originalLimit == null && page.getFirst().size() == requested)) {
+                return findPage(request, clazz, originalLimit, requested, result, bookmarks);
+            }
+            return CompletableFuture.completedFuture(FindResult.of(result, bookmarks));
+        }));
+    }
+
+    /**
+     * Method to ensure that index for the given sort exists. Index is created only once per sort and client.
+     *
+     * @param sort  from that index should be done. Must contain at least one order. Must not be {@literal null}
+     * @param clazz as definition of database in which index should be created. Must not be {@literal null}
+     * @return future completed when index exists
+     */
+    public @NotNull CompletableFuture<Void> ensureIndex(@NotNull Sort sort, @NotNull Class<?> clazz) {
+        Assert.isTrue(sort.isSorted(), "Sort must contain at leas one Order for creating index");
+        String indexId = sort.stream().map(Sort.Order::getProperty).collect(Collectors.joining("-"))
+                + "-" + sort.stream().findFirst().orElseThrow(() -> new IllegalStateException("Sorted sort does not contain any order"))
+                .toString().toLowerCase();
+        if (knownIndexes.contains(indexId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String databaseName = client.getDatabaseName(clazz);
+        return supply(() -> post(CouchDbClient.getURI(baseURI, databaseName, "_index"),
+                client.createBody(mapper.writeValueAsString(new IndexCreateRequest(indexId, sort))), r -> null))
+                .whenComplete((r, e) -> designs.invalidateDesignCount(databaseName))
+                .thenAccept(r -> knownIndexes.add(indexId));
+    }
+
+    /**
+     * Method to ensure that view matching the given condition and sort exists. Name of the design is derived from the mapping function, so a conflict means
+     * the same design was created concurrently, the design is read then.
+     *
+     * @param sort                of the view. Must not be {@literal null}
+     * @param javaScriptCondition of mapping function of the view. Must not be {@literal null}
+     * @param clazz               that will be used to obtain database name. Must not be {@literal null}
+     * @return future of name of design where the matching view is stored
+     */
+    private CompletableFuture<String> ensureView(@NotNull Sort sort, @NotNull String javaScriptCondition, @NotNull Class<?> clazz) {
+        String mapFunction = CouchDbClient.getFindMapFunction(sort, javaScriptCondition);
+        String designId = mapFunction.hashCode() + "";
+        String databaseName = client.getDatabaseName(clazz);
+        if (designs.contains(databaseName, designId, CouchDbClient.ALL_DATA_VIEW)) {
+            return CompletableFuture.completedFuture(designId);
+        }
+        return readDesignSafely(designId, databaseName).thenCompose(design -> {
+            if (design != null) {
+                return CompletableFuture.completedFuture(designId);
+            }
+            log.debug("Creating new view {} in design {} for querying with map function {}", CouchDbClient.ALL_DATA_VIEW, designId, mapFunction);
+            View view = new View(CouchDbClient.ALL_DATA_VIEW, mapFunction, CouchDbClient.COUNT_REDUCE);
+            return saveDesign(new DesignDocument(designId, Collections.singleton(view)), databaseName).handle((d, e) -> {
+                if (e == null) {
+                    return CompletableFuture.completedFuture(designId);
+                }
+                if (!isConflict(e)) {
+                    return AsyncCouchDbClient.<String>failed(unwrap(e));
+                }
+                log.debug("Design {} was created concurrently", designId);
+                return readDesignSafely(designId, databaseName).thenApply(created -> designId);
+            }).thenCompose(f -> f);
+        });
+    }
+
+    /**
+     * Method to ensure that view sorted by the given sort exists. If the design is changed by someone else in the meantime, the design is read again and the
+     * view is added to the fresh revision, at most {@link CouchDbClient#DESIGN_CONFLICT_ATTEMPTS} times.
+     *
+     * @param sort of the view. Must not be {@literal null}
+     * @param em   metadata of sorted entity. Must not be {@literal null}
+     * @return future of pair of design and view name
+     */
+    private CompletableFuture<Pair<String, String>> ensureSortedView(@NotNull Sort sort, @NotNull EntityMetadata em) {
+        return ensureSortedView(sort, em, 1);
+    }
+
+    /**
+     * @param sort    of the view. Must not be {@literal null}
+     * @param em      metadata of sorted entity. Must not be {@literal null}
+     * @param attempt number of the current attempt, starting by 1
+     * @return future of pair of design and view name
+     * @see #ensureSortedView(Sort, EntityMetadata)
+     */
+    private CompletableFuture<Pair<String, String>> ensureSortedView(@NotNull Sort sort, @NotNull EntityMetadata em, int attempt) {
+        String sortViewId = CouchDbClient.getSortedViewName(sort, em);
+        String designId = em.isViewed() ? em.getDesign() : CouchDbClient.ALL_DESIGN;
+        Pair<String, String> designAndView = Pair.of(designId, sortViewId);
+        if (designs.contains(em.getDatabaseName(), designId, sortViewId)) {
+            return CompletableFuture.completedFuture(designAndView);
+        }
+        return supply(() -> get(CouchDbClient.getURI(baseURI, em.getDatabaseName(), DESIGN, designId),
+                r -> mapper.readValue(r.getContent(), DesignDocument.class)))
+                .thenCompose(design -> {
+                    designs.register(em.getDatabaseName(), design);
+                    if (design.getViews().containsKey(sortViewId)) {
+                        return CompletableFuture.completedFuture(design);
+                    }
+                    design.addView(CouchDbClient.getSortedView(sortViewId, sort, em));
+                    return saveDesign(design, em.getDatabaseName());
+                })
+                .handle((design, e) -> {
+                    if (e == null) {
+                        return CompletableFuture.completedFuture(designAndView);
+                    }
+                    if (!isConflict(e) || attempt >= CouchDbClient.DESIGN_CONFLICT_ATTEMPTS) {
+                        return AsyncCouchDbClient.<Pair<String, String>>failed(unwrap(e));
+                    }
+                    log.debug("Design {} was changed concurrently, view {} will be added to the current revision", designId, sortViewId);
+                    return ensureSortedView(sort, em, attempt + 1);
+                }).thenCompose(f -> f);
+    }
+
+    /**
+     * @param failure of a future. Must not be {@literal null}
+     * @return true if the failure is caused by {@link CouchDbException} with {@link HttpStatus#SC_CONFLICT} status
+     */
+    private static boolean isConflict(@NotNull Throwable failure) {
+        Throwable cause = unwrap(failure);
+        return cause instanceof CouchDbException && ((CouchDbException) cause).getStatusCode() == HttpStatus.SC_CONFLICT;
+    }
+
+    /**
+     * Method to get design document of the given name from the database of the given name.
+     *
+     * @param id           of wanted design document. Must not be {@literal null}
+     * @param databaseName of database where design document should be stored. Must not be {@literal null}
+     * @return future of design document or future of {@literal null} if design does not exist
+     */
+    private CompletableFuture<DesignDocument> readDesignSafely(@NotNull String id, @NotNull String databaseName) {
+        CompletableFuture<DesignDocument> design = supply(() -> get(CouchDbClient.getURI(baseURI, databaseName, DESIGN, id),
+                r -> mapper.readValue(r.getContent(), DesignDocument.class)));
+        return design.handle((d, e) -> {
+            Throwable cause = unwrap(e);
+            if (cause instanceof CouchDbException && ((CouchDbException) cause).getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+                designs.invalidate(databaseName, id);
+                return CompletableFuture.<DesignDocument>completedFuture(null);
+            }
+            if (e == null) {
+                designs.register(databaseName, d);
+            }
+            return e == null ? CompletableFuture.completedFuture(d) : AsyncCouchDbClient.<DesignDocument>failed(cause);
+        }).thenCompose(f -> f);
+    }
+
+    /**
+     * Method for storing a design document to the database with the given name. Stored design is remembered in {@link DesignRegistry} of the blocking
+     * client.
+     *
+     * @param designDocument which should be saved. Must not be {@literal null}
+     * @param databaseName   where to store the given document. Must not be {@literal null}
+     * @return future of stored {@link DesignDocument} with updated revision
+     */
+    private CompletableFuture<DesignDocument> saveDesign(@NotNull DesignDocument designDocument, @NotNull String databaseName) {
+        return supply(() -> put(CouchDbClient.getURI(baseURI, databaseName, designDocument.getId()), client.createBody(mapper.writeValueAsString(designDocument)),
+                r -> mapper.readValue(r.getContent(), DocumentPutResponse.class)))
+                .thenApply(response -> {
+                    designDocument.setRevision(response.getRev());
+                    designs.register(databaseName, designDocument);
+                    return designDocument;
+                });
+    }
+
+    private CompletableFuture<List<String>> readFromView(@NotNull String database, @NotNull String design, @NotNull String view, @Nullable Long skip,
+                                                         @Nullable Integer limit, @NotNull Sort sort) {
+        return get(CouchDbClient.getURI(baseURI, Arrays.asList(database, DESIGN, design, VIEW, view), CouchDbClient.getViewParameters(skip, limit, sort)),
+                r -> mapper.readValue(r.getContent(), AllDocumentResponse.class).getRows());
+    }
+
+    /**
+     * Method to write the given entities by _bulk_docs requests. Entities are split into chunks by {@link BulkChunker} limited by the configured bulk max size
+     * and bulk max bytes, the same as the blocking client does. Up to the configured bulk parallelism of chunks are in flight at the same time, every lane
+     * sends the next chunk when the previous one is done. The first failed request stops sending of next chunks. Written documents are evicted from caches.
+     *
+     * @param entityMetadata of written entities. Must not be {@literal null}
+     * @param entities       which are written. Must not be {@literal null}
+     * @param writer         which serializes entities into documents (saving or deleting one). Must not be {@literal null}
+     * @param <EntityT>      type of written entities
+     * @return future of {@link List} of results in order of the given entities, failed if CouchDB does not return result of every document
+     */
+    private <EntityT> CompletableFuture<List<DocumentPutResponse>> writeAll(@NotNull EntityMetadata entityMetadata, @NotNull List<EntityT> entities,
+                                                                            @NotNull ObjectWriter writer) {
+        DocumentPutResponse[] results = new DocumentPutResponse[entities.size()];
+        BulkChunker<EntityT> chunker = new BulkChunker<>(entities, writer, client.getBulkMaxSize(), client.getBulkMaxBytes());
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[client.getBulkParallelism()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = writeChunks(entityMetadata, chunker, results);
+        }
+        return CompletableFuture.allOf(lanes).thenApply(v -> Arrays.asList(results));
+    }
+
+    /**
+     * Method to send chunks taken from the given chunker one by one until there is none.
+     *
+     * @param entityMetadata of written entities. Must not be {@literal null}
+     * @param chunker        from which chunks are taken. Must not be {@literal null}
+     * @param results        where results are stored on positions of written entities. Must not be {@literal null}
+     * @return future completed when there is no chunk to send
+     * @see #writeAll(EntityMetadata, List, ObjectWriter)
+     */
+    private CompletableFuture<Void> writeChunks(@NotNull EntityMetadata entityMetadata, @NotNull BulkChunker<?> chunker,
+                                                @NotNull DocumentPutResponse[] results) {
+        String databaseName = entityMetadata.getDatabaseName();
+        CompletableFuture<Void> lane = supply(() -> {
+            BulkChunker.Chunk chunk = chunker.next();
+            if (chunk == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            log.debug("Sending chunk {} of {} documents ({} bytes) to database {}", chunk.getIndex(), chunk.getSize(), chunk.getBody().length, databaseName);
+            return post(CouchDbClient.getURI(baseURI, databaseName, "_bulk_docs"), client.createBody(chunk.getBody()),
+                    r -> mapper.<List<DocumentPutResponse>>readValue(r.getContent(),
+                            mapper.getTypeFactory().constructCollectionType(List.class, DocumentPutResponse.class)))
+                    .thenCompose(responses -> {
+                        responses.forEach(r -> client.evict(databaseName, r.getId()));
+                        if (responses.size() != chunk.getSize()) {
+                            return failed(new IOException("Bulk write of " + chunk.getSize() + " documents into database " + databaseName + " returned " +
+                                    responses.size() + " results"));
+                        }
+                        for (int i = 0; i < responses.size(); i++) {
+                            results[chunk.getOffset() + i] = responses.get(i);
+                        }
+                        return writeChunks(entityMetadata, chunker, results);
+                    });
+        });
+        return lane.whenComplete((v, e) -> {
+            if (e != null) {
+                chunker.close();
+            }
+        });
+    }
+
+    private <DataT> CompletableFuture<DataT> put(@NotNull URI uri, @NotNull RequestBody body, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> processor) {
+        return execute(new CouchRequest(CouchRequest.PUT, uri, body), processor);
+    }
+
+    private <DataT> CompletableFuture<DataT> post(@NotNull URI uri, @NotNull RequestBody body, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> processor) {
+        return execute(new CouchRequest(CouchRequest.POST, uri, body), processor);
+    }
+
+    private <DataT> CompletableFuture<DataT> get(@NotNull URI uri, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> processor) {
+        CouchRequest get = new CouchRequest(CouchRequest.GET, uri);
+        get.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+        return execute(get, processor);
+    }
+
+    private <DataT> CompletableFuture<DataT> delete(@NotNull URI uri, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> processor) {
+        CouchRequest delete = new CouchRequest(CouchRequest.DELETE, uri);
+        delete.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+        return execute(delete, processor);
+    }
+
+    /**
+     * Method to run any HTTP request on the node chosen by {@link NodeSelector} without blocking of the calling thread. Idempotent requests which fail on
+     * transient error are retried by {@link ResilienceHandler} after backoff. If cookie authentication is used, a rejected request is sent once more with a
+     * new session cookie. Obtaining of the first cookie is the only part which blocks the calling thread, a renewed cookie is obtained by the executor of the
+     * client. Response is processed by the executor as well. Cancellation of the returned future cancels the request.
+     *
+     * @param request   which should be run. Must not be {@literal null}
+     * @param processor of response which is called when response is received. Must not be {@literal null}
+     * @param <DataT>   type of data created by {@code processor}
+     * @return future of data created by {@code processor} from the response
+     */
+    private <DataT> CompletableFuture<DataT> execute(@NotNull CouchRequest request, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> processor) {
+        CompletableFuture<DataT> result = new CompletableFuture<>();
+        AtomicReference<Future<HttpResponse>> execution = new AtomicReference<>();
+        result.whenComplete((r, e) -> {
+            Future<HttpResponse> current = execution.get();
+            if (result.isCancelled() && current != null) {
+                current.cancel(true);
+            }
+        });
+        execute(request, processor, ResilienceHandler.getDatabase(baseURI, request.getURI()), 0, false, result, execution);
+        return result;
+    }
+
+    /**
+     * Method to run one attempt of HTTP request on the node chosen by {@link NodeSelector}.
+     *
+     * @param request   which should be run. Must not be {@literal null}
+     * @param processor of response which is called when response is received. Must not be {@literal null}
+     * @param database  to which the request is sent. Must not be {@literal null}
+     * @param retry     number of retries of the request done so far
+     * @param renewed   flag if session cookie was already renewed for this attempt, because the previous one was rejected
+     * @param result    future completed by the last attempt. Must not be {@literal null}
+     * @param execution holder of the running attempt for cancellation. Must not be {@literal null}
+     * @param <DataT>   type of data created by {@code processor}
+     */
+    private <DataT> void execute(@NotNull CouchRequest request, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> processor,
+                                 @NotNull String database, int retry, boolean renewed, @NotNull CompletableFuture<DataT> result,
+                                 @NotNull AtomicReference<Future<HttpResponse>> execution) {
+        if (result.isDone()) {
+            return;
+        }
+        Node node = nodeSelector.select();
+        String cookie;
+        try {
+            if (!renewed) {
+                resilience.acquire(request, database, retry);
+            }
+            cookie = sessionAuthenticator == null ? null : sessionAuthenticator.authenticate(request, node.getHost());
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        long start = System.nanoTime();
+        node.requestStarted();
+        execution.set(httpClient.execute(node.getHost(), ApacheTransport.toHttpRequest(request), httpContextSupplier.get(), new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse httpResponse) {
+                node.requestFinished(System.nanoTime() - start);
+                resilience.succeeded(database);
+                dispatch(result, () -> {
+                    try (CouchResponse response = new ApacheResponse(httpResponse)) {
+                        if (sessionAuthenticator != null) {
+                            sessionAuthenticator.update(response);
+                        }
+                        result.complete(processor.apply(response));
+                    } catch (IOException | RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                node.requestFinished(System.nanoTime() - start);
+                nodeSelector.failed(node, ex);
+                if (cookie != null && !renewed && SessionAuthenticator.isRejected(ex)) {
+                    sessionAuthenticator.invalidate(cookie);
+                    dispatch(result, () -> execute(request, processor, database, retry, true, result, execution));
+                    return;
+                }
+                resilience.failed(database, ex);
+                long delay = result.isDone() ? -1 : resilience.getRetryDelay(request, retry, ex);
+                if (delay < 0) {
+                    result.completeExceptionally(ex);
+                    return;
+                }
+                try {
+                    resilience.schedule(() -> execute(request, processor, database, retry + 1, false, result, execution), delay);
+                } catch (RejectedExecutionException e) {
+                    result.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                node.requestFinished(System.nanoTime() - start);
+                result.cancel(false);
+            }
+        }));
+        if (result.isCancelled()) {
+            execution.get().cancel(true);
+        }
+    }
+
+    /**
+     * Method to hand the given action over to the executor of the client, so it does not run on I/O dispatch thread. If the executor rejects the action
+     * (client is closed), the given future is completed exceptionally.
+     *
+     * @param result future which is completed by the action. Must not be {@literal null}
+     * @param action which should be run. Must not be {@literal null}
+     */
+    private void dispatch(@NotNull CompletableFuture<?> result, @NotNull Runnable action) {
+        try {
+            executor.execute(action);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Method to run the given code which can fail before a request is executed (serialization for example) and to report the failure thru the returned future.
+     *
+     * @param supplier of future. Must not be {@literal null}
+     * @param <DataT>  type of data in the future
+     * @return future returned by {@code supplier} or failed future when {@code supplier} throws exception
+     */
+    private static <DataT> CompletableFuture<DataT> supply(@NotNull ThrowingSupplier<CompletableFuture<DataT>, Exception> supplier) {
+        try {
+            return supplier.get();
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    private static <DataT> CompletableFuture<DataT> failed(@NotNull Throwable throwable) {
+        CompletableFuture<DataT> result = new CompletableFuture<>();
+        result.completeExceptionally(throwable);
+        return result;
+    }
+
+    private static Throwable unwrap(@Nullable Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    /**
+     * Method to end the connection to the endpoint and to shut down executor which processes responses. {@link CouchDbClient} from which the client was
+     * created is not closed.
+     */
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.error("Unable to close asynchronous HTTP client", e);
+        }
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker;
+
+/**
+ * Enum of ways how the client authenticates to CouchDB.
+ */
+public enum Authentication {
+
+    /**
+     * Every request carries Basic credentials. CouchDB verifies the password hash for every request, which costs a noticeable amount of CPU under high
+     * load.
+     */
+    BASIC,
+
+    /**
+     * Credentials are sent only to _session endpoint and the returned AuthSession cookie is used for all requests. The cookie is refreshed before it expires
+     * and when CouchDB rejects it. All nodes of a cluster must share the same secret, so the cookie is accepted by every node.
+     */
+    COOKIE
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker;
+
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.groocraft.couchdb.slacker.structure.BulkGetResponse;
+import com.groocraft.couchdb.slacker.structure.DocumentFindResponse;
+import com.groocraft.couchdb.slacker.utils.BulkGetDeserializer;
+import com.groocraft.couchdb.slacker.utils.DeleteDocumentSerializer;
+import com.groocraft.couchdb.slacker.utils.DeleteViewedDocumentSerializer;
+import com.groocraft.couchdb.slacker.utils.FoundDocumentDeserializer;
+import com.groocraft.couchdb.slacker.utils.ViewedDocumentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Thread-safe registry of {@link ObjectReader}s and {@link ObjectWriter}s needed for entity specific operations (saving, deleting, _bulk_get and _find).
+ * Every codec is built only once per entity class and reused for the whole life of the registry, so Jackson caches of resolved serializers and
+ * deserializers are kept instead of introspecting entity classes again for every request.
+ *
+ * @author Majlanky
+ */
+class CodecRegistry {
+
+    private final ObjectMapper mapper;
+    private final Function<Class<?>, EntityMetadata> entityMetadataProvider;
+    private final Map<Class<?>, ObjectWriter> savingWriters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> deletingWriters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectReader> bulkGetReaders = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectReader> findReaders = new ConcurrentHashMap<>();
+
+    /**
+     * @param mapper                 used for serialization of entities without special needs and for binding of read documents. Must not be {@literal null}
+     * @param entityMetadataProvider provider of {@link EntityMetadata} of entity classes. Must not be {@literal null}
+     */
+    CodecRegistry(@NotNull ObjectMapper mapper, @NotNull Function<Class<?>, EntityMetadata> entityMetadataProvider) {
+        Assert.notNull(mapper, "Mapper must not be null.");
+        Assert.notNull(entityMetadataProvider, "EntityMetadataProvider must not be null.");
+        this.mapper = mapper;
+        this.entityMetadataProvider = entityMetadataProvider;
+    }
+
+    /**
+     * Method to get {@link ObjectWriter} which is able to serialize entities of the given class (or bulk request with them) to be saved. If entity is viewed,
+     * type field is added.
+     *
+     * @param clazz of saved entities. Must not be {@literal null}
+     * @return {@link ObjectWriter} for serialization of saved entities
+     */
+    @NotNull ObjectWriter getSavingWriter(@NotNull Class<?> clazz) {
+        return savingWriters.computeIfAbsent(clazz, this::createSavingWriter);
+    }
+
+    /**
+     * Method to get {@link ObjectWriter} which is able to serialize entities of the given class (or bulk request with them) to be deleted.
+     *
+     * @param clazz of deleted entities. Must not be {@literal null}
+     * @return {@link ObjectWriter} for serialization of deleted entities
+     */
+    @NotNull ObjectWriter getDeletingWriter(@NotNull Class<?> clazz) {
+        return deletingWriters.computeIfAbsent(clazz, this::createDeletingWriter);
+    }
+
+    /**
+     * Method to get {@link ObjectReader} which is able to read result of _bulk_get request into {@link BulkGetResponse} of entities of the given class.
+     *
+     * @param clazz of read entities. Must not be {@literal null}
+     * @return {@link ObjectReader} for deserialization of _bulk_get result
+     */
+    @NotNull ObjectReader getBulkGetReader(@NotNull Class<?> clazz) {
+        return bulkGetReaders.computeIfAbsent(clazz, c -> createReader(BulkGetResponse.class, c, new BulkGetDeserializer<>(c, mapper)));
+    }
+
+    /**
+     * Method to get {@link ObjectReader} which is able to read result of _find request into {@link DocumentFindResponse} of entities of the given class.
+     *
+     * @param clazz of found entities. Must not be {@literal null}
+     * @return {@link ObjectReader} for deserialization of _find result
+     */
+    @NotNull ObjectReader getFindReader(@NotNull Class<?> clazz) {
+        return findReaders.computeIfAbsent(clazz, c -> createReader(DocumentFindResponse.class, c, new FoundDocumentDeserializer<>(c, mapper)));
+    }
+
+    private ObjectWriter createSavingWriter(@NotNull Class<?> clazz) {
+        EntityMetadata entityMetadata = entityMetadataProvider.apply(clazz);
+        if (!entityMetadata.isViewed()) {
+            return mapper.writer();
+        }
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(new ViewedDocumentSerializer<>(clazz, entityMetadata.getTypeField(), entityMetadata.getType()));
+        return new ObjectMapper().registerModule(module).writer();
+    }
+
+    private ObjectWriter createDeletingWriter(@NotNull Class<?> clazz) {
+        EntityMetadata entityMetadata = entityMetadataProvider.apply(clazz);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(entityMetadata.isViewed() ?
+                new DeleteViewedDocumentSerializer<>(clazz, entityMetadata.getTypeField(), entityMetadata.getType()) :
+                new DeleteDocumentSerializer<>(clazz));
+        return new ObjectMapper().registerModule(module).writer();
+    }
+
+    private ObjectReader createReader(@NotNull Class<?> responseClass, @NotNull Class<?> clazz, @NotNull JsonDeserializer<? extends List<?>> deserializer) {
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(List.class, deserializer);
+        ObjectMapper localMapper = new ObjectMapper().registerModule(module);
+        return localMapper.readerFor(localMapper.getTypeFactory().constructParametricType(responseClass, clazz));
+    }
+
+}
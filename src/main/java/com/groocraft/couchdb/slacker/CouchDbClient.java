@@ -18,45 +18,62 @@ package com.groocraft.couchdb.slacker;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.groocraft.couchdb.slacker.cache.CacheStatistics;
+import com.groocraft.couchdb.slacker.cache.DocumentCache;
+import com.groocraft.couchdb.slacker.cache.ExistenceIndex;
+import com.groocraft.couchdb.slacker.cache.NearCache;
+import com.groocraft.couchdb.slacker.cluster.Node;
+import com.groocraft.couchdb.slacker.cluster.NodeSelector;
+import com.groocraft.couchdb.slacker.annotation.ExistenceIndexed;
+import com.groocraft.couchdb.slacker.annotation.NearCached;
+import com.groocraft.couchdb.slacker.annotation.ReadBatched;
+import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
 import com.groocraft.couchdb.slacker.exception.CouchDbException;
-import com.groocraft.couchdb.slacker.http.AutoCloseableHttpResponse;
+import com.groocraft.couchdb.slacker.http.SessionAuthenticator;
 import com.groocraft.couchdb.slacker.repository.CouchDbEntityInformation;
+import com.groocraft.couchdb.slacker.resilience.CircuitBreaker;
+import com.groocraft.couchdb.slacker.resilience.ResilienceHandler;
+import com.groocraft.couchdb.slacker.resilience.RetryBudget;
+import com.groocraft.couchdb.slacker.resilience.RetryPolicy;
 import com.groocraft.couchdb.slacker.structure.AllDocumentResponse;
 import com.groocraft.couchdb.slacker.structure.BulkGetRequest;
 import com.groocraft.couchdb.slacker.structure.BulkGetResponse;
-import com.groocraft.couchdb.slacker.structure.BulkRequest;
+import com.groocraft.couchdb.slacker.structure.BulkReadResult;
+import com.groocraft.couchdb.slacker.structure.ChangesResponse;
+import com.groocraft.couchdb.slacker.structure.DatabaseInfo;
 import com.groocraft.couchdb.slacker.structure.DesignDocument;
 import com.groocraft.couchdb.slacker.structure.DocumentFindResponse;
 import com.groocraft.couchdb.slacker.structure.DocumentPutResponse;
 import com.groocraft.couchdb.slacker.structure.FindResult;
 import com.groocraft.couchdb.slacker.structure.IndexCreateRequest;
 import com.groocraft.couchdb.slacker.structure.View;
-import com.groocraft.couchdb.slacker.utils.BulkGetDeserializer;
-import com.groocraft.couchdb.slacker.utils.DeleteDocumentSerializer;
-import com.groocraft.couchdb.slacker.utils.DeleteViewedDocumentSerializer;
-import com.groocraft.couchdb.slacker.utils.FoundDocumentDeserializer;
+import com.groocraft.couchdb.slacker.transport.ApacheTransport;
+import com.groocraft.couchdb.slacker.transport.ByteArrayBody;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import com.groocraft.couchdb.slacker.transport.CouchResponse;
+import com.groocraft.couchdb.slacker.transport.CouchTransport;
+import com.groocraft.couchdb.slacker.transport.JsonBody;
+import com.groocraft.couchdb.slacker.transport.RequestBody;
+import com.groocraft.couchdb.slacker.utils.BatchLoader;
+import com.groocraft.couchdb.slacker.utils.BulkChunker;
+import com.groocraft.couchdb.slacker.utils.CoalescingStatistics;
+import com.groocraft.couchdb.slacker.utils.FanOut;
 import com.groocraft.couchdb.slacker.utils.LazyLog;
+import com.groocraft.couchdb.slacker.utils.SingleFlight;
 import com.groocraft.couchdb.slacker.utils.ThrowingFunction;
-import com.groocraft.couchdb.slacker.utils.ViewedDocumentSerializer;
+import com.groocraft.couchdb.slacker.utils.ThrowingSupplier;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
-import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpDelete;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpHead;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.cookie.SM;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.protocol.HttpContext;
 import org.jetbrains.annotations.NotNull;
@@ -64,10 +81,14 @@ import org.jetbrains.annotations.Nullable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.util.Pair;
 import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -78,8 +99,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Client for CouchDB REST API. It is using Jackson library to work with json.
@@ -98,20 +128,25 @@ public class CouchDbClient {
     static final String SORTED_TYPED_VIEW_MAP = "function(doc){if(doc.%1$s == \"%2$s\"){emit([%3$s]);}}";
     static final String SORTED_FIND_VIEW_MAP = "function(doc){if%1$s{emit([%2$s]);}}";
     static final String FIND_VIEW_MAP = "function(doc){if%1$s{emit(null);}}";
+    static final int DESIGN_CONFLICT_ATTEMPTS = 3;
 
     private static final String VIEW_REDUCE_PARAMETER = "reduce";
     private static final String VIEW_LIMIT_PARAMETER = "limit";
     private static final String VIEW_SKIP_PARAMETER = "skip";
     private static final String DESIGN = "_design";
     private static final String VIEW = "_view";
-
-    private final HttpClient httpClient;
-    private final HttpHost httpHost;
-    private final HttpContext httpContext;
+    private static final String DESIGN_DOCS = "_design_docs";
+    private static final String CHANGES = "_changes";
+    private static final String ALL_DOCS = "_all_docs";
+    private static final int COUNT_CACHE_ENTRIES = 1000;
+    private static final long COUNT_CACHE_BYTES = 1048576;
+
+    private final CouchTransport transport;
+    private final NodeSelector nodeSelector;
     @SuppressWarnings({"rawtypes"})
     private final Map<Class, EntityMetadata> entityMetadataCache;
     private final Set<String> knownIndexes;
-    private final Set<String> knownSortedViews;
+    private final DesignRegistry designs;
     private final URI baseURI;
     private final ObjectMapper mapper;
     @SuppressWarnings({"rawtypes"})
@@ -121,7 +156,27 @@ public class CouchDbClient {
     private final int defaultReplicas;
     private final boolean defaultPartitioned;
     private final int bulkMaxSize;
+    private final long bulkMaxBytes;
+    private final int bulkParallelism;
+    private final int bulkGetChunkSize;
     private final QueryStrategy queryStrategy;
+    private final int requestCompressionThreshold;
+    private final CodecRegistry codecs;
+    private final ResilienceHandler resilience;
+    private final SessionAuthenticator sessionAuthenticator;
+    private final FanOut fanOut;
+    private final DocumentCache readCache;
+    private final NearCache nearCache;
+    private final DocumentCache queryCache;
+    private final DocumentCache counts;
+    private final ExistenceIndex existence;
+    private final SingleFlight singleFlight;
+    private final int readBatchWindow;
+    private final int readBatchMaxSize;
+    private final ScheduledExecutorService batchScheduler;
+    private final ExecutorService batchExecutor;
+    private final Map<String, BatchLoader<JsonNode>> batchLoaders;
+    private final WriteBehindBuffer writeBehind;
 
     /**
      * @param httpClient         must not be {@literal null}
@@ -148,31 +203,127 @@ public class CouchDbClient {
                   int bulkMaxSize,
                   @NotNull QueryStrategy queryStrategy,
                   @NotNull ObjectMapper objectMapper) {
-        Assert.notNull(httpClient, "HttpClient must not be null.");
-        Assert.notNull(httpHost, "HttpHost must not be null.");
-        Assert.notNull(httpContext, "HttpContext must not be null.");
+        this(httpClient, httpHost, httpContext, baseURI, idGenerators, objectMapper,
+                getProperties(defaultShards, defaultReplicas, defaultPartitioned, bulkMaxSize, queryStrategy));
+    }
+
+    /**
+     * @param httpClient   must not be {@literal null}
+     * @param httpHost     must not be {@literal null}
+     * @param httpContext  must not be {@literal null}
+     * @param baseURI      where CouchDB is accessible without database specification. Must not be {@literal null}
+     * @param idGenerators {@link Iterable} of available {@link IdGenerator}. If empty, default generator {@link IdGeneratorUUID} is used. Must not be {@literal
+     *                     null}
+     * @param objectMapper object mapper used for all json serializations. Must not be {@literal null}
+     * @param properties   which from defaults of databases, bulk and query setting and request setting are read. Must not be {@literal null}
+     */
+    CouchDbClient(@NotNull HttpClient httpClient,
+                  @NotNull HttpHost httpHost,
+                  @NotNull HttpContext httpContext,
+                  @NotNull URI baseURI,
+                  @NotNull Iterable<IdGenerator<?>> idGenerators,
+                  @NotNull ObjectMapper objectMapper,
+                  @NotNull CouchDbProperties properties) {
+        this(new ApacheTransport(httpClient, httpContext), new NodeSelector(httpHost), baseURI, idGenerators, objectMapper, properties, null);
+    }
+
+    /**
+     * @param transport            which sends requests to CouchDB. Closed together with the client. Must not be {@literal null}
+     * @param nodeSelector         which chooses node of cluster for every request. Closed together with the client. Must not be {@literal null}
+     * @param baseURI              where CouchDB is accessible without database specification. Must not be {@literal null}
+     * @param idGenerators         {@link Iterable} of available {@link IdGenerator}. If empty, default generator {@link IdGeneratorUUID} is used. Must not be
+     *                             {@literal null}
+     * @param objectMapper         object mapper used for all json serializations. Must not be {@literal null}
+     * @param properties           which from defaults of databases, bulk and query setting and request setting are read. Must not be {@literal null}
+     * @param sessionAuthenticator which adds session cookie to every request. If {@literal null}, requests are authenticated by the given context only
+     */
+    CouchDbClient(@NotNull CouchTransport transport,
+                  @NotNull NodeSelector nodeSelector,
+                  @NotNull URI baseURI,
+                  @NotNull Iterable<IdGenerator<?>> idGenerators,
+                  @NotNull ObjectMapper objectMapper,
+                  @NotNull CouchDbProperties properties,
+                  @Nullable SessionAuthenticator sessionAuthenticator) {
+        Assert.notNull(transport, "Transport must not be null.");
+        Assert.notNull(nodeSelector, "NodeSelector must not be null.");
         Assert.notNull(baseURI, "BaseURI must not be null.");
         Assert.notNull(idGenerators, "IdGenerators must not be null.");
-        Assert.isTrue(defaultShards > 0, "DefaultShards must be positive number");
-        Assert.isTrue(defaultReplicas > 0, "DefaultReplicas must be positive number");
-        this.httpClient = httpClient;
+        Assert.notNull(objectMapper, "ObjectMapper must not be null.");
+        Assert.notNull(properties, "Properties must not be null.");
+        Assert.isTrue(properties.getDefaultShards() > 0, "DefaultShards must be positive number");
+        Assert.isTrue(properties.getDefaultReplicas() > 0, "DefaultReplicas must be positive number");
+        this.transport = transport;
         this.baseURI = baseURI;
-        this.httpHost = httpHost;
-        this.httpContext = httpContext;
-        entityMetadataCache = new HashMap<>();
+        this.nodeSelector = nodeSelector;
+        entityMetadataCache = new ConcurrentHashMap<>();
         knownIndexes = new HashSet<>();
-        knownSortedViews = new HashSet<>();
+        designs = new DesignRegistry();
         this.mapper = objectMapper;
-        this.idGenerators = new HashMap<>();
+        this.idGenerators = new ConcurrentHashMap<>();
         this.defaultIdGenerator = new IdGeneratorUUID();
-        this.defaultShards = defaultShards;
-        this.defaultReplicas = defaultReplicas;
-        this.defaultPartitioned = defaultPartitioned;
-        this.bulkMaxSize = bulkMaxSize;
-        this.queryStrategy = queryStrategy;
+        this.defaultShards = properties.getDefaultShards();
+        this.defaultReplicas = properties.getDefaultReplicas();
+        this.defaultPartitioned = properties.isDefaultPartitioned();
+        this.bulkMaxSize = properties.getBulkMaxSize();
+        this.bulkMaxBytes = properties.getBulkMaxBytes();
+        this.bulkParallelism = properties.getBulkParallelism();
+        this.bulkGetChunkSize = properties.getBulkGetChunkSize();
+        this.queryStrategy = properties.getQueryStrategy();
+        this.requestCompressionThreshold = properties.isRequestCompression() ? properties.getRequestCompressionThreshold() : -1;
+        this.codecs = new CodecRegistry(objectMapper, this::getEntityMetadata);
+        this.resilience = new ResilienceHandler(
+                new RetryPolicy(properties.getMaxRetries(), properties.getRetryInitialBackoff(), properties.getRetryMaxBackoff()),
+                new RetryBudget(properties.getRetryBudgetRatio(), ResilienceHandler.DEFAULT_BUDGET_CAPACITY),
+                properties.getCircuitBreakerThreshold(), properties.getCircuitBreakerOpenDuration());
+        this.sessionAuthenticator = sessionAuthenticator;
+        this.fanOut = FanOut.create(properties.isVirtualThreads());
+        this.readCache = properties.isReadCache() ? new DocumentCache(properties.getReadCacheTtl(), properties.getReadCacheMaxEntries(),
+                properties.getReadCacheMaxBytes(), properties.isReadCacheOffHeap(), properties.isReadCacheCompression()) : null;
+        int changesTimeout = properties.getSocketTimeout() > 0 ?
+                Math.min(properties.getNearCacheMaxStaleness(), properties.getSocketTimeout()) / 2 : properties.getNearCacheMaxStaleness() / 2;
+        this.nearCache = new NearCache(new DocumentCache(0, properties.getReadCacheMaxEntries(), properties.getReadCacheMaxBytes(),
+                properties.isReadCacheOffHeap(), properties.isReadCacheCompression()), this::readChanges,
+                objectMapper, properties.getNearCacheMaxStaleness(), changesTimeout, properties.isNearCacheIncludeDocs(),
+                NearCache.createExecutor(properties.isVirtualThreads()));
+        this.queryCache = properties.isQueryCache() ? new DocumentCache(0, properties.getQueryCacheMaxEntries(), properties.getQueryCacheMaxBytes()) : null;
+        if (queryCache != null) {
+            nearCache.attach(queryCache);
+        }
+        this.counts = new DocumentCache(properties.getCountCacheTtl(), COUNT_CACHE_ENTRIES, COUNT_CACHE_BYTES);
+        this.existence = new ExistenceIndex(nearCache, this::readIds, properties.getExistenceIndexInitialCapacity(),
+                properties.getExistenceIndexFalsePositiveRate(), NearCache.createExecutor(properties.isVirtualThreads()));
+        this.singleFlight = properties.isReadCoalescing() ? new SingleFlight() : null;
+        this.readBatchWindow = properties.getReadBatchWindow();
+        this.readBatchMaxSize = properties.getReadBatchMaxSize();
+        this.batchScheduler = BatchLoader.createScheduler();
+        this.batchExecutor = BatchLoader.createExecutor(properties.isVirtualThreads());
+        this.batchLoaders = new ConcurrentHashMap<>();
+        this.writeBehind = properties.isWriteBehind() ? new WriteBehindBuffer(properties.getWriteBehindCapacity(), properties.getWriteBehindMaxBatchSize(),
+                properties.getWriteBehindFlushInterval(), this::writeBulk, batchScheduler, batchExecutor) : null;
         idGenerators.forEach(g -> this.idGenerators.put(g.getEntityClass(), g));
     }
 
+    /**
+     * Method to create {@link CouchDbProperties} with the given values and default values of the rest.
+     *
+     * @param defaultShards      number of shard used for every a newly created database
+     * @param defaultReplicas    number of replicas used for every a newly created database
+     * @param defaultPartitioned flag of partitioned used for every a newly created database
+     * @param bulkMaxSize        maximal size of bulk operations
+     * @param queryStrategy      default query strategy for find method
+     * @return {@link CouchDbProperties} with the given values
+     */
+    private static @NotNull CouchDbProperties getProperties(int defaultShards, int defaultReplicas, boolean defaultPartitioned, int bulkMaxSize,
+                                                            @NotNull QueryStrategy queryStrategy) {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setDefaultShards(defaultShards);
+        properties.setDefaultReplicas(defaultReplicas);
+        properties.setDefaultPartitioned(defaultPartitioned);
+        properties.setBulkMaxSize(bulkMaxSize);
+        properties.setQueryStrategy(queryStrategy);
+        return properties;
+    }
+
     /**
      * Returns new instance of {@link CouchDbClientBuilder} which is able to build {@link CouchDbClient}
      *
@@ -212,7 +363,7 @@ public class CouchDbClient {
      * @see #CouchDbClient(HttpClient, HttpHost, HttpContext, URI, Iterable, int, int, boolean, int, QueryStrategy, ObjectMapper)
      */
     @SuppressWarnings("unchecked")
-    private <EntityT> @NotNull String generateId(@NotNull EntityT entity, Class<EntityT> clazz) {
+    <EntityT> @NotNull String generateId(@NotNull EntityT entity, Class<EntityT> clazz) {
         return idGenerators.computeIfAbsent(clazz, c -> defaultIdGenerator).generate(entity);
     }
 
@@ -234,7 +385,7 @@ public class CouchDbClient {
      * @param pathSegments additional segments to base URI. Must not be {@link null}
      * @return new URI created by joining base and pathSegments
      */
-    private @NotNull URI getURI(@NotNull URI base, String... pathSegments) {
+    static @NotNull URI getURI(@NotNull URI base, String... pathSegments) {
         try {
             return new URIBuilder(base).setPathSegments(pathSegments).build();
         } catch (URISyntaxException e) {
@@ -252,7 +403,7 @@ public class CouchDbClient {
      * @param parameters   additional parameters of URI. Must not be {@literal null}
      * @return new URI created by joining base and pathSegments
      */
-    private @NotNull URI getURI(@NotNull URI base, @NotNull List<String> pathSegments, @NotNull List<NameValuePair> parameters) {
+    static @NotNull URI getURI(@NotNull URI base, @NotNull List<String> pathSegments, @NotNull List<NameValuePair> parameters) {
         try {
             return new URIBuilder(base).setPathSegments(pathSegments).addParameters(parameters).build();
         } catch (URISyntaxException e) {
@@ -272,7 +423,6 @@ public class CouchDbClient {
     @SuppressWarnings({"unchecked"})
     public <EntityT> @NotNull EntityT save(@NotNull EntityT entity) throws IOException {
         EntityMetadata entityMetadata = getEntityMetadata(entity.getClass());
-        ObjectMapper localMapper = mapper;
         String id = entityMetadata.getIdReader().read(entity);
         log.debug("Saving document {} with id {} and revision {} to database {}", entity, id,
                 LazyLog.of(() -> entityMetadata.getRevisionReader().read(entity)), entityMetadata.getDatabaseName());
@@ -280,24 +430,20 @@ public class CouchDbClient {
             id = generateId(entity, (Class<EntityT>) entity.getClass());
             log.debug("New ID {} generated for saved document", id);
         }
-        if (entityMetadata.isViewed()) {
-            localMapper = new ObjectMapper();
-            SimpleModule module = new SimpleModule();
-            module.addSerializer(new ViewedDocumentSerializer<>(entity.getClass(), entityMetadata.getTypeField(), entityMetadata.getType()));
-            localMapper.registerModule(module);
-        }
 
-        DocumentPutResponse response = put(getURI(baseURI, entityMetadata.getDatabaseName(), id), localMapper.writeValueAsString(entity),
-                r -> mapper.readValue(r.getEntity().getContent(),
+        DocumentPutResponse response = put(getURI(baseURI, entityMetadata.getDatabaseName(), id),
+                createBody(codecs.getSavingWriter(entity.getClass()).writeValueAsString(entity)), r -> mapper.readValue(r.getContent(),
                         DocumentPutResponse.class));
         entityMetadata.getRevisionWriter().write(entity, response.getRev());
         entityMetadata.getIdWriter().write(entity, response.getId());
+        evict(entityMetadata.getDatabaseName(), response.getId());
         log.debug("Saved document {} with id {} and revision {}", entity, response.getId(), response.getRev());
         return entity;
     }
 
     /**
-     * Saving all given entities in one POST request. If there is no ID for given instance, a relevant {@link IdGenerator} is used to generate new ID.
+     * Saving all given entities by _bulk_docs requests, see {@link #writeAll(String, List, ObjectWriter)} how they are split. If there is no ID for given
+     * instance, a relevant {@link IdGenerator} is used to generate new ID.
      * Spring data documentation says, the same list as passed must be returned. Because some updates can fail, it is very unfortunate.
      * The only way to solve this is to check revision and id of returned document to find out, what was saved/updated and what not. The failed documents are
      * logged on warn level.
@@ -311,9 +457,9 @@ public class CouchDbClient {
     @SuppressWarnings({"unchecked"})
     public <EntityT> @NotNull Iterable<EntityT> saveAll(@NotNull Iterable<EntityT> entities, @NotNull Class<?> clazz) throws IOException {
         EntityMetadata entityMetadata = getEntityMetadata(clazz);
-        ObjectMapper localMapper = mapper;
         log.debug("Bulk save of {} documents to database {}", LazyLog.of(() -> StreamSupport.stream(entities.spliterator(), false).count()),
                 entityMetadata.getDatabaseName());
+        List<EntityT> list = new ArrayList<>();
         for (EntityT e : entities) {
             String id = entityMetadata.getIdReader().read(e);
             if ("".equals(id) || id == null) {
@@ -321,21 +467,13 @@ public class CouchDbClient {
                 entityMetadata.getIdWriter().write(e, id);
                 log.debug("New ID {} generated for bulk saved document", id);
             }
+            list.add(e);
         }
 
-        if (entityMetadata.isViewed()) {
-            localMapper = new ObjectMapper();
-            SimpleModule module = new SimpleModule();
-            module.addSerializer(new ViewedDocumentSerializer<>(clazz, entityMetadata.getTypeField(), entityMetadata.getType()));
-            localMapper.registerModule(module);
-        }
-
-        List<DocumentPutResponse> responses = post(getURI(baseURI, entityMetadata.getDatabaseName(), "_bulk_docs"),
-                localMapper.writeValueAsString(new BulkRequest<>(entities)), r -> mapper.readValue(r.getEntity().getContent(),
-                        mapper.getTypeFactory().constructCollectionType(List.class, DocumentPutResponse.class)));
-        Map<String, DocumentPutResponse> indexed = responses.stream().collect(Collectors.toMap(DocumentPutResponse::getId, r -> r));
-        for (EntityT e : entities) {
-            DocumentPutResponse response = indexed.get(entityMetadata.getIdReader().read(e));
+        List<DocumentPutResponse> responses = writeAll(entityMetadata.getDatabaseName(), list, codecs.getSavingWriter(clazz));
+        for (int i = 0; i < list.size(); i++) {
+            EntityT e = list.get(i);
+            DocumentPutResponse response = responses.get(i);
             if ("true".equals(response.getOk())) {
                 entityMetadata.getRevisionWriter().write(e, response.getRev());
                 entityMetadata.getIdWriter().write(e, response.getId());
@@ -348,7 +486,148 @@ public class CouchDbClient {
     }
 
     /**
-     * Reads document with the given id into instance of the given class
+     * Saving given entity thru write-behind buffer, if it is configured. The entity is serialized immediately and written later by _bulk_docs request
+     * together with other buffered writes of the database, repeated writes of the same id are merged. Revision of the entity is updated when the write is
+     * done. If the buffer is full, the method waits for a space. If write-behind buffer is not configured, the entity is saved immediately by
+     * {@link #save(Object)}. The entity should not be written again before the returned future is completed, otherwise the next write can use an old
+     * revision.
+     *
+     * @param entity    instance to save. Must not be {@literal null}
+     * @param <EntityT> type of entity
+     * @return {@link CompletableFuture} of the new revision of the entity, failed by {@link CouchDbException} if the write was refused
+     * @see DocumentBase
+     */
+    @SuppressWarnings({"unchecked"})
+    public <EntityT> @NotNull CompletableFuture<String> saveBehind(@NotNull EntityT entity) {
+        Assert.notNull(entity, "Entity must not be null.");
+        EntityMetadata entityMetadata = getEntityMetadata(entity.getClass());
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            if (writeBehind == null) {
+                future.complete(entityMetadata.getRevisionReader().read(save(entity)));
+                return future;
+            }
+            String id = entityMetadata.getIdReader().read(entity);
+            if ("".equals(id) || id == null) {
+                id = generateId(entity, (Class<EntityT>) entity.getClass());
+                entityMetadata.getIdWriter().write(entity, id);
+                log.debug("New ID {} generated for document saved behind", id);
+            }
+            return writeBehind.write(entityMetadata.getDatabaseName(), id, codecs.getSavingWriter(entity.getClass()).writeValueAsString(entity))
+                    .thenApply(revision -> {
+                        entityMetadata.getRevisionWriter().write(entity, revision);
+                        return revision;
+                    });
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Deleting given entity thru write-behind buffer, if it is configured. From entity id and revision is used. The delete is merged with buffered writes of
+     * the same id, so a buffered save followed by delete is never sent. If write-behind buffer is not configured, the entity is deleted immediately by DELETE
+     * request. The entity is not changed in both cases.
+     *
+     * @param entity    to delete. Must not be {@literal null}
+     * @param <EntityT> type of entity
+     * @return {@link CompletableFuture} of revision of the deletion (tombstone revision created by the delete, not the revision of the given entity), failed
+     * by {@link CouchDbException} if the delete was refused
+     * @see DocumentBase
+     */
+    public <EntityT> @NotNull CompletableFuture<String> deleteBehind(@NotNull EntityT entity) {
+        Assert.notNull(entity, "Entity must not be null.");
+        EntityMetadata entityMetadata = getEntityMetadata(entity.getClass());
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            if (writeBehind == null) {
+                future.complete(delete(entity, r -> mapper.readValue(r.getContent(), DocumentPutResponse.class).getRev()));
+                return future;
+            }
+            return writeBehind.write(entityMetadata.getDatabaseName(), entityMetadata.getIdReader().read(entity),
+                    codecs.getDeletingWriter(entity.getClass()).writeValueAsString(entity));
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Method to write the given entities by _bulk_docs requests. Entities are split into chunks limited by the configured bulk max size and bulk max bytes and
+     * up to the configured bulk parallelism of chunks are sent at the same time. A chunk is serialized just before it is sent, so the next chunk is
+     * serialized while the previous one is in flight. The first failed request stops sending of next chunks. Written documents are evicted from caches.
+     *
+     * @param databaseName of database where documents are written. Must not be {@literal null}
+     * @param entities     which are written. Must not be {@literal null}
+     * @param writer       which serializes entities into documents (saving or deleting one). Must not be {@literal null}
+     * @param <EntityT>    type of written entities
+     * @return {@link List} of results in order of the given entities
+     * @throws IOException if http request is not successful, json processing fail or CouchDB does not return result of every document
+     */
+    private <EntityT> @NotNull List<DocumentPutResponse> writeAll(@NotNull String databaseName, @NotNull List<EntityT> entities,
+                                                                   @NotNull ObjectWriter writer) throws IOException {
+        DocumentPutResponse[] results = new DocumentPutResponse[entities.size()];
+        BulkChunker<EntityT> chunker = new BulkChunker<>(entities, writer, bulkMaxSize, bulkMaxBytes);
+        AtomicReference<BulkChunker.Chunk> first = new AtomicReference<>(chunker.next());
+        int lanes = chunker.hasNext() ? bulkParallelism : 1;
+        //every lane takes and sends chunks until there is none, the first chunk is taken before to find out if more lanes are needed
+        fanOut.map(Collections.nCopies(lanes, chunker), lanes, c -> {
+            try {
+                BulkChunker.Chunk chunk = first.getAndSet(null);
+                for (chunk = chunk == null ? c.next() : chunk; chunk != null; chunk = c.next()) {
+                    log.debug("Sending chunk {} of {} documents ({} bytes) to database {}", chunk.getIndex(), chunk.getSize(), chunk.getBody().length,
+                            databaseName);
+                    List<DocumentPutResponse> responses = writeBulk(databaseName, createBody(chunk.getBody()));
+                    if (responses.size() != chunk.getSize()) {
+                        throw new IOException("Bulk write of " + chunk.getSize() + " documents into database " + databaseName + " returned " +
+                                responses.size() + " results");
+                    }
+                    for (int i = 0; i < responses.size(); i++) {
+                        results[chunk.getOffset() + i] = responses.get(i);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                c.close();
+                throw e;
+            }
+            return null;
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Method to send the given serialized documents by one _bulk_docs request. Written documents are evicted from caches.
+     *
+     * @param databaseName of database where documents are written. Must not be {@literal null}
+     * @param docs         serialized documents. Must not be {@literal null}
+     * @return {@link List} of results in order of the given documents
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private @NotNull List<DocumentPutResponse> writeBulk(@NotNull String databaseName, @NotNull List<String> docs) throws IOException {
+        return writeBulk(databaseName, createBody("{\"docs\":[" + String.join(",", docs) + "]}"));
+    }
+
+    /**
+     * Method to send the given body of _bulk_docs request. Written documents are evicted from caches.
+     *
+     * @param databaseName of database where documents are written. Must not be {@literal null}
+     * @param body         of the request with serialized documents. Must not be {@literal null}
+     * @return {@link List} of results in order of documents in the body
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private @NotNull List<DocumentPutResponse> writeBulk(@NotNull String databaseName, @NotNull RequestBody body) throws IOException {
+        List<DocumentPutResponse> responses = post(getURI(baseURI, databaseName, "_bulk_docs"), body,
+                r -> mapper.readValue(r.getContent(), mapper.getTypeFactory().constructCollectionType(List.class, DocumentPutResponse.class)));
+        responses.forEach(r -> evict(databaseName, r.getId()));
+        return responses;
+    }
+
+    /**
+     * Reads document with the given id into instance of the given class. If read cache is configured, the document is read from the cache when CouchDB
+     * confirms it is not modified (or when it is younger than the configured time to live). Documents of entities annotated by {@link NearCached} are read
+     * from the near cache while _changes feed of their database is followed. Documents of entities annotated by {@link ExistenceIndexed} which definitely do
+     * not exist are reported as not found without any request. Documents of entities annotated by {@link ReadBatched} are read in batches by
+     * {@link #readBatched(String, Class)}. If read coalescing is configured, concurrent reads of the same document share one request.
      *
      * @param id        Id of wanted document. Must not be {@literal null}
      * @param clazz     of entity in which document will be read. Must not be {@literal null}
@@ -358,9 +637,157 @@ public class CouchDbClient {
      * @see DocumentBase
      */
     public <EntityT> @NotNull EntityT read(@NotNull String id, @NotNull Class<EntityT> clazz) throws IOException {
-        String databaseName = getDatabaseName(clazz);
+        EntityMetadata em = getEntityMetadata(clazz);
+        String databaseName = em.getDatabaseName();
         log.debug("Read of document with ID {} from database {}", id, databaseName);
-        return get(getURI(baseURI, databaseName, id), r -> mapper.readValue(r.getEntity().getContent(), clazz));
+        if (em.isExistenceIndexed() && !existence.mightContain(databaseName, id)) {
+            throw new CouchDbException(HttpStatus.SC_NOT_FOUND, CouchRequest.GET, getURI(baseURI, databaseName, id).toString(),
+                    "not_found : missing in existence index");
+        }
+        if (em.isNearCached()) {
+            //asked before the cache is looked into, so the feed of database is followed since the first read
+            boolean synced = nearCache.isSynced(databaseName);
+            return readCached(nearCache.getCache(), e -> synced, databaseName, id, clazz);
+        }
+        if (em.isReadBatched()) {
+            return await(readBatched(id, clazz));
+        }
+        if (readCache != null) {
+            return readCached(readCache, readCache::isFresh, databaseName, id, clazz);
+        }
+        URI uri = getURI(baseURI, databaseName, id);
+        if (singleFlight != null) {
+            return mapper.readValue(coalesced(CouchRequest.GET, uri, null, () -> get(uri, this::readBytes)), clazz);
+        }
+        return get(uri, r -> mapper.readValue(r.getContent(), clazz));
+    }
+
+    /**
+     * Reads document with the given id as a part of batch. Reads by id of the same database which come within the configured window are sent as one
+     * _bulk_get request, every id is requested once per batch. Every call gets its own instance of entity. Document which is not found fails the returned
+     * future by {@link CouchDbException} with {@link HttpStatus#SC_NOT_FOUND} status, the same way as a single read.
+     *
+     * @param id        Id of wanted document. Must not be {@literal null}
+     * @param clazz     of entity in which document will be read. Must not be {@literal null}
+     * @param <EntityT> type of entity
+     * @return {@link CompletableFuture} of instance of the given class with data of document
+     */
+    public <EntityT> @NotNull CompletableFuture<EntityT> readBatched(@NotNull String id, @NotNull Class<EntityT> clazz) {
+        Assert.notNull(id, "Id must not be null.");
+        String databaseName = getDatabaseName(clazz);
+        BatchLoader<JsonNode> loader = batchLoaders.computeIfAbsent(databaseName, d -> new BatchLoader<>(readBatchWindow, readBatchMaxSize, batchScheduler,
+                batchExecutor, ids -> readAllById(d, ids)));
+        return loader.load(id).thenApply(doc -> {
+            try {
+                if (doc == null) {
+                    throw new CouchDbException(HttpStatus.SC_NOT_FOUND, CouchRequest.POST, getURI(baseURI, databaseName, "_bulk_get").toString(),
+                            "not_found : missing");
+                }
+                return mapper.treeToValue(doc, clazz);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Method to read documents of the given ids by one _bulk_get request without mapping into entities.
+     *
+     * @param databaseName of database where the documents are stored. Must not be {@literal null}
+     * @param ids          of wanted documents. Must not be {@literal null}
+     * @return read documents by their ids, not found ids are missing
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private @NotNull Map<String, JsonNode> readAllById(@NotNull String databaseName, @NotNull List<String> ids) throws IOException {
+        log.debug("Batched read of {} documents from database {}", ids.size(), databaseName);
+        JsonNode results = post(getURI(baseURI, databaseName, "_bulk_get"), createBody(mapper.writer(), new BulkGetRequest(ids)),
+                r -> mapper.readTree(r.getContent()).path("results"));
+        Map<String, JsonNode> docs = new HashMap<>();
+        for (JsonNode result : results) {
+            JsonNode doc = result.path("docs").path(0).path("ok");
+            if (doc.hasNonNull(CouchDbProperties.COUCH_ID_NAME)) {
+                docs.put(doc.get(CouchDbProperties.COUCH_ID_NAME).asText(), doc);
+            }
+        }
+        return docs;
+    }
+
+    /**
+     * Method to wait for the given future and to throw its failure as it was thrown by a blocking call.
+     *
+     * @param future which is awaited. Must not be {@literal null}
+     * @param <DataT> type of result
+     * @return result of the future
+     * @throws IOException failure of the future or {@link InterruptedIOException} if the calling thread is interrupted
+     */
+    private static <DataT> DataT await(@NotNull CompletableFuture<DataT> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for batched read");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Method to read document thru the given cache. Fresh cached document is used without request. Not fresh cached document is revalidated by
+     * If-None-Match request with its ETag, not modified response means the cached json is used and nothing is transferred. Document which is not found is
+     * removed from the cache.
+     *
+     * @param cache        where documents are cached. Must not be {@literal null}
+     * @param fresh        {@link Predicate} to decide if cached document can be used without revalidation. Must not be {@literal null}
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param id           of wanted document. Must not be {@literal null}
+     * @param clazz        of entity in which document will be read. Must not be {@literal null}
+     * @param <EntityT>    type of entity
+     * @return Instance of the given class with data of document
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private <EntityT> @NotNull EntityT readCached(@NotNull DocumentCache cache, @NotNull Predicate<DocumentCache.Entry> fresh, @NotNull String databaseName,
+                                                  @NotNull String id, @NotNull Class<EntityT> clazz) throws IOException {
+        DocumentCache.Entry cached = cache.get(databaseName, id);
+        if (cached != null && fresh.test(cached)) {
+            cache.hit(cached, false);
+            return mapper.readValue(cached.getContent(), clazz);
+        }
+        CouchRequest get = new CouchRequest(CouchRequest.GET, getURI(baseURI, databaseName, id));
+        get.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+        if (cached != null) {
+            get.setHeader(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+        }
+        long stamp = cache.getStamp();
+        try (CouchResponse response = execute(get)) {
+            if (cached != null && response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                cache.hit(cached, true);
+                return mapper.readValue(cached.getContent(), clazz);
+            }
+            cache.miss();
+            byte[] content = StreamUtils.copyToByteArray(response.getContent());
+            List<String> etags = response.getHeaders(HttpHeaders.ETAG);
+            if (etags.isEmpty()) {
+                cache.invalidate(databaseName, id);
+            } else {
+                cache.put(databaseName, id, etags.get(0), content, stamp);
+            }
+            return mapper.readValue(content, clazz);
+        } catch (CouchDbException e) {
+            if (e.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+                cache.invalidate(databaseName, id);
+            }
+            throw e;
+        }
     }
 
     /**
@@ -385,7 +812,31 @@ public class CouchDbClient {
      */
     public @NotNull DesignDocument readDesign(@NotNull String id, @NotNull String databaseName) throws IOException {
         log.debug("Read of design with ID {} from database {}", id, databaseName);
-        return get(getURI(baseURI, databaseName, DESIGN, id), r -> mapper.readValue(r.getEntity().getContent(), DesignDocument.class));
+        DesignDocument design = get(getURI(baseURI, databaseName, DESIGN, id), r -> mapper.readValue(r.getContent(), DesignDocument.class));
+        designs.register(databaseName, design);
+        return design;
+    }
+
+    /**
+     * Method to get all design documents of the database of the given name. All read designs are remembered, so views of the designs can be queried without
+     * reading of the designs later. If only ids of designs are needed, use {@link #readAllDesign(Class)}.
+     *
+     * @param databaseName of database where design documents are stored. Must not be {@literal null}
+     * @return {@link List} of all design documents of the database
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    public @NotNull List<DesignDocument> readDesigns(@NotNull String databaseName) throws IOException {
+        log.debug("Read of all designs from database {}", databaseName);
+        List<DesignDocument> read = get(getURI(baseURI, Arrays.asList(databaseName, DESIGN_DOCS),
+                Collections.singletonList(new BasicNameValuePair("include_docs", "true"))), r -> {
+            List<DesignDocument> result = new LinkedList<>();
+            for (JsonNode row : mapper.readTree(r.getContent()).path("rows")) {
+                result.add(mapper.treeToValue(row.get("doc"), DesignDocument.class));
+            }
+            return result;
+        });
+        read.forEach(d -> designs.register(databaseName, d));
+        return read;
     }
 
     /**
@@ -417,6 +868,7 @@ public class CouchDbClient {
             return Optional.of(readDesign(id, databaseName));
         } catch (CouchDbException couchDbException) {
             if (couchDbException.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+                designs.invalidate(databaseName, id);
                 return Optional.empty();
             } else {
                 throw couchDbException;
@@ -425,8 +877,8 @@ public class CouchDbClient {
     }
 
     /**
-     * Method for reading all documents of given ids. Read is done in a bulk request. If a id is not found, not entity is returned for the id. Count of ids
-     * might not match with count of returned entities.
+     * Method for reading all documents of given ids. Read is done by bulk requests, see {@link #bulkRead(Iterable, Class)}. If a id is not found, not entity
+     * is returned for the id. Count of ids might not match with count of returned entities.
      *
      * @param ids       of wanted documents. Must not be {@literal null}
      * @param clazz     of documents. Must not be {@literal null}
@@ -435,19 +887,149 @@ public class CouchDbClient {
      * @throws IOException if http request is not successful or json processing fail
      */
     public <EntityT> @NotNull List<EntityT> readAll(@NotNull Iterable<String> ids, @NotNull Class<EntityT> clazz) throws IOException {
-        ObjectMapper localMapper = new ObjectMapper();
-        SimpleModule module = new SimpleModule();
-        module.addDeserializer(List.class, new BulkGetDeserializer<>(clazz));
-        localMapper.registerModule(module);
+        return readAll(ids, clazz, false).getEntities();
+    }
+
+    /**
+     * Method for reading all documents of given ids with report of ids which were not found. Ids are split into chunks of the configured bulk get chunk
+     * size and up to the configured bulk parallelism of chunks are read by _bulk_get requests at the same time. Documents of entities annotated by
+     * {@link NearCached} are read thru the near cache.
+     *
+     * @param ids       of wanted documents. Must not be {@literal null}
+     * @param clazz     of documents. Must not be {@literal null}
+     * @param <EntityT> type of documents
+     * @return {@link BulkReadResult} with read documents in order of the given ids and ids which were not found
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    public <EntityT> @NotNull BulkReadResult<EntityT> bulkRead(@NotNull Iterable<String> ids, @NotNull Class<EntityT> clazz) throws IOException {
+        return readAll(ids, clazz, false);
+    }
+
+    /**
+     * Method for reading all documents of given ids by _bulk_get requests. Ids are split into chunks of the configured bulk get chunk size and up to the
+     * configured bulk parallelism of chunks are read at the same time. Read documents are merged in order of the given ids, ids which are not found are
+     * reported as missing. Documents of entities annotated by {@link NearCached} are read thru the near cache.
+     *
+     * @param ids         of wanted documents. Must not be {@literal null}
+     * @param clazz       of documents. Must not be {@literal null}
+     * @param queryCached flag if the bulk request is a part of query and its response can be served from the query cache
+     * @param <EntityT>   type of documents
+     * @return {@link BulkReadResult} with read documents and ids which were not found
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private <EntityT> @NotNull BulkReadResult<EntityT> readAll(@NotNull Iterable<String> ids, @NotNull Class<EntityT> clazz, boolean queryCached)
+            throws IOException {
+        if (getEntityMetadata(clazz).isNearCached()) {
+            return readAllNearCached(ids, clazz);
+        }
+        ObjectReader reader = codecs.getBulkGetReader(clazz);
+        EntityMetadata entityMetadata = getEntityMetadata(clazz);
+        String databaseName = entityMetadata.getDatabaseName();
         log.debug("Bulk read of {} document from database {} with the following IDs: {}",
                 LazyLog.of(() -> StreamSupport.stream(ids.spliterator(), false).count()),
-                getDatabaseName(clazz),
+                databaseName,
                 LazyLog.of(() -> String.join(", ", ids)));
-        BulkGetResponse<EntityT> response = post(getURI(baseURI, getDatabaseName(clazz), "_bulk_get"), localMapper.writeValueAsString(new BulkGetRequest(ids)),
-                r -> localMapper.readValue(r.getEntity().getContent(), localMapper.getTypeFactory().constructParametricType(BulkGetResponse.class, clazz)));
-        log.info("Bulk read of {} ids result contains {} documents", LazyLog.of(() -> StreamSupport.stream(ids.spliterator(), false).count()),
-                response.getDocs().size());
-        return response.getDocs();
+        URI uri = getURI(baseURI, databaseName, "_bulk_get");
+        List<String> list = new ArrayList<>();
+        ids.forEach(list::add);
+        List<List<String>> chunks = partition(list, bulkGetChunkSize);
+        List<BulkReadResult<EntityT>> results = fanOut.map(chunks, bulkParallelism, chunk -> {
+            BulkGetResponse<EntityT> response;
+            if (queryCached && queryCache != null) {
+                String json = mapper.writeValueAsString(new BulkGetRequest(chunk));
+                response = reader.readValue(queryCached(databaseName, uri + json, () -> post(uri, createBody(json), this::readBytes)));
+            } else {
+                response = post(uri, createBody(mapper.writer(), new BulkGetRequest(chunk)), r -> reader.readValue(r.getContent()));
+            }
+            List<String> missing = new LinkedList<>();
+            if (response.getDocs().size() < chunk.size()) {
+                Set<String> found = new HashSet<>();
+                for (EntityT doc : response.getDocs()) {
+                    found.add(entityMetadata.getIdReader().read(doc));
+                }
+                chunk.stream().filter(id -> !found.contains(id)).forEach(missing::add);
+            }
+            return BulkReadResult.of(response.getDocs(), missing);
+        });
+        List<EntityT> docs = new ArrayList<>(list.size());
+        List<String> missing = new ArrayList<>();
+        for (BulkReadResult<EntityT> result : results) {
+            docs.addAll(result.getEntities());
+            missing.addAll(result.getMissingIds());
+        }
+        log.info("Bulk read of {} ids in {} requests result contains {} documents", list.size(), chunks.size(), docs.size());
+        return BulkReadResult.of(docs, missing);
+    }
+
+    /**
+     * Method to read documents of the given ids thru the near cache. Documents which can not be served from the near cache are read by _bulk_get requests
+     * chunked the same way as {@link #readAll(Iterable, Class, boolean)} does and stored to the near cache. Order of the given ids is kept, not found ids are
+     * reported as missing.
+     *
+     * @param ids       of wanted documents. Must not be {@literal null}
+     * @param clazz     of documents. Must not be {@literal null}
+     * @param <EntityT> type of documents
+     * @return {@link BulkReadResult} with read documents and ids which were not found
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private <EntityT> @NotNull BulkReadResult<EntityT> readAllNearCached(@NotNull Iterable<String> ids, @NotNull Class<EntityT> clazz) throws IOException {
+        String databaseName = getDatabaseName(clazz);
+        DocumentCache cache = nearCache.getCache();
+        boolean synced = nearCache.isSynced(databaseName);
+        Map<String, EntityT> read = new HashMap<>();
+        List<String> notCached = new ArrayList<>();
+        for (String id : ids) {
+            DocumentCache.Entry cached = synced ? cache.get(databaseName, id) : null;
+            if (cached == null) {
+                notCached.add(id);
+            } else {
+                cache.hit(cached, false);
+                read.put(id, mapper.readValue(cached.getContent(), clazz));
+            }
+        }
+        if (!notCached.isEmpty()) {
+            log.debug("Bulk read of {} documents not served by near cache from database {}", notCached.size(), databaseName);
+            long stamp = cache.getStamp();
+            URI uri = getURI(baseURI, databaseName, "_bulk_get");
+            List<JsonNode> chunks = fanOut.map(partition(notCached, bulkGetChunkSize), bulkParallelism,
+                    chunk -> post(uri, createBody(mapper.writer(), new BulkGetRequest(chunk)), r -> mapper.readTree(r.getContent()).path("results")));
+            for (JsonNode results : chunks) {
+                for (JsonNode result : results) {
+                    cache.miss();
+                    JsonNode doc = result.path("docs").path(0).path("ok");
+                    if (doc.hasNonNull(CouchDbProperties.COUCH_ID_NAME)) {
+                        String id = doc.get(CouchDbProperties.COUCH_ID_NAME).asText();
+                        byte[] content = mapper.writeValueAsBytes(doc);
+                        cache.put(databaseName, id, "\"" + doc.path(CouchDbProperties.COUCH_REVISION_NAME).asText() + "\"", content, stamp);
+                        read.put(id, mapper.readValue(content, clazz));
+                    }
+                }
+            }
+        }
+        List<EntityT> entities = new ArrayList<>(read.size());
+        List<String> missing = new LinkedList<>();
+        for (String id : ids) {
+            EntityT entity = read.get(id);
+            if (entity != null) {
+                entities.add(entity);
+            } else {
+                missing.add(id);
+            }
+        }
+        return BulkReadResult.of(entities, missing);
+    }
+
+    /**
+     * @param ids  which are split. Must not be {@literal null}
+     * @param size maximal size of one part. Must be positive
+     * @return {@link List} of consecutive parts of the given ids
+     */
+    private static @NotNull List<List<String>> partition(@NotNull List<String> ids, int size) {
+        List<List<String>> parts = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += size) {
+            parts.add(ids.subList(i, Math.min(ids.size(), i + size)));
+        }
+        return parts;
     }
 
     /**
@@ -471,9 +1053,8 @@ public class CouchDbClient {
             for (Sort.Order order : sort) {
                 direction = assertSameDirection(direction, order.getDirection());
             }
-            Pair<String, String> designAndView = getSortedViewId(sort, em);
-            design = designAndView.getFirst();
-            view = designAndView.getSecond();
+            return queryView(em.getDatabaseName(), () -> getSortedViewId(sort, em),
+                    dv -> readFromView(em.getDatabaseName(), dv.getFirst(), dv.getSecond(), skip, limit, sort));
         } else if (em.isViewed()) {
             design = em.getDesign();
             view = em.getView();
@@ -484,6 +1065,20 @@ public class CouchDbClient {
 
     private @NotNull List<String> readFromView(@NotNull String database, @NotNull String design, @NotNull String view, Long skip, @Nullable Integer limit,
                                                @NotNull Sort sort) throws IOException {
+        URI uri = getURI(baseURI, Arrays.asList(database, DESIGN, design, VIEW, view), getViewParameters(skip, limit, sort));
+        return mapper.readValue(queryCached(database, uri.toString(), () -> coalesced(CouchRequest.GET, uri, null, () -> get(uri, this::readBytes))),
+                AllDocumentResponse.class).getRows();
+    }
+
+    /**
+     * Method to create parameters of a view request which returns ids of documents (reduce is turned off).
+     *
+     * @param skip  number of skipped documents. Can be {@literal null} if nothing should be skipped
+     * @param limit of document in a result. Can be {@literal null} if no limitation is wanted.
+     * @param sort  information for the result. Must not be {@literal null}
+     * @return {@link List} of view request parameters. Can not be {@literal null}
+     */
+    static @NotNull List<NameValuePair> getViewParameters(@Nullable Long skip, @Nullable Integer limit, @NotNull Sort sort) {
         List<NameValuePair> parameters = new ArrayList<>(4);
         if (sort.isSorted()) {
             parameters.add(new BasicNameValuePair("descending", sort.stream()
@@ -499,33 +1094,89 @@ public class CouchDbClient {
         }
 
         parameters.add(new BasicNameValuePair(VIEW_REDUCE_PARAMETER, Boolean.toString(false)));
-
-        return get(getURI(baseURI, Arrays.asList(database, DESIGN, design, VIEW, view), parameters),
-                r -> mapper.readValue(r.getEntity().getContent(), AllDocumentResponse.class).getRows());
+        return parameters;
     }
 
+    /**
+     * Method to ensure that view sorted by the given sort exists. Design is read only if the view is not known from {@link DesignRegistry}. If the design is
+     * changed by someone else in the meantime, the design is read again and the view is added to the fresh revision.
+     *
+     * @param sort of the view. Must not be {@literal null}
+     * @param em   metadata of entity which is sorted. Must not be {@literal null}
+     * @return pair of design and view name
+     * @throws IOException if http request is not successful or json processing fail
+     */
     private Pair<String, String> getSortedViewId(Sort sort, EntityMetadata em) throws IOException {
-        String sortViewId = "sorted-by-" + (em.isViewed() ? em.getType() + "-" : "") +
-                sort.stream().map(o -> o.getProperty().replace(".", "-")).collect(Collectors.joining(":"));
+        String sortViewId = getSortedViewName(sort, em);
         String designId = em.isViewed() ? em.getDesign() : ALL_DESIGN;
-        DesignDocument design = readDesign(designId, em.getDatabaseName());
-        if (!knownSortedViews.contains(sortViewId)) {
+        for (int attempt = 1; !designs.contains(em.getDatabaseName(), designId, sortViewId); attempt++) {
+            DesignDocument design = readDesign(designId, em.getDatabaseName());
             if (!design.getViews().containsKey(sortViewId)) {
-                View view;
-                String sortKey = sort.stream().map(o -> "doc." + o.getProperty()).collect(Collectors.joining(","));
-                if (em.isViewed()) {
-                    view = new View(sortViewId, String.format(SORTED_TYPED_VIEW_MAP, em.getTypeField(), em.getType(), sortKey), COUNT_REDUCE);
-                } else {
-                    view = new View(sortViewId, String.format(SORTED_VIEW_MAP, sortKey), COUNT_REDUCE);
+                design.addView(getSortedView(sortViewId, sort, em));
+                try {
+                    saveDesign(design, em.getDatabaseName());
+                } catch (CouchDbException e) {
+                    if (e.getStatusCode() != HttpStatus.SC_CONFLICT || attempt >= DESIGN_CONFLICT_ATTEMPTS) {
+                        throw e;
+                    }
+                    log.debug("Design {} was changed concurrently, view {} will be added to the current revision", designId, sortViewId);
                 }
-                design.addView(view);
-                saveDesign(design, em.getDatabaseName());
             }
-            knownSortedViews.add(sortViewId);
         }
         return Pair.of(designId, sortViewId);
     }
 
+    /**
+     * Method to run query on a view which is ensured by the given supplier. If the view is not found (design was deleted or changed by someone else), the
+     * design is forgotten, the view is ensured again and the query is repeated.
+     *
+     * @param databaseName  of database where the view is stored. Must not be {@literal null}
+     * @param designAndView supplier which ensures the view exists and returns pair of design and view name. Must not be {@literal null}
+     * @param query         which is run on the view. Must not be {@literal null}
+     * @param <DataT>       type of query result
+     * @return result of the query
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private <DataT> DataT queryView(@NotNull String databaseName, @NotNull ThrowingSupplier<Pair<String, String>, IOException> designAndView,
+                                    @NotNull ThrowingFunction<Pair<String, String>, DataT, IOException> query) throws IOException {
+        Pair<String, String> dv = designAndView.get();
+        try {
+            return query.apply(dv);
+        } catch (CouchDbException e) {
+            if (e.getStatusCode() != HttpStatus.SC_NOT_FOUND) {
+                throw e;
+            }
+            log.debug("View {} of design {} not found, design will be read again", dv.getSecond(), dv.getFirst());
+            designs.invalidate(databaseName, dv.getFirst());
+            return query.apply(designAndView.get());
+        }
+    }
+
+    /**
+     * @param sort of the view. Must not be {@literal null}
+     * @param em   metadata of entity which is sorted. Must not be {@literal null}
+     * @return name of view which emits ids of entities sorted by the given {@code sort}
+     */
+    static @NotNull String getSortedViewName(@NotNull Sort sort, @NotNull EntityMetadata em) {
+        return "sorted-by-" + (em.isViewed() ? em.getType() + "-" : "") +
+                sort.stream().map(o -> o.getProperty().replace(".", "-")).collect(Collectors.joining(":"));
+    }
+
+    /**
+     * @param name of the created view. Must not be {@literal null}
+     * @param sort of the view. Must not be {@literal null}
+     * @param em   metadata of entity which is sorted. Must not be {@literal null}
+     * @return {@link View} which emits ids of entities sorted by the given {@code sort}
+     */
+    static @NotNull View getSortedView(@NotNull String name, @NotNull Sort sort, @NotNull EntityMetadata em) {
+        String sortKey = sort.stream().map(o -> "doc." + o.getProperty()).collect(Collectors.joining(","));
+        if (em.isViewed()) {
+            return new View(name, String.format(SORTED_TYPED_VIEW_MAP, em.getTypeField(), em.getType(), sortKey), COUNT_REDUCE);
+        } else {
+            return new View(name, String.format(SORTED_VIEW_MAP, sortKey), COUNT_REDUCE);
+        }
+    }
+
     /**
      * Method tests if the two given directions are the same. The test is necessary because CouchDB is not able to mix sort directions in Mango query.
      *
@@ -541,8 +1192,10 @@ public class CouchDbClient {
     }
 
     /**
-     * Method using view to get document count. If entity {@link EntityMetadata#isViewed()} than the configured view for the configured design is used. If
-     * entity is not viewed, the expected data view from the all design is used.
+     * Method to get exact document count. If entity {@link EntityMetadata#isViewed()} than the configured view for the configured design is used in reduce
+     * mode. If entity is not viewed, it has the database exclusively, so the count is taken from doc_count of the database without design documents. Number
+     * of design documents is remembered in the design registry together with update_seq it was read at. Counts are cached, a cached count is served without any request for configured time to live
+     * and after that only if update_seq of the database did not move. Count of viewed entity which is not cached is read by one request of its view.
      *
      * @param clazz of wanted entity. Used to get database name {@link #getDatabaseName(Class)}. Must not be {@literal null}
      * @return {@literal non-null} count of documents of the given entity
@@ -551,21 +1204,115 @@ public class CouchDbClient {
      */
     public long countAll(@NotNull Class<?> clazz) throws IOException {
         EntityMetadata em = getEntityMetadata(clazz);
-        String design = ALL_DESIGN;
-        String view = ALL_DATA_VIEW;
+        String databaseName = em.getDatabaseName();
+        String key = em.isViewed() ? em.getDesign() + "/" + em.getView() : DESIGN_DOCS;
+        long stamp = counts.getStamp();
+        DocumentCache.Entry cached = counts.get(databaseName, key);
+        if (cached != null && counts.isFresh(cached)) {
+            counts.hit(cached, false);
+            return Long.parseLong(new String(cached.getContent(), StandardCharsets.UTF_8));
+        }
+        //viewed count without cached entry is read directly, the view tells its update_seq
+        DatabaseInfo info = cached == null && em.isViewed() ? null : readDatabaseInfo(databaseName);
+        if (cached != null && cached.getEtag().equals(info.getUpdateSeq())) {
+            counts.hit(cached, true);
+            return Long.parseLong(new String(cached.getContent(), StandardCharsets.UTF_8));
+        }
+        counts.miss();
+        long count;
+        String updateSeq;
         if (em.isViewed()) {
-            design = em.getDesign();
-            view = em.getView();
+            JsonNode result = get(getURI(baseURI, Arrays.asList(databaseName, DESIGN, em.getDesign(), VIEW, em.getView()),
+                    Collections.singletonList(new BasicNameValuePair("update_seq", "true"))), r -> mapper.readValue(r.getContent(), ObjectNode.class));
+            count = readCount(result);
+            JsonNode viewSeq = result.path("update_seq");
+            updateSeq = info != null ? info.getUpdateSeq() : viewSeq.isMissingNode() || viewSeq.isNull() ? null : viewSeq.asText();
+        } else {
+            count = info.getDocCount() - getDesignCount(databaseName, info.getUpdateSeq());
+            updateSeq = info.getUpdateSeq();
+        }
+        log.debug("Count of {} in database {} is {}", clazz.getSimpleName(), databaseName, count);
+        if (updateSeq != null) {
+            counts.put(databaseName, key, updateSeq, Long.toString(count).getBytes(StandardCharsets.UTF_8), stamp);
+        }
+        return count;
+    }
+
+    /**
+     * @param databaseName of database. Must not be {@literal null}
+     * @param updateSeq    current update_seq of the database. Must not be {@literal null}
+     * @return number of design documents of the given database, remembered in the design registry until update_seq moves
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private long getDesignCount(@NotNull String databaseName, @NotNull String updateSeq) throws IOException {
+        Long known = designs.getDesignCount(databaseName, updateSeq);
+        if (known != null) {
+            return known;
+        }
+        long count = get(getURI(baseURI, databaseName, DESIGN_DOCS), r -> mapper.readValue(r.getContent(), AllDocumentResponse.class).getRows().size());
+        designs.setDesignCount(databaseName, updateSeq, count);
+        return count;
+    }
+
+    /**
+     * Method to get estimated document count from doc_count of the database, no view is used. If entity {@link EntityMetadata#isViewed()}, the count
+     * contains all documents of the shared database. Design documents are counted in both cases, so the result is an upper bound of {@link #countAll(Class)}.
+     *
+     * @param clazz of wanted entity. Used to get database name {@link #getDatabaseName(Class)}. Must not be {@literal null}
+     * @return estimated count of documents of the given entity
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    public long estimatedCount(@NotNull Class<?> clazz) throws IOException {
+        return readDatabaseInfo(getDatabaseName(clazz)).getDocCount();
+    }
+
+    /**
+     * @param databaseName of wanted database. Must not be {@literal null}
+     * @return {@link DatabaseInfo} of the given database
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private @NotNull DatabaseInfo readDatabaseInfo(@NotNull String databaseName) throws IOException {
+        return get(getURI(baseURI, databaseName), r -> mapper.readValue(r.getContent(), DatabaseInfo.class));
+    }
+
+    /**
+     * Method to read count from a view with _count reduce function. The result is served from the query cache if it is configured.
+     *
+     * @param databaseName of database where the view is stored. Must not be {@literal null}
+     * @param uri          of the view. Must not be {@literal null}
+     * @return count stored in the first row of the response or 0 if there are no rows
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private long readCount(@NotNull String databaseName, @NotNull URI uri) throws IOException {
+        if (queryCache == null) {
+            return get(uri, this::readCount);
+        }
+        byte[] content = queryCached(databaseName, uri.toString(), () -> coalesced(CouchRequest.GET, uri, null, () -> get(uri, this::readBytes)));
+        return readCount(mapper.readValue(content, ObjectNode.class));
+    }
+
+    /**
+     * Method to read result of a view with _count reduce function.
+     *
+     * @param response of a view request in reduce mode. Must not be {@literal null}
+     * @return count stored in the first row of the response or 0 if there are no rows
+     * @throws IOException if json processing fail
+     */
+    long readCount(@NotNull CouchResponse response) throws IOException {
+        return readCount(mapper.readValue(response.getContent(), ObjectNode.class));
+    }
+
+    /**
+     * @param result of a view request in reduce mode. Must not be {@literal null}
+     * @return count stored in the first row of the result or 0 if there are no rows
+     */
+    private long readCount(@NotNull JsonNode result) {
+        JsonNode rows = result.get("rows");
+        if (rows.has(0)) {
+            return rows.get(0).get("value").asLong();
+        } else {
+            return 0L;
         }
-        return get(getURI(baseURI, em.getDatabaseName(), DESIGN, design, VIEW, view),
-                r -> {
-                    JsonNode rows = mapper.readValue(r.getEntity().getContent(), ObjectNode.class).get("rows");
-                    if (rows.has(0)) {
-                        return rows.get(0).get("value").asLong();
-                    } else {
-                        return 0L;
-                    }
-                });
     }
 
     /**
@@ -594,8 +1341,8 @@ public class CouchDbClient {
     public @NotNull List<String> readAllDesign(@NotNull Class<?> clazz) throws IOException {
         String databaseName = getDatabaseName(clazz);
         log.debug("Read of all design documents from database {}", databaseName);
-        return get(getURI(baseURI, databaseName, "_design_docs"),
-                r -> mapper.readValue(r.getEntity().getContent(), AllDocumentResponse.class).getRows());
+        return get(getURI(baseURI, databaseName, DESIGN_DOCS),
+                r -> mapper.readValue(r.getContent(), AllDocumentResponse.class).getRows());
     }
 
     /**
@@ -608,12 +1355,29 @@ public class CouchDbClient {
      * @see DocumentBase
      */
     public <EntityT> @NotNull EntityT delete(@NotNull EntityT entity) throws IOException {
+        return delete(entity, r -> entity);
+    }
+
+    /**
+     * Deletes given entity with possibility to process response. From entity id and revision is used.
+     *
+     * @param entity            to delete. Must not be {@literal null}
+     * @param responseProcessor {@link ThrowingFunction} to process response of the DELETE request. Must not be {@literal null}
+     * @param <EntityT>         type of entity
+     * @param <DataT>           type of returned data which are created by {@code responseProcessor}
+     * @return data created in {@code responseProcessor}
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private <EntityT, DataT> DataT delete(@NotNull EntityT entity, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> responseProcessor)
+            throws IOException {
         EntityMetadata entityMetadata = getEntityMetadata(entity.getClass());
         String id = entityMetadata.getIdReader().read(entity);
         String revision = entityMetadata.getRevisionReader().read(entity);
         log.debug("Delete of document with id {} and revision {} from database {}", id, revision, entityMetadata.getDatabaseName());
-        return delete(getURI(baseURI, Arrays.asList(entityMetadata.getDatabaseName(), id), Collections.singletonList(new BasicNameValuePair("rev", revision))),
-                r -> entity);
+        DataT data = delete(getURI(baseURI, Arrays.asList(entityMetadata.getDatabaseName(), id),
+                Collections.singletonList(new BasicNameValuePair("rev", revision))), responseProcessor);
+        evict(entityMetadata.getDatabaseName(), id);
+        return data;
     }
 
     /**
@@ -632,7 +1396,7 @@ public class CouchDbClient {
     }
 
     /**
-     * Method to delete given documents. A bulk operation is used.
+     * Method to delete given documents. Bulk operations are used, see {@link #writeAll(String, List, ObjectWriter)} how documents are split.
      *
      * @param entities  {@link List} of entities to be erased
      * @param clazz     of given entities
@@ -645,20 +1409,13 @@ public class CouchDbClient {
         EntityMetadata entityMetadata = getEntityMetadata(clazz);
         log.debug("Bulk delete of {} documents from database {}", LazyLog.of(() -> StreamSupport.stream(entities.spliterator(), false).count()),
                 entityMetadata.getDatabaseName());
-        ObjectMapper localMapper = new ObjectMapper();
-        SimpleModule module = new SimpleModule();
-        module.addSerializer(entityMetadata.isViewed() ?
-                new DeleteViewedDocumentSerializer<>(clazz, entityMetadata.getTypeField(), entityMetadata.getType()) :
-                new DeleteDocumentSerializer<>(clazz));
-        // parameters of type
-        localMapper.registerModule(module);
-        List<DocumentPutResponse> responses = post(getURI(baseURI, entityMetadata.getDatabaseName(), "_bulk_docs"),
-                localMapper.writeValueAsString(new BulkRequest<>(entities)), r -> mapper.readValue(r.getEntity().getContent(),
-                        mapper.getTypeFactory().constructCollectionType(List.class, DocumentPutResponse.class)));
-        Map<String, DocumentPutResponse> indexed = responses.stream().collect(Collectors.toMap(DocumentPutResponse::getId, r -> r));
+        List<EntityT> list = new ArrayList<>();
+        entities.forEach(list::add);
+        List<DocumentPutResponse> responses = writeAll(entityMetadata.getDatabaseName(), list, codecs.getDeletingWriter(clazz));
         List<EntityT> deleted = new LinkedList<>();
-        for (EntityT e : entities) {
-            DocumentPutResponse response = indexed.get(entityMetadata.getIdReader().read(e));
+        for (int i = 0; i < list.size(); i++) {
+            EntityT e = list.get(i);
+            DocumentPutResponse response = responses.get(i);
             if ("true".equals(response.getOk())) {
                 entityMetadata.getRevisionWriter().write(e, response.getRev());
                 deleted.add(e);
@@ -685,9 +1442,11 @@ public class CouchDbClient {
         EntityT entity = read(id, clazz);
         log.debug("Delete of document with id {} and revision {} from database {}", id, LazyLog.of(() -> entityMetadata.getRevisionReader().read(entity)),
                 entityMetadata.getDatabaseName());
-        return delete(getURI(baseURI, Arrays.asList(entityMetadata.getDatabaseName(), id),
+        delete(getURI(baseURI, Arrays.asList(entityMetadata.getDatabaseName(), id),
                 Collections.singletonList(new BasicNameValuePair("rev", entityMetadata.getRevisionReader().read(entity)))),
                 r -> entity);
+        evict(entityMetadata.getDatabaseName(), id);
+        return entity;
     }
 
     /**
@@ -702,13 +1461,17 @@ public class CouchDbClient {
      * @see DocumentBase
      */
     public <EntityT> @NotNull Pair<List<EntityT>, String> find(@NotNull String json, @NotNull Class<EntityT> clazz) throws IOException {
-        ObjectMapper localMapper = new ObjectMapper();
-        SimpleModule simpleModule = new SimpleModule();
-        simpleModule.addDeserializer(List.class, new FoundDocumentDeserializer<>(clazz));
+        ObjectReader reader = codecs.getFindReader(clazz);
         log.debug("Executing Mango query {}", json);
-        localMapper.registerModule(simpleModule);
-        DocumentFindResponse<EntityT> response = post(getURI(baseURI, getDatabaseName(clazz), "_find"), json, r -> localMapper.readValue(r.getEntity().getContent(),
-                localMapper.getTypeFactory().constructParametricType(DocumentFindResponse.class, clazz)));
+        String databaseName = getDatabaseName(clazz);
+        URI uri = getURI(baseURI, databaseName, "_find");
+        DocumentFindResponse<EntityT> response;
+        if (queryCache == null && singleFlight == null) {
+            response = post(uri, createBody(json), r -> reader.readValue(r.getContent()));
+        } else {
+            response = reader.readValue(queryCached(databaseName, uri + json,
+                    () -> coalesced(CouchRequest.POST, uri, json, () -> post(uri, createBody(json), this::readBytes))));
+        }
         log.debug("Mango query executed with result of {} documents", response.getDocuments().size());
         response.getWarning().ifPresent(w -> log.info("{} for query {}", w, json));
         response.getExecutionStats().ifPresent(s -> log.info("{} for query {}", s, json));
@@ -762,9 +1525,10 @@ public class CouchDbClient {
      * @throws IOException if http request is not successful or json processing fail
      */
     public <EntityT> @NotNull FindResult<EntityT> findByView(@NotNull FindRequest request, @NotNull Class<EntityT> clazz) throws IOException {
-        String designId = ensureView(request.getSort(), request.getJavaScriptCondition(mapper), clazz);
-        List<EntityT> entities = readAll(readFromView(getDatabaseName(clazz), designId, ALL_DATA_VIEW, request.getSkip(), request.getLimit(),
-                request.getSort()), clazz);
+        String databaseName = getDatabaseName(clazz);
+        List<String> ids = queryView(databaseName, () -> Pair.of(ensureView(request.getSort(), request.getJavaScriptCondition(mapper), clazz), ALL_DATA_VIEW),
+                dv -> readFromView(databaseName, dv.getFirst(), dv.getSecond(), request.getSkip(), request.getLimit(), request.getSort()));
+        List<EntityT> entities = readAll(ids, clazz, true).getEntities();
         return FindResult.of(entities, Collections.emptyMap());
     }
 
@@ -800,22 +1564,17 @@ public class CouchDbClient {
      * @throws IOException if http request is not successful or json processing fail
      */
     public long countByView(@NotNull FindRequest request, @NotNull Class<?> clazz) throws IOException {
-        String designId = ensureView(request.getSort(), request.getJavaScriptCondition(mapper), clazz);
-        log.debug("Using design {} for counting {}", designId, request);
-        return get(getURI(baseURI, getDatabaseName(clazz), DESIGN, designId, VIEW, ALL_DATA_VIEW),
-                r -> {
-                    JsonNode rows = mapper.readValue(r.getEntity().getContent(), ObjectNode.class).get("rows");
-                    if (rows.has(0)) {
-                        return rows.get(0).get("value").asLong();
-                    } else {
-                        return 0L;
-                    }
-                });
+        String databaseName = getDatabaseName(clazz);
+        return queryView(databaseName, () -> Pair.of(ensureView(request.getSort(), request.getJavaScriptCondition(mapper), clazz), ALL_DATA_VIEW), dv -> {
+            log.debug("Using design {} for counting {}", dv.getFirst(), request);
+            return readCount(databaseName, getURI(baseURI, databaseName, DESIGN, dv.getFirst(), VIEW, dv.getSecond()));
+        });
     }
 
     /**
      * Method to ensure that a view matching the given javascript condition and sort exists or will be created. Sort is used to determine the key of view.
-     * If there is not sort, view emits null. The given javascript is used in mapping function of the view.
+     * If there is not sort, view emits null. The given javascript is used in mapping function of the view. Design is read only if it is not known from
+     * {@link DesignRegistry}. Name of the design is derived from the mapping function, so a conflict means the same design was created concurrently.
      *
      * @param sort                of the view. Must not be {@literal null}
      * @param javaScriptCondition of mapping function of the view. Must not be {@literal null}
@@ -824,6 +1583,39 @@ public class CouchDbClient {
      * @throws IOException if http request is not successful or json processing fail
      */
     private String ensureView(@NotNull Sort sort, @NotNull String javaScriptCondition, @NotNull Class<?> clazz) throws IOException {
+        String mapFunction = getFindMapFunction(sort, javaScriptCondition);
+        String designId = mapFunction.hashCode() + "";
+        String databaseName = getDatabaseName(clazz);
+        if (designs.contains(databaseName, designId, ALL_DATA_VIEW)) {
+            return designId;
+        }
+        Optional<DesignDocument> design = readDesignSafely(designId, databaseName);
+        if (!design.isPresent()) {
+            log.debug("Creating new view {} in design {} for querying with map function {}", ALL_DATA_VIEW, designId, mapFunction);
+            View view = new View(ALL_DATA_VIEW, mapFunction, COUNT_REDUCE);
+            DesignDocument newDesign = new DesignDocument(designId, Collections.singleton(view));
+            try {
+                saveDesign(newDesign, databaseName);
+            } catch (CouchDbException e) {
+                if (e.getStatusCode() != HttpStatus.SC_CONFLICT) {
+                    throw e;
+                }
+                log.debug("Design {} was created concurrently", designId);
+                readDesign(designId, databaseName);
+            }
+        }
+        return designId;
+    }
+
+    /**
+     * Method to create mapping function of a view matching the given javascript condition and sort. Sort is used to determine the key of view. If there is
+     * not sort, view emits null.
+     *
+     * @param sort                of the view. Must not be {@literal null}
+     * @param javaScriptCondition of mapping function of the view. Must not be {@literal null}
+     * @return mapping function of the view
+     */
+    static @NotNull String getFindMapFunction(@NotNull Sort sort, @NotNull String javaScriptCondition) {
         String mapFunction;
         if (sort.isSorted()) {
             Sort.Direction direction = null;
@@ -835,15 +1627,7 @@ public class CouchDbClient {
         } else {
             mapFunction = String.format(FIND_VIEW_MAP, javaScriptCondition);
         }
-
-        Optional<DesignDocument> design = readDesignSafely(mapFunction.hashCode() + "", clazz);
-        if (!design.isPresent()) {
-            log.debug("Creating new view {} in design {} for querying with map function {}", ALL_DATA_VIEW, mapFunction.hashCode() + "", mapFunction);
-            View view = new View(ALL_DATA_VIEW, mapFunction, COUNT_REDUCE);
-            DesignDocument newDesign = new DesignDocument(mapFunction.hashCode() + "", Collections.singleton(view));
-            saveDesign(newDesign, clazz);
-        }
-        return mapFunction.hashCode() + "";
+        return mapFunction;
     }
 
     /**
@@ -930,7 +1714,12 @@ public class CouchDbClient {
 
         log.debug("Creating index with name {} in database {} and ordering {}", name, dbName,
                 LazyLog.of(() -> StreamSupport.stream(fields.spliterator(), false).map(Sort.Order::toString).collect(Collectors.joining(", "))));
-        post(getURI(baseURI, dbName, "_index"), mapper.writeValueAsString(new IndexCreateRequest(name, fields)), r -> null);
+        try {
+            post(getURI(baseURI, dbName, "_index"), createBody(mapper.writeValueAsString(new IndexCreateRequest(name, fields))), r -> null);
+        } finally {
+            //index is stored in a design document, which is not registered
+            designs.invalidateDesignCount(dbName);
+        }
     }
 
     /**
@@ -963,6 +1752,34 @@ public class CouchDbClient {
         return databaseExists(getDatabaseName(clazz));
     }
 
+    /**
+     * Method tests if document with the given id exists. Documents of entities annotated by {@link ExistenceIndexed} which definitely do not exist are
+     * reported without any request, the rest is tested by HEAD request, so no document is transferred.
+     *
+     * @param id    of document. Must not be {@literal null}
+     * @param clazz of entity. Used to get database name {@link #getDatabaseName(Class)}. Must not be {@literal null}
+     * @return true if document with the given id exists
+     * @throws IOException if http request is not successful
+     */
+    public boolean exists(@NotNull String id, @NotNull Class<?> clazz) throws IOException {
+        Assert.notNull(id, "Id must not be null.");
+        EntityMetadata em = getEntityMetadata(clazz);
+        String databaseName = em.getDatabaseName();
+        if (em.isExistenceIndexed() && !existence.mightContain(databaseName, id)) {
+            log.debug("Document with ID {} does not exist in database {} according to existence index", id, databaseName);
+            return false;
+        }
+        try {
+            head(getURI(baseURI, databaseName, id));
+            return true;
+        } catch (CouchDbException ex) {
+            if (ex.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+                return false;
+            }
+            throw ex;
+        }
+    }
+
     /**
      * Method tests if database with the given name exists.
      *
@@ -1029,7 +1846,7 @@ public class CouchDbClient {
                 shardsCount, replicasCount);
         put(getURI(baseURI, Collections.singletonList(name),
                 Arrays.asList(new BasicNameValuePair("q", "" + shardsCount), new BasicNameValuePair("n", replicasCount + ""),
-                        new BasicNameValuePair("partitioned", Boolean.toString(partitioned)))), "", r -> null);
+                        new BasicNameValuePair("partitioned", Boolean.toString(partitioned)))), createBody(""), r -> null);
     }
 
     /**
@@ -1050,6 +1867,16 @@ public class CouchDbClient {
      */
     public void deleteDatabase(@NotNull String name) throws IOException {
         delete(getURI(baseURI, name), r -> null);
+        designs.invalidateDatabase(name);
+        nearCache.getCache().invalidateDatabase(name);
+        if (readCache != null) {
+            readCache.invalidateDatabase(name);
+        }
+        if (queryCache != null) {
+            queryCache.invalidateDatabase(name);
+        }
+        counts.invalidateDatabase(name);
+        existence.invalidateDatabase(name);
         log.info("Database {} deleted", name);
     }
 
@@ -1068,7 +1895,8 @@ public class CouchDbClient {
 
     /**
      * Method for storing a design document to the database with the given name. ID of the given design document must not be {@literal
-     * null} nor empty.
+     * null} nor empty. Stored design is remembered, so its views can be queried without reading of the design. If the design is in conflict, it is forgotten
+     * and it is read again when needed.
      *
      * @param designDocument which should be saved. Must not be {@literal null}
      * @param databaseName   where to store the given document. Must not be {@literal null}
@@ -1078,54 +1906,140 @@ public class CouchDbClient {
     public @NotNull DesignDocument saveDesign(@NotNull DesignDocument designDocument, @NotNull String databaseName) throws IOException {
         Assert.hasText(designDocument.getId(), "DesignDocument.Id must not be null");
         log.debug("Saving design with id {} and revision {} to database {}", designDocument.getId(), designDocument.getRevision(), databaseName);
-        DocumentPutResponse response = put(getURI(baseURI, databaseName, designDocument.getId()), mapper.writeValueAsString(designDocument),
-                r -> mapper.readValue(r.getEntity().getContent(), DocumentPutResponse.class));
+        DocumentPutResponse response;
+        try {
+            response = put(getURI(baseURI, databaseName, designDocument.getId()), createBody(mapper.writeValueAsString(designDocument)),
+                    r -> mapper.readValue(r.getContent(), DocumentPutResponse.class));
+        } catch (CouchDbException e) {
+            if (e.getStatusCode() == HttpStatus.SC_CONFLICT) {
+                designs.invalidate(databaseName, DesignRegistry.getName(designDocument));
+            }
+            throw e;
+        }
         designDocument.setRevision(response.getRev());
+        designs.register(databaseName, designDocument);
         log.debug("Saved design with id {} and revision {}", response.getId(), response.getRev());
         return designDocument;
     }
 
+    /**
+     * @return {@link ObjectMapper} used for all json serializations without special needs
+     */
+    @NotNull ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * @return maximal size of bulk operations
+     */
+    int getBulkMaxSize() {
+        return bulkMaxSize;
+    }
+
+    /**
+     * @return maximal number of bytes of one bulk write request
+     */
+    long getBulkMaxBytes() {
+        return bulkMaxBytes;
+    }
+
+    /**
+     * @return maximal number of bulk requests sent at the same time by one operation
+     */
+    int getBulkParallelism() {
+        return bulkParallelism;
+    }
+
+    /**
+     * @return default query strategy for find method
+     */
+    public @NotNull QueryStrategy getQueryStrategy() {
+        return queryStrategy;
+    }
+
+    /**
+     * @return {@link CodecRegistry} with readers and writers of entity specific operations
+     */
+    @NotNull CodecRegistry getCodecs() {
+        return codecs;
+    }
+
+    /**
+     * Method to create body of request with the given json. If request compression is configured and the body is not shorter than the configured
+     * threshold, the body is gzip compressed and Content-Encoding header is set. The body is kept in memory, so it is repeatable and its length is known.
+     *
+     * @param json body of the request. Must not be {@literal null}
+     * @return {@link RequestBody} with application/json content type
+     * @throws IOException if compression fails
+     */
+    @NotNull RequestBody createBody(@NotNull String json) throws IOException {
+        return createBody(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to create body of request with the given serialized json. If request compression is configured and the body is not shorter than the configured
+     * threshold, the body is gzip compressed and Content-Encoding header is set.
+     *
+     * @param content UTF-8 encoded json body of the request. Must not be {@literal null}
+     * @return {@link RequestBody} with application/json content type
+     * @throws IOException if compression fails
+     */
+    @NotNull RequestBody createBody(@NotNull byte[] content) throws IOException {
+        if (requestCompressionThreshold >= 0 && content.length >= requestCompressionThreshold) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(content);
+            }
+            return new ByteArrayBody(compressed.toByteArray(), ContentType.APPLICATION_JSON.getMimeType(), "gzip");
+        }
+        return new ByteArrayBody(content, ContentType.APPLICATION_JSON.getMimeType(), null);
+    }
+
+    /**
+     * Method to create body of request which streams the given value serialized by the given mapper directly into the connection. Used for bulk requests,
+     * where whole json would be too big to be held in memory. If request compression is configured, the body is always gzip compressed, because its size is
+     * not known in advance.
+     *
+     * @param writer used for serialization of the given value. Must not be {@literal null}
+     * @param value  serialized as body of the request. Must not be {@literal null}
+     * @return {@link RequestBody} with application/json content type
+     * @see JsonBody
+     */
+    @NotNull RequestBody createBody(@NotNull ObjectWriter writer, @NotNull Object value) {
+        return new JsonBody(writer, value, requestCompressionThreshold >= 0);
+    }
+
     /**
      * Method to send PUT request with the given body with possibility to safely process response. HTTP response is closed immediately after
-     * {@code responseProcessor} is called. Body is expected as json, content type is hard coded as application/json.
+     * {@code responseProcessor} is called.
      *
      * @param uri               of target. Must not be {@literal null}
-     * @param json              body of the request. Must not be {@literal null}
+     * @param body              of the request. Must not be {@literal null}
      * @param responseProcessor {@link ThrowingFunction} to process response before the stream is closed. Must not be {@literal null}
      * @param <DataT>           type of returned data which are created by {@code responseProcessor}
-     * @return data created in {@code responseProcessor} based on response of PUT request with the given {@code json} on the given {@code uri}
+     * @return data created in {@code responseProcessor} based on response of PUT request with the given {@code body} on the given {@code uri}
      * @throws IOException if http request is not successful or json processing fail
      */
-    private <DataT> DataT put(@NotNull URI uri, @NotNull String json, @NotNull ThrowingFunction<HttpResponse, DataT, IOException> responseProcessor) throws IOException {
-        try (AutoCloseableHttpResponse response = new AutoCloseableHttpResponse()) {
-            final HttpPut put = new HttpPut(uri);
-            StringEntity entity = new StringEntity(json, "UTF-8");
-            entity.setContentType(ContentType.APPLICATION_JSON.getMimeType());
-            put.setEntity(entity);
-            response.set(execute(put));
-            return responseProcessor.apply(response.get());
+    private <DataT> DataT put(@NotNull URI uri, @NotNull RequestBody body, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> responseProcessor) throws IOException {
+        try (CouchResponse response = execute(new CouchRequest(CouchRequest.PUT, uri, body))) {
+            return responseProcessor.apply(response);
         }
     }
 
     /**
      * Method to send POST request with the given body with possibility to safely process response. HTTP response is closed immediately after
-     * {@code responseProcessor} is called. Body is expected as json, content type is hard coded as application/json.
+     * {@code responseProcessor} is called.
      *
      * @param uri               of target. Must not be {@literal null}
-     * @param json              body of the request. Must not be {@literal null}
+     * @param body              of the request. Must not be {@literal null}
      * @param responseProcessor {@link ThrowingFunction} to process response before the stream is closed. Must not be {@literal null}
      * @param <DataT>           type of returned data which are created by {@code responseProcessor}
-     * @return data created in {@code responseProcessor} based on response of POST request with the given {@code json} on the given {@code uri}
+     * @return data created in {@code responseProcessor} based on response of POST request with the given {@code body} on the given {@code uri}
      * @throws IOException if http request is not successful or json processing fail
      */
-    private <DataT> DataT post(@NotNull URI uri, @NotNull String json, @NotNull ThrowingFunction<HttpResponse, DataT, IOException> responseProcessor) throws IOException {
-        try (AutoCloseableHttpResponse response = new AutoCloseableHttpResponse()) {
-            final HttpPost post = new HttpPost(uri);
-            StringEntity entity = new StringEntity(json, "UTF-8");
-            entity.setContentType(ContentType.APPLICATION_JSON.getMimeType());
-            post.setEntity(entity);
-            response.set(execute(post));
-            return responseProcessor.apply(response.get());
+    private <DataT> DataT post(@NotNull URI uri, @NotNull RequestBody body, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> responseProcessor) throws IOException {
+        try (CouchResponse response = execute(new CouchRequest(CouchRequest.POST, uri, body))) {
+            return responseProcessor.apply(response);
         }
     }
 
@@ -1139,59 +2053,344 @@ public class CouchDbClient {
      * @return data created in {@code responseProcessor} based on response of POST request with the given {@code json} on the given {@code uri}
      * @throws IOException if http request is not successful or json processing fail
      */
-    private <DataT> DataT get(@NotNull URI uri, @NotNull ThrowingFunction<HttpResponse, DataT, IOException> responseProcessor) throws IOException {
-        try (AutoCloseableHttpResponse response = new AutoCloseableHttpResponse()) {
-            HttpGet get = new HttpGet(uri);
-            get.addHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
-            response.set(execute(get));
-            return responseProcessor.apply(response.get());
+    private <DataT> DataT get(@NotNull URI uri, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> responseProcessor) throws IOException {
+        CouchRequest get = new CouchRequest(CouchRequest.GET, uri);
+        get.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+        try (CouchResponse response = execute(get)) {
+            return responseProcessor.apply(response);
         }
     }
 
     /**
-     * Sending of {@link HttpDelete} to the given URI
+     * Sending of DELETE request to the given URI
      *
      * @param uri address where delete is send. Must not be {@literal null}
      * @throws IOException if http request is not successful or json processing fail
      * @see DocumentBase
      */
-    private <DataT> DataT delete(@NotNull URI uri, @NotNull ThrowingFunction<HttpResponse, DataT, IOException> responseProcessor) throws IOException {
-        try (AutoCloseableHttpResponse response = new AutoCloseableHttpResponse()) {
-            final HttpDelete delete = new HttpDelete(uri);
-            delete.addHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
-            response.set(execute(delete));
-            return responseProcessor.apply(response.get());
+    private <DataT> DataT delete(@NotNull URI uri, @NotNull ThrowingFunction<CouchResponse, DataT, IOException> responseProcessor) throws IOException {
+        CouchRequest delete = new CouchRequest(CouchRequest.DELETE, uri);
+        delete.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+        try (CouchResponse response = execute(delete)) {
+            return responseProcessor.apply(response);
         }
     }
 
     private void head(@NotNull URI uri) throws IOException {
-        try (AutoCloseableHttpResponse response = new AutoCloseableHttpResponse()) {
-            final HttpHead head = new HttpHead(uri);
-            response.set(execute(head));
+        execute(new CouchRequest(CouchRequest.HEAD, uri)).close();
+    }
+
+    /**
+     * Method to run the given query thru the query cache. A cached result is served without any request while the _changes feed of the database is followed,
+     * otherwise it is served only if update_seq of the database is the same as when the result was stored. Stamp of the cache is obtained before the query
+     * is run, so a result overtaken by a change is not stored.
+     *
+     * @param databaseName of database where the query is run. Must not be {@literal null}
+     * @param query        normalized form of the query (URI with body for example) used as key. Must not be {@literal null}
+     * @param request      which runs the query and returns raw response. Must not be {@literal null}
+     * @return raw response of the query. Must not be modified
+     * @throws IOException if http request is not successful
+     */
+    private @NotNull byte[] queryCached(@NotNull String databaseName, @NotNull String query, @NotNull ThrowingSupplier<byte[], IOException> request)
+            throws IOException {
+        if (queryCache == null) {
+            return request.get();
+        }
+        boolean followed = nearCache.isSynced(databaseName);
+        long stamp = queryCache.getStamp();
+        DocumentCache.Entry cached = queryCache.get(databaseName, query);
+        if (cached != null && followed) {
+            queryCache.hit(cached, false);
+            return cached.getContent();
+        }
+        String updateSeq = readDatabaseInfo(databaseName).getUpdateSeq();
+        if (cached != null && cached.getEtag().equals(updateSeq)) {
+            queryCache.hit(cached, true);
+            return cached.getContent();
+        }
+        queryCache.miss();
+        byte[] content = request.get();
+        if (updateSeq != null) {
+            queryCache.put(databaseName, query, updateSeq, content, stamp);
+        }
+        return content;
+    }
+
+    /**
+     * Method to run the given read request thru {@link SingleFlight}, so identical concurrent reads share one request. The request is run directly if
+     * read coalescing is not configured.
+     *
+     * @param method  of the request. Must not be {@literal null}
+     * @param uri     of the request. Must not be {@literal null}
+     * @param body    of the request or {@literal null} if there is no body
+     * @param request which sends the request and returns raw response. Must not be {@literal null}
+     * @return raw response of the request. Must not be modified
+     * @throws IOException if http request is not successful
+     */
+    private @NotNull byte[] coalesced(@NotNull String method, @NotNull URI uri, @Nullable String body,
+                                      @NotNull ThrowingSupplier<byte[], IOException> request) throws IOException {
+        return singleFlight == null ? request.get() : singleFlight.execute(method, uri.toString(), body, request);
+    }
+
+    /**
+     * @param response which content is read. Must not be {@literal null}
+     * @return whole content of the response
+     * @throws IOException if the content can not be read
+     */
+    private @NotNull byte[] readBytes(@NotNull CouchResponse response) throws IOException {
+        return StreamUtils.copyToByteArray(response.getContent());
+    }
+
+    /**
+     * Method to read changes of the given database by long polling of _changes feed. Duration of the request is not recorded as latency of the node.
+     *
+     * @param databaseName of database which is followed. Must not be {@literal null}
+     * @param since        sequence after which changes are wanted or {@literal now}. Must not be {@literal null}
+     * @param timeout      maximal time in milliseconds to wait for a change
+     * @param includeDocs  flag if changed documents should be part of the response
+     * @return {@link ChangesResponse} with changes and sequence for the next call
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private @NotNull ChangesResponse readChanges(@NotNull String databaseName, @NotNull String since, int timeout, boolean includeDocs) throws IOException {
+        CouchRequest get = new CouchRequest(CouchRequest.GET, getURI(baseURI, Arrays.asList(databaseName, CHANGES), Arrays.asList(
+                new BasicNameValuePair("feed", "longpoll"),
+                new BasicNameValuePair("since", since),
+                new BasicNameValuePair("timeout", timeout + ""),
+                new BasicNameValuePair("include_docs", Boolean.toString(includeDocs)))));
+        get.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+        try (CouchResponse response = resilience.execute(get, databaseName, () -> executeAuthenticated(get, false))) {
+            return mapper.readValue(response.getContent(), ChangesResponse.class);
+        }
+    }
+
+    /**
+     * Method to read one page of ids of all documents (design documents included) of the given database from _all_docs.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     * @param after        id after which the page starts or {@literal null} for the first page
+     * @param limit        maximal number of returned ids
+     * @return {@link List} of ids sorted by _all_docs
+     * @throws IOException if http request is not successful or json processing fail
+     */
+    private @NotNull List<String> readIds(@NotNull String databaseName, @Nullable String after, int limit) throws IOException {
+        List<NameValuePair> parameters = new LinkedList<>();
+        parameters.add(new BasicNameValuePair(VIEW_LIMIT_PARAMETER, limit + ""));
+        if (after != null) {
+            parameters.add(new BasicNameValuePair("startkey", mapper.writeValueAsString(after)));
+            parameters.add(new BasicNameValuePair(VIEW_SKIP_PARAMETER, "1"));
         }
+        return get(getURI(baseURI, Arrays.asList(databaseName, ALL_DOCS), parameters),
+                r -> mapper.readValue(r.getContent(), AllDocumentResponse.class).getRows());
     }
 
     /**
-     * Method to run any HTTP request.
+     * Method to run any HTTP request on the node chosen by {@link NodeSelector}. Idempotent requests which fail on transient error are retried by
+     * {@link ResilienceHandler}, every retry can be sent to another node.
      *
      * @param request which should be run. Must not be {@literal null}
-     * @return {@link HttpResponse} to the given {@code request}
+     * @return {@link CouchResponse} to the given {@code request}
      * @throws IOException if http request is not successful or json processing fail
      */
-    private @NotNull HttpResponse execute(@NotNull HttpRequestBase request) throws IOException {
+    private @NotNull CouchResponse execute(@NotNull CouchRequest request) throws IOException {
+        return resilience.execute(request, ResilienceHandler.getDatabase(baseURI, request.getURI()), () -> executeAuthenticated(request, true));
+    }
+
+    /**
+     * Method to run one attempt of HTTP request. If session cookie of the request is rejected, the request is run once more with a new cookie.
+     *
+     * @param request  which should be run. Must not be {@literal null}
+     * @param measured flag if duration of the request is latency of the node. Long polling requests are not measured
+     * @return {@link CouchResponse} to the given {@code request}
+     * @throws IOException if http request is not successful
+     */
+    private @NotNull CouchResponse executeAuthenticated(@NotNull CouchRequest request, boolean measured) throws IOException {
+        try {
+            return executeOnce(request, measured);
+        } catch (CouchDbException e) {
+            String cookie = request.getHeader(SM.COOKIE);
+            if (sessionAuthenticator == null || cookie == null || !SessionAuthenticator.isRejected(e)) {
+                throw e;
+            }
+            sessionAuthenticator.invalidate(cookie);
+            return executeOnce(request, measured);
+        }
+    }
+
+    /**
+     * Method to run one attempt of HTTP request on the node chosen by {@link NodeSelector}.
+     *
+     * @param request  which should be run. Must not be {@literal null}
+     * @param measured flag if duration of the request is latency of the node. Long polling requests are not measured
+     * @return {@link CouchResponse} to the given {@code request}
+     * @throws IOException if http request is not successful
+     */
+    private @NotNull CouchResponse executeOnce(@NotNull CouchRequest request, boolean measured) throws IOException {
+        Node node = nodeSelector.select();
+        if (sessionAuthenticator != null) {
+            sessionAuthenticator.authenticate(request, node.getHost());
+        }
+        long start = System.nanoTime();
+        node.requestStarted();
         try {
-            return httpClient.execute(httpHost, request, httpContext);
+            CouchResponse response = transport.execute(request, node.getHost());
+            if (sessionAuthenticator != null) {
+                sessionAuthenticator.update(response);
+            }
+            return response;
         } catch (IOException e) {
-            request.abort();
+            nodeSelector.failed(node, e);
             throw e;
+        } finally {
+            if (measured) {
+                node.requestFinished(System.nanoTime() - start);
+            } else {
+                node.requestFinished();
+            }
+        }
+    }
+
+    /**
+     * @return {@link NodeSelector} which chooses node of cluster for every request
+     */
+    @NotNull NodeSelector getNodeSelector() {
+        return nodeSelector;
+    }
+
+    /**
+     * @return {@link DesignRegistry} of design documents known to exist
+     */
+    @NotNull DesignRegistry getDesigns() {
+        return designs;
+    }
+
+    /**
+     * @return {@link SessionAuthenticator} which adds session cookie to requests or {@literal null} if cookie authentication is not used
+     */
+    @Nullable SessionAuthenticator getSessionAuthenticator() {
+        return sessionAuthenticator;
+    }
+
+    /**
+     * @return {@link CouchTransport} which sends requests to CouchDB
+     */
+    @NotNull CouchTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Method to remove the given document from read cache, if the cache is configured, and from near cache. Id of the document is added to existence index,
+     * deleted documents included, because it is cheaper to ask for a deleted document than to rebuild the index. Coalesced reads of the document and queries
+     * of the database (_find, views, _all_docs) which are in flight are detached, so a read which comes after the write sends a new request.
+     *
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param id           of the document. Can be {@literal null}, nothing is done
+     */
+    void evict(@NotNull String databaseName, @Nullable String id) {
+        if (queryCache != null) {
+            queryCache.invalidateDatabase(databaseName);
+        }
+        counts.invalidateDatabase(databaseName);
+        if (singleFlight != null) {
+            //ids of documents can not start by underscore, so the prefix matches special endpoints only
+            singleFlight.detachPrefix(getURI(baseURI, databaseName, "_").toString());
+        }
+        if (id == null) {
+            return;
         }
+        if (singleFlight != null) {
+            singleFlight.detach(getURI(baseURI, databaseName, id).toString());
+        }
+        if (readCache != null) {
+            readCache.invalidate(databaseName, id);
+        }
+        nearCache.getCache().invalidate(databaseName, id);
+        existence.add(databaseName, id);
+    }
+
+    /**
+     * Method to get statistics of read cache for monitoring.
+     *
+     * @return {@link CacheStatistics} of read cache or empty {@link Optional} if read cache is not configured
+     */
+    public @NotNull Optional<CacheStatistics> getReadCacheStatistics() {
+        return Optional.ofNullable(readCache).map(DocumentCache::getStatistics);
+    }
+
+    /**
+     * Method to get statistics of query cache for monitoring.
+     *
+     * @return {@link CacheStatistics} of query cache or empty {@link Optional} if query cache is not configured
+     */
+    public @NotNull Optional<CacheStatistics> getQueryCacheStatistics() {
+        return Optional.ofNullable(queryCache).map(DocumentCache::getStatistics);
+    }
+
+    /**
+     * Method to get statistics of near cache of entities annotated by {@link NearCached} for monitoring.
+     *
+     * @return {@link CacheStatistics} of near cache
+     */
+    public @NotNull CacheStatistics getNearCacheStatistics() {
+        return nearCache.getCache().getStatistics();
+    }
+
+    /**
+     * Method to get statistics of coalescing of identical concurrent reads for monitoring.
+     *
+     * @return {@link CoalescingStatistics} or empty {@link Optional} if read coalescing is not configured
+     */
+    public @NotNull Optional<CoalescingStatistics> getCoalescingStatistics() {
+        return Optional.ofNullable(singleFlight).map(SingleFlight::getStatistics);
+    }
+
+    /**
+     * @return {@link FanOut} which runs parallel parts of bulk operations
+     */
+    @NotNull FanOut getFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * @return {@link ResilienceHandler} which retries requests and holds circuit breakers of databases
+     */
+    @NotNull ResilienceHandler getResilienceHandler() {
+        return resilience;
+    }
+
+    /**
+     * Method to get states of circuit breakers for monitoring. Circuit breaker is created for a database when the first request is sent to it.
+     *
+     * @return states of circuit breakers by names of databases
+     */
+    public @NotNull Map<String, CircuitBreaker.State> getCircuitBreakerStates() {
+        return resilience.getCircuitBreakerStates();
+    }
+
+    /**
+     * Method to get balance of retry budget for monitoring.
+     *
+     * @return number of retries which can be done now
+     */
+    public double getRetryBudgetBalance() {
+        return resilience.getRetryBudget().getBalance();
     }
 
     /**
      * Method to end the connection to the endpoint.
      */
     public void close() {
-        HttpClientUtils.closeQuietly(this.httpClient);
+        nodeSelector.close();
+        resilience.close();
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        batchLoaders.values().forEach(BatchLoader::close);
+        batchScheduler.shutdownNow();
+        batchExecutor.shutdown();
+        existence.close();
+        nearCache.close();
+        fanOut.close();
+        transport.close();
     }
 
 }
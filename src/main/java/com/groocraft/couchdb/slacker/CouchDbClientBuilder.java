@@ -17,9 +17,17 @@
 package com.groocraft.couchdb.slacker;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.cluster.NodeSelectionPolicy;
+import com.groocraft.couchdb.slacker.cluster.NodeSelector;
 import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
+import com.groocraft.couchdb.slacker.http.SessionAuthenticator;
 import com.groocraft.couchdb.slacker.http.ThrowingInterceptor;
 import com.groocraft.couchdb.slacker.http.TrustAllStrategy;
+import com.groocraft.couchdb.slacker.http.UnixDomainSocketFactory;
+import com.groocraft.couchdb.slacker.transport.ApacheTransport;
+import com.groocraft.couchdb.slacker.transport.BoundedTransport;
+import com.groocraft.couchdb.slacker.transport.CouchTransport;
+import com.groocraft.couchdb.slacker.utils.VirtualThreads;
 import org.apache.http.Consts;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
@@ -29,9 +37,14 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.client.protocol.ResponseContentEncoding;
 import org.apache.http.config.ConnectionConfig;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
@@ -39,10 +52,20 @@ import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.ssl.SSLContexts;
@@ -50,12 +73,16 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.util.Assert;
 
+import javax.net.ssl.SSLContext;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
+import java.security.GeneralSecurityException;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Builder for {@link CouchDbClient}. The client can be builder manually thru {@link #url(String)}, {@link #username(String)} and {@link #password(String)}
@@ -65,9 +92,12 @@ import java.util.List;
  */
 public class CouchDbClientBuilder {
 
+    private static final URI UNIX_DOMAIN_SOCKET_BASE_URI = URI.create("http://localhost/");
+
     private final CouchDbProperties properties;
     private final List<IdGenerator<?>> idGenerators;
     private ObjectMapper objectMapper;
+    private NodeSelectionPolicy nodeSelectionPolicy;
 
     CouchDbClientBuilder() {
         properties = new CouchDbProperties();
@@ -98,6 +128,30 @@ public class CouchDbClientBuilder {
         return this;
     }
 
+    /**
+     * Method to set urls of other nodes of the same cluster. Requests are spread across the node given by {@link #url(String)} and these nodes.
+     *
+     * @param urls of other nodes. Every url must be valid by URI rules. Must not be {@literal null}
+     * @return {@link CouchDbClientBuilder}
+     */
+    public @NotNull CouchDbClientBuilder nodes(@NotNull List<String> urls) {
+        Assert.notNull(urls, "Urls must not be null.");
+        urls.forEach(url -> Assert.hasText(url, "Url must not be null nor empty."));
+        this.properties.setNodes(new LinkedList<>(urls));
+        return this;
+    }
+
+    /**
+     * Method to set custom policy how requests are spread across nodes. If not set, policy given by {@link CouchDbProperties#getLoadBalancing()} is used.
+     *
+     * @param nodeSelectionPolicy can be {@literal null}
+     * @return {@link CouchDbClientBuilder}
+     */
+    public @NotNull CouchDbClientBuilder nodeSelectionPolicy(@Nullable NodeSelectionPolicy nodeSelectionPolicy) {
+        this.nodeSelectionPolicy = nodeSelectionPolicy;
+        return this;
+    }
+
     /**
      * Method to set username used to authenticate to database
      *
@@ -141,7 +195,9 @@ public class CouchDbClientBuilder {
     }
 
     /**
-     * Method to build new instance of {@link CouchDbClient} by the given setting.
+     * Method to build new instance of {@link CouchDbClient} by the given setting. If there are more nodes (configured or discovered), requests are spread
+     * across them and health checks are started. If {@link Authentication#COOKIE} is configured, Basic credentials are used only for discovery of nodes
+     * and session cookie is used for all other requests. Requests are sent by HTTP engine given by {@link CouchDbProperties#getTransport()}.
      *
      * @return {@link CouchDbClient}
      */
@@ -149,15 +205,159 @@ public class CouchDbClientBuilder {
         if (objectMapper == null) {
             objectMapper = new ObjectMapper();
         }
-        URI uri = URI.create(ifNotNull(properties.getUrl(), "Url must be configured (can not be null)"));
-        HttpHost host = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
-        HttpContext context = getHttpContext(
-                host,
+        URI uri = getBaseURI();
+        String username = ifNotNull(properties.getUsername(), "User must be configured, (can not be null)");
+        String password = ifNotNull(properties.getPassword(), "Password must be configured, (can not be null)");
+        Assert.state(!properties.isVirtualThreads() || VirtualThreads.isAvailable(), "Virtual threads require Java 21 or newer");
+        if (isUnixDomainSocket()) {
+            Assert.state(properties.getTransport() == Transport.APACHE, "Unix domain socket can be used only by apache transport");
+            Assert.state(properties.getNodes().isEmpty() && !properties.isNodeDiscovery(), "Unix domain socket can not be used together with other nodes");
+        }
+        NodeSelector nodeSelector = new NodeSelector(getHosts(uri), nodeSelectionPolicy != null ? nodeSelectionPolicy :
+                properties.getLoadBalancing().createPolicy());
+        AuthCache authCache = new BasicAuthCache();
+        nodeSelector.getNodes().forEach(n -> authCache.put(n.getHost(), new BasicScheme()));
+        CouchTransport transport = getTransport(authCache, username, password, !isCookieAuthentication(), nodeSelector.getNodes().size());
+        if (properties.isNodeDiscovery()) {
+            if (isCookieAuthentication()) {
+                //discovery is done before session exists, so it is authenticated by Basic credentials
+                try (CouchTransport basicTransport = getTransport(authCache, username, password, true, nodeSelector.getNodes().size())) {
+                    nodeSelector.discover(basicTransport, uri);
+                }
+            } else {
+                nodeSelector.discover(transport, uri).forEach(n -> authCache.put(n.getHost(), new BasicScheme()));
+            }
+        }
+        if (properties.getHealthCheckInterval() > 0 && nodeSelector.getNodes().size() > 1) {
+            nodeSelector.startHealthChecks(transport, uri, properties.getHealthCheckInterval());
+        }
+        SessionAuthenticator sessionAuthenticator = isCookieAuthentication() ?
+                new SessionAuthenticator(transport, uri, username, password, properties.getSessionTimeout()) : null;
+        return new CouchDbClient(transport, nodeSelector, uri, idGenerators, objectMapper, properties, sessionAuthenticator);
+    }
+
+    /**
+     * Method to build new instance of {@link AsyncCouchDbClient} by the given setting. Connection pool limits, timeouts and keep-alive are configured the
+     * same way as for {@link #build()}, number of I/O dispatch threads is given by {@link CouchDbProperties#getAsyncIoThreads()}. The returned client is
+     * started. Nodes, their health and statistics are shared with the given client.
+     *
+     * @param client which shares {@link EntityMetadata}, id generation, serialization and nodes with the created asynchronous client. Must not be {@literal
+     *               null}
+     * @return {@link AsyncCouchDbClient}
+     */
+    public @NotNull AsyncCouchDbClient buildAsync(@NotNull CouchDbClient client) {
+        Assert.notNull(client, "Client must not be null.");
+        Assert.state(!isUnixDomainSocket(), "Unix domain socket can not be used by asynchronous client");
+        URI uri = getBaseURI();
+        AuthCache authCache = new BasicAuthCache();
+        client.getNodeSelector().getNodes().forEach(n -> authCache.put(n.getHost(), new BasicScheme()));
+        CredentialsProvider credentialsProvider = getCredentialProvider(
                 ifNotNull(properties.getUsername(), "User must be configured, (can not be null)"),
                 ifNotNull(properties.getPassword(), "Password must be configured, (can not be null)"));
-        HttpClient client = getHttpClient();
-        return new CouchDbClient(client, host, context, uri, idGenerators, properties.getDefaultShards(),
-                properties.getDefaultReplicas(), properties.isDefaultPartitioned(), properties.getBulkMaxSize(), properties.getQueryStrategy(), objectMapper);
+        CloseableHttpAsyncClient asyncClient = getHttpAsyncClient();
+        asyncClient.start();
+        if (isCookieAuthentication()) {
+            return new AsyncCouchDbClient(client, asyncClient, client.getNodeSelector(), HttpClientContext::create, uri,
+                    AsyncCouchDbClient.createExecutor(properties.isVirtualThreads()));
+        }
+        return new AsyncCouchDbClient(client, asyncClient, client.getNodeSelector(), () -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setAuthCache(authCache);
+            context.setCredentialsProvider(credentialsProvider);
+            return context;
+        }, uri, AsyncCouchDbClient.createExecutor(properties.isVirtualThreads()));
+    }
+
+    /**
+     * Method to create HTTP engine given by {@link CouchDbProperties#getTransport()}. If virtual threads are configured or the engine has no pool limit
+     * (JDK engine), the engine is wrapped by {@link BoundedTransport} limited by the configured connection limits.
+     *
+     * @param authCache           where hosts of nodes are registered for preemptive basic authentication. Must not be {@literal null}
+     * @param username            Must not be {@literal null}
+     * @param password            Must not be {@literal null}
+     * @param basicAuthentication flag if requests should carry Basic credentials
+     * @param nodes               number of nodes which requests are spread across
+     * @return {@link CouchTransport}
+     */
+    private @NotNull CouchTransport getTransport(@NotNull AuthCache authCache, @NotNull String username, @NotNull String password,
+                                                 boolean basicAuthentication, int nodes) {
+        CouchTransport transport;
+        int maxConcurrency;
+        if (properties.getTransport() == Transport.JDK) {
+            transport = getJdkTransport(basicAuthentication ? username : null, basicAuthentication ? password : null);
+            maxConcurrency = properties.getMaxConnections();
+        } else {
+            transport = new ApacheTransport(getHttpClient(), basicAuthentication ? getHttpContext(authCache, username, password) : new BasicHttpContext());
+            maxConcurrency = (int) Math.min(properties.getMaxConnections(), (long) properties.getMaxConnectionsPerRoute() * nodes);
+        }
+        if (properties.isVirtualThreads() || properties.getTransport() == Transport.JDK) {
+            //jdk engine has no pool limit and virtual threads must not wait inside of the pool, so callers wait in the queue of bounded transport
+            transport = new BoundedTransport(transport, maxConcurrency, properties.getConnectionRequestTimeout());
+        }
+        return transport;
+    }
+
+    /**
+     * Method to create HTTP engine of JDK. The engine is compiled for Java 11 and delivered in the versioned part of the jar, so it is loaded reflectively.
+     *
+     * @param username of preemptive basic authentication or {@literal null} if requests should not carry credentials
+     * @param password of preemptive basic authentication or {@literal null} if requests should not carry credentials
+     * @return {@link CouchTransport} backed by java.net.http.HttpClient
+     */
+    private @NotNull CouchTransport getJdkTransport(@Nullable String username, @Nullable String password) {
+        try {
+            SSLContext sslContext = SSLContexts.custom().loadTrustMaterial(new TrustAllStrategy()).build();
+            return (CouchTransport) Class.forName(CouchTransport.class.getPackage().getName() + ".JdkTransport")
+                    .getConstructor(CouchDbProperties.class, SSLContext.class, String.class, String.class)
+                    .newInstance(properties, sslContext, username, password);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("JDK transport requires Java 11 or newer", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Unable to create JDK transport", e.getCause());
+        } catch (ReflectiveOperationException | KeyStoreException | NoSuchAlgorithmException | KeyManagementException e) {
+            throw new IllegalStateException("Unable to create JDK transport", e);
+        }
+    }
+
+    /**
+     * Method to get hosts of all configured nodes, the node given by url is the first one.
+     *
+     * @param uri of the main node. Must not be {@literal null}
+     * @return {@link List} of {@link HttpHost} of all configured nodes
+     */
+    private @NotNull List<HttpHost> getHosts(@NotNull URI uri) {
+        List<HttpHost> hosts = new LinkedList<>();
+        hosts.add(new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme()));
+        for (String url : properties.getNodes()) {
+            URI nodeUri = URI.create(url);
+            hosts.add(new HttpHost(nodeUri.getHost(), nodeUri.getPort(), nodeUri.getScheme()));
+        }
+        return hosts;
+    }
+
+    /**
+     * Method to get URI where CouchDB is accessible. If Unix domain socket is configured, requests are addressed to http://localhost/ and every connection
+     * is established to the socket by {@link UnixDomainSocketFactory}.
+     *
+     * @return {@link URI} which all requests are based on
+     */
+    private @NotNull URI getBaseURI() {
+        URI uri = URI.create(ifNotNull(properties.getUrl(), "Url must be configured (can not be null)"));
+        return isUnixDomainSocket() ? UNIX_DOMAIN_SOCKET_BASE_URI : uri;
+    }
+
+    /**
+     * @return true if url of CouchDB is path of Unix domain socket
+     */
+    private boolean isUnixDomainSocket() {
+        return properties.getUrl() != null && CouchDbProperties.UNIX_SCHEME.equals(URI.create(properties.getUrl()).getScheme());
+    }
+
+    /**
+     * @return true if requests are authenticated by session cookie
+     */
+    private boolean isCookieAuthentication() {
+        return properties.getAuthentication() == Authentication.COOKIE;
     }
 
     /**
@@ -177,14 +377,12 @@ public class CouchDbClientBuilder {
      * Method to create basic context with given {@link HttpContext} with basic authentication and cache. Authentication using
      * {@link CouchDbProperties#getUsername()} nad {@link CouchDbProperties#getPassword()} as credentials.
      *
-     * @param host     Must not be {@literal null}
-     * @param username Must not be {@literal null}
-     * @param password Must not be {@literal null}
+     * @param authCache where hosts of nodes are registered for preemptive basic authentication. Must not be {@literal null}
+     * @param username  Must not be {@literal null}
+     * @param password  Must not be {@literal null}
      * @return {@link HttpContext}
      */
-    private @NotNull HttpContext getHttpContext(@NotNull HttpHost host, @NotNull String username, @NotNull String password) {
-        AuthCache authCache = new BasicAuthCache();
-        authCache.put(host, new BasicScheme());
+    private @NotNull HttpContext getHttpContext(@NotNull AuthCache authCache, @NotNull String username, @NotNull String password) {
         HttpContext context = new BasicHttpContext();
         context.setAttribute(HttpClientContext.AUTH_CACHE, authCache);
         context.setAttribute(HttpClientContext.CREDS_PROVIDER, getCredentialProvider(username, password));
@@ -193,29 +391,167 @@ public class CouchDbClientBuilder {
 
     /**
      * Method to create {@link HttpClient} with ability to connect to http and https, default UTF8, 0 retry when fault and interceptor which throws exception
-     * when not OK response
+     * when not OK response. Pool, keep-alive, eviction of idle connections, timeouts and response compression are configured by {@link CouchDbProperties}.
+     * Retries are not done by the HTTP client, because {@link com.groocraft.couchdb.slacker.resilience.ResilienceHandler} retries requests with backoff.
      *
      * @return {@link HttpClient}
      * @see ThrowingInterceptor
      */
     private @NotNull HttpClient getHttpClient() {
         try {
-            PoolingHttpClientConnectionManager ccm = new PoolingHttpClientConnectionManager(getRegistry());
+            return getHttpClient(getConnectionManager());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create HTTP client", e);
+        }
+    }
+
+    /**
+     * @param connectionManager which is used by the created client. Must not be {@literal null}
+     * @return {@link HttpClient} configured by {@link CouchDbProperties}, see {@link #getHttpClient()}
+     */
+    @NotNull HttpClient getHttpClient(@NotNull HttpClientConnectionManager connectionManager) {
+        try {
             HttpClientBuilder clientBuilder = HttpClients.custom()
-                    .setConnectionManager(ccm)
+                    .setConnectionManager(connectionManager)
                     .setDefaultConnectionConfig(ConnectionConfig.custom()
                             .setCharset(Consts.UTF_8).build())
-                    .setDefaultRequestConfig(RequestConfig.DEFAULT)
-                    .addInterceptorFirst(new ThrowingInterceptor())
+                    .setDefaultRequestConfig(getRequestConfig())
+                    .setKeepAliveStrategy(getKeepAliveStrategy())
+                    .disableContentCompression()
                     .setRetryHandler(new DefaultHttpRequestRetryHandler(0, false));
+            if (properties.isResponseCompression()) {
+                //decoding is registered before ThrowingInterceptor, so body of error response is decoded too
+                clientBuilder.addInterceptorLast(new RequestAcceptEncoding())
+                        .addInterceptorFirst(new ResponseContentEncoding());
+            }
+            clientBuilder.addInterceptorFirst(new ThrowingInterceptor());
+            if (isCookieAuthentication()) {
+                //session cookie is added by SessionAuthenticator, cookie store would add it once more
+                clientBuilder.disableCookieManagement();
+            }
+            if (properties.getIdleConnectionTimeout() > 0) {
+                clientBuilder.evictExpiredConnections()
+                        .evictIdleConnections(properties.getIdleConnectionTimeout(), TimeUnit.MILLISECONDS);
+            }
             return clientBuilder.build();
         } catch (Exception e) {
             throw new IllegalStateException("Unable to create HTTP client", e);
         }
     }
 
+    /**
+     * Method to create non-blocking {@link CloseableHttpAsyncClient} with ability to connect to http and https, default UTF8 and interceptor which throws
+     * exception when not OK response. Pool, keep-alive, timeouts and response compression are configured by {@link CouchDbProperties} the same way as for {@link #getHttpClient()}.
+     *
+     * @return not started {@link CloseableHttpAsyncClient}
+     * @see ThrowingInterceptor
+     */
+    private @NotNull CloseableHttpAsyncClient getHttpAsyncClient() {
+        try {
+            IOReactorConfig.Builder reactorConfig = IOReactorConfig.custom()
+                    .setTcpNoDelay(properties.isTcpNoDelay())
+                    .setSoKeepAlive(true)
+                    .setConnectTimeout(properties.getConnectTimeout())
+                    .setSoTimeout(properties.getSocketTimeout());
+            if (properties.getAsyncIoThreads() > 0) {
+                reactorConfig.setIoThreadCount(properties.getAsyncIoThreads());
+            }
+            if (properties.getSocketSendBufferSize() > 0) {
+                reactorConfig.setSndBufSize(properties.getSocketSendBufferSize());
+            }
+            if (properties.getSocketReceiveBufferSize() > 0) {
+                reactorConfig.setRcvBufSize(properties.getSocketReceiveBufferSize());
+            }
+            // @formatter:off
+            Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                    .register("https", new SSLIOSessionStrategy(SSLContexts.custom().loadTrustMaterial(new TrustAllStrategy()).build(),
+                            new NoopHostnameVerifier()))
+                    .register("http", NoopIOSessionStrategy.INSTANCE).build();
+            // @formatter:on
+            PoolingNHttpClientConnectionManager ccm = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig.build()), registry);
+            ccm.setMaxTotal(properties.getMaxConnections());
+            ccm.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+            HttpAsyncClientBuilder clientBuilder = HttpAsyncClients.custom()
+                    .setConnectionManager(ccm)
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setCharset(Consts.UTF_8).build())
+                    .setDefaultRequestConfig(getRequestConfig())
+                    .setKeepAliveStrategy(getKeepAliveStrategy());
+            if (properties.isResponseCompression()) {
+                //decoding is registered before ThrowingInterceptor, so body of error response is decoded too
+                clientBuilder.addInterceptorLast(new RequestAcceptEncoding())
+                        .addInterceptorFirst(new ResponseContentEncoding());
+            }
+            if (isCookieAuthentication()) {
+                //session cookie is added by SessionAuthenticator, cookie store would add it once more
+                clientBuilder.disableCookieManagement();
+            }
+            return clientBuilder.addInterceptorFirst(new ThrowingInterceptor()).build();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to create asynchronous HTTP client", e);
+        }
+    }
+
+    /**
+     * Method to create pooling connection manager with limits, validation and socket options taken from {@link CouchDbProperties}.
+     *
+     * @return {@link PoolingHttpClientConnectionManager}
+     * @throws KeyStoreException        if unable to load {@link TrustAllStrategy}
+     * @throws NoSuchAlgorithmException if unable to load {@link TrustAllStrategy}
+     * @throws KeyManagementException   if unable to build {@link TrustAllStrategy}
+     */
+    @NotNull PoolingHttpClientConnectionManager getConnectionManager() throws KeyStoreException, NoSuchAlgorithmException, KeyManagementException {
+        PoolingHttpClientConnectionManager ccm = new PoolingHttpClientConnectionManager(getRegistry());
+        ccm.setMaxTotal(properties.getMaxConnections());
+        ccm.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        ccm.setValidateAfterInactivity(properties.getValidateAfterInactivity());
+        SocketConfig.Builder socketConfig = SocketConfig.custom()
+                .setTcpNoDelay(properties.isTcpNoDelay())
+                .setSoKeepAlive(true)
+                .setSoTimeout(properties.getSocketTimeout());
+        if (properties.getSocketSendBufferSize() > 0) {
+            socketConfig.setSndBufSize(properties.getSocketSendBufferSize());
+        }
+        if (properties.getSocketReceiveBufferSize() > 0) {
+            socketConfig.setRcvBufSize(properties.getSocketReceiveBufferSize());
+        }
+        ccm.setDefaultSocketConfig(socketConfig.build());
+        return ccm;
+    }
+
+    /**
+     * Method to create {@link RequestConfig} with connect, socket and connection request (lease) timeouts from {@link CouchDbProperties}.
+     *
+     * @return {@link RequestConfig}
+     */
+    @NotNull RequestConfig getRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(properties.getConnectTimeout())
+                .setSocketTimeout(properties.getSocketTimeout())
+                .setConnectionRequestTimeout(properties.getConnectionRequestTimeout())
+                .build();
+    }
+
+    /**
+     * Method to create {@link ConnectionKeepAliveStrategy} which respects Keep-Alive header sent by CouchDB, but keeps a connection alive no longer than
+     * {@link CouchDbProperties#getKeepAlive()}.
+     *
+     * @return {@link ConnectionKeepAliveStrategy}
+     */
+    @NotNull ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+        long keepAlive = properties.getKeepAlive();
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (keepAlive <= 0) {
+                return duration;
+            }
+            return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+        };
+    }
+
     /**
      * Method to configure and get {@link Registry} of {@link ConnectionSocketFactory} for http and https. In case of https all certificated are trusted.
+     * If Unix domain socket is configured, http connections are established to the socket.
      *
      * @return {@link Registry}
      * @throws KeyStoreException        if unable to load {@link TrustAllStrategy}
@@ -223,6 +559,10 @@ public class CouchDbClientBuilder {
      * @throws KeyManagementException   if unable to build {@link TrustAllStrategy}
      */
     private Registry<ConnectionSocketFactory> getRegistry() throws KeyStoreException, NoSuchAlgorithmException, KeyManagementException {
+        if (isUnixDomainSocket()) {
+            return RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", new UnixDomainSocketFactory(URI.create(properties.getUrl()).getPath())).build();
+        }
         // @formatter:off
         return RegistryBuilder.<ConnectionSocketFactory>create()
                 .register("https", new SSLConnectionSocketFactory(SSLContexts.custom().loadTrustMaterial(new TrustAllStrategy()).build(),
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker;
+
+import com.groocraft.couchdb.slacker.structure.DesignDocument;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.util.Pair;
+import org.springframework.util.Assert;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe registry of design documents known to exist in databases together with names of their views. The registry is filled by every design
+ * document read or saved by the client, so queries on generated views can go directly to the view without reading the design document first. When the
+ * registry is stale (design was changed or deleted by someone else), the affected design must be invalidated and read again. The registry also holds number
+ * of design documents of databases together with update_seq of the database it was read at. The number is valid only while update_seq does not move, so
+ * designs created by someone else are counted too. It is forgotten whenever a new design is registered, a design is invalidated or a Mango index (which is a
+ * design document too) is created.
+ *
+ * @author Majlanky
+ */
+class DesignRegistry {
+
+    private static final String DESIGN_PREFIX = "_design/";
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final Map<String, Set<String>> designs = new ConcurrentHashMap<>();
+    private final Map<String, Pair<String, Long>> designCounts = new ConcurrentHashMap<>();
+
+    /**
+     * @param databaseName of database where the design is stored. Must not be {@literal null}
+     * @param design       name of the design document (id without _design/ prefix). Must not be {@literal null}
+     * @return true if the design is known to exist
+     */
+    boolean contains(@NotNull String databaseName, @NotNull String design) {
+        return designs.containsKey(getKey(databaseName, design));
+    }
+
+    /**
+     * @param databaseName of database where the design is stored. Must not be {@literal null}
+     * @param design       name of the design document (id without _design/ prefix). Must not be {@literal null}
+     * @param view         name of the view. Must not be {@literal null}
+     * @return true if the design is known to exist and to contain the given view
+     */
+    boolean contains(@NotNull String databaseName, @NotNull String design, @NotNull String view) {
+        return designs.getOrDefault(getKey(databaseName, design), Collections.emptySet()).contains(view);
+    }
+
+    /**
+     * Method to remember the given design and its views. Previously known views of the same design are replaced.
+     *
+     * @param databaseName of database where the design is stored. Must not be {@literal null}
+     * @param design       which is stored in the database. Must not be {@literal null}
+     */
+    void register(@NotNull String databaseName, @NotNull DesignDocument design) {
+        Assert.hasText(design.getId(), "DesignDocument.Id must not be null");
+        Set<String> views = design.getViews() == null ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(design.getViews().keySet()));
+        if (designs.put(getKey(databaseName, getName(design)), views) == null) {
+            designCounts.remove(databaseName);
+        }
+    }
+
+    /**
+     * Method to forget the given design, so it is read again when it is needed.
+     *
+     * @param databaseName of database where the design is stored. Must not be {@literal null}
+     * @param design       name of the design document (id without _design/ prefix). Must not be {@literal null}
+     */
+    void invalidate(@NotNull String databaseName, @NotNull String design) {
+        designs.remove(getKey(databaseName, design));
+        designCounts.remove(databaseName);
+    }
+
+    /**
+     * Method to forget all designs of the given database.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     */
+    void invalidateDatabase(@NotNull String databaseName) {
+        String prefix = databaseName + KEY_SEPARATOR;
+        designs.keySet().removeIf(k -> k.startsWith(prefix));
+        designCounts.remove(databaseName);
+    }
+
+    /**
+     * @param databaseName of database. Must not be {@literal null}
+     * @param updateSeq    current update_seq of the database. Must not be {@literal null}
+     * @return number of design documents of the given database or {@literal null} if it is not known or it was read at another update_seq
+     */
+    @Nullable Long getDesignCount(@NotNull String databaseName, @NotNull String updateSeq) {
+        Pair<String, Long> count = designCounts.get(databaseName);
+        return count != null && count.getFirst().equals(updateSeq) ? count.getSecond() : null;
+    }
+
+    /**
+     * Method to remember number of design documents of the given database.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     * @param updateSeq    update_seq of the database at which the number was read. Must not be {@literal null}
+     * @param count        of design documents in the database
+     */
+    void setDesignCount(@NotNull String databaseName, @NotNull String updateSeq, long count) {
+        designCounts.put(databaseName, Pair.of(updateSeq, count));
+    }
+
+    /**
+     * Method to forget number of design documents of the given database. Used when a design document is created without registration (Mango index).
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     */
+    void invalidateDesignCount(@NotNull String databaseName) {
+        designCounts.remove(databaseName);
+    }
+
+    /**
+     * @param design document. Must not be {@literal null}
+     * @return name of the given design document (id without _design/ prefix)
+     */
+    static @NotNull String getName(@NotNull DesignDocument design) {
+        String id = design.getId();
+        return id.startsWith(DESIGN_PREFIX) ? id.substring(DESIGN_PREFIX.length()) : id;
+    }
+
+    private static @NotNull String getKey(@NotNull String databaseName, @NotNull String designId) {
+        return databaseName + KEY_SEPARATOR + designId;
+    }
+
+}
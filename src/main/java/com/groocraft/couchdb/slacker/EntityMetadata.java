@@ -18,6 +18,9 @@ package com.groocraft.couchdb.slacker;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.groocraft.couchdb.slacker.annotation.Document;
+import com.groocraft.couchdb.slacker.annotation.ExistenceIndexed;
+import com.groocraft.couchdb.slacker.annotation.NearCached;
+import com.groocraft.couchdb.slacker.annotation.ReadBatched;
 import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
 import com.groocraft.couchdb.slacker.data.FieldAccessor;
 import com.groocraft.couchdb.slacker.data.MethodReader;
@@ -61,6 +64,9 @@ public class EntityMetadata {
     private final String type;
     private final String typeField;
     private final boolean isViewed;
+    private final boolean isNearCached;
+    private final boolean isExistenceIndexed;
+    private final boolean isReadBatched;
 
     /**
      * @param entityClass of parsed document. Must not be {@literal null}
@@ -86,6 +92,9 @@ public class EntityMetadata {
         view = "".equals(document.view()) ? entityClass.getSimpleName().toLowerCase() : document.view();
         type = "".equals(document.type()) ? entityClass.getSimpleName().toLowerCase() : document.type();
         typeField = document.typeField();
+        isNearCached = entityClass.isAnnotationPresent(NearCached.class);
+        isExistenceIndexed = entityClass.isAnnotationPresent(ExistenceIndexed.class);
+        isReadBatched = entityClass.isAnnotationPresent(ReadBatched.class);
         if (isViewed) {
             log.debug("Documents of class {} will be processed by view ({}) and type ({}) where design is {} and typeField is {}",
                     entityClass.getSimpleName(), view, type, design, typeField);
@@ -247,6 +256,27 @@ public class EntityMetadata {
         return isViewed;
     }
 
+    /**
+     * @return true if the entity class is annotated by {@link NearCached}
+     */
+    public boolean isNearCached() {
+        return isNearCached;
+    }
+
+    /**
+     * @return true if the entity class is annotated by {@link ExistenceIndexed}
+     */
+    public boolean isExistenceIndexed() {
+        return isExistenceIndexed;
+    }
+
+    /**
+     * @return true if the entity class is annotated by {@link ReadBatched}
+     */
+    public boolean isReadBatched() {
+        return isReadBatched;
+    }
+
     public String getDesign() {
         return design;
     }
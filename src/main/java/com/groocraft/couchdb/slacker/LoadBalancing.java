@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker;
+
+import com.groocraft.couchdb.slacker.cluster.LatencyWeightedPolicy;
+import com.groocraft.couchdb.slacker.cluster.LeastOutstandingRequestsPolicy;
+import com.groocraft.couchdb.slacker.cluster.NodeSelectionPolicy;
+import com.groocraft.couchdb.slacker.cluster.RoundRobinPolicy;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * Enum of policies how requests are spread across nodes of CouchDB cluster.
+ */
+public enum LoadBalancing {
+
+    /**
+     * Nodes are used one after another.
+     */
+    ROUND_ROBIN(RoundRobinPolicy::new),
+
+    /**
+     * The node with the lowest number of requests in progress is used.
+     */
+    LEAST_OUTSTANDING_REQUESTS(LeastOutstandingRequestsPolicy::new),
+
+    /**
+     * Nodes are chosen randomly with probability inversely proportional to their average response time.
+     */
+    LATENCY_WEIGHTED(LatencyWeightedPolicy::new);
+
+    private final Supplier<NodeSelectionPolicy> policySupplier;
+
+    LoadBalancing(Supplier<NodeSelectionPolicy> policySupplier) {
+        this.policySupplier = policySupplier;
+    }
+
+    /**
+     * @return new instance of {@link NodeSelectionPolicy} implementing this load balancing
+     */
+    public @NotNull NodeSelectionPolicy createPolicy() {
+        return policySupplier.get();
+    }
+
+}
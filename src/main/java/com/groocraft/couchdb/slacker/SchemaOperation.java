@@ -85,6 +85,8 @@ public enum SchemaOperation {
             log.info("Database {} not found and it will be created", metadata.getDatabaseName());
             client.createDatabase(clazz);
         }
+        log.info("Loading designs of {} database", metadata.getDatabaseName());
+        client.readDesigns(metadata.getDatabaseName());
         log.info("Checking design {} for {} database", CouchDbClient.ALL_DESIGN, metadata.getDatabaseName());
         DesignDocument allDesign = client.readDesignSafely(CouchDbClient.ALL_DESIGN, metadata.getDatabaseName()).
                 orElseGet(() -> {
@@ -138,6 +140,8 @@ public enum SchemaOperation {
         if (!client.databaseExists(clazz)) {
             throw new SchemaProcessingException(String.format("Database %s does not exists", metadata.getDatabaseName()));
         }
+        log.info("Loading designs of {} database", metadata.getDatabaseName());
+        client.readDesigns(metadata.getDatabaseName());
         log.info("Validating that all expected basic design document and views exists");
         Optional<DesignDocument> designAll = client.readDesignSafely(CouchDbClient.ALL_DESIGN, metadata.getDatabaseName());
         if (!designAll.isPresent()) {
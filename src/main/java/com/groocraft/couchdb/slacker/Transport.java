@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker;
+
+/**
+ * Enum of HTTP engines which can be used by the blocking client to send requests.
+ */
+public enum Transport {
+
+    /**
+     * Apache HttpClient with its pooling connection manager. All connection settings of {@link com.groocraft.couchdb.slacker.configuration.CouchDbProperties}
+     * are applied.
+     */
+    APACHE,
+
+    /**
+     * HTTP client of JDK (java.net.http). It needs Java 11 or newer. Timeouts, response compression and TLS are configured the same way as for
+     * {@link #APACHE}, size of pool and keep-alive of connections are given by jdk.httpclient system properties. Number of requests in flight is limited
+     * by max-connections.
+     */
+    JDK
+
+}
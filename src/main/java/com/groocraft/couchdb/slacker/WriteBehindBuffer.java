@@ -0,0 +1,342 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker;
+
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.structure.DocumentPutResponse;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpStatus;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer of serialized documents which are written to CouchDB by _bulk_docs requests per database. Repeated writes of the same id which wait
+ * in the buffer are merged, the last one is written and all their futures are completed by its result. Buffered writes of a database are flushed when
+ * they reach the maximal batch size or when the flush interval since the first of them elapses. Only one flush of a database runs at the same time, so
+ * writes of the same id are never reordered, writes which became due during a flush are flushed right after it. Number of buffered and flushed writes is bounded,
+ * a write into the full buffer waits until a flush makes a space.
+ *
+ * @author Majlanky
+ */
+@Slf4j
+class WriteBehindBuffer implements Closeable {
+
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long flushInterval;
+    private final BulkWriter writer;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final Map<String, Queue> queues;
+    private final Lock lock;
+    private final Condition notFull;
+    private int size;
+    private boolean closed;
+
+    /**
+     * @param capacity      maximal number of writes which are buffered or flushed at the same time. Must be positive
+     * @param maxBatchSize  maximal number of writes in one _bulk_docs request. Must be positive
+     * @param flushInterval time in milliseconds after which buffered writes are flushed since the first of them. Must not be negative
+     * @param writer        {@link BulkWriter} which sends _bulk_docs requests. Must not be {@literal null}
+     * @param scheduler     which flushes writes when the interval elapses. It is not shut down by {@link #close()}. Must not be {@literal null}
+     * @param executor      which runs flushes. It is not shut down by {@link #close()}. Must not be {@literal null}
+     */
+    WriteBehindBuffer(int capacity, int maxBatchSize, long flushInterval, @NotNull BulkWriter writer, @NotNull ScheduledExecutorService scheduler,
+                      @NotNull Executor executor) {
+        Assert.isTrue(capacity > 0, "Capacity must be positive number");
+        Assert.isTrue(maxBatchSize > 0, "MaxBatchSize must be positive number");
+        Assert.isTrue(flushInterval >= 0, "FlushInterval must not be negative number");
+        Assert.notNull(writer, "Writer must not be null.");
+        Assert.notNull(scheduler, "Scheduler must not be null.");
+        Assert.notNull(executor, "Executor must not be null.");
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.flushInterval = flushInterval;
+        this.writer = writer;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.queues = new ConcurrentHashMap<>();
+        this.lock = new ReentrantLock();
+        this.notFull = lock.newCondition();
+    }
+
+    /**
+     * Method to buffer write of the given document. Waits while the buffer is full.
+     *
+     * @param databaseName of database where the document is written. Must not be {@literal null}
+     * @param id           of the document. Must not be {@literal null}
+     * @param json         serialized document with id and revision (deleted flag for deletes). Must not be {@literal null}
+     * @return {@link CompletableFuture} of revision of the written document, failed by {@link CouchDbException} if CouchDB refused the document
+     * @throws InterruptedIOException if the calling thread is interrupted while waiting for a space in the buffer
+     */
+    @NotNull CompletableFuture<String> write(@NotNull String databaseName, @NotNull String id, @NotNull String json) throws InterruptedIOException {
+        Assert.notNull(databaseName, "DatabaseName must not be null.");
+        Assert.notNull(id, "Id must not be null.");
+        Assert.notNull(json, "Json must not be null.");
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Queue queue = queues.computeIfAbsent(databaseName, Queue::new);
+        List<Write> batch;
+        lock.lock();
+        try {
+            Write merged = queue.pending.get(id);
+            while (merged == null && size >= capacity && !closed) {
+                notFull.await();
+                merged = queue.pending.get(id);
+            }
+            if (closed) {
+                future.completeExceptionally(new IOException("Write-behind buffer is closed"));
+                return future;
+            }
+            if (merged == null) {
+                queue.pending.put(id, new Write(id, json, future));
+                size++;
+            } else {
+                merged.json = json;
+                merged.futures.add(future);
+            }
+            batch = take(queue, queue.pending.size() >= maxBatchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for space in write-behind buffer");
+        } finally {
+            lock.unlock();
+        }
+        dispatch(queue, batch);
+        return future;
+    }
+
+    /**
+     * Method to take the next batch of the given queue. Must be called under the lock.
+     *
+     * @param queue of a database. Must not be {@literal null}
+     * @param force flag if the batch should be taken even if it is not full
+     * @return {@link List} of writes of the batch or {@literal null} if nothing should be flushed now
+     */
+    private List<Write> take(@NotNull Queue queue, boolean force) {
+        if (queue.flushing || queue.pending.isEmpty()) {
+            return null;
+        }
+        if (!force) {
+            if (!queue.scheduled) {
+                queue.scheduled = true;
+                try {
+                    scheduler.schedule(() -> flush(queue), flushInterval, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    queue.scheduled = false;
+                    return take(queue, true);
+                }
+            }
+            return null;
+        }
+        List<Write> batch = new ArrayList<>(Math.min(maxBatchSize, queue.pending.size()));
+        Iterator<Write> iterator = queue.pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < maxBatchSize) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        queue.flushing = true;
+        return batch;
+    }
+
+    private void flush(@NotNull Queue queue) {
+        List<Write> batch;
+        lock.lock();
+        try {
+            queue.scheduled = false;
+            batch = take(queue, true);
+        } finally {
+            lock.unlock();
+        }
+        dispatch(queue, batch);
+    }
+
+    private void dispatch(@NotNull Queue queue, List<Write> batch) {
+        if (batch == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> write(queue, batch));
+        } catch (RejectedExecutionException e) {
+            write(queue, batch);
+        }
+    }
+
+    private void write(@NotNull Queue queue, @NotNull List<Write> batch) {
+        log.debug("Flushing {} buffered writes to database {}", batch.size(), queue.databaseName);
+        try {
+            List<String> docs = new ArrayList<>(batch.size());
+            batch.forEach(w -> docs.add(w.json));
+            List<DocumentPutResponse> responses = writer.write(queue.databaseName, docs);
+            for (int i = 0; i < batch.size(); i++) {
+                complete(queue.databaseName, batch.get(i), i < responses.size() ? responses.get(i) : null);
+            }
+        } catch (Throwable e) {
+            batch.forEach(w -> w.futures.forEach(f -> f.completeExceptionally(e)));
+        }
+        List<Write> next;
+        lock.lock();
+        try {
+            size -= batch.size();
+            notFull.signalAll();
+            queue.flushing = false;
+            //interval of writes buffered during the flush could elapse already, than the timer did nothing
+            next = take(queue, closed || !queue.scheduled || queue.pending.size() >= maxBatchSize);
+        } finally {
+            lock.unlock();
+        }
+        dispatch(queue, next);
+    }
+
+    private void complete(@NotNull String databaseName, @NotNull Write write, DocumentPutResponse response) {
+        if (response != null && "true".equals(response.getOk())) {
+            write.futures.forEach(f -> f.complete(response.getRev()));
+            return;
+        }
+        String error = response == null ? "missing" : response.getError();
+        CouchDbException exception = new CouchDbException(getStatusCode(error), CouchRequest.POST, "/" + databaseName + "/_bulk_docs",
+                error + " : " + (response == null ? "no result for document " + write.id : response.getReason()));
+        write.futures.forEach(f -> f.completeExceptionally(exception));
+    }
+
+    private static int getStatusCode(String error) {
+        if ("conflict".equals(error)) {
+            return HttpStatus.SC_CONFLICT;
+        }
+        if ("forbidden".equals(error)) {
+            return HttpStatus.SC_FORBIDDEN;
+        }
+        if ("unauthorized".equals(error)) {
+            return HttpStatus.SC_UNAUTHORIZED;
+        }
+        return HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * @return number of writes which are buffered or flushed
+     */
+    int getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to refuse next writes and to flush all buffered writes. Waits until all writes are flushed.
+     */
+    @Override
+    public void close() {
+        List<Runnable> flushes = new LinkedList<>();
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+            for (Queue queue : queues.values()) {
+                List<Write> batch = take(queue, true);
+                if (batch != null) {
+                    flushes.add(() -> dispatch(queue, batch));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        flushes.forEach(Runnable::run);
+        lock.lock();
+        try {
+            while (size > 0) {
+                notFull.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while flushing write-behind buffer, {} writes may be lost", size);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@link FunctionalInterface} of sender of _bulk_docs requests.
+     */
+    @FunctionalInterface
+    interface BulkWriter {
+
+        /**
+         * @param databaseName of database where documents are written. Must not be {@literal null}
+         * @param docs         serialized documents. Must not be {@literal null}
+         * @return {@link List} of results in order of the given documents
+         * @throws IOException if http request is not successful or json processing fail
+         */
+        @NotNull List<DocumentPutResponse> write(@NotNull String databaseName, @NotNull List<String> docs) throws IOException;
+
+    }
+
+    /**
+     * Buffered writes of one database.
+     */
+    private static class Queue {
+
+        private final String databaseName;
+        private final Map<String, Write> pending;
+        private boolean flushing;
+        private boolean scheduled;
+
+        private Queue(@NotNull String databaseName) {
+            this.databaseName = databaseName;
+            this.pending = new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Buffered write of one document together with futures of all merged writes.
+     */
+    private static class Write {
+
+        private final String id;
+        private final List<CompletableFuture<String>> futures;
+        private String json;
+
+        private Write(@NotNull String id, @NotNull String json, @NotNull CompletableFuture<String> future) {
+            this.id = id;
+            this.json = json;
+            this.futures = new LinkedList<>();
+            this.futures.add(future);
+        }
+    }
+
+}
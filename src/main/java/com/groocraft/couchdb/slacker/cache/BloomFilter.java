@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Scalable Bloom filter of strings. Filter is made of stages, when a stage is full, a new one with double capacity and half false positive rate is added,
+ * so the overall false positive rate stays under the given one no matter how many strings are added. Strings can not be removed. Adding is serialized,
+ * checking is lock-free and sees every string which was added before.
+ *
+ * @author Majlanky
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final Lock lock;
+    private final double falsePositiveRate;
+    private volatile Stage[] stages;
+
+    /**
+     * @param initialCapacity   number of strings which fits the first stage. Must be positive
+     * @param falsePositiveRate maximal probability that not added string is reported as added. Must be between 0 and 1 exclusive
+     */
+    public BloomFilter(int initialCapacity, double falsePositiveRate) {
+        Assert.isTrue(initialCapacity > 0, "InitialCapacity must be positive number");
+        Assert.isTrue(falsePositiveRate > 0 && falsePositiveRate < 1, "FalsePositiveRate must be between 0 and 1");
+        this.lock = new ReentrantLock();
+        this.falsePositiveRate = falsePositiveRate;
+        //rates of stages are p/2, p/4, ... so their sum is lower than p
+        this.stages = new Stage[]{new Stage(initialCapacity, falsePositiveRate / 2)};
+    }
+
+    /**
+     * @param value which is added. Must not be {@literal null}
+     */
+    public void add(@NotNull String value) {
+        Assert.notNull(value, "Value must not be null.");
+        long hash = hash(value);
+        lock.lock();
+        try {
+            Stage[] current = stages;
+            for (Stage stage : current) {
+                if (stage.mightContain(hash)) {
+                    return;
+                }
+            }
+            Stage last = current[current.length - 1];
+            if (last.count >= last.capacity) {
+                Stage[] grown = new Stage[current.length + 1];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                last = new Stage(last.capacity * 2L, falsePositiveRate / (2L << current.length));
+                grown[current.length] = last;
+                stages = grown;
+            }
+            last.put(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param value which is checked. Must not be {@literal null}
+     * @return false if the value was definitely not added, true if it was added or with the false positive rate if it was not
+     */
+    public boolean mightContain(@NotNull String value) {
+        Assert.notNull(value, "Value must not be null.");
+        long hash = hash(value);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of stages, it grows with number of added strings
+     */
+    public int getStages() {
+        return stages.length;
+    }
+
+    /**
+     * @return number of bytes used by bits of all stages
+     */
+    public long getSize() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += stage.bits.length() * 8L;
+        }
+        return size;
+    }
+
+    /**
+     * Method to compute 64 bit hash of UTF-8 bytes of the given value (FNV-1a followed by finalizer of MurmurHash3 for better distribution of bits).
+     *
+     * @param value which is hashed. Must not be {@literal null}
+     * @return 64 bit hash
+     */
+    static long hash(@NotNull String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * One stage of the filter with fixed capacity. Positions of bits are derived from two halves of the hash by double hashing.
+     */
+    private static class Stage {
+
+        private final long capacity;
+        private final long size;
+        private final int hashes;
+        private final AtomicLongArray bits;
+        private long count;
+
+        private Stage(long capacity, double falsePositiveRate) {
+            long size = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (size + 63) / 64);
+            this.capacity = capacity;
+            this.size = words * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) this.size / capacity * LN2));
+            this.bits = new AtomicLongArray(words);
+        }
+
+        private boolean mightContain(long hash) {
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = ((first + (long) i * second) & Long.MAX_VALUE) % size;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long hash) {
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = ((first + (long) i * second) & Long.MAX_VALUE) % size;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+            count++;
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+/**
+ * Immutable snapshot of statistics of a cache for monitoring.
+ *
+ * @author Majlanky
+ */
+public class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long revalidationCount;
+    private final long evictionCount;
+    private final long size;
+    private final long bytes;
+
+    /**
+     * @param hitCount          number of reads served from the cache without transfer of data
+     * @param missCount         number of reads which needed transfer of data
+     * @param revalidationCount number of hits confirmed by CouchDB (not modified response)
+     * @param evictionCount     number of entries evicted because of limits of the cache
+     * @param size              number of entries in the cache
+     * @param bytes             estimated size of entries in bytes
+     */
+    public CacheStatistics(long hitCount, long missCount, long revalidationCount, long evictionCount, long size, long bytes) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.revalidationCount = revalidationCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.bytes = bytes;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRevalidationCount() {
+        return revalidationCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return ratio of hits to all reads, zero if there was no read
+     */
+    public double getHitRatio() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CacheStatistics{hits=" + hitCount + ", misses=" + missCount + ", revalidations=" + revalidationCount + ", evictions=" + evictionCount +
+                ", size=" + size + ", bytes=" + bytes + "}";
+    }
+
+}
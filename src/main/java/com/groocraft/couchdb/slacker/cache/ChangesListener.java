@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+import com.groocraft.couchdb.slacker.structure.ChangesResponse;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link FunctionalInterface} of listener of changes read by {@link NearCache} from _changes feed of followed databases.
+ *
+ * @author Majlanky
+ */
+@FunctionalInterface
+public interface ChangesListener {
+
+    /**
+     * Method called with every response of the feed, even with empty one.
+     *
+     * @param databaseName of changed database. Must not be {@literal null}
+     * @param changes      read from the feed. Must not be {@literal null}
+     */
+    void changed(@NotNull String databaseName, @NotNull ChangesResponse changes);
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+import com.groocraft.couchdb.slacker.structure.ChangesResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * {@link FunctionalInterface} of source of changes of a database, it is implemented by long polling of _changes feed.
+ *
+ * @author Majlanky
+ */
+@FunctionalInterface
+public interface ChangesSource {
+
+    /**
+     * Method to wait for changes of the given database which happened after the given sequence.
+     *
+     * @param databaseName of database which is followed. Must not be {@literal null}
+     * @param since        sequence after which changes are wanted or {@literal now}. Must not be {@literal null}
+     * @param timeout      maximal time in milliseconds to wait for a change. If there is no change, empty response is returned
+     * @param includeDocs  flag if changed documents should be part of the response
+     * @return {@link ChangesResponse} with changes and sequence for the next call
+     * @throws IOException if changes can not be read
+     */
+    @NotNull ChangesResponse poll(@NotNull String databaseName, @NotNull String since, int timeout, boolean includeDocs) throws IOException;
+
+}
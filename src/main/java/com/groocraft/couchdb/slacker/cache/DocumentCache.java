@@ -0,0 +1,491 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Size bounded LRU cache of raw json of documents with their ETag (revision). Entries are kept as bytes, so every read gets its own instance of entity and
+ * changes of a read entity can not leak to other readers. An entry younger than time to live is served without any request, an older one is revalidated by
+ * conditional request. Every invalidation moves stamp of the cache and remembers the new stamp for the invalidated document (or database). A document is
+ * not stored if the document or its database was invalidated after the stamp was obtained before the read, so a concurrently changed document can not
+ * overwrite the invalidation, while reads of other documents are stored. Number of remembered documents is limited by the maximal number of entries, when a
+ * document is forgotten, reads which started before its invalidation are not stored at all. The cache is guarded by {@link ReentrantLock}, so waiting readers do not pin carrier threads of virtual
+ * threads. Content can be compressed and kept in {@link OffHeapStore}, then the byte limit applies to memory outside of the heap and content is copied to the
+ * heap (and decompressed) only when it is used.
+ *
+ * @author Majlanky
+ */
+public class DocumentCache {
+
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final long ttl;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries;
+    private final ReentrantLock lock;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder revalidations;
+    private final LongAdder evictions;
+    private final OffHeapStore offHeap;
+    private final boolean compression;
+    private final LinkedHashMap<String, Long> invalidatedKeys;
+    private final Map<String, Long> invalidatedDatabases;
+    private long bytes;
+    private long stamp;
+    private long forgottenStamp;
+
+    /**
+     * @param ttl        time in milliseconds for which an entry is served without revalidation. Zero means every read is revalidated
+     * @param maxEntries maximal number of entries. Must be positive
+     * @param maxBytes   maximal estimated size of entries in bytes. Must be positive
+     */
+    public DocumentCache(long ttl, int maxEntries, long maxBytes) {
+        this(ttl, maxEntries, maxBytes, false, false);
+    }
+
+    /**
+     * @param ttl         time in milliseconds for which an entry is served without revalidation. Zero means every read is revalidated
+     * @param maxEntries  maximal number of entries. Must be positive
+     * @param maxBytes    maximal estimated size of entries in bytes, memory outside of the heap if content is kept off-heap. Must be positive
+     * @param offHeap     flag if content should be kept in {@link OffHeapStore}
+     * @param compression flag if content should be compressed
+     */
+    public DocumentCache(long ttl, int maxEntries, long maxBytes, boolean offHeap, boolean compression) {
+        Assert.isTrue(ttl >= 0, "Ttl must not be negative number");
+        Assert.isTrue(maxEntries > 0, "MaxEntries must be positive number");
+        Assert.isTrue(maxBytes > 0, "MaxBytes must be positive number");
+        Assert.isTrue(!offHeap || maxBytes >= OffHeapStore.DEFAULT_CHUNK_SIZE, "MaxBytes must not be lower than " + OffHeapStore.DEFAULT_CHUNK_SIZE +
+                " if content is kept off-heap");
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap ? new OffHeapStore(maxBytes, OffHeapStore.DEFAULT_CHUNK_SIZE) : null;
+        this.compression = compression;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.invalidatedKeys = new LinkedHashMap<>();
+        this.invalidatedDatabases = new HashMap<>();
+        this.lock = new ReentrantLock();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.revalidations = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param id           of the document. Must not be {@literal null}
+     * @return cached {@link Entry} or {@literal null} if the document is not cached. Content kept off-heap is copied to the returned entry
+     */
+    public @Nullable Entry get(@NotNull String databaseName, @NotNull String id) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(getKey(databaseName, id));
+            if (entry == null || entry.chunks == null) {
+                return entry;
+            }
+            return new Entry(entry, offHeap.load(entry.chunks, entry.storedLength));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return current stamp of the cache which must be obtained before a document is read to be stored by {@link #put(String, String, String, byte[], long)}
+     */
+    public long getStamp() {
+        lock.lock();
+        try {
+            return stamp;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to store the given document. Least recently used entries are evicted when limits are exceeded. Document bigger than the whole cache is not
+     * stored.
+     *
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param id           of the document. Must not be {@literal null}
+     * @param etag         of the document as sent by CouchDB. Must not be {@literal null}
+     * @param content      raw json of the document. Must not be {@literal null}
+     */
+    public void put(@NotNull String databaseName, @NotNull String id, @NotNull String etag, @NotNull byte[] content) {
+        put(databaseName, id, etag, content, getStamp());
+    }
+
+    /**
+     * Method to store the given document if neither the document nor its database was invalidated since the given stamp was obtained. Least recently used entries are evicted when limits
+     * are exceeded. Document bigger than the whole cache is not stored.
+     *
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param id           of the document. Must not be {@literal null}
+     * @param etag         of the document as sent by CouchDB. Must not be {@literal null}
+     * @param content      raw json of the document. Must not be {@literal null}
+     * @param stamp        obtained by {@link #getStamp()} before the document was read
+     * @return true if the document was stored
+     */
+    public boolean put(@NotNull String databaseName, @NotNull String id, @NotNull String etag, @NotNull byte[] content, long stamp) {
+        Entry entry = createEntry(databaseName, id, etag, content);
+        if (entry.size > maxBytes) {
+            invalidate(databaseName, id);
+            return false;
+        }
+        String key = getKey(databaseName, id);
+        lock.lock();
+        try {
+            if (isInvalidatedAfter(databaseName, key, stamp)) {
+                return false;
+            }
+            store(key, entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to replace the given document if it is cached. Concurrent reads of the previous version are not stored.
+     *
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param id           of the document. Must not be {@literal null}
+     * @param etag         of the new version of the document. Must not be {@literal null}
+     * @param content      raw json of the new version of the document. Must not be {@literal null}
+     */
+    public void refresh(@NotNull String databaseName, @NotNull String id, @NotNull String etag, @NotNull byte[] content) {
+        Entry entry = createEntry(databaseName, id, etag, content);
+        String key = getKey(databaseName, id);
+        lock.lock();
+        try {
+            markInvalidated(key);
+            if (entries.containsKey(key)) {
+                if (entry.size > maxBytes) {
+                    release(entries.remove(key));
+                } else {
+                    store(key, entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to check if a read which started at the given stamp is stale. Must be called with the lock held.
+     *
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param key          of the document. Must not be {@literal null}
+     * @param stamp        obtained before the document was read
+     * @return true if the document or its database was invalidated after the given stamp was obtained
+     */
+    private boolean isInvalidatedAfter(@NotNull String databaseName, @NotNull String key, long stamp) {
+        return forgottenStamp > stamp || invalidatedDatabases.getOrDefault(databaseName, Long.MIN_VALUE) > stamp
+                || invalidatedKeys.getOrDefault(key, Long.MIN_VALUE) > stamp;
+    }
+
+    /**
+     * Method to move the stamp and to remember it for the given document. The oldest remembered document is forgotten when there is more of them than the
+     * maximal number of entries, its stamp then applies to all documents. Must be called with the lock held.
+     *
+     * @param key of the invalidated document. Must not be {@literal null}
+     */
+    private void markInvalidated(@NotNull String key) {
+        stamp++;
+        invalidatedKeys.remove(key);
+        invalidatedKeys.put(key, stamp);
+        if (invalidatedKeys.size() > maxEntries) {
+            Iterator<Long> oldest = invalidatedKeys.values().iterator();
+            forgottenStamp = Math.max(forgottenStamp, oldest.next());
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Method to store the given entry and to evict least recently used entries over limits. Must be called with the lock held.
+     *
+     * @param key   of the entry. Must not be {@literal null}
+     * @param entry which is stored. Must not be {@literal null}
+     */
+    private void store(@NotNull String key, @NotNull Entry entry) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            release(previous);
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() >= maxEntries || bytes + entry.size > maxBytes) && iterator.hasNext()) {
+            release(iterator.next());
+            iterator.remove();
+            evictions.increment();
+        }
+        if (offHeap != null) {
+            entry.chunks = offHeap.store(entry.content);
+            if (entry.chunks == null) {
+                throw new IllegalStateException("Off-heap store is not able to keep " + entry.size + " bytes which are accounted as free");
+            }
+            entry.content = null;
+        }
+        entries.put(key, entry);
+        bytes += entry.size;
+    }
+
+    /**
+     * Method to release memory of the given removed entry. Must be called with the lock held.
+     *
+     * @param entry which is removed. Must not be {@literal null}
+     */
+    private void release(@NotNull Entry entry) {
+        bytes -= entry.size;
+        if (entry.chunks != null) {
+            offHeap.release(entry.chunks);
+            entry.chunks = null;
+        }
+    }
+
+    /**
+     * Method to create entry of the given document. Content is compressed if compression is configured and it saves some space.
+     *
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param id           of the document. Must not be {@literal null}
+     * @param etag         of the document as sent by CouchDB. Must not be {@literal null}
+     * @param content      raw json of the document. Must not be {@literal null}
+     * @return {@link Entry} which is not stored yet
+     */
+    private @NotNull Entry createEntry(@NotNull String databaseName, @NotNull String id, @NotNull String etag, @NotNull byte[] content) {
+        byte[] stored = compression ? compress(content) : content;
+        boolean compressed = stored != content;
+        long size = offHeap != null ? offHeap.getOccupiedSize(stored.length) :
+                ENTRY_OVERHEAD + 2L * (databaseName.length() + id.length() + etag.length()) + stored.length;
+        return new Entry(etag, stored, compressed, content.length, size);
+    }
+
+    /**
+     * Method to remove the given document from the cache.
+     *
+     * @param databaseName of database where the document is stored. Must not be {@literal null}
+     * @param id           of the document. Must not be {@literal null}
+     */
+    public void invalidate(@NotNull String databaseName, @NotNull String id) {
+        String key = getKey(databaseName, id);
+        lock.lock();
+        try {
+            markInvalidated(key);
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                release(removed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to remove all documents of the given database from the cache.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     */
+    public void invalidateDatabase(@NotNull String databaseName) {
+        String prefix = databaseName + KEY_SEPARATOR;
+        lock.lock();
+        try {
+            stamp++;
+            invalidatedDatabases.put(databaseName, stamp);
+            invalidatedKeys.keySet().removeIf(k -> k.startsWith(prefix));
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    iterator.remove();
+                    release(entry.getValue());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param entry which is checked. Must not be {@literal null}
+     * @return true if the entry can be served without revalidation
+     */
+    public boolean isFresh(@NotNull Entry entry) {
+        return ttl > 0 && System.nanoTime() - entry.validated < ttl;
+    }
+
+    /**
+     * Method to record read served from the given entry. If the entry was revalidated by CouchDB, its time to live starts again.
+     *
+     * @param entry        which served the read. Must not be {@literal null}
+     * @param revalidated  flag if CouchDB confirmed the entry by not modified response
+     */
+    public void hit(@NotNull Entry entry, boolean revalidated) {
+        hits.increment();
+        if (revalidated) {
+            revalidations.increment();
+            entry.origin.validated = System.nanoTime();
+        }
+    }
+
+    /**
+     * Method to record read which needed transfer of the document.
+     */
+    public void miss() {
+        misses.increment();
+    }
+
+    /**
+     * @return {@link CacheStatistics} of the cache
+     */
+    public @NotNull CacheStatistics getStatistics() {
+        lock.lock();
+        try {
+            return new CacheStatistics(hits.sum(), misses.sum(), revalidations.sum(), evictions.sum(), entries.size(), bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static @NotNull String getKey(@NotNull String databaseName, @NotNull String id) {
+        return databaseName + KEY_SEPARATOR + id;
+    }
+
+    /**
+     * @param content which is compressed. Must not be {@literal null}
+     * @return compressed content or the given content if compression does not save any space
+     */
+    private static @NotNull byte[] compress(@NotNull byte[] content) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 16);
+            byte[] buffer = new byte[Math.min(content.length + 16, 8192)];
+            while (!deflater.finished() && compressed.size() < content.length) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return deflater.finished() && compressed.size() < content.length ? compressed.toByteArray() : content;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param compressed content compressed by {@link #compress(byte[])}. Must not be {@literal null}
+     * @param length     of the original content
+     * @return original content
+     */
+    private static @NotNull byte[] decompress(@NotNull byte[] compressed, int length) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] content = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(content, read, length - read);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new IllegalStateException("Cached content is corrupted, " + read + " bytes decompressed instead of " + length);
+            }
+            return content;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Cached content is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Cached document with its ETag. Content of an entry returned by {@link #get(String, String)} is always on the heap.
+     */
+    public static class Entry {
+
+        private final String etag;
+        private final boolean compressed;
+        private final int length;
+        private final int storedLength;
+        private final long size;
+        private final Entry origin;
+        private byte[] content;
+        private int[] chunks;
+        private volatile long validated;
+
+        private Entry(@NotNull String etag, @NotNull byte[] content, boolean compressed, int length, long size) {
+            this.etag = etag;
+            this.content = content;
+            this.compressed = compressed;
+            this.length = length;
+            this.storedLength = content.length;
+            this.size = size;
+            this.origin = this;
+            this.validated = System.nanoTime();
+        }
+
+        /**
+         * Copy of entry kept off-heap with content loaded to the heap.
+         *
+         * @param origin  entry which is kept in the cache. Must not be {@literal null}
+         * @param content loaded from the off-heap store. Must not be {@literal null}
+         */
+        private Entry(@NotNull Entry origin, @NotNull byte[] content) {
+            this.etag = origin.etag;
+            this.content = content;
+            this.compressed = origin.compressed;
+            this.length = origin.length;
+            this.storedLength = origin.storedLength;
+            this.size = origin.size;
+            this.origin = origin;
+            this.validated = origin.validated;
+        }
+
+        /**
+         * @return ETag of the document as sent by CouchDB
+         */
+        public @NotNull String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @return raw json of the document. Must not be modified
+         */
+        public @NotNull byte[] getContent() {
+            return compressed ? decompress(content, length) : content;
+        }
+
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+import com.groocraft.couchdb.slacker.structure.ChangesResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Index of ids of existing documents kept in {@link BloomFilter} per database. The filter is built from ids read by {@link IdSource} in background after
+ * the _changes feed of the database is followed by {@link NearCache}, so every document created during the build is added by the feed. Ids are added by the
+ * feed and by writes of the client and never removed, so deleted documents are only reported as possibly existing. The index answers that a document
+ * definitely does not exist only if the build is finished and the feed is synced, otherwise every document possibly exists.
+ *
+ * @author Majlanky
+ */
+@Slf4j
+public class ExistenceIndex implements ChangesListener, Closeable {
+
+    private static final int PAGE_SIZE = 10000;
+
+    private final NearCache nearCache;
+    private final IdSource source;
+    private final int initialCapacity;
+    private final double falsePositiveRate;
+    private final ExecutorService executor;
+    private final Map<String, Index> indexes;
+
+    /**
+     * @param nearCache         which follows _changes feed of databases. Must not be {@literal null}
+     * @param source            of ids of all documents of a database. Must not be {@literal null}
+     * @param initialCapacity   number of ids which fits the first stage of filter of every database. Must be positive
+     * @param falsePositiveRate maximal probability that not existing document is reported as possibly existing. Must be between 0 and 1 exclusive
+     * @param executor          which runs builds of filters. Shut down by {@link #close()}. Must not be {@literal null}
+     */
+    public ExistenceIndex(@NotNull NearCache nearCache, @NotNull IdSource source, int initialCapacity, double falsePositiveRate,
+                          @NotNull ExecutorService executor) {
+        Assert.notNull(nearCache, "NearCache must not be null.");
+        Assert.notNull(source, "Source must not be null.");
+        Assert.notNull(executor, "Executor must not be null.");
+        Assert.isTrue(initialCapacity > 0, "InitialCapacity must be positive number");
+        Assert.isTrue(falsePositiveRate > 0 && falsePositiveRate < 1, "FalsePositiveRate must be between 0 and 1");
+        this.nearCache = nearCache;
+        this.source = source;
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.executor = executor;
+        this.indexes = new ConcurrentHashMap<>();
+        nearCache.addListener(this);
+    }
+
+    /**
+     * Method to find out if a document can exist. Build of the filter of the database is started if the feed of the database is synced and the filter is not
+     * built yet.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     * @param id           of document. Must not be {@literal null}
+     * @return false if the document definitely does not exist, true otherwise
+     */
+    public boolean mightContain(@NotNull String databaseName, @NotNull String id) {
+        Assert.notNull(databaseName, "DatabaseName must not be null.");
+        Assert.notNull(id, "Id must not be null.");
+        if (!nearCache.isSynced(databaseName)) {
+            return true;
+        }
+        Index index = indexes.computeIfAbsent(databaseName, Index::new);
+        if (!index.built) {
+            index.build();
+            return true;
+        }
+        return index.filter.mightContain(id);
+    }
+
+    /**
+     * Method to add id of a document which was created or updated by this client.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     * @param id           of document. Must not be {@literal null}
+     */
+    public void add(@NotNull String databaseName, @NotNull String id) {
+        Index index = indexes.get(databaseName);
+        if (index != null) {
+            index.filter.add(id);
+        }
+    }
+
+    /**
+     * Method to drop filter of the given database, it is built again by the next check.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     */
+    public void invalidateDatabase(@NotNull String databaseName) {
+        indexes.remove(databaseName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void changed(@NotNull String databaseName, @NotNull ChangesResponse changes) {
+        Index index = indexes.get(databaseName);
+        if (index != null) {
+            for (ChangesResponse.Change change : changes.getResults()) {
+                if (!change.isDeleted()) {
+                    index.filter.add(change.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param databaseName of database. Must not be {@literal null}
+     * @return true if the filter of the database is built
+     */
+    public boolean isBuilt(@NotNull String databaseName) {
+        Index index = indexes.get(databaseName);
+        return index != null && index.built;
+    }
+
+    /**
+     * Method to stop running builds of filters.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Filter of one database and state of its build.
+     */
+    private class Index implements Runnable {
+
+        private final String databaseName;
+        private final BloomFilter filter;
+        private final AtomicBoolean building;
+        private volatile boolean built;
+
+        private Index(@NotNull String databaseName) {
+            this.databaseName = databaseName;
+            this.filter = new BloomFilter(initialCapacity, falsePositiveRate);
+            this.building = new AtomicBoolean();
+        }
+
+        private void build() {
+            if (building.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Existence index of database {} is not built, index is closed", databaseName);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            try {
+                String after = null;
+                long count = 0;
+                List<String> ids;
+                do {
+                    ids = source.read(databaseName, after, PAGE_SIZE);
+                    ids.forEach(filter::add);
+                    count += ids.size();
+                    after = ids.isEmpty() ? after : ids.get(ids.size() - 1);
+                } while (ids.size() >= PAGE_SIZE && !Thread.currentThread().isInterrupted());
+                built = !Thread.currentThread().isInterrupted();
+                log.debug("Existence index of database {} built from {} ids", databaseName, count);
+            } catch (Exception e) {
+                log.warn("Build of existence index of database {} failed, it is started again by the next check", databaseName, e);
+                building.set(false);
+            }
+        }
+    }
+
+}
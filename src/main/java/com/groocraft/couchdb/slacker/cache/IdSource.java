@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * {@link FunctionalInterface} of source of ids of all documents of a database, it is implemented by paged reading of _all_docs.
+ *
+ * @author Majlanky
+ */
+@FunctionalInterface
+public interface IdSource {
+
+    /**
+     * Method to read one page of ids of the given database sorted in the same way as _all_docs is.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     * @param after        id after which the page starts or {@literal null} for the first page
+     * @param limit        maximal number of returned ids
+     * @return {@link List} of ids, lower than limit if it is the last page
+     * @throws IOException if ids can not be read
+     */
+    @NotNull List<String> read(@NotNull String databaseName, @Nullable String after, int limit) throws IOException;
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.structure.ChangesResponse;
+import com.groocraft.couchdb.slacker.utils.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Near cache of documents kept current by _changes feed. Every database is followed by its own long polling loop since the first read of the database.
+ * Changed documents are removed from the cache (or replaced by the new version if documents are part of the feed). Cached document is served without any
+ * request only while the feed of its database was read successfully within the maximal staleness, so changes of other clients are visible with bounded
+ * delay. Feed starts at the current sequence, so all documents of the database cached before are dropped when the first response of the feed is received.
+ * Caches of data derived from whole databases (query results for example) can be attached, all their entries of a database are dropped by any change.
+ * Listeners can be added to receive every response of the feed.
+ *
+ * @author Majlanky
+ */
+@Slf4j
+public class NearCache implements Closeable {
+
+    private static final String NOW = "now";
+    private static final String REVISION = "_rev";
+    private static final long MAX_BACKOFF = 1000;
+
+    private final DocumentCache cache;
+    private final ChangesSource source;
+    private final ObjectMapper mapper;
+    private final long maxStaleness;
+    private final int timeout;
+    private final boolean includeDocs;
+    private final ExecutorService executor;
+    private final Map<String, Follower> followers;
+    private final List<DocumentCache> dependents;
+    private final List<ChangesListener> listeners;
+    private volatile boolean closed;
+
+    /**
+     * @param cache        where documents are stored. Must not be {@literal null}
+     * @param source       of changes of databases. Must not be {@literal null}
+     * @param mapper       used to store documents from the feed. Must not be {@literal null}
+     * @param maxStaleness time in milliseconds for which cached documents are served after the last successful read of the feed. Must be positive
+     * @param timeout      time in milliseconds of one long poll of the feed. Must be positive and lower than maxStaleness
+     * @param includeDocs  flag if changed documents are read with the feed and cached documents are replaced instead of removed
+     * @param executor     which runs long polling loops. Shut down by {@link #close()}. Must not be {@literal null}
+     */
+    public NearCache(@NotNull DocumentCache cache, @NotNull ChangesSource source, @NotNull ObjectMapper mapper, long maxStaleness, int timeout,
+                     boolean includeDocs, @NotNull ExecutorService executor) {
+        Assert.notNull(cache, "Cache must not be null.");
+        Assert.notNull(source, "Source must not be null.");
+        Assert.notNull(mapper, "Mapper must not be null.");
+        Assert.notNull(executor, "Executor must not be null.");
+        Assert.isTrue(maxStaleness > 0, "MaxStaleness must be positive number");
+        Assert.isTrue(timeout > 0 && timeout < maxStaleness, "Timeout must be positive number lower than maxStaleness");
+        this.cache = cache;
+        this.source = source;
+        this.mapper = mapper;
+        this.maxStaleness = TimeUnit.MILLISECONDS.toNanos(maxStaleness);
+        this.timeout = timeout;
+        this.includeDocs = includeDocs;
+        this.executor = executor;
+        this.followers = new ConcurrentHashMap<>();
+        this.dependents = new CopyOnWriteArrayList<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Method to create executor for long polling loops on virtual threads or on cached pool of platform daemon threads.
+     *
+     * @param virtualThreads flag if virtual threads should be used. Virtual threads require Java 21 or newer
+     * @return {@link ExecutorService} for {@link NearCache}
+     */
+    public static @NotNull ExecutorService createExecutor(boolean virtualThreads) {
+        if (virtualThreads) {
+            return VirtualThreads.newExecutor();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "couchdb-changes-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return {@link DocumentCache} where documents are stored
+     */
+    public @NotNull DocumentCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Method to attach cache of data derived from whole databases. All entries of a database are removed from the attached cache when the first response of
+     * the feed is received and by every change of the database.
+     *
+     * @param dependent cache which is kept current by feeds of followed databases. Must not be {@literal null}
+     */
+    public void attach(@NotNull DocumentCache dependent) {
+        Assert.notNull(dependent, "Dependent must not be null.");
+        dependents.add(dependent);
+    }
+
+    /**
+     * Method to add listener which receives every response of the feed of every followed database after the response is applied to the cache.
+     *
+     * @param listener of changes. Must not be {@literal null}
+     */
+    public void addListener(@NotNull ChangesListener listener) {
+        Assert.notNull(listener, "Listener must not be null.");
+        listeners.add(listener);
+    }
+
+    /**
+     * Method to find out if cached documents of the given database can be served without request. Following of the database is started if it is not
+     * followed yet.
+     *
+     * @param databaseName of database. Must not be {@literal null}
+     * @return true if the feed of the database was read successfully within the maximal staleness
+     */
+    public boolean isSynced(@NotNull String databaseName) {
+        Follower follower = followers.computeIfAbsent(databaseName, this::follow);
+        long synced = follower.synced;
+        return synced != 0 && System.nanoTime() - synced < maxStaleness;
+    }
+
+    private @NotNull Follower follow(@NotNull String databaseName) {
+        Follower follower = new Follower(databaseName);
+        if (!closed) {
+            try {
+                executor.execute(follower);
+                log.debug("Following changes of database {}", databaseName);
+            } catch (RejectedExecutionException e) {
+                log.debug("Changes of database {} are not followed, near cache is closed", databaseName);
+            }
+        }
+        return follower;
+    }
+
+    /**
+     * Method to apply the given changes to the cache.
+     *
+     * @param databaseName of changed database. Must not be {@literal null}
+     * @param changes      read from the feed. Must not be {@literal null}
+     * @throws IOException if a document from the feed can not be serialized
+     */
+    void apply(@NotNull String databaseName, @NotNull ChangesResponse changes) throws IOException {
+        if (!changes.getResults().isEmpty()) {
+            dependents.forEach(d -> d.invalidateDatabase(databaseName));
+        }
+        for (ChangesResponse.Change change : changes.getResults()) {
+            JsonNode doc = change.getDoc();
+            if (change.isDeleted() || doc == null || !doc.hasNonNull(REVISION)) {
+                cache.invalidate(databaseName, change.getId());
+            } else {
+                cache.refresh(databaseName, change.getId(), "\"" + doc.get(REVISION).asText() + "\"", mapper.writeValueAsBytes(doc));
+            }
+        }
+        listeners.forEach(l -> l.changed(databaseName, changes));
+    }
+
+    /**
+     * Method to stop following of all databases. Cached documents are not served without revalidation anymore.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Long polling loop of _changes feed of one database.
+     */
+    private class Follower implements Runnable {
+
+        private final String databaseName;
+        private volatile long synced;
+
+        private Follower(@NotNull String databaseName) {
+            this.databaseName = databaseName;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            String since = NOW;
+            long backoff = 0;
+            while (!closed && !Thread.currentThread().isInterrupted()) {
+                long started = System.nanoTime();
+                try {
+                    ChangesResponse changes = source.poll(databaseName, since, timeout, includeDocs);
+                    if (NOW.equals(since)) {
+                        cache.invalidateDatabase(databaseName);
+                        dependents.forEach(d -> d.invalidateDatabase(databaseName));
+                    }
+                    apply(databaseName, changes);
+                    since = changes.getLastSeq() == null ? since : changes.getLastSeq();
+                    synced = started;
+                    backoff = 0;
+                } catch (Exception e) {
+                    if (closed) {
+                        break;
+                    }
+                    backoff = Math.min(MAX_BACKOFF, Math.max(backoff * 2, 50));
+                    log.warn("Reading of changes of database {} failed, next attempt in {} ms", databaseName, backoff, e);
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException interruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            synced = 0;
+            log.debug("Following of changes of database {} stopped", databaseName);
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Storage of byte arrays outside of the heap. Memory is taken from direct {@link ByteBuffer} slabs which are allocated lazily up to the capacity. Slabs are
+ * divided into chunks of the same size and a stored array occupies as many chunks (not necessarily neighbouring) as it needs, so released memory is reused
+ * without any fragmentation. The store is not thread safe, it is guarded by its owner.
+ *
+ * @author Majlanky
+ */
+public class OffHeapStore {
+
+    /**
+     * Default size of one chunk in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private static final int SLAB_SIZE = 1048576;
+
+    private final int chunkSize;
+    private final int chunksPerSlab;
+    private final int totalChunks;
+    private final ByteBuffer[] slabs;
+    private int[] free;
+    private int freeCount;
+    private int fresh;
+
+    /**
+     * @param capacity  maximal number of bytes taken from memory outside of the heap. Must be at least one chunk
+     * @param chunkSize size of one chunk in bytes, the smallest unit of allocation. Must be positive
+     */
+    public OffHeapStore(long capacity, int chunkSize) {
+        Assert.isTrue(chunkSize > 0, "ChunkSize must be positive number");
+        Assert.isTrue(capacity >= chunkSize, "Capacity must not be lower than chunkSize");
+        Assert.isTrue(capacity / chunkSize <= Integer.MAX_VALUE, "Capacity must not exceed " + Integer.MAX_VALUE + " chunks");
+        this.chunkSize = chunkSize;
+        this.chunksPerSlab = Math.max(1, SLAB_SIZE / chunkSize);
+        this.totalChunks = (int) (capacity / chunkSize);
+        this.slabs = new ByteBuffer[(totalChunks + chunksPerSlab - 1) / chunksPerSlab];
+        this.free = new int[16];
+    }
+
+    /**
+     * @param length of stored array in bytes
+     * @return number of bytes the array occupies in the store
+     */
+    public long getOccupiedSize(int length) {
+        return (long) getChunks(length) * chunkSize;
+    }
+
+    /**
+     * Method to store the given content.
+     *
+     * @param content which is stored. Must not be {@literal null}
+     * @return chunks where the content is stored or {@literal null} if there is not enough free memory
+     */
+    public @Nullable int[] store(@NotNull byte[] content) {
+        int needed = getChunks(content.length);
+        if (needed > freeCount + totalChunks - fresh) {
+            return null;
+        }
+        int[] chunks = new int[needed];
+        int offset = 0;
+        for (int i = 0; i < needed; i++) {
+            chunks[i] = freeCount > 0 ? free[--freeCount] : fresh++;
+            int length = Math.min(chunkSize, content.length - offset);
+            ((ByteBuffer) position(getSlab(chunks[i]), getOffset(chunks[i]))).put(content, offset, length);
+            offset += length;
+        }
+        return chunks;
+    }
+
+    /**
+     * @param chunks where content is stored. Must not be {@literal null}
+     * @param length of the stored content in bytes
+     * @return copy of the stored content on the heap
+     */
+    public @NotNull byte[] load(@NotNull int[] chunks, int length) {
+        byte[] content = new byte[length];
+        int offset = 0;
+        for (int chunk : chunks) {
+            int read = Math.min(chunkSize, length - offset);
+            ((ByteBuffer) position(slabs[chunk / chunksPerSlab], getOffset(chunk))).get(content, offset, read);
+            offset += read;
+        }
+        return content;
+    }
+
+    /**
+     * Method to release the given chunks for next content.
+     *
+     * @param chunks which are released. Must not be {@literal null}
+     */
+    public void release(@NotNull int[] chunks) {
+        if (freeCount + chunks.length > free.length) {
+            free = Arrays.copyOf(free, Math.max(freeCount + chunks.length, Math.min(totalChunks, free.length * 2)));
+        }
+        for (int chunk : chunks) {
+            free[freeCount++] = chunk;
+        }
+    }
+
+    /**
+     * @return number of bytes occupied by stored content
+     */
+    public long getUsedBytes() {
+        return (long) (fresh - freeCount) * chunkSize;
+    }
+
+    /**
+     * @return number of bytes taken by allocated slabs
+     */
+    public long getAllocatedBytes() {
+        long allocated = 0;
+        for (ByteBuffer slab : slabs) {
+            allocated += slab == null ? 0 : slab.capacity();
+        }
+        return allocated;
+    }
+
+    private int getChunks(int length) {
+        return Math.max(1, (length + chunkSize - 1) / chunkSize);
+    }
+
+    private int getOffset(int chunk) {
+        return (chunk % chunksPerSlab) * chunkSize;
+    }
+
+    private @NotNull ByteBuffer getSlab(int chunk) {
+        int index = chunk / chunksPerSlab;
+        if (slabs[index] == null) {
+            slabs[index] = ByteBuffer.allocateDirect(Math.min(chunksPerSlab, totalChunks - index * chunksPerSlab) * chunkSize);
+        }
+        return slabs[index];
+    }
+
+    /**
+     * Position is set thru {@link Buffer}, so the code runs on Java 8 when it is compiled by a newer compiler.
+     */
+    private static @NotNull Buffer position(@NotNull ByteBuffer buffer, int position) {
+        return ((Buffer) buffer).position(position);
+    }
+
+}
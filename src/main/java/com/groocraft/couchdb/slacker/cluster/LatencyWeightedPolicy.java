@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cluster;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link NodeSelectionPolicy} which chooses nodes randomly with probability inversely proportional to their average latency. Nodes without any finished
+ * request are preferred, so their latency is measured soon.
+ *
+ * @author Majlanky
+ */
+public class LatencyWeightedPolicy implements NodeSelectionPolicy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Node select(@NotNull List<Node> nodes) {
+        double[] weights = new double[nodes.size()];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            //latency in microseconds, +1 to avoid division by zero for nodes without measured latency
+            weights[i] = 1.0 / (nodes.get(i).getLatency() / 1000 + 1);
+            total += weights[i];
+        }
+        double random = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            random -= weights[i];
+            if (random < 0) {
+                return nodes.get(i);
+            }
+        }
+        return nodes.get(nodes.size() - 1);
+    }
+
+}
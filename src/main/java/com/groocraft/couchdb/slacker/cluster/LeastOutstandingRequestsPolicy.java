@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cluster;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link NodeSelectionPolicy} which chooses the node with the lowest number of requests in progress. Search starts from a random node, so ties are not
+ * always resolved in favour of the first node.
+ *
+ * @author Majlanky
+ */
+public class LeastOutstandingRequestsPolicy implements NodeSelectionPolicy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Node select(@NotNull List<Node> nodes) {
+        int offset = ThreadLocalRandom.current().nextInt(nodes.size());
+        Node selected = nodes.get(offset);
+        for (int i = 1; i < nodes.size(); i++) {
+            Node node = nodes.get((offset + i) % nodes.size());
+            if (node.getOutstandingRequests() < selected.getOutstandingRequests()) {
+                selected = node;
+            }
+        }
+        return selected;
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cluster;
+
+import org.apache.http.HttpHost;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One node of CouchDB cluster with statistics used by {@link NodeSelectionPolicy} to choose the node for a request. Node is healthy until a connection to it
+ * fails or its health check does not pass.
+ *
+ * @author Majlanky
+ */
+public class Node {
+
+    private static final double LATENCY_SMOOTHING = 0.3;
+
+    private final HttpHost host;
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile long latency;
+
+    /**
+     * @param host of the node. Must not be {@literal null}
+     */
+    public Node(@NotNull HttpHost host) {
+        Assert.notNull(host, "Host must not be null.");
+        this.host = host;
+    }
+
+    /**
+     * @return {@link HttpHost} of the node
+     */
+    public @NotNull HttpHost getHost() {
+        return host;
+    }
+
+    /**
+     * @return {@literal false} if the node was ejected because of failure, {@literal true} otherwise
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * @param healthy flag if the node is able to process requests
+     */
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    /**
+     * @return number of requests sent to the node which are not finished yet
+     */
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    /**
+     * @return exponentially weighted moving average of response time of the node in nanoseconds. 0 if there is no finished request yet
+     */
+    public long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Method to record start of a request sent to the node.
+     */
+    public void requestStarted() {
+        outstandingRequests.incrementAndGet();
+    }
+
+    /**
+     * Method to record end of a request sent to the node.
+     *
+     * @param nanos how long the request took
+     */
+    public void requestFinished(long nanos) {
+        outstandingRequests.decrementAndGet();
+        long current = latency;
+        //lost update in case of concurrent requests does not matter for the average
+        latency = current == 0 ? nanos : (long) (LATENCY_SMOOTHING * nanos + (1 - LATENCY_SMOOTHING) * current);
+    }
+
+    /**
+     * Method to record end of a request sent to the node which duration does not say anything about latency of the node (long polling for example).
+     */
+    public void requestFinished() {
+        outstandingRequests.decrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return host.toURI();
+    }
+
+}
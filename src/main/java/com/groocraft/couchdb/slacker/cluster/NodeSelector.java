@@ -0,0 +1,249 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.structure.MembershipResponse;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import com.groocraft.couchdb.slacker.transport.CouchResponse;
+import com.groocraft.couchdb.slacker.transport.CouchTransport;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHost;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Class which chooses a node of CouchDB cluster for every request by the configured {@link NodeSelectionPolicy}. Only healthy nodes are offered to the
+ * policy. If there is no healthy node, all nodes are offered, because failing without any try is not better. A node is ejected when a connection to it
+ * fails and periodic health checks (thru _up endpoint) are running. The health check returns the node back when it recovers.
+ *
+ * @author Majlanky
+ */
+@Slf4j
+public class NodeSelector implements AutoCloseable {
+
+    private static final ObjectReader MEMBERSHIP_READER = new ObjectMapper().readerFor(MembershipResponse.class);
+
+    private final List<Node> nodes;
+    private final NodeSelectionPolicy policy;
+    private volatile List<Node> healthyNodes;
+    private volatile ScheduledExecutorService healthChecks;
+
+    /**
+     * Creates selector of one node only.
+     *
+     * @param host of the only node. Must not be {@literal null}
+     */
+    public NodeSelector(@NotNull HttpHost host) {
+        this(Collections.singletonList(host), new RoundRobinPolicy());
+    }
+
+    /**
+     * @param hosts  of all nodes. Must not be {@literal null} nor empty
+     * @param policy used for choosing of a node for a request. Must not be {@literal null}
+     */
+    public NodeSelector(@NotNull Iterable<HttpHost> hosts, @NotNull NodeSelectionPolicy policy) {
+        Assert.notNull(hosts, "Hosts must not be null.");
+        Assert.notNull(policy, "Policy must not be null.");
+        this.nodes = new CopyOnWriteArrayList<>();
+        hosts.forEach(this::addNode);
+        Assert.notEmpty(nodes, "Hosts must not be empty.");
+        this.policy = policy;
+    }
+
+    /**
+     * @return unmodifiable {@link List} of all known nodes
+     */
+    public @NotNull List<Node> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * @return {@literal true} if periodic health checks are running
+     */
+    public boolean isHealthChecking() {
+        return healthChecks != null;
+    }
+
+    /**
+     * Method to choose a node for the next request.
+     *
+     * @return chosen {@link Node}
+     */
+    public @NotNull Node select() {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        List<Node> candidates = healthyNodes;
+        return policy.select(candidates.isEmpty() ? nodes : candidates);
+    }
+
+    /**
+     * Method to report failure of a request sent to the given node. If the failure says the node is not reachable and health checks are running, the node is
+     * ejected until the next successful health check. Error responses of CouchDB and read timeouts (which can be caused by a long query) do not eject.
+     *
+     * @param node      where the request was sent. Must not be {@literal null}
+     * @param exception which caused failure of the request. Must not be {@literal null}
+     */
+    public void failed(@NotNull Node node, @NotNull Throwable exception) {
+        if (isHealthChecking() && exception instanceof IOException && !(exception instanceof CouchDbException)
+                && !(exception instanceof SocketTimeoutException) && node.isHealthy()) {
+            log.warn("Node {} ejected because of {}", node, exception.toString());
+            setHealthy(node, false);
+        }
+    }
+
+    /**
+     * Method to add nodes listed as cluster nodes by _membership endpoint of the cluster. Names of nodes are expected in form name@host, the scheme and the
+     * port are taken from the given base URI. Failure of discovery is logged only, the already known nodes are kept.
+     *
+     * @param transport used for _membership request. It must authenticate the request. Must not be {@literal null}
+     * @param baseURI   where CouchDB is accessible without database specification. Must not be {@literal null}
+     * @return {@link List} of newly added nodes
+     */
+    public @NotNull List<Node> discover(@NotNull CouchTransport transport, @NotNull URI baseURI) {
+        Assert.notNull(transport, "Transport must not be null.");
+        Assert.notNull(baseURI, "BaseURI must not be null.");
+        Node seed = select();
+        try (CouchResponse response = transport.execute(new CouchRequest(CouchRequest.GET, getNodeURI(baseURI, seed.getHost(), "_membership")),
+                seed.getHost())) {
+            MembershipResponse membership = MEMBERSHIP_READER.readValue(response.getContent());
+            List<Node> added = new LinkedList<>();
+            for (String name : membership.getClusterNodes()) {
+                Node node = addNode(new HttpHost(name.substring(name.indexOf('@') + 1), seed.getHost().getPort(), seed.getHost().getSchemeName()));
+                if (node != null) {
+                    added.add(node);
+                }
+            }
+            log.info("Discovered nodes {}, known nodes are {}", membership.getClusterNodes(), nodes);
+            return added;
+        } catch (IOException | URISyntaxException e) {
+            log.warn("Discovery of nodes thru {} failed, only configured nodes are used", seed, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Method to start periodic health checks of all nodes. Every node is asked for _up endpoint and it is considered healthy if the response is OK. Checks
+     * run in one daemon thread until {@link #close()} is called.
+     *
+     * @param transport used for health check requests. It must authenticate requests. Must not be {@literal null}
+     * @param baseURI   where CouchDB is accessible without database specification. Must not be {@literal null}
+     * @param interval  between two checks of all nodes in milliseconds. Must be positive
+     */
+    public synchronized void startHealthChecks(@NotNull CouchTransport transport, @NotNull URI baseURI, long interval) {
+        Assert.notNull(transport, "Transport must not be null.");
+        Assert.notNull(baseURI, "BaseURI must not be null.");
+        Assert.isTrue(interval > 0, "Interval must be positive.");
+        Assert.state(healthChecks == null, "Health checks are already running.");
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "couchdb-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> checkHealth(transport, baseURI), interval, interval, TimeUnit.MILLISECONDS);
+        healthChecks = executor;
+    }
+
+    /**
+     * Method to check health of all nodes once.
+     *
+     * @param transport used for health check requests. It must authenticate requests. Must not be {@literal null}
+     * @param baseURI   where CouchDB is accessible without database specification. Must not be {@literal null}
+     */
+    public void checkHealth(@NotNull CouchTransport transport, @NotNull URI baseURI) {
+        for (Node node : nodes) {
+            boolean healthy = isUp(transport, baseURI, node);
+            if (healthy != node.isHealthy()) {
+                log.info("Node {} is {}", node, healthy ? "healthy again" : "ejected because of failed health check");
+                setHealthy(node, healthy);
+            }
+        }
+    }
+
+    /**
+     * Method to stop health checks, if running.
+     */
+    @Override
+    public synchronized void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+            healthChecks = null;
+        }
+    }
+
+    private boolean isUp(@NotNull CouchTransport transport, @NotNull URI baseURI, @NotNull Node node) {
+        try (CouchResponse ignored = transport.execute(new CouchRequest(CouchRequest.GET, getNodeURI(baseURI, node.getHost(), "_up")), node.getHost())) {
+            return true;
+        } catch (IOException | URISyntaxException e) {
+            log.debug("Health check of node {} failed", node, e);
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Health check of node {} failed", node, e);
+            return false;
+        }
+    }
+
+    private synchronized Node addNode(@NotNull HttpHost host) {
+        if (nodes.stream().anyMatch(n -> n.getHost().equals(host))) {
+            return null;
+        }
+        Node node = new Node(host);
+        nodes.add(node);
+        updateHealthyNodes();
+        return node;
+    }
+
+    private void setHealthy(@NotNull Node node, boolean healthy) {
+        node.setHealthy(healthy);
+        updateHealthyNodes();
+    }
+
+    private synchronized void updateHealthyNodes() {
+        healthyNodes = nodes.stream().filter(Node::isHealthy).collect(Collectors.toList());
+    }
+
+    /**
+     * Method to create URI of the given endpoint on the given node. Path of the base URI is kept, so CouchDB behind a path prefix is supported.
+     *
+     * @param baseURI  where CouchDB is accessible without database specification. Must not be {@literal null}
+     * @param host     of the node. Must not be {@literal null}
+     * @param endpoint name. Must not be {@literal null}
+     * @return {@link URI} of the endpoint on the node
+     * @throws URISyntaxException if the URI is not valid
+     */
+    private static URI getNodeURI(@NotNull URI baseURI, @NotNull HttpHost host, @NotNull String endpoint) throws URISyntaxException {
+        String path = baseURI.getPath() == null || baseURI.getPath().isEmpty() ? "/" : baseURI.getPath();
+        return new URI(host.getSchemeName(), null, host.getHostName(), host.getPort(), (path.endsWith("/") ? path : path + "/") + endpoint, null, null);
+    }
+
+}
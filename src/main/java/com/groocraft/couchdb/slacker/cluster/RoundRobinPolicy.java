@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.cluster;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link NodeSelectionPolicy} which chooses nodes one after another.
+ *
+ * @author Majlanky
+ */
+public class RoundRobinPolicy implements NodeSelectionPolicy {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Node select(@NotNull List<Node> nodes) {
+        return nodes.get(Math.floorMod(counter.getAndIncrement(), nodes.size()));
+    }
+
+}
@@ -16,15 +16,22 @@
 
 package com.groocraft.couchdb.slacker.configuration;
 
+import com.groocraft.couchdb.slacker.Authentication;
+import com.groocraft.couchdb.slacker.LoadBalancing;
 import com.groocraft.couchdb.slacker.QueryStrategy;
 import com.groocraft.couchdb.slacker.SchemaOperation;
+import com.groocraft.couchdb.slacker.Transport;
 import org.hibernate.validator.constraints.URL;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
+import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Properties pojo class for Couch Slacker configuration. It is used in {@link CouchSlackerConfiguration} class
@@ -38,14 +45,17 @@ public class CouchDbProperties {
 
     public static final String COUCH_ID_NAME = "_id";
     public static final String COUCH_REVISION_NAME = "_rev";
+    public static final String UNIX_SCHEME = "unix";
 
     /**
      * Must be valid URL.
-     * Port is mandatory.
-     * Scheme can be http or https.
+     * Port is mandatory for http and https.
+     * Scheme can be http, https or unix.
      * Scheme is not mandatory, http is used if not present.
+     * Unix scheme connects to Unix domain socket given by path of the URL (unix:///var/run/couchdb.sock for example), CouchDB (or a proxy in front of it)
+     * must run on the same host. Unix domain socket requires Java 16 or newer, apache transport and no other nodes.
      */
-    @URL
+    @CouchDbUrl
     private String url;
 
     /**
@@ -115,6 +125,387 @@ public class CouchDbProperties {
      */
     private QueryStrategy queryStrategy = QueryStrategy.MANGO;
 
+    /**
+     * Maximal number of pooled connections to CouchDB in total.
+     * Minimum is 1.
+     * Default value is 100.
+     */
+    @Min(1)
+    private int maxConnections = 100;
+
+    /**
+     * Maximal number of pooled connections to one CouchDB node (route).
+     * Minimum is 1.
+     * Default value is 50.
+     */
+    @Min(1)
+    private int maxConnectionsPerRoute = 50;
+
+    /**
+     * Period of inactivity in milliseconds after which a pooled connection is validated before it is leased again. Non-positive value turns validation off.
+     * Default value is 2000.
+     */
+    private int validateAfterInactivity = 2000;
+
+    /**
+     * Time in milliseconds after which an idle pooled connection is closed by the eviction thread. The eviction thread closes expired connections too.
+     * Non-positive value turns the eviction thread off.
+     * Default value is 30000.
+     */
+    private int idleConnectionTimeout = 30000;
+
+    /**
+     * Maximal time in milliseconds a connection is kept alive in the pool. If CouchDB sends Keep-Alive header with shorter timeout, the header wins.
+     * Non-positive value means connections are kept alive as long as CouchDB allows.
+     * Default value is 30000.
+     */
+    private int keepAlive = 30000;
+
+    /**
+     * Flag which turns on/off Nagle's algorithm (TCP_NODELAY) on connections to CouchDB.
+     * Default value is true.
+     */
+    private boolean tcpNoDelay = true;
+
+    /**
+     * Size of socket send buffer (SO_SNDBUF) in bytes. Non-positive value means system default is used.
+     * Default value is 0.
+     */
+    private int socketSendBufferSize = 0;
+
+    /**
+     * Size of socket receive buffer (SO_RCVBUF) in bytes. Non-positive value means system default is used.
+     * Default value is 0.
+     */
+    private int socketReceiveBufferSize = 0;
+
+    /**
+     * Timeout in milliseconds for establishing of a connection to CouchDB. Zero means infinite timeout.
+     * Default value is 10000.
+     */
+    @Min(0)
+    private int connectTimeout = 10000;
+
+    /**
+     * Timeout in milliseconds for waiting for data (maximal period of inactivity between two data packets). Zero means infinite timeout.
+     * Default value is 300000.
+     */
+    @Min(0)
+    private int socketTimeout = 300000;
+
+    /**
+     * Timeout in milliseconds for leasing a connection from the pool. Zero means infinite timeout.
+     * Default value is 30000.
+     */
+    @Min(0)
+    private int connectionRequestTimeout = 30000;
+
+    /**
+     * Number of I/O dispatch threads of asynchronous client. Non-positive value means number of available processors is used.
+     * Default value is 0.
+     */
+    private int asyncIoThreads = 0;
+
+    /**
+     * Flag which turns on/off advertising of gzip and deflate (Accept-Encoding) and decoding of compressed responses.
+     * Default value is true.
+     */
+    private boolean responseCompression = true;
+
+    /**
+     * Flag which turns on/off gzip compression of request bodies (Content-Encoding). Only bodies not shorter than {@link #requestCompressionThreshold} are
+     * compressed. Streamed bodies of bulk requests are always compressed, because their length is not known in advance.
+     * Default value is false.
+     */
+    private boolean requestCompression = false;
+
+    /**
+     * Minimal length (in characters) of a request body to be compressed when request compression is on. Small bodies are not worth the CPU time.
+     * Default value is 8192.
+     */
+    @Min(0)
+    private int requestCompressionThreshold = 8192;
+
+    /**
+     * URLs of other nodes of the same cluster. Requests are spread across the node given by url and these nodes. Every URL must be valid the same way as
+     * url, path of url is used for all nodes.
+     * Default value is empty list.
+     */
+    private List<@URL String> nodes = new LinkedList<>();
+
+    /**
+     * Flag which turns on/off discovery of cluster nodes thru _membership endpoint when the client is built. Scheme and port of discovered nodes are taken
+     * from url.
+     * Default value is false.
+     */
+    private boolean nodeDiscovery = false;
+
+    /**
+     * Policy how requests are spread across nodes (round-robin, least-outstanding-requests, latency-weighted).
+     * Default value is round-robin.
+     */
+    private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+
+    /**
+     * Period in milliseconds of health checks of nodes thru _up endpoint. Unhealthy nodes are not used until they recover. Health checks are done only if
+     * there is more than one node. Non-positive value turns health checks off.
+     * Default value is 5000.
+     */
+    private int healthCheckInterval = 5000;
+
+    /**
+     * Maximal number of retries of idempotent requests (GET, HEAD, _find and _bulk_get) which failed on transient error (reset or refused connection,
+     * 429, 502, 503 or 504). Zero turns retries off.
+     * Default value is 2.
+     */
+    @Min(0)
+    private int maxRetries = 2;
+
+    /**
+     * Backoff in milliseconds before the first retry. Every next retry doubles it up to {@link #retryMaxBackoff}. The real delay is random number between
+     * zero and the backoff (full jitter), so retries of many clients are not synchronized.
+     * Default value is 100.
+     */
+    @Min(1)
+    private int retryInitialBackoff = 100;
+
+    /**
+     * Upper limit of backoff in milliseconds before a retry.
+     * Default value is 5000.
+     */
+    @Min(1)
+    private int retryMaxBackoff = 5000;
+
+    /**
+     * Ratio of retries to requests which is allowed across the whole client. Every request deposits the ratio into the budget, every retry withdraws one,
+     * so retries can not multiply load of an overloaded cluster.
+     * Default value is 0.2.
+     */
+    @DecimalMin("0")
+    private double retryBudgetRatio = 0.2;
+
+    /**
+     * Number of consecutive transient failures of a database after which the circuit breaker of the database opens and requests fail fast. Non-positive
+     * value turns circuit breakers off.
+     * Default value is 10.
+     */
+    private int circuitBreakerThreshold = 10;
+
+    /**
+     * Time in milliseconds for which an open circuit breaker fails requests fast before a trial request is let thru.
+     * Default value is 10000.
+     */
+    @Min(1)
+    private int circuitBreakerOpenDuration = 10000;
+
+    /**
+     * Way how the client authenticates (basic, cookie). Cookie authentication sends credentials only to _session endpoint and uses AuthSession cookie for
+     * all other requests.
+     * Default value is basic.
+     */
+    private Authentication authentication = Authentication.BASIC;
+
+    /**
+     * Timeout in milliseconds of CouchDB session (chttpd_auth/timeout of the server). Used only by cookie authentication, a new cookie is obtained when the
+     * current one is older than 80% of the timeout.
+     * Default value is 600000.
+     */
+    @Min(1)
+    private int sessionTimeout = 600000;
+
+    /**
+     * HTTP engine used by the blocking client (apache, jdk). Jdk engine needs Java 11 or newer.
+     * Default value is apache.
+     */
+    private Transport transport = Transport.APACHE;
+
+    /**
+     * Flag which turns on/off execution mode friendly to virtual threads. Virtual threads require Java 21 or newer. If on, callers wait for a connection in
+     * a queue which does not pin carrier threads and which is limited by max-connections (and max-connections-per-route of all nodes), instead of waiting
+     * inside of the connection pool. Jdk engine and parallel parts of bulk operations run on virtual threads.
+     * Default value is false.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Flag which turns on/off cache of read documents. Raw json of a document is kept with its ETag and every next read of the document is a conditional
+     * request, if CouchDB answers not modified, the document is not transferred again. Save and delete thru the same client remove the document from the
+     * cache.
+     * Default value is false.
+     */
+    private boolean readCache = false;
+
+    /**
+     * Time in milliseconds for which a cached document is served without asking CouchDB. Changes done by other clients are not visible for this time.
+     * Zero means every read is revalidated.
+     * Default value is 0.
+     */
+    @Min(0)
+    private int readCacheTtl = 0;
+
+    /**
+     * Maximal number of documents in the read cache (and separately in the near cache). Least recently used documents are evicted.
+     * Default value is 10000.
+     */
+    @Min(1)
+    private int readCacheMaxEntries = 10000;
+
+    /**
+     * Maximal estimated size of documents in the read cache (and separately in the near cache) in bytes. Least recently used documents are evicted.
+     * Default value is 67108864 (64 MB).
+     */
+    @Min(1)
+    private long readCacheMaxBytes = 67108864;
+
+    /**
+     * Flag if content of documents in the read cache (and in the near cache) should be kept outside of the heap in direct memory slabs. Limits of the caches
+     * then apply to direct memory and content is copied to the heap only when a document is read from the cache.
+     * Default value is false.
+     */
+    private boolean readCacheOffHeap = false;
+
+    /**
+     * Flag if content of documents in the read cache (and in the near cache) should be compressed. It saves memory for CPU time of every read from the cache.
+     * Default value is false.
+     */
+    private boolean readCacheCompression = false;
+
+    /**
+     * Flag which turns on/off cache of query results. Raw responses of Mango queries (every page) and views are kept by the query and database. A cached result
+     * is served without any request while the _changes feed of its database is followed within nearCacheMaxStaleness, otherwise it is served only if
+     * update_seq of the database did not move. Any change of the database removes all its cached results.
+     * Default value is false.
+     */
+    private boolean queryCache = false;
+
+    /**
+     * Maximal number of results in the query cache. Least recently used results are evicted.
+     * Default value is 1000.
+     */
+    @Min(1)
+    private int queryCacheMaxEntries = 1000;
+
+    /**
+     * Maximal estimated size of results in the query cache in bytes. Least recently used results are evicted.
+     * Default value is 33554432 (32 MB).
+     */
+    @Min(1)
+    private long queryCacheMaxBytes = 33554432;
+
+    /**
+     * Time in milliseconds for which a count of all entities is served without asking CouchDB. An older count is served only if update_seq of its database
+     * did not move. Zero means update_seq is checked by every count.
+     * Default value is 0.
+     */
+    @Min(0)
+    private int countCacheTtl = 0;
+
+    /**
+     * Maximal time in milliseconds for which documents of entities annotated by NearCached are served from the near cache after the last successful read of
+     * _changes feed of their database. Every followed database occupies one connection by long polling of the feed.
+     * Default value is 5000.
+     */
+    @Min(100)
+    private int nearCacheMaxStaleness = 5000;
+
+    /**
+     * Flag which turns on/off reading of changed documents with _changes feed. If on, cached documents are replaced by their new versions, otherwise they are
+     * removed from the near cache and read again when needed.
+     * Default value is false.
+     */
+    private boolean nearCacheIncludeDocs = false;
+
+    /**
+     * Initial number of ids which fits the Bloom filter of a database in existence index of entities annotated by ExistenceIndexed. The filter grows if more
+     * ids are added, every growth allocates the next stage with double capacity.
+     * Default value is 100000.
+     */
+    @Min(1)
+    private int existenceIndexInitialCapacity = 100000;
+
+    /**
+     * Maximal probability that a document which does not exist is reported as possibly existing by existence index, so it is read from CouchDB.
+     * Default value is 0.01.
+     */
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "1", inclusive = false)
+    private double existenceIndexFalsePositiveRate = 0.01;
+
+    /**
+     * Flag which turns on/off coalescing of identical concurrent reads. If on, calls which read the same document or run the same query while an identical
+     * request is in flight wait for its response instead of sending their own request.
+     * Default value is false.
+     */
+    private boolean readCoalescing = false;
+
+    /**
+     * Time in milliseconds for which reads by id of entities annotated by ReadBatched are collected into one _bulk_get request since the first read of the
+     * batch. Zero means reads which come before the batch is dispatched are collected.
+     * Default value is 2.
+     */
+    @Min(0)
+    private int readBatchWindow = 2;
+
+    /**
+     * Maximal number of ids in one _bulk_get request of batched reads by id. Full batch is sent without waiting for the end of the window.
+     * Default value is 100.
+     */
+    @Min(1)
+    private int readBatchMaxSize = 100;
+
+    /**
+     * Flag which turns on/off write-behind buffer of saveBehind and deleteBehind methods. If on, writes are buffered per database and sent by _bulk_docs
+     * requests, repeated writes of the same id are merged. If off, the methods write immediately.
+     * Default value is false.
+     */
+    private boolean writeBehind = false;
+
+    /**
+     * Maximal number of writes in one _bulk_docs request of write-behind buffer. Full batch is flushed without waiting for the flush interval.
+     * Default value is 500.
+     */
+    @Min(1)
+    private int writeBehindMaxBatchSize = 500;
+
+    /**
+     * Time in milliseconds after which buffered writes of a database are flushed since the first of them.
+     * Default value is 10.
+     */
+    @Min(0)
+    private int writeBehindFlushInterval = 10;
+
+    /**
+     * Maximal number of writes which are buffered or flushed at the same time. A write into the full buffer waits until a flush makes a space.
+     * Default value is 10000.
+     */
+    @Min(1)
+    private int writeBehindCapacity = 10000;
+
+    /**
+     * Maximal number of bytes of one _bulk_docs request body. Bulk writes (saveAll, deleteAll) are split into more requests when their documents do not
+     * fit. Should not be bigger than max_http_request_size of CouchDB. A document bigger than the limit is sent alone.
+     * Minimum is 1024.
+     * Default value is 67108864 (64 MiB).
+     */
+    @Min(1024)
+    private long bulkMaxBytes = 67108864;
+
+    /**
+     * Maximal number of requests of one bulk operation (saveAll, deleteAll, readAll by ids) which are sent at the same time.
+     * Minimum is 1.
+     * Default value is 4.
+     */
+    @Min(1)
+    private int bulkParallelism = 4;
+
+    /**
+     * Maximal number of ids in one _bulk_get request. Reads of more ids (findAllById for example) are split into more requests which are sent in parallel.
+     * Minimum is 1.
+     * Default value is 1000.
+     */
+    @Min(1)
+    private int bulkGetChunkSize = 1000;
+
     public String getUsername() {
         return username;
     }
@@ -195,6 +586,430 @@ public class CouchDbProperties {
         this.queryStrategy = queryStrategy;
     }
 
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(int validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public int getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    public void setIdleConnectionTimeout(int idleConnectionTimeout) {
+        this.idleConnectionTimeout = idleConnectionTimeout;
+    }
+
+    public int getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(int keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public int getSocketSendBufferSize() {
+        return socketSendBufferSize;
+    }
+
+    public void setSocketSendBufferSize(int socketSendBufferSize) {
+        this.socketSendBufferSize = socketSendBufferSize;
+    }
+
+    public int getSocketReceiveBufferSize() {
+        return socketReceiveBufferSize;
+    }
+
+    public void setSocketReceiveBufferSize(int socketReceiveBufferSize) {
+        this.socketReceiveBufferSize = socketReceiveBufferSize;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public void setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public int getAsyncIoThreads() {
+        return asyncIoThreads;
+    }
+
+    public void setAsyncIoThreads(int asyncIoThreads) {
+        this.asyncIoThreads = asyncIoThreads;
+    }
+
+    public boolean isResponseCompression() {
+        return responseCompression;
+    }
+
+    public void setResponseCompression(boolean responseCompression) {
+        this.responseCompression = responseCompression;
+    }
+
+    public boolean isRequestCompression() {
+        return requestCompression;
+    }
+
+    public void setRequestCompression(boolean requestCompression) {
+        this.requestCompression = requestCompression;
+    }
+
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<String> nodes) {
+        this.nodes = nodes;
+    }
+
+    public boolean isNodeDiscovery() {
+        return nodeDiscovery;
+    }
+
+    public void setNodeDiscovery(boolean nodeDiscovery) {
+        this.nodeDiscovery = nodeDiscovery;
+    }
+
+    public LoadBalancing getLoadBalancing() {
+        return loadBalancing;
+    }
+
+    public void setLoadBalancing(LoadBalancing loadBalancing) {
+        this.loadBalancing = loadBalancing;
+    }
+
+    public int getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(int healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public int getRetryInitialBackoff() {
+        return retryInitialBackoff;
+    }
+
+    public void setRetryInitialBackoff(int retryInitialBackoff) {
+        this.retryInitialBackoff = retryInitialBackoff;
+    }
+
+    public int getRetryMaxBackoff() {
+        return retryMaxBackoff;
+    }
+
+    public void setRetryMaxBackoff(int retryMaxBackoff) {
+        this.retryMaxBackoff = retryMaxBackoff;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public void setRetryBudgetRatio(double retryBudgetRatio) {
+        this.retryBudgetRatio = retryBudgetRatio;
+    }
+
+    public int getCircuitBreakerThreshold() {
+        return circuitBreakerThreshold;
+    }
+
+    public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+        this.circuitBreakerThreshold = circuitBreakerThreshold;
+    }
+
+    public int getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    public void setCircuitBreakerOpenDuration(int circuitBreakerOpenDuration) {
+        this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+    }
+
+    public Authentication getAuthentication() {
+        return authentication;
+    }
+
+    public void setAuthentication(Authentication authentication) {
+        this.authentication = authentication;
+    }
+
+    public int getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    public void setSessionTimeout(int sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public boolean isReadCache() {
+        return readCache;
+    }
+
+    public void setReadCache(boolean readCache) {
+        this.readCache = readCache;
+    }
+
+    public int getReadCacheTtl() {
+        return readCacheTtl;
+    }
+
+    public void setReadCacheTtl(int readCacheTtl) {
+        this.readCacheTtl = readCacheTtl;
+    }
+
+    public int getReadCacheMaxEntries() {
+        return readCacheMaxEntries;
+    }
+
+    public void setReadCacheMaxEntries(int readCacheMaxEntries) {
+        this.readCacheMaxEntries = readCacheMaxEntries;
+    }
+
+    public long getReadCacheMaxBytes() {
+        return readCacheMaxBytes;
+    }
+
+    public void setReadCacheMaxBytes(long readCacheMaxBytes) {
+        this.readCacheMaxBytes = readCacheMaxBytes;
+    }
+
+    public boolean isReadCacheOffHeap() {
+        return readCacheOffHeap;
+    }
+
+    public void setReadCacheOffHeap(boolean readCacheOffHeap) {
+        this.readCacheOffHeap = readCacheOffHeap;
+    }
+
+    public boolean isReadCacheCompression() {
+        return readCacheCompression;
+    }
+
+    public void setReadCacheCompression(boolean readCacheCompression) {
+        this.readCacheCompression = readCacheCompression;
+    }
+
+    public boolean isQueryCache() {
+        return queryCache;
+    }
+
+    public void setQueryCache(boolean queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    public int getQueryCacheMaxEntries() {
+        return queryCacheMaxEntries;
+    }
+
+    public void setQueryCacheMaxEntries(int queryCacheMaxEntries) {
+        this.queryCacheMaxEntries = queryCacheMaxEntries;
+    }
+
+    public long getQueryCacheMaxBytes() {
+        return queryCacheMaxBytes;
+    }
+
+    public void setQueryCacheMaxBytes(long queryCacheMaxBytes) {
+        this.queryCacheMaxBytes = queryCacheMaxBytes;
+    }
+
+    public int getCountCacheTtl() {
+        return countCacheTtl;
+    }
+
+    public void setCountCacheTtl(int countCacheTtl) {
+        this.countCacheTtl = countCacheTtl;
+    }
+
+    public int getNearCacheMaxStaleness() {
+        return nearCacheMaxStaleness;
+    }
+
+    public void setNearCacheMaxStaleness(int nearCacheMaxStaleness) {
+        this.nearCacheMaxStaleness = nearCacheMaxStaleness;
+    }
+
+    public boolean isNearCacheIncludeDocs() {
+        return nearCacheIncludeDocs;
+    }
+
+    public void setNearCacheIncludeDocs(boolean nearCacheIncludeDocs) {
+        this.nearCacheIncludeDocs = nearCacheIncludeDocs;
+    }
+
+    public int getExistenceIndexInitialCapacity() {
+        return existenceIndexInitialCapacity;
+    }
+
+    public void setExistenceIndexInitialCapacity(int existenceIndexInitialCapacity) {
+        this.existenceIndexInitialCapacity = existenceIndexInitialCapacity;
+    }
+
+    public double getExistenceIndexFalsePositiveRate() {
+        return existenceIndexFalsePositiveRate;
+    }
+
+    public void setExistenceIndexFalsePositiveRate(double existenceIndexFalsePositiveRate) {
+        this.existenceIndexFalsePositiveRate = existenceIndexFalsePositiveRate;
+    }
+
+    public boolean isReadCoalescing() {
+        return readCoalescing;
+    }
+
+    public void setReadCoalescing(boolean readCoalescing) {
+        this.readCoalescing = readCoalescing;
+    }
+
+    public int getReadBatchWindow() {
+        return readBatchWindow;
+    }
+
+    public void setReadBatchWindow(int readBatchWindow) {
+        this.readBatchWindow = readBatchWindow;
+    }
+
+    public int getReadBatchMaxSize() {
+        return readBatchMaxSize;
+    }
+
+    public void setReadBatchMaxSize(int readBatchMaxSize) {
+        this.readBatchMaxSize = readBatchMaxSize;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public int getWriteBehindMaxBatchSize() {
+        return writeBehindMaxBatchSize;
+    }
+
+    public void setWriteBehindMaxBatchSize(int writeBehindMaxBatchSize) {
+        this.writeBehindMaxBatchSize = writeBehindMaxBatchSize;
+    }
+
+    public int getWriteBehindFlushInterval() {
+        return writeBehindFlushInterval;
+    }
+
+    public void setWriteBehindFlushInterval(int writeBehindFlushInterval) {
+        this.writeBehindFlushInterval = writeBehindFlushInterval;
+    }
+
+    public int getWriteBehindCapacity() {
+        return writeBehindCapacity;
+    }
+
+    public void setWriteBehindCapacity(int writeBehindCapacity) {
+        this.writeBehindCapacity = writeBehindCapacity;
+    }
+
+    public long getBulkMaxBytes() {
+        return bulkMaxBytes;
+    }
+
+    public void setBulkMaxBytes(long bulkMaxBytes) {
+        this.bulkMaxBytes = bulkMaxBytes;
+    }
+
+    public int getBulkParallelism() {
+        return bulkParallelism;
+    }
+
+    public void setBulkParallelism(int bulkParallelism) {
+        this.bulkParallelism = bulkParallelism;
+    }
+
+    public int getBulkGetChunkSize() {
+        return bulkGetChunkSize;
+    }
+
+    public void setBulkGetChunkSize(int bulkGetChunkSize) {
+        this.bulkGetChunkSize = bulkGetChunkSize;
+    }
+
     public void copy(CouchDbProperties properties) {
         setPassword(properties.getPassword());
         setUsername(properties.getUsername());
@@ -206,6 +1021,59 @@ public class CouchDbProperties {
         setDefaultReplicas(properties.getDefaultReplicas());
         setDefaultPartitioned(properties.isDefaultPartitioned());
         setQueryStrategy(properties.getQueryStrategy());
+        setMaxConnections(properties.getMaxConnections());
+        setMaxConnectionsPerRoute(properties.getMaxConnectionsPerRoute());
+        setValidateAfterInactivity(properties.getValidateAfterInactivity());
+        setIdleConnectionTimeout(properties.getIdleConnectionTimeout());
+        setKeepAlive(properties.getKeepAlive());
+        setTcpNoDelay(properties.isTcpNoDelay());
+        setSocketSendBufferSize(properties.getSocketSendBufferSize());
+        setSocketReceiveBufferSize(properties.getSocketReceiveBufferSize());
+        setConnectTimeout(properties.getConnectTimeout());
+        setSocketTimeout(properties.getSocketTimeout());
+        setConnectionRequestTimeout(properties.getConnectionRequestTimeout());
+        setAsyncIoThreads(properties.getAsyncIoThreads());
+        setResponseCompression(properties.isResponseCompression());
+        setRequestCompression(properties.isRequestCompression());
+        setRequestCompressionThreshold(properties.getRequestCompressionThreshold());
+        setNodes(new LinkedList<>(properties.getNodes()));
+        setNodeDiscovery(properties.isNodeDiscovery());
+        setLoadBalancing(properties.getLoadBalancing());
+        setHealthCheckInterval(properties.getHealthCheckInterval());
+        setMaxRetries(properties.getMaxRetries());
+        setRetryInitialBackoff(properties.getRetryInitialBackoff());
+        setRetryMaxBackoff(properties.getRetryMaxBackoff());
+        setRetryBudgetRatio(properties.getRetryBudgetRatio());
+        setCircuitBreakerThreshold(properties.getCircuitBreakerThreshold());
+        setCircuitBreakerOpenDuration(properties.getCircuitBreakerOpenDuration());
+        setAuthentication(properties.getAuthentication());
+        setSessionTimeout(properties.getSessionTimeout());
+        setTransport(properties.getTransport());
+        setVirtualThreads(properties.isVirtualThreads());
+        setReadCache(properties.isReadCache());
+        setReadCacheTtl(properties.getReadCacheTtl());
+        setReadCacheMaxEntries(properties.getReadCacheMaxEntries());
+        setReadCacheMaxBytes(properties.getReadCacheMaxBytes());
+        setReadCacheOffHeap(properties.isReadCacheOffHeap());
+        setReadCacheCompression(properties.isReadCacheCompression());
+        setQueryCache(properties.isQueryCache());
+        setQueryCacheMaxEntries(properties.getQueryCacheMaxEntries());
+        setQueryCacheMaxBytes(properties.getQueryCacheMaxBytes());
+        setCountCacheTtl(properties.getCountCacheTtl());
+        setNearCacheMaxStaleness(properties.getNearCacheMaxStaleness());
+        setNearCacheIncludeDocs(properties.isNearCacheIncludeDocs());
+        setExistenceIndexInitialCapacity(properties.getExistenceIndexInitialCapacity());
+        setExistenceIndexFalsePositiveRate(properties.getExistenceIndexFalsePositiveRate());
+        setReadCoalescing(properties.isReadCoalescing());
+        setReadBatchWindow(properties.getReadBatchWindow());
+        setReadBatchMaxSize(properties.getReadBatchMaxSize());
+        setWriteBehind(properties.isWriteBehind());
+        setWriteBehindMaxBatchSize(properties.getWriteBehindMaxBatchSize());
+        setWriteBehindFlushInterval(properties.getWriteBehindFlushInterval());
+        setWriteBehindCapacity(properties.getWriteBehindCapacity());
+        setBulkMaxBytes(properties.getBulkMaxBytes());
+        setBulkParallelism(properties.getBulkParallelism());
+        setBulkGetChunkSize(properties.getBulkGetChunkSize());
     }
 
 }
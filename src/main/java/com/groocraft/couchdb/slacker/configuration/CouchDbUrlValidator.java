@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.configuration;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * Validator of {@link CouchDbUrl}.
+ *
+ * @author Majlanky
+ */
+public class CouchDbUrlValidator implements ConstraintValidator<CouchDbUrl, CharSequence> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        if (value == null || value.length() == 0) {
+            return true;
+        }
+        try {
+            URI uri = new URI(value.toString());
+            if (CouchDbProperties.UNIX_SCHEME.equals(uri.getScheme())) {
+                return uri.getHost() == null && uri.getPath() != null && uri.getPath().length() > 1;
+            }
+            new URL(value.toString());
+            return true;
+        } catch (URISyntaxException | MalformedURLException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.configuration;
+
+import com.groocraft.couchdb.slacker.AsyncCouchDbClient;
+import com.groocraft.couchdb.slacker.CouchDbClient;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.Assert;
+
+/**
+ * Extension of {@link CouchSlackerConfiguration} which adds {@link AsyncCouchDbClient} needed by reactive repositories enabled by
+ * {@link com.groocraft.couchdb.slacker.annotation.EnableReactiveCouchDbRepositories}.
+ *
+ * @author Majlanky
+ */
+public class ReactiveCouchSlackerConfiguration extends CouchSlackerConfiguration {
+
+    /**
+     * @param properties of Couch Slacker. Must not be {@literal null}
+     * @param client     which shares metadata, id generation and serialization with the created client. Must not be {@literal null}
+     * @return started {@link AsyncCouchDbClient} with the given properties
+     */
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    @Bean(destroyMethod = "close")
+    public AsyncCouchDbClient asyncDbClient(@NotNull CouchDbProperties properties, @NotNull CouchDbClient client) {
+        Assert.notNull(properties, "Properties must not be null.");
+        Assert.notNull(client, "Client must not be null.");
+        return CouchDbClient.builder().properties(properties).buildAsync(client);
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.exception;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Exception which is thrown instead of sending a request to a database whose circuit breaker is open, because the database (or the whole cluster) was
+ * failing with transient errors recently. For details see {@link com.groocraft.couchdb.slacker.resilience.CircuitBreaker}.
+ *
+ * @author Majlanky
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    private final String database;
+
+    /**
+     * @param database whose circuit breaker is open
+     * @param method   A valid HTTP method of the request which was not sent
+     * @param uri      of the request which was not sent
+     */
+    public CircuitBreakerOpenException(@NotNull String database, @NotNull String method, @NotNull String uri) {
+        super(String.format("Circuit breaker of %s is open, %s on %s was not sent", database, method, uri));
+        this.database = database;
+    }
+
+    public @NotNull String getDatabase() {
+        return database;
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.http;
+
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.transport.ByteArrayBody;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import com.groocraft.couchdb.slacker.transport.CouchResponse;
+import com.groocraft.couchdb.slacker.transport.CouchTransport;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.cookie.SM;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicNameValuePair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class which authenticates requests by AuthSession cookie instead of Basic credentials, so CouchDB does not have to verify the password hash for every
+ * request. The cookie is obtained from _session endpoint when it is needed for the first time. CouchDB sends a refreshed cookie in responses when the
+ * current one gets older, such cookie is taken by {@link #update(CouchResponse)}. If there is no traffic for a long time, a new cookie is obtained when the
+ * current one is older than 80% of session timeout. A cookie rejected by CouchDB (401) is dropped by {@link #invalidate(String)}.
+ *
+ * @author Majlanky
+ */
+@Slf4j
+public class SessionAuthenticator {
+
+    /**
+     * Name of cookie which holds session of CouchDB
+     */
+    public static final String COOKIE_NAME = "AuthSession";
+
+    private static final String SESSION = "_session";
+
+    private final CouchTransport transport;
+    private final URI sessionURI;
+    private final byte[] credentials;
+    private final long refreshAfter;
+    private volatile Session session;
+
+    /**
+     * @param transport      which is used to obtain the cookie. Must not be {@literal null}
+     * @param baseURI        where CouchDB is accessible without database specification. Must not be {@literal null}
+     * @param username       Must not be {@literal null}
+     * @param password       Must not be {@literal null}
+     * @param sessionTimeout in milliseconds after which CouchDB rejects the cookie. Must be positive
+     */
+    public SessionAuthenticator(@NotNull CouchTransport transport, @NotNull URI baseURI, @NotNull String username, @NotNull String password,
+                                long sessionTimeout) {
+        Assert.notNull(transport, "Transport must not be null.");
+        Assert.notNull(baseURI, "BaseURI must not be null.");
+        Assert.notNull(username, "Username must not be null.");
+        Assert.notNull(password, "Password must not be null.");
+        Assert.isTrue(sessionTimeout > 0, "SessionTimeout must be positive.");
+        this.transport = transport;
+        try {
+            this.sessionURI = new URIBuilder(baseURI).setPathSegments(SESSION).build();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+        this.credentials = URLEncodedUtils.format(Arrays.asList(new BasicNameValuePair("name", username), new BasicNameValuePair("password", password)),
+                StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+        this.refreshAfter = TimeUnit.MILLISECONDS.toNanos(sessionTimeout) / 10 * 8;
+    }
+
+    /**
+     * Method to add the cookie to the given request. If there is no valid cookie, a new one is obtained from the given host.
+     *
+     * @param request which is authenticated. Must not be {@literal null}
+     * @param host    of node which is used to obtain the cookie if it is needed. Must not be {@literal null}
+     * @return the cookie added to the request
+     * @throws IOException if the cookie can not be obtained
+     */
+    public @NotNull String authenticate(@NotNull CouchRequest request, @NotNull HttpHost host) throws IOException {
+        String cookie = getCookie(host);
+        request.setHeader(SM.COOKIE, cookie);
+        return cookie;
+    }
+
+    /**
+     * @param host of node which is used to obtain the cookie if it is needed. Must not be {@literal null}
+     * @return valid cookie in form of Cookie header value
+     * @throws IOException if the cookie can not be obtained
+     */
+    public @NotNull String getCookie(@NotNull HttpHost host) throws IOException {
+        Session current = session;
+        if (current == null || current.isOlderThan(refreshAfter)) {
+            synchronized (this) {
+                current = session;
+                if (current == null || current.isOlderThan(refreshAfter)) {
+                    current = login(host);
+                    session = current;
+                }
+            }
+        }
+        return current.cookie;
+    }
+
+    /**
+     * Method to obtain a new cookie from _session endpoint.
+     *
+     * @param host of node to which credentials are sent. Must not be {@literal null}
+     * @return new {@link Session}
+     * @throws IOException if credentials are rejected or there is no cookie in the response
+     */
+    private @NotNull Session login(@NotNull HttpHost host) throws IOException {
+        CouchRequest post = new CouchRequest(CouchRequest.POST, sessionURI,
+                new ByteArrayBody(credentials, ContentType.APPLICATION_FORM_URLENCODED.getMimeType(), null));
+        try (CouchResponse response = transport.execute(post, host)) {
+            String cookie = getSessionCookie(response);
+            if (cookie == null) {
+                throw new CouchDbException(response.getStatusCode(), post.getMethod(), sessionURI.toString(), "no session cookie in response");
+            }
+            log.debug("New session obtained from {}", host);
+            return new Session(cookie);
+        }
+    }
+
+    /**
+     * Method to take the refreshed cookie from the given response, if there is any.
+     *
+     * @param response of any authenticated request. Must not be {@literal null}
+     */
+    public void update(@NotNull CouchResponse response) {
+        String cookie = getSessionCookie(response);
+        if (cookie != null) {
+            session = new Session(cookie);
+        }
+    }
+
+    /**
+     * Method to drop the given cookie, because it was rejected. A new cookie is obtained for the next request. If the cookie was replaced in the meantime,
+     * the new one is kept.
+     *
+     * @param cookie which was rejected. Must not be {@literal null}
+     */
+    public synchronized void invalidate(@NotNull String cookie) {
+        Session current = session;
+        if (current != null && current.cookie.equals(cookie)) {
+            log.debug("Session was rejected, new one will be obtained");
+            session = null;
+        }
+    }
+
+    /**
+     * @param failure of a request. Must not be {@literal null}
+     * @return true if the failure means that the cookie was rejected
+     */
+    public static boolean isRejected(@NotNull Throwable failure) {
+        return failure instanceof CouchDbException && ((CouchDbException) failure).getStatusCode() == HttpStatus.SC_UNAUTHORIZED;
+    }
+
+    private static @Nullable String getSessionCookie(@NotNull CouchResponse response) {
+        for (String value : response.getHeaders(SM.SET_COOKIE)) {
+            int end = value.indexOf(';');
+            String cookie = (end < 0 ? value : value.substring(0, end)).trim();
+            if (cookie.startsWith(COOKIE_NAME + "=") && cookie.length() > COOKIE_NAME.length() + 1) {
+                return cookie;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cookie with time when it was obtained.
+     */
+    private static class Session {
+
+        private final String cookie;
+        private final long obtained;
+
+        private Session(@NotNull String cookie) {
+            this.cookie = cookie;
+            this.obtained = System.nanoTime();
+        }
+
+        private boolean isOlderThan(long nanos) {
+            return System.nanoTime() - obtained > nanos;
+        }
+
+    }
+
+}
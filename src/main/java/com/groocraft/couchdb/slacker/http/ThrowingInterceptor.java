@@ -16,7 +16,9 @@
 
 package com.groocraft.couchdb.slacker.http;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.groocraft.couchdb.slacker.exception.CouchDbException;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseInterceptor;
@@ -24,42 +26,116 @@ import org.apache.http.HttpStatus;
 import org.apache.http.RequestLine;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.protocol.HttpContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * {@link HttpResponseInterceptor} which throws {@link CouchDbException} in case that response code is not OK, CREATED, ACCEPTED or NOT_MODIFIED. If there is
  * a body in request, it is checked for error and reason and it is returned as reason part of the exception. If body is not present, common reason phrase is
- * returned instead.
+ * returned instead. If body is not a json (html error page of a proxy for example), its beginning is returned next to the reason phrase, so status code of
+ * the response is never lost.
  *
  * @author Majlanky
  */
 public class ThrowingInterceptor implements HttpResponseInterceptor {
 
+    private static final ObjectReader ERROR_READER = new ObjectMapper().reader();
+    private static final int MAX_RAW_REASON_LENGTH = 200;
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void process(HttpResponse response, HttpContext context) throws IOException {
-        switch (response.getStatusLine().getStatusCode()) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (!isSuccessful(statusCode)) {
+            HttpClientContext clientContext = HttpClientContext.adapt(context);
+            RequestLine requestLine = clientContext.getRequest().getRequestLine();
+            throw createException(statusCode, requestLine.getMethod(), requestLine.getUri(), response.getStatusLine().getReasonPhrase(),
+                    response.getEntity() == null ? null : response.getEntity().getContent());
+        }
+    }
+
+    /**
+     * @param statusCode of a response
+     * @return true if the given status code is OK, CREATED, ACCEPTED or NOT_MODIFIED
+     */
+    public static boolean isSuccessful(int statusCode) {
+        switch (statusCode) {
             case HttpStatus.SC_OK:
             case HttpStatus.SC_CREATED:
             case HttpStatus.SC_ACCEPTED:
             case HttpStatus.SC_NOT_MODIFIED:
-                break;
+                return true;
             //Report all unknown states
             default:
-                HttpClientContext clientContext = HttpClientContext.adapt(context);
-                RequestLine requestLine = clientContext.getRequest().getRequestLine();
-                String reason = response.getStatusLine().getReasonPhrase();
-                if (response.getEntity() != null) {
-                    ObjectMapper mapper = new ObjectMapper();
-                    Map<String, String> wholeBody = mapper.readValue(response.getEntity().getContent(), mapper.getTypeFactory().constructMapType(Map.class,
-                            String.class, String.class));
-                    reason = wholeBody.get("error") + " : " + wholeBody.get("reason");
-                }
-                throw new CouchDbException(response.getStatusLine().getStatusCode(), requestLine.getMethod(), requestLine.getUri(), reason);
+                return false;
+        }
+    }
+
+    /**
+     * Method to create exception of not successful response. Reason is read from error and reason of the body, if there is any. If the body is not a json
+     * object, the default reason is used together with beginning of the body.
+     *
+     * @param statusCode    of the response
+     * @param method        of the request. Must not be {@literal null}
+     * @param uri           of the request. Must not be {@literal null}
+     * @param defaultReason used when there is no body or the body is not a json object. Must not be {@literal null}
+     * @param body          of the response. It is not closed
+     * @return {@link CouchDbException} describing the response
+     * @throws IOException if the body can not be read
+     */
+    public static @NotNull CouchDbException createException(int statusCode, @NotNull String method, @NotNull String uri, @NotNull String defaultReason,
+                                                            @Nullable InputStream body) throws IOException {
+        String reason = defaultReason;
+        if (body != null) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            for (int read = body.read(chunk); read >= 0; read = body.read(chunk)) {
+                buffer.write(chunk, 0, read);
+            }
+            byte[] content = buffer.toByteArray();
+            if (content.length > 0) {
+                reason = getReason(content, defaultReason);
+            }
+        }
+        return new CouchDbException(statusCode, method, uri, reason);
+    }
+
+    /**
+     * @param content       of not empty body. Must not be {@literal null}
+     * @param defaultReason used if the body is not a json object. Must not be {@literal null}
+     * @return error and reason of json body, or the default reason with beginning of other body
+     */
+    private static @NotNull String getReason(@NotNull byte[] content, @NotNull String defaultReason) {
+        try {
+            JsonNode wholeBody = ERROR_READER.readTree(content);
+            if (wholeBody != null && wholeBody.isObject()) {
+                return getText(wholeBody.get("error")) + " : " + getText(wholeBody.get("reason"));
+            }
+        } catch (IOException e) {
+            //not a json, proxies and load balancers usually answer by html page
+        }
+        String raw = new String(content, StandardCharsets.UTF_8).replaceAll("\\s+", " ").trim();
+        if (raw.isEmpty()) {
+            return defaultReason;
+        }
+        return defaultReason + " : " + (raw.length() > MAX_RAW_REASON_LENGTH ? raw.substring(0, MAX_RAW_REASON_LENGTH) + "..." : raw);
+    }
+
+    /**
+     * @param node field of error body or {@literal null} if the field is missing
+     * @return text of the field, json of non textual field or {@literal null} if the field is missing or null
+     */
+    private static @Nullable String getText(@Nullable JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
         }
+        return node.isTextual() ? node.asText() : node.toString();
     }
 }
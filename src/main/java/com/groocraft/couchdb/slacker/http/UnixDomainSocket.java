@@ -0,0 +1,365 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * {@link Socket} adapter of {@link SocketChannel} connected to Unix domain socket, so the channel can be used by blocking HTTP client which works with
+ * sockets. Channel of Unix domain socket has no socket adapter and it does not support read timeout, so the channel is used in non-blocking mode and
+ * {@link Selector} is used to wait for data, which keeps semantic of {@link #setSoTimeout(int)} (stale connection check of the pool depends on it). TCP
+ * specific options are ignored.
+ *
+ * @author Majlanky
+ */
+class UnixDomainSocket extends Socket {
+
+    private final SocketChannel channel;
+    private final InputStream input;
+    private final OutputStream output;
+    private Selector selector;
+    private volatile int soTimeout;
+    private volatile boolean inputShutdown;
+    private volatile boolean outputShutdown;
+
+    /**
+     * @param channel not connected channel of Unix domain socket. Must not be {@literal null}
+     */
+    UnixDomainSocket(@NotNull SocketChannel channel) {
+        Assert.notNull(channel, "Channel must not be null.");
+        this.channel = channel;
+        this.input = new ChannelInputStream();
+        this.output = new ChannelOutputStream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void connect(SocketAddress endpoint) throws IOException {
+        connect(endpoint, 0);
+    }
+
+    /**
+     * Method to connect the channel to the given address of Unix domain socket. Connection to local socket is established immediately, so timeout is
+     * ignored.
+     *
+     * @param endpoint address of Unix domain socket
+     * @param timeout  ignored
+     * @throws ConnectException if the socket does not exist or nobody listens on it
+     */
+    @Override
+    public void connect(SocketAddress endpoint, int timeout) throws IOException {
+        try {
+            channel.connect(endpoint);
+        } catch (ConnectException e) {
+            throw e;
+        } catch (SocketException e) {
+            //missing socket is reported the same way as refused TCP connection, so it is handled as transient failure
+            ConnectException refused = new ConnectException("Connection to " + endpoint + " refused: " + e.getMessage());
+            refused.initCause(e);
+            throw refused;
+        }
+        channel.configureBlocking(false);
+        selector = Selector.open();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull InputStream getInputStream() throws IOException {
+        ensureConnected();
+        return input;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull OutputStream getOutputStream() throws IOException {
+        ensureConnected();
+        return output;
+    }
+
+    private void ensureConnected() throws SocketException {
+        if (isClosed()) {
+            throw new SocketException("Socket is closed");
+        }
+        if (!isConnected()) {
+            throw new SocketException("Socket is not connected");
+        }
+    }
+
+    /**
+     * Method to wait until the channel is ready for the given operation. Waiting for read is limited by read timeout, waiting for write is not limited the
+     * same way as blocking write of {@link Socket} is not.
+     *
+     * @param operation {@link SelectionKey#OP_READ} or {@link SelectionKey#OP_WRITE}
+     * @throws IOException if read timeout elapses or waiting is interrupted
+     */
+    private void await(int operation) throws IOException {
+        channel.register(selector, operation);
+        try {
+            int ready = selector.select(operation == SelectionKey.OP_READ ? soTimeout : 0);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Interrupted while waiting for " + this);
+            }
+            if (ready == 0 && operation == SelectionKey.OP_READ && soTimeout > 0) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+        } finally {
+            selector.selectedKeys().clear();
+        }
+    }
+
+    @Override
+    public void setSoTimeout(int timeout) {
+        this.soTimeout = timeout;
+    }
+
+    @Override
+    public int getSoTimeout() {
+        return soTimeout;
+    }
+
+    @Override
+    public void setSendBufferSize(int size) throws SocketException {
+        try {
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, size);
+        } catch (IOException e) {
+            throw new SocketException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void setReceiveBufferSize(int size) throws SocketException {
+        try {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, size);
+        } catch (IOException e) {
+            throw new SocketException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void setTcpNoDelay(boolean on) {
+        //not applicable
+    }
+
+    @Override
+    public void setKeepAlive(boolean on) {
+        //not applicable
+    }
+
+    @Override
+    public void setReuseAddress(boolean on) {
+        //not applicable
+    }
+
+    @Override
+    public void setSoLinger(boolean on, int linger) {
+        //not applicable
+    }
+
+    @Override
+    public boolean isConnected() {
+        return channel.isConnected();
+    }
+
+    @Override
+    public boolean isBound() {
+        return channel.isConnected();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !channel.isOpen();
+    }
+
+    @Override
+    public boolean isInputShutdown() {
+        return inputShutdown;
+    }
+
+    @Override
+    public boolean isOutputShutdown() {
+        return outputShutdown;
+    }
+
+    @Override
+    public void shutdownInput() throws IOException {
+        channel.shutdownInput();
+        inputShutdown = true;
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException {
+        channel.shutdownOutput();
+        outputShutdown = true;
+    }
+
+    /**
+     * @return loopback address, Unix domain socket has no IP address
+     */
+    @Override
+    public InetAddress getInetAddress() {
+        return InetAddress.getLoopbackAddress();
+    }
+
+    /**
+     * @return loopback address, Unix domain socket has no IP address
+     */
+    @Override
+    public InetAddress getLocalAddress() {
+        return InetAddress.getLoopbackAddress();
+    }
+
+    @Override
+    public int getPort() {
+        return 0;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return -1;
+    }
+
+    @Override
+    public SocketAddress getRemoteSocketAddress() {
+        try {
+            return channel.getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        try {
+            return channel.getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return {@literal null}, the channel is in non-blocking mode and it is owned by the socket
+     */
+    @Override
+    public SocketChannel getChannel() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            if (selector != null) {
+                selector.close();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "UnixDomainSocket[" + getRemoteSocketAddress() + "]";
+    }
+
+    /**
+     * {@link InputStream} reading from the channel with respect to read timeout of the socket.
+     */
+    private class ChannelInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            int read = read(buffer, 0, 1);
+            return read < 0 ? -1 : buffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(@NotNull byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+            int read;
+            while ((read = channel.read(target)) == 0) {
+                await(SelectionKey.OP_READ);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            UnixDomainSocket.this.close();
+        }
+
+    }
+
+    /**
+     * {@link OutputStream} writing whole buffers into the channel.
+     */
+    private class ChannelOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(@NotNull byte[] buffer, int offset, int length) throws IOException {
+            ByteBuffer source = ByteBuffer.wrap(buffer, offset, length);
+            while (source.hasRemaining()) {
+                if (channel.write(source) == 0) {
+                    await(SelectionKey.OP_WRITE);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            UnixDomainSocket.this.close();
+        }
+
+    }
+
+}
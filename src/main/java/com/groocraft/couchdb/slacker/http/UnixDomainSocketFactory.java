@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.SocketChannel;
+
+/**
+ * {@link ConnectionSocketFactory} which connects every route to one Unix domain socket, so requests to CouchDB (or a proxy in front of it) running on the
+ * same host skip TCP stack. Unix domain sockets are part of Java 16, the library is compiled for older Java, so the needed API is looked up reflectively.
+ *
+ * @author Majlanky
+ */
+public class UnixDomainSocketFactory implements ConnectionSocketFactory {
+
+    private static final Method ADDRESS_OF;
+    private static final Method OPEN_CHANNEL;
+    private static final ProtocolFamily UNIX;
+
+    static {
+        Method addressOf = null;
+        Method openChannel = null;
+        ProtocolFamily unix = null;
+        try {
+            addressOf = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class);
+            openChannel = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+            unix = StandardProtocolFamily.valueOf("UNIX");
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            addressOf = null;
+        }
+        ADDRESS_OF = addressOf;
+        OPEN_CHANNEL = openChannel;
+        UNIX = unix;
+    }
+
+    private final SocketAddress address;
+
+    /**
+     * @param path of Unix domain socket. Must not be {@literal null}
+     * @throws IllegalStateException if the running Java does not support Unix domain sockets
+     */
+    public UnixDomainSocketFactory(@NotNull String path) {
+        Assert.hasText(path, "Path must not be null nor empty.");
+        this.address = getAddress(path);
+    }
+
+    /**
+     * @return true if the running Java supports Unix domain sockets
+     */
+    public static boolean isAvailable() {
+        return ADDRESS_OF != null;
+    }
+
+    /**
+     * Method to create address of Unix domain socket.
+     *
+     * @param path of the socket. Must not be {@literal null}
+     * @return {@link SocketAddress} of the socket
+     * @throws IllegalStateException if the running Java does not support Unix domain sockets
+     */
+    public static @NotNull SocketAddress getAddress(@NotNull String path) {
+        Assert.state(isAvailable(), "Unix domain socket requires Java 16 or newer");
+        try {
+            return (SocketAddress) ADDRESS_OF.invoke(null, path);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Invalid path of Unix domain socket " + path, e);
+        }
+    }
+
+    /**
+     * @return address of the socket to which every connection is established
+     */
+    public @NotNull SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Socket createSocket(@Nullable HttpContext context) throws IOException {
+        try {
+            return new UnixDomainSocket((SocketChannel) OPEN_CHANNEL.invoke(null, UNIX));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to open channel of Unix domain socket", e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to open channel of Unix domain socket", e.getCause());
+        }
+    }
+
+    /**
+     * Method to connect the given socket to the Unix domain socket. The given host and addresses are ignored, every route leads to the same socket.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Socket connectSocket(int connectTimeout, @Nullable Socket socket, @Nullable HttpHost host, @Nullable InetSocketAddress remoteAddress,
+                                         @Nullable InetSocketAddress localAddress, @Nullable HttpContext context) throws IOException {
+        Socket connected = socket != null ? socket : createSocket(context);
+        try {
+            connected.connect(address, connectTimeout);
+        } catch (IOException e) {
+            connected.close();
+            throw e;
+        }
+        return connected;
+    }
+
+}
@@ -94,12 +94,22 @@ public class CouchDbDirectQuery implements RepositoryQuery {
         return specified;
     }
 
+    /**
+     * Method to get the query of this instance specified by actual values of a call.
+     *
+     * @param parameters must not be {@literal null}.
+     * @return Specified query, or the query as it is if there are no parameters
+     */
+    protected @NotNull String specify(@NotNull Object[] parameters) {
+        return parameters.length > 0 ? specify(query, parameters) : query;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public @Nullable Object execute(@NotNull Object[] parameters) {
-        String currentQuery = parameters.length > 0 ? specify(query, parameters) : query;
+        String currentQuery = specify(parameters);
         try {
             return client.find(currentQuery, entityClass).getFirst();
         } catch (IOException e) {
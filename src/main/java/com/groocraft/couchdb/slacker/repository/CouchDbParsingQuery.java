@@ -98,11 +98,12 @@ public class CouchDbParsingQuery<EntityT> implements RepositoryQuery {
      * Method to obtain sorting information from parameters if present. If there is no parameter with sorting information
      * {@link Sort#unsorted()} is used.
      *
-     * @param parameters Actual parameter of a call. Must not be {@literal null}
+     * @param queryMethod which parameters are inspected. Must not be {@literal null}
+     * @param parameters  Actual parameter of a call. Must not be {@literal null}
      * @return {@link Sort} from parameters if present or {@link Sort#unsorted()}. Can not be {@literal null}
      */
-    private @NotNull Sort getSortFrom(@NotNull Object[] parameters) {
-        int sortIndex = getQueryMethod().getParameters().getSortIndex();
+    static @NotNull Sort getSortFrom(@NotNull QueryMethod queryMethod, @NotNull Object[] parameters) {
+        int sortIndex = queryMethod.getParameters().getSortIndex();
         if (sortIndex != -1) {
             return (Sort) parameters[sortIndex];
         }
@@ -113,11 +114,12 @@ public class CouchDbParsingQuery<EntityT> implements RepositoryQuery {
      * Method to obtain pagination information from parameters if present. If there is no parameter with pagination information
      * {@link Pageable#unpaged()} is used.
      *
-     * @param parameters Actual parameter of a call. Must not be {@literal null}
+     * @param queryMethod which parameters are inspected. Must not be {@literal null}
+     * @param parameters  Actual parameter of a call. Must not be {@literal null}
      * @return {@link Pageable} from parameters if present or {@link Pageable#unpaged()}. Can not be {@literal null}
      */
-    private @NotNull Pageable getPageableFrom(@NotNull Object[] parameters) {
-        int pageableIndex = getQueryMethod().getParameters().getPageableIndex();
+    static @NotNull Pageable getPageableFrom(@NotNull QueryMethod queryMethod, @NotNull Object[] parameters) {
+        int pageableIndex = queryMethod.getParameters().getPageableIndex();
         if (pageableIndex != -1) {
             return (Pageable) parameters[pageableIndex];
         }
@@ -129,8 +131,8 @@ public class CouchDbParsingQuery<EntityT> implements RepositoryQuery {
      */
     @Override
     public Object execute(Object[] parameters) {
-        Pageable pageable = getPageableFrom(parameters);
-        Sort sortParameter = getSortFrom(parameters);
+        Pageable pageable = getPageableFrom(queryMethod, parameters);
+        Sort sortParameter = getSortFrom(queryMethod, parameters);
         try {
             Long skip = pageable.isPaged() ? pageable.getOffset() : null;
             //if there is hard max result in query method, than the max, if not it depends if slice is returned. If so, we need only find out if there is next
@@ -138,7 +140,7 @@ public class CouchDbParsingQuery<EntityT> implements RepositoryQuery {
             Integer pageLimit = queryMethod.isSliceQuery() ? pageable.getPageSize() + 1 : null;
             Integer limit = partTree.getMaxResults() != null ? partTree.getMaxResults() : pageLimit;
 
-            DocumentFindRequest request = new DocumentFindRequest(new FindContext(partTree, initializeParameters(parameters),
+            DocumentFindRequest request = new DocumentFindRequest(new FindContext(partTree, initializeParameters(queryMethod, parameters),
                     client.getEntityMetadata(entityClass)), skip, limit, index != null ? index.value() : null,
                     sortParameter.and(partTree.getSort()).and(pageable.getSort()), returnExecutionStats);
             if (strategy != null) {
@@ -157,12 +159,13 @@ public class CouchDbParsingQuery<EntityT> implements RepositoryQuery {
      * Method to create map of named parameters with actual value of a call. Actual implementation works only with named parameters, so
      * {@link QueryException} can be thrown if one or more parameters are not named.
      *
-     * @param parameters Actual parameter of a call. Must not be {@literal null}
+     * @param queryMethod which parameters are inspected. Must not be {@literal null}
+     * @param parameters  Actual parameter of a call. Must not be {@literal null}
      * @return {@link Map} of named parameters of a call. Can not be {@literal null}
      */
-    private @NotNull Map<String, Object> initializeParameters(@NotNull Object[] parameters) {
+    static @NotNull Map<String, Object> initializeParameters(@NotNull QueryMethod queryMethod, @NotNull Object[] parameters) {
         Map<String, Object> initialized = new HashMap<>();
-        Parameters<?, ?> methodParameters = getQueryMethod().getParameters();
+        Parameters<?, ?> methodParameters = queryMethod.getParameters();
         for (Parameter parameter : methodParameters) {
             if (!parameter.isDynamicProjectionParameter() && !parameter.isSpecialParameter()) {
                 initialized.put(parameter.getName().orElseThrow(() -> new QueryException("Dynamic query can work only with named parameters")),
@@ -222,14 +225,14 @@ public class CouchDbParsingQuery<EntityT> implements RepositoryQuery {
     }
 
     private @NotNull Page<EntityT> wrapAsPage(@NotNull FindResult<EntityT> findResult, Object[] parameters) {
-        Pageable pageable = getPageableFrom(parameters);
+        Pageable pageable = getPageableFrom(queryMethod, parameters);
         List<EntityT> paged = new LinkedList<>();
         IntStream.range(0, pageable.getPageSize()).forEach(i -> paged.add(findResult.getEntities().get(i)));
         return new PageImpl<>(paged, pageable, pageable.getOffset() + findResult.getEntities().size());
     }
 
     private @NotNull Slice<EntityT> wrapAsSlice(@NotNull FindResult<EntityT> findResult, Object[] parameters) {
-        Pageable pageable = getPageableFrom(parameters);
+        Pageable pageable = getPageableFrom(queryMethod, parameters);
         boolean hasNext = findResult.getEntities().size() > pageable.getPageSize();
         if (hasNext) {
             findResult.getEntities().remove(findResult.getEntities().size() - 1);
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.repository;
+
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.PagingAndSortingRepository;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CouchDB specific extension of {@link PagingAndSortingRepository}. Methods are implemented by {@link SimpleCouchDbRepository}, so a repository extending
+ * this interface can use them without any implementation.
+ *
+ * @param <EntityT> Type of entity with which is repository able to work
+ * @author Majlanky
+ * @see SimpleCouchDbRepository
+ */
+@NoRepositoryBean
+public interface CouchDbRepository<EntityT> extends PagingAndSortingRepository<EntityT, String> {
+
+    /**
+     * Method to get estimated count of entities which never uses a view. It is cheaper than {@link #count()}, but it is an upper bound only (design
+     * documents and documents of other entities in a shared database are counted too).
+     *
+     * @return estimated count of entities
+     */
+    long estimatedCount();
+
+    /**
+     * Method to save the given entity thru write-behind buffer of the client. Saves are sent in batches and repeated saves of the same entity are merged,
+     * so it is much cheaper than {@link #save(Object)} when many entities are saved. If write-behind is not configured, the entity is saved immediately.
+     *
+     * @param entity to save. Must not be {@literal null}
+     * @return {@link CompletableFuture} of the new revision of the entity
+     */
+    CompletableFuture<String> saveBehind(EntityT entity);
+
+    /**
+     * Method to delete the given entity thru write-behind buffer of the client. If write-behind is not configured, the entity is deleted immediately.
+     *
+     * @param entity to delete. Must not be {@literal null}
+     * @return {@link CompletableFuture} of revision of the deletion (tombstone revision created by the delete)
+     */
+    CompletableFuture<String> deleteBehind(EntityT entity);
+
+}
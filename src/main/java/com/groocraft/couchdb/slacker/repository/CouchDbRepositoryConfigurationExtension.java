@@ -18,6 +18,7 @@ package com.groocraft.couchdb.slacker.repository;
 
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.repository.config.RepositoryConfigurationExtensionSupport;
+import org.springframework.data.repository.core.RepositoryMetadata;
 
 /**
  * Implementation of {@link RepositoryConfigurationExtensionSupport} to inject named queries from {@literal couchDb-named-queries.properties} placed in
@@ -44,4 +45,13 @@ public class CouchDbRepositoryConfigurationExtension extends RepositoryConfigura
     public @NotNull String getRepositoryFactoryBeanClassName() {
         return CouchDbRepositoryFactoryBean.class.getName();
     }
+
+    /**
+     * {@inheritDoc}
+     * Reactive repositories are skipped, they are handled by {@link ReactiveCouchDbRepositoryConfigurationExtension}.
+     */
+    @Override
+    protected boolean useRepositoryConfiguration(@NotNull RepositoryMetadata metadata) {
+        return !metadata.isReactiveRepository();
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.repository;
+
+import com.groocraft.couchdb.slacker.AsyncCouchDbClient;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.util.ReactiveWrappers;
+import org.springframework.data.util.Pair;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+
+/**
+ * Reactive variant of {@link CouchDbDirectQuery}. The query is executed without blocking thru {@link AsyncCouchDbClient} and its result is returned as
+ * {@link Flux} or {@link Mono} depending on return type of the query method.
+ *
+ * @author Majlanky
+ * @see CouchDbDirectQuery
+ */
+public class ReactiveCouchDbDirectQuery extends CouchDbDirectQuery {
+
+    private final AsyncCouchDbClient client;
+    private final Class<?> entityClass;
+    private final boolean singleValue;
+
+    /**
+     * @param query       Json query created or read from method. Must not be {@literal null}.
+     * @param client      must not be {@literal null}.
+     * @param method      must not be {@literal null}.
+     * @param queryMethod on which is based the query. Must not be {@literal null}.
+     * @param entityClass class of processed entities
+     */
+    public ReactiveCouchDbDirectQuery(@NotNull String query, @NotNull AsyncCouchDbClient client, @NotNull Method method, @NotNull QueryMethod queryMethod,
+                                      @NotNull Class<?> entityClass) {
+        super(query, client.getBlockingClient(), queryMethod, entityClass);
+        this.client = client;
+        this.entityClass = entityClass;
+        this.singleValue = ReactiveWrappers.isSingleValueType(method.getReturnType());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Object execute(@NotNull Object[] parameters) {
+        Flux<?> result = Mono.defer(() -> Mono.fromFuture(client.find(specify(parameters), entityClass)))
+                .flatMapIterable(Pair::getFirst);
+        return singleValue ? result.next() : result;
+    }
+
+}
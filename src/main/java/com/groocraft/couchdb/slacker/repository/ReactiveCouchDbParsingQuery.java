@@ -0,0 +1,231 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.AsyncCouchDbClient;
+import com.groocraft.couchdb.slacker.QueryStrategy;
+import com.groocraft.couchdb.slacker.annotation.Index;
+import com.groocraft.couchdb.slacker.annotation.Strategy;
+import com.groocraft.couchdb.slacker.exception.QueryException;
+import com.groocraft.couchdb.slacker.structure.DocumentFindRequest;
+import com.groocraft.couchdb.slacker.structure.FindResult;
+import com.groocraft.couchdb.slacker.utils.FindContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.util.ReactiveWrappers;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reactive variant of {@link CouchDbParsingQuery}. Query methods return {@link Flux} or {@link Mono}. Mango queries are executed page by page, the next page
+ * is requested with bookmark of the previous one only when a subscriber requests more entities than already read, so slow or partial consumers do not cause
+ * reading of the whole result.
+ *
+ * @param <EntityT> type of entity returned by query
+ * @author Majlanky
+ * @see CouchDbParsingQuery
+ */
+public class ReactiveCouchDbParsingQuery<EntityT> implements RepositoryQuery {
+
+    private final QueryMethod queryMethod;
+    private final AsyncCouchDbClient client;
+    private final Class<EntityT> entityClass;
+    private final Function<Flux<EntityT>, Object> postProcessor;
+    private final PartTree partTree;
+    private final Index index;
+    private final Strategy strategy;
+    private final boolean returnExecutionStats;
+    private final int pageSize;
+    private final ObjectMapper mapper;
+
+    /**
+     * @param client               must not be {@literal null}.
+     * @param returnExecutionStats flag which can turn on/off execution stats in result of every query.
+     * @param pageSize             number of entities read by one Mango request. Must be positive number.
+     * @param method               must not be {@literal null}.
+     * @param queryMethod          on which is based the query. Must not be {@literal null}.
+     * @param entityClass          repository domain class. Must not be {@literal null}.
+     */
+    public ReactiveCouchDbParsingQuery(@NotNull AsyncCouchDbClient client, boolean returnExecutionStats, int pageSize, @NotNull Method method,
+                                       @NotNull QueryMethod queryMethod,
+                                       @NotNull Class<EntityT> entityClass) {
+        Assert.notNull(client, "Client must not be null.");
+        Assert.isTrue(pageSize > 0, "PageSize must be positive number.");
+        Assert.notNull(method, "Method must not be null.");
+        Assert.notNull(queryMethod, "QueryMethod must not be null.");
+        Assert.notNull(entityClass, "EntityClass must not be null.");
+        this.client = client;
+        this.returnExecutionStats = returnExecutionStats;
+        this.pageSize = pageSize;
+        this.queryMethod = queryMethod;
+        this.entityClass = entityClass;
+        this.mapper = new ObjectMapper();
+        partTree = new PartTree(queryMethod.getName(), queryMethod.getResultProcessor().getReturnedType().getDomainType());
+        index = method.getAnnotation(Index.class);
+        strategy = method.getAnnotation(Strategy.class);
+        this.postProcessor = getPostProcessor(partTree, queryMethod, ReactiveWrappers.isSingleValueType(method.getReturnType()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object execute(Object[] parameters) {
+        return postProcessor.apply(Flux.defer(() -> {
+            Pageable pageable = CouchDbParsingQuery.getPageableFrom(queryMethod, parameters);
+            Sort sortParameter = CouchDbParsingQuery.getSortFrom(queryMethod, parameters);
+            Long skip = pageable.isPaged() ? pageable.getOffset() : null;
+            Integer pageLimit = pageable.isPaged() ? pageable.getPageSize() : null;
+            Integer limit = partTree.getMaxResults() != null ? partTree.getMaxResults() : pageLimit;
+            DocumentFindRequest request = new DocumentFindRequest(new FindContext(partTree, CouchDbParsingQuery.initializeParameters(queryMethod, parameters),
+                    client.getBlockingClient().getEntityMetadata(entityClass)), skip, limit, index != null ? index.value() : null,
+                    sortParameter.and(partTree.getSort()).and(pageable.getSort()), returnExecutionStats);
+            if (strategy != null) {
+                request.setQueryStrategy(strategy.value());
+            }
+            QueryStrategy pickedStrategy = strategy != null ? strategy.value() : client.getBlockingClient().getQueryStrategy();
+            if (pickedStrategy == QueryStrategy.VIEW) {
+                //Views do not provide bookmarks, so whole result is read at once
+                return Mono.fromFuture(client.find(request, entityClass, null)).flatMapIterable(FindResult::getEntities);
+            }
+            return findPaged(request);
+        }));
+    }
+
+    /**
+     * Method to read result of the given request page by page. Every page is requested with bookmark of the previous one. Next page is requested only if
+     * the previous one was full and subscriber demands more entities.
+     *
+     * @param request which is executed. Must not be {@literal null}
+     * @return {@link Flux} of entities matching the given request
+     */
+    private @NotNull Flux<EntityT> findPaged(@NotNull DocumentFindRequest request) {
+        Integer limit = request.getLimit();
+        Mono<Void> indexReady = request.getSort().isSorted() ? Mono.defer(() -> Mono.fromFuture(client.ensureIndex(request.getSort(), entityClass))) :
+                Mono.empty();
+        return indexReady.thenMany(readPage(request, 0, limit)
+                .expand(page -> page.hasNext() ? readPage(request, page.getRead(), limit) : Mono.empty()))
+                .concatMapIterable(MangoPage::getEntities, 1);
+    }
+
+    /**
+     * Method to read one page of Mango query.
+     *
+     * @param request which is executed. Must not be {@literal null}
+     * @param read    number of entities already read by previous pages
+     * @param limit   of the whole result. Can be {@literal null} if result is not limited
+     * @return {@link Mono} of one page of a result
+     */
+    private @NotNull Mono<MangoPage<EntityT>> readPage(@NotNull DocumentFindRequest request, int read, @Nullable Integer limit) {
+        return Mono.defer(() -> {
+            //if we are limited by request, we request as less as needed.
+            int requested = limit == null ? pageSize : Math.min(pageSize, limit - read);
+            request.setLimit(requested);
+            return Mono.fromCallable(() -> mapper.writeValueAsString(request)).flatMap(json -> Mono.fromFuture(client.find(json, entityClass))).map(r -> {
+                request.setBookmark(r.getSecond());
+                int nowRead = read + r.getFirst().size();
+                boolean hasNext = r.getFirst().size() == requested && (limit == null || nowRead < limit);
+                return new MangoPage<>(r.getFirst(), nowRead, hasNext);
+            });
+        });
+    }
+
+    /**
+     * Method to create post processor of found entities. Spring data provides delete, count, exists and distinct operation above result of find query.
+     *
+     * @param partTree    {@link PartTree} created from generic query method.  Must not be {@literal null}
+     * @param queryMethod Must not be {@literal null}
+     * @param singleValue flag if query method returns {@link Mono}
+     * @return {@link Function} processing found entities in the requested way. Can not be {@literal null}
+     */
+    private @NotNull Function<Flux<EntityT>, Object> getPostProcessor(@NotNull PartTree partTree, @NotNull QueryMethod queryMethod, boolean singleValue) {
+        if (partTree.isDelete()) {
+            return f -> {
+                Flux<EntityT> deleted = f.buffer(pageSize)
+                        .concatMap(batch -> Mono.fromFuture(client.deleteAll(batch, entityClass)))
+                        .flatMapIterable(Function.identity());
+                if (!singleValue) {
+                    return deleted;
+                }
+                return Void.class.equals(queryMethod.getReturnedObjectType()) ? deleted.then() : deleted.count();
+            };
+        }
+        if (partTree.isCountProjection()) {
+            return Flux::count;
+        }
+        if (partTree.isDistinct()) {
+            return f -> Mono.error(new QueryException("Distinct is not implemented yet"));
+        }
+        if (partTree.isExistsProjection()) {
+            return Flux::hasElements;
+        }
+        if (singleValue) {
+            return Flux::next;
+        }
+        return f -> f;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QueryMethod getQueryMethod() {
+        return queryMethod;
+    }
+
+    /**
+     * One page of Mango query result.
+     *
+     * @param <EntityT> type of entities in the page
+     */
+    private static class MangoPage<EntityT> {
+
+        private final List<EntityT> entities;
+        private final int read;
+        private final boolean hasNext;
+
+        MangoPage(@NotNull List<EntityT> entities, int read, boolean hasNext) {
+            this.entities = entities;
+            this.read = read;
+            this.hasNext = hasNext;
+        }
+
+        @NotNull List<EntityT> getEntities() {
+            return entities;
+        }
+
+        int getRead() {
+            return read;
+        }
+
+        boolean hasNext() {
+            return hasNext;
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.repository;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.repository.config.RepositoryConfigurationExtensionSupport;
+import org.springframework.data.repository.core.RepositoryMetadata;
+
+/**
+ * Implementation of {@link RepositoryConfigurationExtensionSupport} which registers {@link ReactiveCouchDbRepositoryFactoryBean} for reactive repositories
+ * only. Blocking repositories are left to {@link CouchDbRepositoryConfigurationExtension}.
+ *
+ * @author Majlanky
+ * @see RepositoryConfigurationExtensionSupport
+ */
+public class ReactiveCouchDbRepositoryConfigurationExtension extends RepositoryConfigurationExtensionSupport {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected @NotNull String getModulePrefix() {
+        return "couchDb";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull String getRepositoryFactoryBeanClassName() {
+        return ReactiveCouchDbRepositoryFactoryBean.class.getName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean useRepositoryConfiguration(@NotNull RepositoryMetadata metadata) {
+        return metadata.isReactiveRepository();
+    }
+}
@@ -26,22 +26,22 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.CrudRepository;
-import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Implementation of {@link CrudRepository} which is providing basing DRUD operation above CouchDB thru {@link CouchDbClient}
+ * Implementation of {@link CrudRepository} (and {@link CouchDbRepository}) which is providing basing DRUD operation above CouchDB thru {@link CouchDbClient}
  *
  * @param <EntityT> Type of entity with which is repository able to work
  * @author Majlanky
  * @see CrudRepository
  * @see CouchDbClient
  */
-public class SimpleCouchDbRepository<EntityT> implements PagingAndSortingRepository<EntityT, String> {
+public class SimpleCouchDbRepository<EntityT> implements CouchDbRepository<EntityT> {
 
     private final CouchDbClient client;
     private final Class<EntityT> clazz;
@@ -105,7 +105,11 @@ public class SimpleCouchDbRepository<EntityT> implements PagingAndSortingReposit
      */
     @Override
     public boolean existsById(String id) {
-        return findById(id).isPresent();
+        try {
+            return client.exists(id, clazz);
+        } catch (IOException e) {
+            throw new CouchDbRuntimeException("Unable to check existence of " + id, e);
+        }
     }
 
     /**
@@ -144,6 +148,34 @@ public class SimpleCouchDbRepository<EntityT> implements PagingAndSortingReposit
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long estimatedCount() {
+        try {
+            return client.estimatedCount(clazz);
+        } catch (IOException e) {
+            throw new CouchDbRuntimeException("Unable to read estimated count of " + clazz.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<String> saveBehind(EntityT entity) {
+        return client.saveBehind(entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<String> deleteBehind(EntityT entity) {
+        return client.deleteBehind(entity);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.repository;
+
+import com.groocraft.couchdb.slacker.AsyncCouchDbClient;
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.exception.CouchDbRuntimeException;
+import com.groocraft.couchdb.slacker.structure.ViewPage;
+import org.apache.http.HttpStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link ReactiveCrudRepository} which is providing basic CRUD operation above CouchDB thru {@link AsyncCouchDbClient}. Calling thread is
+ * never blocked. Operations above all documents read documents page by page, where size of page is given by bulk max size, and the next page is read only
+ * when a subscriber requests more documents.
+ *
+ * @param <EntityT> Type of entity with which is repository able to work
+ * @author Majlanky
+ * @see ReactiveCrudRepository
+ * @see AsyncCouchDbClient
+ */
+public class SimpleReactiveCouchDbRepository<EntityT> implements ReactiveSortingRepository<EntityT, String> {
+
+    private final AsyncCouchDbClient client;
+    private final Class<EntityT> clazz;
+    private final int pageSize;
+
+    /**
+     * @param client   must not be {@literal null}
+     * @param clazz    must not be {@literal null}
+     * @param pageSize number of documents read or written by one bulk request. Must be positive number
+     */
+    public SimpleReactiveCouchDbRepository(@NotNull AsyncCouchDbClient client, @NotNull Class<EntityT> clazz, int pageSize) {
+        Assert.notNull(client, "Client must not be null.");
+        Assert.notNull(clazz, "Clazz must not be null.");
+        Assert.isTrue(pageSize > 0, "PageSize must be positive number.");
+        this.client = client;
+        this.clazz = clazz;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <S extends EntityT> Mono<S> save(S entity) {
+        return Mono.defer(() -> Mono.fromFuture(client.save(entity)))
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to save " + entity, e));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <S extends EntityT> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <S extends EntityT> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream)
+                .buffer(pageSize)
+                .concatMap(batch -> Mono.fromFuture(client.saveAll(batch, clazz)))
+                .flatMapIterable(Function.identity())
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to save all", e));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<EntityT> findById(String id) {
+        return Mono.defer(() -> Mono.fromFuture(client.read(id, clazz)))
+                .onErrorResume(e -> e instanceof CouchDbException && ((CouchDbException) e).getStatusCode() == HttpStatus.SC_NOT_FOUND, e -> Mono.empty())
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to find " + id, e));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<EntityT> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return findById(id).hasElement();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<EntityT> findAll() {
+        return findAll(Sort.unsorted());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<EntityT> findAll(Sort sort) {
+        return readIds(sort, null)
+                .expand(page -> page.getIds().size() == pageSize ? readIds(sort, page) : Mono.empty())
+                .concatMap(page -> page.getIds().isEmpty() ? Mono.<List<EntityT>>empty() : Mono.fromFuture(client.readAll(page.getIds(), clazz)), 1)
+                .flatMapIterable(Function.identity())
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to list all " + clazz.getSimpleName(), e));
+    }
+
+    /**
+     * Method to read one page of ids of all documents in the given order. The page continues after the last row of the previous page, so no rows are skipped
+     * on the server.
+     *
+     * @param sort     of documents. Must not be {@literal null}
+     * @param previous page after which the read page continues or {@literal null} if the first page is wanted
+     * @return {@link Mono} of the page
+     */
+    private @NotNull Mono<ViewPage> readIds(@NotNull Sort sort, @Nullable ViewPage previous) {
+        return Mono.defer(() -> Mono.fromFuture(client.readPage(clazz, previous, pageSize, sort)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<EntityT> findAllById(Iterable<String> ids) {
+        return findAllById(Flux.fromIterable(ids));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<EntityT> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream)
+                .buffer(pageSize)
+                .concatMap(batch -> Mono.fromFuture(client.readAll(batch, clazz)), 1)
+                .flatMapIterable(Function.identity())
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to find all by ids", e));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Long> count() {
+        return Mono.defer(() -> Mono.fromFuture(client.countAll(clazz)))
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to read all " + clazz.getSimpleName() + " for counting", e));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.defer(() -> Mono.fromFuture(client.deleteById(id, clazz)))
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to delete " + id + " of " + clazz.getSimpleName(), e))
+                .then();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> delete(EntityT entity) {
+        return Mono.defer(() -> Mono.fromFuture(client.delete(entity)))
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to delete " + entity, e))
+                .then();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends EntityT> entities) {
+        return deleteAll(Flux.fromIterable(entities));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends EntityT> entityStream) {
+        return Flux.from(entityStream)
+                .buffer(pageSize)
+                .concatMap(batch -> Mono.fromFuture(client.deleteAll(batch, clazz)))
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to delete all given", e))
+                .then();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> deleteAll() {
+        //Deleted documents disappear from the view, so the first page is read and deleted until it is empty
+        return readIds(Sort.unsorted(), null)
+                .flatMap(page -> page.getIds().isEmpty() ? Mono.just(false) : Mono.fromFuture(client.readAll(page.getIds(), clazz))
+                        .flatMap(entities -> Mono.fromFuture(client.deleteAll(entities, clazz)).flatMap(deleted -> {
+                            if (deleted.size() < entities.size()) {
+                                //entities are compared by identity, because equals of entities can be based on data
+                                Set<EntityT> done = Collections.newSetFromMap(new IdentityHashMap<>());
+                                done.addAll(deleted);
+                                List<EntityT> failed = entities.stream().filter(e -> !done.contains(e)).collect(Collectors.toList());
+                                return Mono.error(new IOException(failed.size() + " of " + entities.size() + " documents were not deleted: " + failed));
+                            }
+                            return Mono.just(true);
+                        })))
+                .repeat()
+                .takeWhile(Boolean::booleanValue)
+                .onErrorMap(e -> new CouchDbRuntimeException("Unable to delete all", e))
+                .then();
+    }
+
+}
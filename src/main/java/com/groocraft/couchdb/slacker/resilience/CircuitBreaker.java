@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of one database. It opens when the configured number of consecutive requests fails on transient error and all requests fail fast
+ * while it is open. After the open duration one trial request is let thru (half-open state). The breaker closes when the trial passes and opens again when
+ * it fails. If the result of the trial is never reported (the request was cancelled for example), another trial is let thru after the open duration.
+ *
+ * @author Majlanky
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    /**
+     * States of {@link CircuitBreaker}
+     */
+    public enum State {
+        /**
+         * Requests are sent
+         */
+        CLOSED,
+        /**
+         * Requests fail fast
+         */
+        OPEN,
+        /**
+         * One trial request is sent, others fail fast
+         */
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int threshold;
+    private final long openDuration;
+    private volatile State state;
+    private volatile int failures;
+    private long openedAt;
+
+    /**
+     * @param name         of protected resource used in logs. Must not be {@literal null}
+     * @param threshold    number of consecutive failures which opens the breaker. Must be positive
+     * @param openDuration in milliseconds for which the breaker fails requests fast. Must be positive
+     */
+    public CircuitBreaker(@NotNull String name, int threshold, long openDuration) {
+        Assert.notNull(name, "Name must not be null.");
+        Assert.isTrue(threshold > 0, "Threshold must be positive.");
+        Assert.isTrue(openDuration > 0, "OpenDuration must be positive.");
+        this.name = name;
+        this.threshold = threshold;
+        this.openDuration = TimeUnit.MILLISECONDS.toNanos(openDuration);
+        this.state = State.CLOSED;
+    }
+
+    /**
+     * @return true if a request can be sent
+     */
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (now - openedAt < openDuration) {
+                return false;
+            }
+            if (state == State.OPEN) {
+                log.info("Circuit breaker of {} is half-open, trial request is sent", name);
+            }
+            state = State.HALF_OPEN;
+            openedAt = now;
+            return true;
+        }
+    }
+
+    /**
+     * Method to report a request which did not fail on transient error.
+     */
+    public void success() {
+        if (state == State.CLOSED && failures == 0) {
+            return;
+        }
+        synchronized (this) {
+            failures = 0;
+            if (state != State.CLOSED) {
+                log.info("Circuit breaker of {} is closed", name);
+                state = State.CLOSED;
+            }
+        }
+    }
+
+    /**
+     * Method to report a request which failed on transient error.
+     */
+    public synchronized void failure() {
+        if (state == State.HALF_OPEN || (state == State.CLOSED && ++failures >= threshold)) {
+            log.warn("Circuit breaker of {} is open, requests fail fast for next {} ms", name, TimeUnit.NANOSECONDS.toMillis(openDuration));
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            failures = 0;
+        }
+    }
+
+    public @NotNull State getState() {
+        return state;
+    }
+
+}
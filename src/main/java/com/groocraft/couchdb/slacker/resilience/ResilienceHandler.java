@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.resilience;
+
+import com.groocraft.couchdb.slacker.exception.CircuitBreakerOpenException;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import com.groocraft.couchdb.slacker.utils.ThrowingSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class which protects CouchDB and callers from transient failures. Idempotent requests which failed on transient error are retried with backoff given by
+ * {@link RetryPolicy} while {@link RetryBudget} allows it. Every database has its own {@link CircuitBreaker}, so requests to an overloaded database fail
+ * fast with {@link CircuitBreakerOpenException}.
+ *
+ * @author Majlanky
+ */
+@Slf4j
+public class ResilienceHandler implements AutoCloseable {
+
+    /**
+     * Default number of retries which can be saved in {@link RetryBudget}
+     */
+    public static final int DEFAULT_BUDGET_CAPACITY = 10;
+
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget retryBudget;
+    private final int circuitBreakerThreshold;
+    private final long circuitBreakerOpenDuration;
+    private final Map<String, CircuitBreaker> circuitBreakers;
+    private volatile ScheduledExecutorService scheduler;
+
+    /**
+     * @param retryPolicy                which decides about retries. Must not be {@literal null}
+     * @param retryBudget                which limits number of retries. Must not be {@literal null}
+     * @param circuitBreakerThreshold    number of consecutive transient failures which opens circuit breaker. Non-positive value turns circuit breakers off
+     * @param circuitBreakerOpenDuration in milliseconds for which open circuit breaker fails requests fast
+     */
+    public ResilienceHandler(@NotNull RetryPolicy retryPolicy, @NotNull RetryBudget retryBudget, int circuitBreakerThreshold, long circuitBreakerOpenDuration) {
+        Assert.notNull(retryPolicy, "RetryPolicy must not be null.");
+        Assert.notNull(retryBudget, "RetryBudget must not be null.");
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = retryBudget;
+        this.circuitBreakerThreshold = circuitBreakerThreshold;
+        this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+        this.circuitBreakers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Method to run the given attempt of the given request and to retry it if it fails on transient error. The calling thread sleeps during backoff.
+     *
+     * @param request  which is sent by {@code attempt}. Must not be {@literal null}
+     * @param database to which the request is sent. Must not be {@literal null}
+     * @param attempt  which sends the request. Must not be {@literal null}
+     * @param <DataT>  type of result of {@code attempt}
+     * @return result of the first passed attempt
+     * @throws IOException of the last attempt, {@link CircuitBreakerOpenException} if the circuit breaker of the database is open or
+     *                     {@link InterruptedIOException} if the thread is interrupted during backoff
+     */
+    public <DataT> DataT execute(@NotNull CouchRequest request, @NotNull String database, @NotNull ThrowingSupplier<DataT, IOException> attempt)
+            throws IOException {
+        for (int retry = 0; ; retry++) {
+            acquire(request, database, retry);
+            try {
+                DataT result = attempt.get();
+                succeeded(database);
+                return result;
+            } catch (IOException e) {
+                failed(database, e);
+                long delay = getRetryDelay(request, retry, e);
+                if (delay < 0) {
+                    throw e;
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    InterruptedIOException interrupted = new InterruptedIOException("Interrupted during backoff of " + request);
+                    interrupted.addSuppressed(e);
+                    throw interrupted;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to be called before every attempt of a request.
+     *
+     * @param request  which is going to be sent. Must not be {@literal null}
+     * @param database to which the request is sent. Must not be {@literal null}
+     * @param retry    number of retries of the request done so far
+     * @throws CircuitBreakerOpenException if the circuit breaker of the database is open
+     */
+    public void acquire(@NotNull CouchRequest request, @NotNull String database, int retry) throws CircuitBreakerOpenException {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(database);
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            throw new CircuitBreakerOpenException(database, request.getMethod(), request.getURI().toString());
+        }
+        if (retry == 0) {
+            retryBudget.deposit();
+        }
+    }
+
+    /**
+     * Method to report an attempt which was answered successfully.
+     *
+     * @param database to which the request was sent. Must not be {@literal null}
+     */
+    public void succeeded(@NotNull String database) {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(database);
+        if (circuitBreaker != null) {
+            circuitBreaker.success();
+        }
+    }
+
+    /**
+     * Method to report a failed attempt. Only transient failures and timeouts are counted by circuit breaker, other failures mean that the database is
+     * able to answer.
+     *
+     * @param database to which the request was sent. Must not be {@literal null}
+     * @param failure  of the attempt. Must not be {@literal null}
+     */
+    public void failed(@NotNull String database, @NotNull Throwable failure) {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(database);
+        if (circuitBreaker != null) {
+            if (RetryPolicy.isTransient(failure) || failure instanceof SocketTimeoutException) {
+                circuitBreaker.failure();
+            } else {
+                circuitBreaker.success();
+            }
+        }
+    }
+
+    /**
+     * @param request which failed. Must not be {@literal null}
+     * @param retry   number of retries of the request done so far
+     * @param failure of the last attempt. Must not be {@literal null}
+     * @return delay in milliseconds before the request should be retried, or negative number if the request must not be retried
+     */
+    public long getRetryDelay(@NotNull CouchRequest request, int retry, @NotNull Throwable failure) {
+        if (!retryPolicy.isRetryable(request, retry, failure)) {
+            return -1;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            log.debug("Retry budget is exhausted, {} is not retried", request);
+            return -1;
+        }
+        long delay = retryPolicy.getBackoff(retry);
+        log.debug("{} failed with {}, retry {} in {} ms", request, failure.getMessage(), retry + 1, delay);
+        return delay;
+    }
+
+    /**
+     * Method to run the given task after the given delay on a background thread. Used for retries of asynchronous requests.
+     *
+     * @param task  which is run. Must not be {@literal null}
+     * @param delay in milliseconds
+     */
+    public void schedule(@NotNull Runnable task, long delay) {
+        if (scheduler == null) {
+            synchronized (this) {
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "couchdb-retry");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private @Nullable CircuitBreaker getCircuitBreaker(@NotNull String database) {
+        if (circuitBreakerThreshold <= 0) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(database, d -> new CircuitBreaker(d, circuitBreakerThreshold, circuitBreakerOpenDuration));
+    }
+
+    /**
+     * @return states of circuit breakers of all databases which were used, sorted by name of database
+     */
+    public @NotNull Map<String, CircuitBreaker.State> getCircuitBreakerStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        circuitBreakers.forEach((database, circuitBreaker) -> states.put(database, circuitBreaker.getState()));
+        return Collections.unmodifiableMap(states);
+    }
+
+    public @NotNull RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    /**
+     * Method to get name of database from URI of a request. It is the first segment of path after path of the given base URI. Requests which are not
+     * targeting a database (_up or _membership for example) get the name of the endpoint.
+     *
+     * @param baseURI where CouchDB is accessible without database specification. Must not be {@literal null}
+     * @param uri     of a request. Must not be {@literal null}
+     * @return raw (not decoded) name of database
+     */
+    public static @NotNull String getDatabase(@NotNull URI baseURI, @NotNull URI uri) {
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        String basePath = baseURI.getRawPath() == null ? "" : baseURI.getRawPath();
+        int start = path.startsWith(basePath) ? basePath.length() : 0;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        int end = path.indexOf('/', start);
+        return path.substring(start, end < 0 ? path.length() : end);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.resilience;
+
+import org.springframework.util.Assert;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of retries shared by all requests of a client. Every request deposits the configured ratio, every retry withdraws one. The balance is limited by
+ * capacity, which is also the initial balance, so a quiet client can retry a few times immediately. When many requests fail, retries are limited to the
+ * ratio of sent requests and can not multiply the load of an overloaded cluster (retry storm).
+ *
+ * @author Majlanky
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio    of retries to requests. Must not be negative
+     * @param capacity maximal number of retries which can be saved. Must not be negative
+     */
+    public RetryBudget(double ratio, int capacity) {
+        Assert.isTrue(ratio >= 0, "Ratio must not be negative.");
+        Assert.isTrue(capacity >= 0, "Capacity must not be negative.");
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = capacity * SCALE;
+        this.balance = new AtomicLong(this.capacity);
+    }
+
+    /**
+     * Method to deposit ratio of a new request into the budget.
+     */
+    public void deposit() {
+        if (balance.get() < capacity) {
+            balance.accumulateAndGet(deposit, (current, added) -> Math.min(capacity, current + added));
+        }
+    }
+
+    /**
+     * Method to withdraw one retry from the budget.
+     *
+     * @return true if there was enough balance for a retry
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * @return number of retries which can be done now
+     */
+    public double getBalance() {
+        return balance.get() / (double) SCALE;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.resilience;
+
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.net.SocketException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Policy which decides if a failed request can be sent again and how long to wait before. Only idempotent requests (GET, HEAD and POST to _find or
+ * _bulk_get) are retried, and only if they failed on transient error - the connection was reset, refused or timed out during connecting, or CouchDB
+ * answered 429, 502, 503 or 504. Backoff grows exponentially and full jitter is applied, so retries of many clients are spread in time.
+ *
+ * @author Majlanky
+ */
+public class RetryPolicy {
+
+    private static final String POST = "POST";
+    private static final String FIND = "/_find";
+    private static final String BULK_GET = "/_bulk_get";
+
+    private final int maxRetries;
+    private final long initialBackoff;
+    private final long maxBackoff;
+
+    /**
+     * @param maxRetries     maximal number of retries of one request. Zero turns retries off
+     * @param initialBackoff in milliseconds before the first retry. Must be positive
+     * @param maxBackoff     upper limit of backoff in milliseconds. Must not be lower than {@code initialBackoff}
+     */
+    public RetryPolicy(int maxRetries, long initialBackoff, long maxBackoff) {
+        Assert.isTrue(maxRetries >= 0, "MaxRetries must not be negative.");
+        Assert.isTrue(initialBackoff > 0, "InitialBackoff must be positive.");
+        Assert.isTrue(maxBackoff >= initialBackoff, "MaxBackoff must not be lower than initialBackoff.");
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @param request which is checked. Must not be {@literal null}
+     * @return true if the given request can be sent more times without change of the result
+     */
+    public boolean isIdempotent(@NotNull CouchRequest request) {
+        switch (request.getMethod()) {
+            case "GET":
+            case "HEAD":
+                return true;
+            case POST:
+                String path = request.getURI().getRawPath();
+                return path != null && (path.endsWith(FIND) || path.endsWith(BULK_GET));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param failure of a request. Must not be {@literal null}
+     * @return true if the given failure is likely to pass when the request is sent again later
+     */
+    public static boolean isTransient(@NotNull Throwable failure) {
+        if (failure instanceof CouchDbException) {
+            switch (((CouchDbException) failure).getStatusCode()) {
+                case 429:
+                case 502:
+                case 503:
+                case 504:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        return failure instanceof SocketException || failure instanceof NoHttpResponseException || failure instanceof ConnectTimeoutException;
+    }
+
+    /**
+     * @param request which failed. Must not be {@literal null}
+     * @param retry   number of retries of the request done so far
+     * @param failure of the last try of the request. Must not be {@literal null}
+     * @return true if the request should be sent again
+     */
+    public boolean isRetryable(@NotNull CouchRequest request, int retry, @NotNull Throwable failure) {
+        return retry < maxRetries && isTransient(failure) && isIdempotent(request);
+    }
+
+    /**
+     * @param retry number of retries done so far
+     * @return random delay in milliseconds between zero and exponentially growing backoff limited by max backoff
+     */
+    public long getBackoff(int retry) {
+        long backoff = Math.min(maxBackoff, initialBackoff << Math.min(retry, 30));
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.structure;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Class for wrapping result of bulk read of documents by ids. It contains read entities in order of the wanted ids and ids which were not found (not
+ * existing or deleted documents).
+ *
+ * @param <EntityT> type of entities inside of the result
+ * @author Majlanky
+ */
+public class BulkReadResult<EntityT> {
+
+    private final List<EntityT> entities;
+    private final List<String> missingIds;
+
+    /**
+     * @param entities   must not be {@literal null}
+     * @param missingIds must not be {@literal null}
+     */
+    private BulkReadResult(@NotNull List<EntityT> entities, @NotNull List<String> missingIds) {
+        this.entities = entities;
+        this.missingIds = missingIds;
+    }
+
+    /**
+     * Default way to create instance of {@link BulkReadResult}.
+     *
+     * @param entities   must not be {@literal null}
+     * @param missingIds must not be {@literal null}
+     * @param <EntityT>  type of entities returned in the result
+     * @return {@literal non-null} instance
+     */
+    public static <EntityT> @NotNull BulkReadResult<EntityT> of(@NotNull List<EntityT> entities, @NotNull List<String> missingIds) {
+        return new BulkReadResult<>(entities, missingIds);
+    }
+
+    public @NotNull List<EntityT> getEntities() {
+        return entities;
+    }
+
+    public @NotNull List<String> getMissingIds() {
+        return missingIds;
+    }
+
+}
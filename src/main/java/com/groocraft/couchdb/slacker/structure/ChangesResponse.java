@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.structure;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Pojo class to ease reading response of _changes request.
+ *
+ * @author Majlanky
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ChangesResponse {
+
+    @JsonProperty("results")
+    private List<Change> results = new LinkedList<>();
+
+    @JsonProperty("last_seq")
+    private String lastSeq;
+
+    public ChangesResponse() {
+    }
+
+    public ChangesResponse(List<Change> results, String lastSeq) {
+        this.results = results;
+        this.lastSeq = lastSeq;
+    }
+
+    public List<Change> getResults() {
+        return results;
+    }
+
+    public String getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Pojo class of one change of _changes response.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Change {
+
+        @JsonProperty("id")
+        private String id;
+
+        @JsonProperty("deleted")
+        private boolean deleted;
+
+        @JsonProperty("doc")
+        private JsonNode doc;
+
+        public Change() {
+        }
+
+        public Change(String id, boolean deleted, JsonNode doc) {
+            this.id = id;
+            this.deleted = deleted;
+            this.doc = doc;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public boolean isDeleted() {
+            return deleted;
+        }
+
+        /**
+         * @return changed document if it was requested by include_docs, {@literal null} otherwise
+         */
+        public JsonNode getDoc() {
+            return doc;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.structure;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Pojo class to ease reading response of database information request.
+ *
+ * @author Majlanky
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DatabaseInfo {
+
+    @JsonProperty("update_seq")
+    private String updateSeq;
+
+    @JsonProperty("doc_count")
+    private long docCount;
+
+    public DatabaseInfo() {
+    }
+
+    public DatabaseInfo(String updateSeq, long docCount) {
+        this.updateSeq = updateSeq;
+        this.docCount = docCount;
+    }
+
+    public String getUpdateSeq() {
+        return updateSeq;
+    }
+
+    public long getDocCount() {
+        return docCount;
+    }
+}
@@ -27,6 +27,7 @@ public class DocumentPutResponse {
     private String id;
     private String rev;
     private String error;
+    private String reason;
 
     public String getOk() {
         return ok;
@@ -59,4 +60,12 @@ public class DocumentPutResponse {
     public void setError(String error) {
         this.error = error;
     }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
 }
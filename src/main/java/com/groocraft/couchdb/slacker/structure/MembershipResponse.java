@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.structure;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Pojo class to ease reading response of _membership request.
+ *
+ * @author Majlanky
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MembershipResponse {
+
+    @JsonProperty("all_nodes")
+    private List<String> allNodes = new LinkedList<>();
+
+    @JsonProperty("cluster_nodes")
+    private List<String> clusterNodes = new LinkedList<>();
+
+    public List<String> getAllNodes() {
+        return allNodes;
+    }
+
+    public List<String> getClusterNodes() {
+        return clusterNodes;
+    }
+}
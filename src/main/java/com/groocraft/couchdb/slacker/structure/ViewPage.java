@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.structure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Class for wrapping one page of ids read from a view. It contains ids in order of the view together with key and id of the last row, so the next page
+ * can continue after the last row (startkey and startkey_docid) instead of skipping all already read rows.
+ *
+ * @author Majlanky
+ */
+public class ViewPage {
+
+    private final List<String> ids;
+    private final JsonNode lastKey;
+    private final String lastId;
+
+    /**
+     * @param ids     must not be {@literal null}
+     * @param lastKey key of the last row or {@literal null} if the page is empty
+     * @param lastId  id of the last row or {@literal null} if the page is empty
+     */
+    private ViewPage(@NotNull List<String> ids, @Nullable JsonNode lastKey, @Nullable String lastId) {
+        this.ids = ids;
+        this.lastKey = lastKey;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Default way to create instance of {@link ViewPage}.
+     *
+     * @param ids     must not be {@literal null}
+     * @param lastKey key of the last row or {@literal null} if the page is empty
+     * @param lastId  id of the last row or {@literal null} if the page is empty
+     * @return {@literal non-null} instance
+     */
+    public static @NotNull ViewPage of(@NotNull List<String> ids, @Nullable JsonNode lastKey, @Nullable String lastId) {
+        return new ViewPage(ids, lastKey, lastId);
+    }
+
+    public @NotNull List<String> getIds() {
+        return ids;
+    }
+
+    public @Nullable JsonNode getLastKey() {
+        return lastKey;
+    }
+
+    public @Nullable String getLastId() {
+        return lastId;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import com.groocraft.couchdb.slacker.http.AutoCloseableHttpResponse;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CouchResponse} backed by response of Apache HTTP client.
+ *
+ * @author Majlanky
+ */
+public class ApacheResponse implements CouchResponse {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final HttpResponse response;
+    private final AutoCloseableHttpResponse closeable;
+
+    /**
+     * @param response which is wrapped. Must not be {@literal null}
+     */
+    public ApacheResponse(@NotNull HttpResponse response) {
+        Assert.notNull(response, "Response must not be null.");
+        this.response = response;
+        this.closeable = new AutoCloseableHttpResponse();
+        this.closeable.set(response);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStatusCode() {
+        return response.getStatusLine().getStatusCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull List<String> getHeaders(@NotNull String name) {
+        Header[] headers = response.getHeaders(name);
+        List<String> values = new ArrayList<>(headers.length);
+        for (Header header : headers) {
+            values.add(header.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull InputStream getContent() throws IOException {
+        return response.getEntity() == null ? new ByteArrayInputStream(EMPTY) : response.getEntity().getContent();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        closeable.close();
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.HttpClientUtils;
+import org.apache.http.protocol.HttpContext;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+
+/**
+ * {@link CouchTransport} backed by Apache {@link HttpClient}. Connection is routed to the given node, while Host header and authentication scope are
+ * taken from URI of the request. Not successful responses are reported by {@link com.groocraft.couchdb.slacker.http.ThrowingInterceptor}, which must be
+ * registered in the given client.
+ *
+ * @author Majlanky
+ */
+public class ApacheTransport implements CouchTransport {
+
+    private final HttpClient httpClient;
+    private final HttpContext httpContext;
+
+    /**
+     * @param httpClient  which executes requests. Closed together with the transport. Must not be {@literal null}
+     * @param httpContext used for all requests. Must not be {@literal null}
+     */
+    public ApacheTransport(@NotNull HttpClient httpClient, @NotNull HttpContext httpContext) {
+        Assert.notNull(httpClient, "HttpClient must not be null.");
+        Assert.notNull(httpContext, "HttpContext must not be null.");
+        this.httpClient = httpClient;
+        this.httpContext = httpContext;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull CouchResponse execute(@NotNull CouchRequest request, @NotNull HttpHost target) throws IOException {
+        HttpRequestBase httpRequest = toHttpRequest(request);
+        try {
+            return new ApacheResponse(httpClient.execute(target, httpRequest, httpContext));
+        } catch (IOException | RuntimeException e) {
+            httpRequest.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Method to convert the given request to request of Apache HTTP client. Body of the request is not copied.
+     *
+     * @param request which is converted. Must not be {@literal null}
+     * @return {@link HttpRequestBase} of the same method, URI, headers and body
+     */
+    public static @NotNull HttpRequestBase toHttpRequest(@NotNull CouchRequest request) {
+        HttpRequestBase httpRequest;
+        switch (request.getMethod()) {
+            case CouchRequest.GET:
+                httpRequest = new HttpGet(request.getURI());
+                break;
+            case CouchRequest.HEAD:
+                httpRequest = new HttpHead(request.getURI());
+                break;
+            case CouchRequest.POST:
+                httpRequest = new HttpPost(request.getURI());
+                break;
+            case CouchRequest.PUT:
+                httpRequest = new HttpPut(request.getURI());
+                break;
+            case CouchRequest.DELETE:
+                httpRequest = new HttpDelete(request.getURI());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported method " + request.getMethod());
+        }
+        request.getHeaders().forEach(httpRequest::setHeader);
+        if (request.getBody() != null) {
+            Assert.isInstanceOf(HttpEntityEnclosingRequestBase.class, httpRequest, request.getMethod() + " request can not have body.");
+            ((HttpEntityEnclosingRequestBase) httpRequest).setEntity(new RequestBodyEntity(request.getBody()));
+        }
+        return httpRequest;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        HttpClientUtils.closeQuietly(httpClient);
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link CouchTransport} which limits number of requests in flight of the wrapped engine. A request holds its permit until its response is closed. Callers
+ * which exceed the limit wait in a fair queue of {@link Semaphore}, which parks virtual threads without pinning of their carrier threads, instead of waiting
+ * inside of a connection pool guarded by monitors. The limit also keeps engines without a pool limit (JDK engine) from opening a connection per caller.
+ *
+ * @author Majlanky
+ */
+public class BoundedTransport implements CouchTransport {
+
+    private final CouchTransport delegate;
+    private final Semaphore permits;
+    private final long timeout;
+
+    /**
+     * @param delegate       engine which executes requests. Closed together with this transport. Must not be {@literal null}
+     * @param maxConcurrency maximal number of requests in flight. Must be positive
+     * @param timeout        in milliseconds for waiting for a permit. Zero means infinite timeout
+     */
+    public BoundedTransport(@NotNull CouchTransport delegate, int maxConcurrency, long timeout) {
+        Assert.notNull(delegate, "Delegate must not be null.");
+        Assert.isTrue(maxConcurrency > 0, "MaxConcurrency must be positive number");
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.timeout = timeout;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ConnectionPoolTimeoutException if no permit is released in the configured timeout
+     * @throws InterruptedIOException         if the calling thread is interrupted while it waits for a permit
+     */
+    @Override
+    public @NotNull CouchResponse execute(@NotNull CouchRequest request, @NotNull HttpHost target) throws IOException {
+        acquire(request);
+        try {
+            return new BoundedResponse(delegate.execute(request, target));
+        } catch (IOException | RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire(@NotNull CouchRequest request) throws IOException {
+        try {
+            if (timeout > 0) {
+                if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                    throw new ConnectionPoolTimeoutException("Timeout waiting for connection of " + request);
+                }
+            } else {
+                permits.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for connection of " + request);
+        }
+    }
+
+    /**
+     * @return number of requests which can be sent now without waiting
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * {@link CouchResponse} which releases permit of its request when it is closed. Only the first close has effect.
+     */
+    private class BoundedResponse implements CouchResponse {
+
+        private final CouchResponse response;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private BoundedResponse(@NotNull CouchResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public @NotNull List<String> getHeaders(@NotNull String name) {
+            return response.getHeaders(name);
+        }
+
+        @Override
+        public @NotNull InputStream getContent() throws IOException {
+            return response.getContent();
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                try {
+                    response.close();
+                } finally {
+                    permits.release();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * {@link RequestBody} held in memory, so its length is known in advance.
+ *
+ * @author Majlanky
+ */
+public class ByteArrayBody implements RequestBody {
+
+    private final byte[] content;
+    private final String contentType;
+    private final String contentEncoding;
+
+    /**
+     * @param content         of the body. Must not be {@literal null}
+     * @param contentType     media type of the body. Must not be {@literal null}
+     * @param contentEncoding of the body or {@literal null} if the body is not encoded
+     */
+    public ByteArrayBody(@NotNull byte[] content, @NotNull String contentType, @Nullable String contentEncoding) {
+        Assert.notNull(content, "Content must not be null.");
+        Assert.notNull(contentType, "ContentType must not be null.");
+        this.content = content;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nullable String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getContentLength() {
+        return content.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(@NotNull OutputStream outputStream) throws IOException {
+        outputStream.write(content);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull InputStream getContent() {
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * @return the body. The array is not copied, so it must not be changed
+     */
+    public @NotNull byte[] getBytes() {
+        return content;
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Request to CouchDB which is independent on HTTP engine. URI of the request is based on configured url, {@link CouchTransport} sends the request to the
+ * node chosen for it. The request can be executed more times (when it is retried), so its body must be repeatable.
+ *
+ * @author Majlanky
+ */
+public class CouchRequest {
+
+    public static final String GET = "GET";
+    public static final String HEAD = "HEAD";
+    public static final String POST = "POST";
+    public static final String PUT = "PUT";
+    public static final String DELETE = "DELETE";
+
+    private final String method;
+    private final URI uri;
+    private final RequestBody body;
+    private final Map<String, String> headers;
+
+    /**
+     * @param method of the request. Must not be {@literal null}
+     * @param uri    of the request. Must not be {@literal null}
+     */
+    public CouchRequest(@NotNull String method, @NotNull URI uri) {
+        this(method, uri, null);
+    }
+
+    /**
+     * @param method of the request. Must not be {@literal null}
+     * @param uri    of the request. Must not be {@literal null}
+     * @param body   of the request or {@literal null} if the request has no body
+     */
+    public CouchRequest(@NotNull String method, @NotNull URI uri, @Nullable RequestBody body) {
+        Assert.notNull(method, "Method must not be null.");
+        Assert.notNull(uri, "URI must not be null.");
+        this.method = method;
+        this.uri = uri;
+        this.body = body;
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    public @NotNull String getMethod() {
+        return method;
+    }
+
+    public @NotNull URI getURI() {
+        return uri;
+    }
+
+    public @Nullable RequestBody getBody() {
+        return body;
+    }
+
+    /**
+     * Method to set header of the request. Existing header of the same name is replaced.
+     *
+     * @param name  of the header. Must not be {@literal null}
+     * @param value of the header. Must not be {@literal null}
+     */
+    public void setHeader(@NotNull String name, @NotNull String value) {
+        Assert.notNull(name, "Name must not be null.");
+        Assert.notNull(value, "Value must not be null.");
+        headers.put(name, value);
+    }
+
+    /**
+     * @param name of the header (case insensitive). Must not be {@literal null}
+     * @return value of the header or {@literal null} if the header is not set
+     */
+    public @Nullable String getHeader(@NotNull String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * @return all headers of the request, content type and encoding of body are not included
+     */
+    public @NotNull Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return method + " " + uri;
+    }
+
+}
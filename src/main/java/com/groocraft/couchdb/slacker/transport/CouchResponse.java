@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Response of CouchDB which is independent on HTTP engine. Body of the response is already decoded if it was compressed. The response must be closed, so
+ * the connection can be reused.
+ *
+ * @author Majlanky
+ */
+public interface CouchResponse extends Closeable {
+
+    /**
+     * @return HTTP status code of the response
+     */
+    int getStatusCode();
+
+    /**
+     * @param name of the header (case insensitive). Must not be {@literal null}
+     * @return values of all headers of the given name, empty list if there is no such header
+     */
+    @NotNull List<String> getHeaders(@NotNull String name);
+
+    /**
+     * @return decoded body of the response, empty stream if there is no body
+     * @throws IOException if the body can not be read
+     */
+    @NotNull InputStream getContent() throws IOException;
+
+    /**
+     * Method to release the connection of the response. Not read part of the body is discarded.
+     */
+    @Override
+    void close();
+
+}
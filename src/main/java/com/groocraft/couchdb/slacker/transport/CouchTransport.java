@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import org.apache.http.HttpHost;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Service provider interface of HTTP engine which executes requests of the client. The engine owns connections, their pool, TLS and compression of
+ * responses, the client owns choosing of node, retries and authentication by session cookie. Implementation must be thread-safe.
+ *
+ * @author Majlanky
+ * @see ApacheTransport
+ */
+public interface CouchTransport extends Closeable {
+
+    /**
+     * Method to send the given request to the given node. Response which is not OK, CREATED, ACCEPTED or NOT_MODIFIED is closed and reported by
+     * {@link com.groocraft.couchdb.slacker.exception.CouchDbException}.
+     *
+     * @param request which is sent. Must not be {@literal null}
+     * @param target  address of node to which the request is sent. Only scheme, host and port are used. Must not be {@literal null}
+     * @return successful {@link CouchResponse}, it must be closed by caller
+     * @throws IOException if the request fails or the response is not successful
+     */
+    @NotNull CouchResponse execute(@NotNull CouchRequest request, @NotNull HttpHost target) throws IOException;
+
+    /**
+     * Method to release all connections of the engine.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
+import com.groocraft.couchdb.slacker.http.ThrowingInterceptor;
+import com.groocraft.couchdb.slacker.utils.VirtualThreads;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * {@link CouchTransport} backed by HTTP client of JDK (java.net.http). Requests carry preemptive Basic credentials if they are given. Connect and socket
+ * timeouts and response compression are taken from {@link CouchDbProperties}. The engine has no configurable pool, size of pool and keep-alive of
+ * connections are given by jdk.httpclient.connectionPoolSize and jdk.httpclient.keepalive.timeout system properties. Body of unknown length is written
+ * into memory before it is sent, because the engine is not able to take body thru {@link java.io.OutputStream}. If virtual threads are configured, the engine
+ * runs its tasks on virtual threads.
+ *
+ * @author Majlanky
+ */
+public class JdkTransport implements CouchTransport {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final HttpClient httpClient;
+    private final String authorization;
+    private final Duration timeout;
+    private final boolean responseCompression;
+    private final ExecutorService executor;
+
+    /**
+     * @param properties from which timeouts, response compression and usage of virtual threads are taken. Must not be {@literal null}
+     * @param sslContext used for https connections. Must not be {@literal null}
+     * @param username   of preemptive basic authentication or {@literal null} if requests should not carry credentials
+     * @param password   of preemptive basic authentication or {@literal null} if requests should not carry credentials
+     */
+    public JdkTransport(@NotNull CouchDbProperties properties, @NotNull SSLContext sslContext, @Nullable String username, @Nullable String password) {
+        Assert.notNull(properties, "Properties must not be null.");
+        Assert.notNull(sslContext, "SSLContext must not be null.");
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .sslContext(sslContext);
+        if (properties.getConnectTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(properties.getConnectTimeout()));
+        }
+        this.executor = properties.isVirtualThreads() ? VirtualThreads.newExecutor() : null;
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.httpClient = builder.build();
+        this.authorization = username == null ? null :
+                "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.timeout = properties.getSocketTimeout() > 0 ? Duration.ofMillis(properties.getSocketTimeout()) : null;
+        this.responseCompression = properties.isResponseCompression();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull CouchResponse execute(@NotNull CouchRequest request, @NotNull HttpHost target) throws IOException {
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(toHttpRequest(request, target), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during " + request);
+        }
+        JdkResponse couchResponse = new JdkResponse(response);
+        if (!ThrowingInterceptor.isSuccessful(couchResponse.getStatusCode())) {
+            try {
+                throw ThrowingInterceptor.createException(couchResponse.getStatusCode(), request.getMethod(), request.getURI().toString(),
+                        "HTTP " + couchResponse.getStatusCode(),
+                        couchResponse.getContent());
+            } finally {
+                couchResponse.close();
+            }
+        }
+        return couchResponse;
+    }
+
+    private @NotNull HttpRequest toHttpRequest(@NotNull CouchRequest request, @NotNull HttpHost target) throws IOException {
+        URI uri = request.getURI();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target.toURI() + uri.getRawPath() + (uri.getRawQuery() == null ? "" :
+                "?" + uri.getRawQuery())));
+        RequestBody body = request.getBody();
+        if (body == null) {
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.ofByteArray(getBytes(body)));
+            builder.header(HttpHeaders.CONTENT_TYPE, body.getContentType());
+            if (body.getContentEncoding() != null) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, body.getContentEncoding());
+            }
+        }
+        request.getHeaders().forEach(builder::setHeader);
+        if (authorization != null) {
+            builder.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        if (responseCompression) {
+            builder.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip,deflate");
+        }
+        if (timeout != null) {
+            builder.timeout(timeout);
+        }
+        return builder.build();
+    }
+
+    private static byte[] getBytes(@NotNull RequestBody body) throws IOException {
+        if (body instanceof ByteArrayBody) {
+            return ((ByteArrayBody) body).getBytes();
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream(body.getContentLength() > 0 ? (int) body.getContentLength() : 8192);
+        body.writeTo(content);
+        return content.toByteArray();
+    }
+
+    /**
+     * Method to stop virtual threads of the engine if they are used. Connections of the engine are closed when they are idle for longer than keep-alive.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * {@link CouchResponse} backed by response of JDK HTTP client. Compressed body is decoded.
+     */
+    private static class JdkResponse implements CouchResponse {
+
+        private final HttpResponse<InputStream> response;
+        private InputStream content;
+
+        private JdkResponse(@NotNull HttpResponse<InputStream> response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public @NotNull List<String> getHeaders(@NotNull String name) {
+            return response.headers().allValues(name);
+        }
+
+        @Override
+        public @NotNull InputStream getContent() throws IOException {
+            if (content == null) {
+                String encoding = response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse("");
+                if ("gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding)) {
+                    content = isEmpty() ? new ByteArrayInputStream(EMPTY) : new GZIPInputStream(response.body());
+                } else if ("deflate".equalsIgnoreCase(encoding)) {
+                    content = new InflaterInputStream(response.body());
+                } else {
+                    content = response.body();
+                }
+            }
+            return content;
+        }
+
+        private boolean isEmpty() {
+            return response.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(-1) == 0;
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.body().close();
+            } catch (IOException e) {
+                //nothing to do, connection is dropped
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link RequestBody} which serializes the given value by {@link ObjectWriter} directly into the output stream of the connection. Whole json is never held
+ * in memory, so the body is suitable for bulk requests. Length of the body is not known in advance, so the body is sent chunked. The body can be written
+ * more times, because the value is serialized again for every write.
+ *
+ * @author Majlanky
+ */
+public class JsonBody implements RequestBody {
+
+    private static final String JSON = "application/json";
+    private static final String GZIP = "gzip";
+
+    private final ObjectWriter writer;
+    private final Object value;
+    private final boolean compressed;
+
+    /**
+     * @param writer     used for serialization of the given value. Must not be {@literal null}
+     * @param value      which is serialized as body. Must not be {@literal null}
+     * @param compressed {@literal true} if the body should be gzip compressed during writing
+     */
+    public JsonBody(@NotNull ObjectWriter writer, @NotNull Object value, boolean compressed) {
+        Assert.notNull(writer, "Writer must not be null.");
+        Assert.notNull(value, "Value must not be null.");
+        this.writer = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.value = value;
+        this.compressed = compressed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull String getContentType() {
+        return JSON;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nullable String getContentEncoding() {
+        return compressed ? GZIP : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(@NotNull OutputStream outputStream) throws IOException {
+        Assert.notNull(outputStream, "OutputStream must not be null.");
+        if (compressed) {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(outputStream), 8192)) {
+                writer.writeValue(gzip, value);
+            }
+        } else {
+            writer.writeValue(outputStream, value);
+        }
+    }
+
+    /**
+     * {@link FilterOutputStream} which only flushes the wrapped stream when it is closed. It allows to close {@link GZIPOutputStream}, so its native deflater
+     * is released immediately, while the output stream of the connection stays open.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(@NotNull OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(@NotNull byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+    }
+
+}
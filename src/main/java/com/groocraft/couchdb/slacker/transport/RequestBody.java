@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Body of {@link CouchRequest} which is written by {@link CouchTransport} into the connection. Every body must be writable more times, because a request
+ * can be retried.
+ *
+ * @author Majlanky
+ */
+public interface RequestBody {
+
+    /**
+     * @return media type of the body
+     */
+    @NotNull String getContentType();
+
+    /**
+     * @return encoding (gzip for example) of the body or {@literal null} if the body is not encoded
+     */
+    @Nullable String getContentEncoding();
+
+    /**
+     * @return length of the body in bytes or negative number if it is not known in advance. Body of unknown length is sent chunked
+     */
+    long getContentLength();
+
+    /**
+     * Method to write the whole body into the given stream. The stream is not closed.
+     *
+     * @param outputStream where the body is written. Must not be {@literal null}
+     * @throws IOException if writing fails
+     */
+    void writeTo(@NotNull OutputStream outputStream) throws IOException;
+
+    /**
+     * Method to get the body as stream. Default implementation writes the whole body into memory, it is used only by engines which can not write into
+     * a stream.
+     *
+     * @return {@link InputStream} of the body
+     * @throws IOException if writing fails
+     */
+    default @NotNull InputStream getContent() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        writeTo(content);
+        return new ByteArrayInputStream(content.toByteArray());
+    }
+
+}
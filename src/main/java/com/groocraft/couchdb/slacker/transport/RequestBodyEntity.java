@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.transport;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * {@link HttpEntity} which writes {@link RequestBody} into the connection of Apache HTTP client. Body of unknown length is sent chunked.
+ *
+ * @author Majlanky
+ */
+public class RequestBodyEntity extends AbstractHttpEntity {
+
+    private final RequestBody body;
+
+    /**
+     * @param body which is sent. Must not be {@literal null}
+     */
+    public RequestBodyEntity(@NotNull RequestBody body) {
+        Assert.notNull(body, "Body must not be null.");
+        this.body = body;
+        setContentType(body.getContentType());
+        setContentEncoding(body.getContentEncoding());
+        setChunked(body.getContentLength() < 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getContentLength() {
+        return body.getContentLength();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return body.getContent();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Assert.notNull(outputStream, "OutputStream must not be null.");
+        body.writeTo(outputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+}
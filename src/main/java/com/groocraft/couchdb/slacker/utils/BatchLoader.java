@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Help class to collect loads of single values by id into batches (in DataLoader style). A batch is dispatched when the window since its first id elapses
+ * or when it reaches the maximal size, whatever comes first. Every id is loaded once per batch, even if it is wanted by more calls. Loading of a batch runs
+ * on the given executor and completes future of every call with its own value, {@literal null} if the value was not loaded, or with the failure of the
+ * whole batch.
+ *
+ * @param <ValueT> type of loaded values
+ * @author Majlanky
+ */
+@Slf4j
+public class BatchLoader<ValueT> implements Closeable {
+
+    private final long window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final ThrowingFunction<List<String>, Map<String, ValueT>, IOException> loader;
+    private final Lock lock;
+    private Map<String, CompletableFuture<ValueT>> pending;
+    private boolean closed;
+
+    /**
+     * @param window       time in milliseconds for which ids are collected into a batch since the first one. Must not be negative
+     * @param maxBatchSize maximal number of ids in a batch. Must be positive
+     * @param scheduler    which dispatches batches when their window elapses. Can be shared, it is not shut down by {@link #close()}. Must not be
+     *                     {@literal null}
+     * @param executor     which loads batches. Can be shared, it is not shut down by {@link #close()}. Must not be {@literal null}
+     * @param loader       {@link ThrowingFunction} which loads values of the given ids and returns them by ids. Must not be {@literal null}
+     */
+    public BatchLoader(long window, int maxBatchSize, @NotNull ScheduledExecutorService scheduler, @NotNull Executor executor,
+                       @NotNull ThrowingFunction<List<String>, Map<String, ValueT>, IOException> loader) {
+        Assert.isTrue(window >= 0, "Window must not be negative number");
+        Assert.isTrue(maxBatchSize > 0, "MaxBatchSize must be positive number");
+        Assert.notNull(scheduler, "Scheduler must not be null.");
+        Assert.notNull(executor, "Executor must not be null.");
+        Assert.notNull(loader, "Loader must not be null.");
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.loader = loader;
+        this.lock = new ReentrantLock();
+        this.pending = new LinkedHashMap<>();
+    }
+
+    /**
+     * Method to create scheduler for dispatching of batches with one platform daemon thread. The thread only hands batches over to the executor which
+     * loads them.
+     *
+     * @return {@link ScheduledExecutorService} for {@link BatchLoader}
+     */
+    public static @NotNull ScheduledExecutorService createScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "couchdb-batch-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method to create executor for loading of batches on virtual threads or on cached pool of platform daemon threads.
+     *
+     * @param virtualThreads flag if virtual threads should be used. Virtual threads require Java 21 or newer
+     * @return {@link ExecutorService} for {@link BatchLoader}
+     */
+    public static @NotNull ExecutorService createExecutor(boolean virtualThreads) {
+        if (virtualThreads) {
+            return VirtualThreads.newExecutor();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "couchdb-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method to add the given id to the current batch.
+     *
+     * @param id of wanted value. Must not be {@literal null}
+     * @return {@link CompletableFuture} of the value, completed by {@literal null} if the value was not loaded
+     */
+    public @NotNull CompletableFuture<ValueT> load(@NotNull String id) {
+        Assert.notNull(id, "Id must not be null.");
+        Map<String, CompletableFuture<ValueT>> full = null;
+        CompletableFuture<ValueT> future;
+        lock.lock();
+        try {
+            if (closed) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(new IOException("Batch loader is closed"));
+                return future;
+            }
+            future = pending.get(id);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(id, future);
+                if (pending.size() >= maxBatchSize) {
+                    full = pending;
+                    pending = new LinkedHashMap<>();
+                } else if (pending.size() == 1) {
+                    schedule(pending);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void schedule(@NotNull Map<String, CompletableFuture<ValueT>> batch) {
+        try {
+            scheduler.schedule(() -> flush(batch), window, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //scheduler is shut down, the batch is dispatched by the next full batch or by close
+            log.debug("Batch is not scheduled, scheduler is shut down");
+        }
+    }
+
+    private void flush(@NotNull Map<String, CompletableFuture<ValueT>> batch) {
+        lock.lock();
+        try {
+            //the batch could be dispatched already because it reached the maximal size
+            if (pending != batch) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(@NotNull Map<String, CompletableFuture<ValueT>> batch) {
+        try {
+            executor.execute(() -> load(batch));
+        } catch (RejectedExecutionException e) {
+            load(batch);
+        }
+    }
+
+    private void load(@NotNull Map<String, CompletableFuture<ValueT>> batch) {
+        log.debug("Loading batch of {} ids", batch.size());
+        try {
+            Map<String, ValueT> loaded = loader.apply(new ArrayList<>(batch.keySet()));
+            batch.forEach((id, future) -> future.complete(loaded.get(id)));
+        } catch (Throwable e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Method to dispatch the current batch immediately and to refuse next loads.
+     */
+    @Override
+    public void close() {
+        Map<String, CompletableFuture<ValueT>> batch;
+        lock.lock();
+        try {
+            closed = true;
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            load(batch);
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.utils;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Help class to split documents of a bulk write into bodies of _bulk_docs requests limited by number of documents and by number of bytes. Chunks are
+ * serialized lazily, one by one, when they are taken, so more threads can take chunks and the next chunk is serialized while the previous one is being
+ * sent. A document bigger than the byte limit is sent alone in its chunk.
+ *
+ * @param <EntityT> type of written entities
+ * @author Majlanky
+ */
+public class BulkChunker<EntityT> {
+
+    private static final byte[] PREFIX = "{\"docs\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private final List<EntityT> entities;
+    private final ObjectWriter writer;
+    private final int maxSize;
+    private final long maxBytes;
+    private final Lock lock;
+    private int next;
+    private int index;
+    private byte[] lookahead;
+    private boolean closed;
+
+    /**
+     * @param entities which are split. Must not be {@literal null}
+     * @param writer   which serializes entities. Must not be {@literal null}
+     * @param maxSize  maximal number of documents in one chunk. Must be positive
+     * @param maxBytes maximal number of bytes of one chunk body. Must be positive
+     */
+    public BulkChunker(@NotNull List<EntityT> entities, @NotNull ObjectWriter writer, int maxSize, long maxBytes) {
+        Assert.notNull(entities, "Entities must not be null.");
+        Assert.notNull(writer, "Writer must not be null.");
+        Assert.isTrue(maxSize > 0, "MaxSize must be positive number");
+        Assert.isTrue(maxBytes > 0, "MaxBytes must be positive number");
+        this.entities = entities;
+        this.writer = writer;
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Method to serialize and take the next chunk. Safe to be called from more threads.
+     *
+     * @return the next {@link Chunk} or {@literal null} if all documents were taken or the chunker is closed
+     * @throws IOException if serialization of a document fails
+     */
+    public @Nullable Chunk next() throws IOException {
+        lock.lock();
+        try {
+            if (!hasNext()) {
+                return null;
+            }
+            int offset = next - (lookahead == null ? 0 : 1);
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            body.write(PREFIX);
+            int size = 0;
+            while (size < maxSize) {
+                byte[] doc = lookahead;
+                lookahead = null;
+                if (doc == null) {
+                    if (next >= entities.size()) {
+                        break;
+                    }
+                    doc = writer.writeValueAsBytes(entities.get(next++));
+                }
+                if (size > 0 && (long) body.size() + 1 + doc.length + SUFFIX.length > maxBytes) {
+                    lookahead = doc;
+                    break;
+                }
+                if (size > 0) {
+                    body.write(',');
+                }
+                body.write(doc);
+                size++;
+            }
+            body.write(SUFFIX);
+            return new Chunk(index++, offset, size, body.toByteArray());
+        } catch (IOException e) {
+            closed = true;
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if there is a document which was not taken yet and the chunker is not closed
+     */
+    public boolean hasNext() {
+        lock.lock();
+        try {
+            return !closed && (next < entities.size() || lookahead != null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to stop taking of chunks, the next call of {@link #next()} returns {@literal null}. Used when sending of a chunk fails.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Serialized part of a bulk write.
+     */
+    public static class Chunk {
+
+        private final int index;
+        private final int offset;
+        private final int size;
+        private final byte[] body;
+
+        private Chunk(int index, int offset, int size, byte[] body) {
+            this.index = index;
+            this.offset = offset;
+            this.size = size;
+            this.body = body;
+        }
+
+        /**
+         * @return order of the chunk, starting by 0
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return position of the first document of the chunk in the split list
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return number of documents in the chunk
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * @return body of _bulk_docs request with documents of the chunk. The array is not copied, so it must not be changed
+         */
+        public @NotNull byte[] getBody() {
+            return body;
+        }
+
+    }
+
+}
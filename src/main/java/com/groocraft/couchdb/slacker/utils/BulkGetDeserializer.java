@@ -17,46 +17,91 @@
 package com.groocraft.couchdb.slacker.utils;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * Implementation of {@link JsonDeserializer} to read results of _bulk_get request. From every result, the first document is taken if it was read ok.
+ * Documents are bound directly from the parser, the rest of the result is skipped without creating an intermediate tree.
+ *
+ * @param <EntityT> type of entity (document)
  * @author Majlanky
  */
 public class BulkGetDeserializer<EntityT> extends JsonDeserializer<List<EntityT>> {
 
-    private final Class<EntityT> clazz;
+    private static final String DOCS = "docs";
+    private static final String OK = "ok";
+
+    private final ObjectReader reader;
 
     /**
      * @param clazz of entities in bulk get. Must not be {@literal null}
      */
     public BulkGetDeserializer(@NotNull Class<EntityT> clazz) {
+        this(clazz, new ObjectMapper());
+    }
+
+    /**
+     * @param clazz  of entities in bulk get. Must not be {@literal null}
+     * @param mapper used for binding of documents into entities. It must not be the mapper this deserializer is registered in. Must not be {@literal null}
+     */
+    public BulkGetDeserializer(@NotNull Class<EntityT> clazz, @NotNull ObjectMapper mapper) {
         Assert.notNull(clazz, "Clazz must not be null");
-        this.clazz = clazz;
+        Assert.notNull(mapper, "Mapper must not be null");
+        this.reader = mapper.readerFor(clazz);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public List<EntityT> deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
-        List<EntityT> data = new LinkedList<>();
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = p.getCodec().readTree(p);
-        for (int i = 0; i < root.size(); i++) {
-            JsonNode object = root.get(i).get("docs").get(0).get("ok");
-            if (object != null) {
-                data.add(mapper.readValue(object.toString(), clazz));
+        if (!p.isExpectedStartArrayToken()) {
+            return (List<EntityT>) ctx.handleUnexpectedToken(List.class, p);
+        }
+        List<EntityT> data = new ArrayList<>();
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                if (p.nextToken() == JsonToken.START_ARRAY && DOCS.equals(field)) {
+                    readFirstOk(p, data);
+                } else {
+                    p.skipChildren();
+                }
             }
         }
         return data;
     }
+
+    /**
+     * Method to read docs array of one result. Only the first document is read into the given list if it is ok, the rest is skipped.
+     *
+     * @param p    parser positioned at the start of docs array. Must not be {@literal null}
+     * @param data where the read document is added. Must not be {@literal null}
+     * @throws IOException if parsing fails
+     */
+    private void readFirstOk(@NotNull JsonParser p, @NotNull List<EntityT> data) throws IOException {
+        boolean first = true;
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                if (p.nextToken() == JsonToken.START_OBJECT && first && OK.equals(field)) {
+                    data.add(reader.readValue(p));
+                } else {
+                    p.skipChildren();
+                }
+            }
+            first = false;
+        }
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.utils;
+
+/**
+ * Immutable snapshot of statistics of {@link SingleFlight} for monitoring.
+ *
+ * @author Majlanky
+ */
+public class CoalescingStatistics {
+
+    private final long requestCount;
+    private final long coalescedCount;
+    private final long inFlight;
+
+    /**
+     * @param requestCount   number of calls which sent their own request
+     * @param coalescedCount number of calls which waited for an identical request in flight instead of sending their own
+     * @param inFlight       number of requests in flight
+     */
+    public CoalescingStatistics(long requestCount, long coalescedCount, long inFlight) {
+        this.requestCount = requestCount;
+        this.coalescedCount = coalescedCount;
+        this.inFlight = inFlight;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return ratio of coalesced calls to all calls, zero if there was no call
+     */
+    public double getCoalescedRatio() {
+        long total = requestCount + coalescedCount;
+        return total == 0 ? 0 : (double) coalescedCount / total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CoalescingStatistics{requests=" + requestCount + ", coalesced=" + coalescedCount + ", inFlight=" + inFlight + "}";
+    }
+
+}
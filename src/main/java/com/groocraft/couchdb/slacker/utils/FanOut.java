@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Help class to run independent blocking parts of one operation (chunks of a bulk operation for example) in parallel. The calling thread takes part in the
+ * work, so a task never waits for a free thread of the executor and the operation is done even if the executor is not able to run anything. The first
+ * failure stops taking of next parts and it is thrown to the caller.
+ *
+ * @author Majlanky
+ */
+public class FanOut implements Closeable {
+
+    private final ExecutorService executor;
+
+    /**
+     * @param executor which runs parts of operations next to the calling thread. Shut down by {@link #close()}. Must not be {@literal null}
+     */
+    public FanOut(@NotNull ExecutorService executor) {
+        Assert.notNull(executor, "Executor must not be null.");
+        this.executor = executor;
+    }
+
+    /**
+     * Method to create {@link FanOut} which runs parts of operations on virtual threads or on cached pool of platform daemon threads.
+     *
+     * @param virtualThreads flag if virtual threads should be used. Virtual threads require Java 21 or newer
+     * @return {@link FanOut}
+     */
+    public static @NotNull FanOut create(boolean virtualThreads) {
+        if (virtualThreads) {
+            return new FanOut(VirtualThreads.newExecutor());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return new FanOut(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "couchdb-fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Method to apply the given function on every parameter, at most parallelism of applications run at the same time. Order of results is the same as order
+     * of parameters.
+     *
+     * @param parameters  which the function is applied on. Must not be {@literal null}
+     * @param parallelism maximal number of threads (including the calling one) applying the function at the same time. Must be positive
+     * @param function    which is applied. Must not be {@literal null}
+     * @param <ParameterT> type of parameters
+     * @param <ReturnedT>  type of results
+     * @return {@link List} of results in order of parameters
+     * @throws IOException the first exception thrown by the function or {@link InterruptedIOException} if the calling thread is interrupted
+     */
+    @SuppressWarnings("unchecked")
+    public <ParameterT, ReturnedT> @NotNull List<ReturnedT> map(@NotNull List<ParameterT> parameters, int parallelism,
+                                                                 @NotNull ThrowingFunction<ParameterT, ReturnedT, IOException> function) throws IOException {
+        Assert.notNull(parameters, "Parameters must not be null.");
+        Assert.isTrue(parallelism > 0, "Parallelism must be positive number");
+        Assert.notNull(function, "Function must not be null.");
+        int workers = Math.min(parallelism, parameters.size());
+        if (workers <= 1) {
+            List<ReturnedT> results = new ArrayList<>(parameters.size());
+            for (ParameterT parameter : parameters) {
+                results.add(function.apply(parameter));
+            }
+            return results;
+        }
+        Object[] results = new Object[parameters.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int index;
+            while (failure.get() == null && (index = next.getAndIncrement()) < results.length) {
+                try {
+                    results[index] = function.apply(parameters.get(index));
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+        List<Future<?>> futures = new ArrayList<>(workers - 1);
+        try {
+            for (int i = 1; i < workers; i++) {
+                futures.add(executor.submit(worker));
+            }
+        } catch (RejectedExecutionException e) {
+            //executor is shut down, the calling thread does the rest of work
+        }
+        worker.run();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for parallel parts of operation");
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e.getCause());
+        }
+        Throwable thrown = failure.get();
+        if (thrown instanceof IOException) {
+            throw (IOException) thrown;
+        }
+        if (thrown instanceof RuntimeException) {
+            throw (RuntimeException) thrown;
+        }
+        if (thrown instanceof Error) {
+            throw (Error) thrown;
+        }
+        if (thrown != null) {
+            throw new IOException(thrown);
+        }
+        List<ReturnedT> list = new ArrayList<>(results.length);
+        for (Object result : results) {
+            list.add((ReturnedT) result);
+        }
+        return list;
+    }
+
+    /**
+     * Method to stop threads of the executor. Running parts are interrupted, the calling threads finish the rest of their operations.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+}
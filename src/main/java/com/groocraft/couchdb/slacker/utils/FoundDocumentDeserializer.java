@@ -17,42 +17,61 @@
 package com.groocraft.couchdb.slacker.utils;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.jetbrains.annotations.NotNull;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Implementation of {@link JsonSerializer} to ease deserialization of _find result. Because
  * {@link com.groocraft.couchdb.slacker.structure.DocumentFindResponse} is unified for all entities, documents wrapped inside has to be deserialize with
- * information of expected type ({@code DataT})
+ * information of expected type ({@code DataT}). Documents are bound directly from the parser one by one, no intermediate tree is created.
  *
  * @param <EntityT> type of entity (document)
  * @author Majlanky
  */
 public class FoundDocumentDeserializer<EntityT> extends JsonDeserializer<List<EntityT>> {
 
-    private final Class<EntityT> clazz;
+    private final ObjectReader reader;
 
     /**
      * @param clazz must not be {@literal null}
      */
     public FoundDocumentDeserializer(Class<EntityT> clazz) {
+        this(clazz, new ObjectMapper());
+    }
+
+    /**
+     * @param clazz  must not be {@literal null}
+     * @param mapper used for binding of documents into entities. It must not be the mapper this deserializer is registered in. Must not be {@literal null}
+     */
+    public FoundDocumentDeserializer(@NotNull Class<EntityT> clazz, @NotNull ObjectMapper mapper) {
         Assert.notNull(clazz, "Clazz must not be null");
-        this.clazz = clazz;
+        Assert.notNull(mapper, "Mapper must not be null");
+        this.reader = mapper.readerFor(clazz);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public List<EntityT> deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
-        JsonNode node = p.getCodec().readTree(p);
-        return new ObjectMapper().readValue(node.toString(), ctx.getTypeFactory().constructCollectionType(List.class, clazz));
+        if (!p.isExpectedStartArrayToken()) {
+            return (List<EntityT>) ctx.handleUnexpectedToken(List.class, p);
+        }
+        List<EntityT> data = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            data.add(reader.readValue(p));
+        }
+        return data;
     }
 }
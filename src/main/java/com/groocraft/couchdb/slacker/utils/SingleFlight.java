@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Help class to share one in-flight request among identical concurrent calls. Calls are identical if they have the same method, URI and body. The first
+ * call sends the request, calls which come while the request is in flight wait for its result (or failure) instead of sending their own request. A call
+ * which comes after the result is delivered sends a new request, so nothing is cached. Results are shared, so they must not be modified. When the data are
+ * changed, the requests in flight can be detached, so calls which come after the change send a new request instead of waiting for a possibly old result.
+ *
+ * @author Majlanky
+ */
+public class SingleFlight {
+
+    private final Map<Key, CompletableFuture<byte[]>> inFlight;
+    private final LongAdder requestCount;
+    private final LongAdder coalescedCount;
+
+    public SingleFlight() {
+        this.inFlight = new ConcurrentHashMap<>();
+        this.requestCount = new LongAdder();
+        this.coalescedCount = new LongAdder();
+    }
+
+    /**
+     * Method to run the given request or to wait for result of identical request in flight.
+     *
+     * @param method  of the request. Must not be {@literal null}
+     * @param uri     of the request. Must not be {@literal null}
+     * @param body    of the request or {@literal null} if there is no body
+     * @param request which sends the request and returns raw response. Must not be {@literal null}
+     * @return raw response of the request. Must not be modified
+     * @throws IOException thrown by the request (the same instance to all waiting calls) or {@link InterruptedIOException} if the calling thread is
+     *                     interrupted while waiting
+     */
+    public @NotNull byte[] execute(@NotNull String method, @NotNull String uri, @Nullable String body, @NotNull ThrowingSupplier<byte[], IOException> request)
+            throws IOException {
+        Assert.notNull(method, "Method must not be null.");
+        Assert.notNull(uri, "Uri must not be null.");
+        Assert.notNull(request, "Request must not be null.");
+        Key key = new Key(method, uri, body);
+        CompletableFuture<byte[]> flight = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCount.increment();
+            return await(existing);
+        }
+        requestCount.increment();
+        try {
+            byte[] result = request.get();
+            //removed before completion, so a call which comes after the result is delivered does not get it
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (IOException | RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Method to detach requests in flight with the given URI. Calls which are already waiting get the result of the detached request, calls which come later
+     * send a new request.
+     *
+     * @param uri of detached requests. Must not be {@literal null}
+     */
+    public void detach(@NotNull String uri) {
+        Assert.notNull(uri, "Uri must not be null.");
+        inFlight.keySet().removeIf(k -> k.uri.equals(uri));
+    }
+
+    /**
+     * Method to detach requests in flight which URI starts with the given prefix, see {@link #detach(String)}.
+     *
+     * @param prefix of URI of detached requests. Must not be {@literal null}
+     */
+    public void detachPrefix(@NotNull String prefix) {
+        Assert.notNull(prefix, "Prefix must not be null.");
+        inFlight.keySet().removeIf(k -> k.uri.startsWith(prefix));
+    }
+
+    private @NotNull byte[] await(@NotNull CompletableFuture<byte[]> flight) throws IOException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for identical request in flight");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * @return {@link CoalescingStatistics} of all calls since creation
+     */
+    public @NotNull CoalescingStatistics getStatistics() {
+        return new CoalescingStatistics(requestCount.sum(), coalescedCount.sum(), inFlight.size());
+    }
+
+    /**
+     * Key of a request. Hash is computed once from method, URI and body, whole body is compared only if hashes are the same.
+     */
+    private static class Key {
+
+        private final String method;
+        private final String uri;
+        private final String body;
+        private final int hash;
+
+        private Key(@NotNull String method, @NotNull String uri, @Nullable String body) {
+            this.method = method;
+            this.uri = uri;
+            this.body = body;
+            this.hash = Objects.hash(method, uri, body);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && method.equals(key.method) && uri.equals(key.uri) && Objects.equals(body, key.body);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Help class to create executors of virtual threads. Virtual threads are part of Java 21, the library is compiled for older Java, so the factory method is
+ * looked up reflectively once and the class can be used on every supported Java version.
+ *
+ * @author Majlanky
+ */
+public final class VirtualThreads {
+
+    private static final MethodHandle NEW_EXECUTOR = lookupExecutorFactory();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running Java supports virtual threads
+     */
+    public static boolean isAvailable() {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Method to create {@link ExecutorService} which starts a new virtual thread for every task.
+     *
+     * @return {@link ExecutorService} of virtual threads
+     * @throws IllegalStateException if the running Java does not support virtual threads
+     */
+    public static @NotNull ExecutorService newExecutor() {
+        if (NEW_EXECUTOR == null) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer");
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to create executor of virtual threads", e);
+        }
+    }
+
+    private static MethodHandle lookupExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+}
@@ -37,6 +37,7 @@ import java.io.IOException;
 public abstract class WrappingSerializer<EntityT> extends JsonSerializer<EntityT> {
 
     private final Class<EntityT> clazz;
+    private volatile JsonSerializer<Object> unwrappingSerializer;
 
     /**
      * @param clazz of wrapped entity. Must not be {@literal null}
@@ -59,18 +60,34 @@ public abstract class WrappingSerializer<EntityT> extends JsonSerializer<EntityT
      */
     @Override
     public void serialize(EntityT entity, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        JavaType javaType = serializers.constructType(clazz);
-        BeanDescription beanDesc = serializers.getConfig().introspect(javaType);
-        JsonSerializer<Object> serializer = BeanSerializerFactory.instance.findBeanOrAddOnSerializer(serializers,
-                javaType,
-                beanDesc,
-                serializers.isEnabled(MapperFeature.USE_STATIC_TYPING));
         gen.writeStartObject();
-        serializer.unwrappingSerializer(null).serialize(entity, gen, serializers);
+        getUnwrappingSerializer(serializers).serialize(entity, gen, serializers);
         serializedAdded(entity, gen, serializers);
         gen.writeEndObject();
     }
 
+    /**
+     * Method to get unwrapping bean serializer of the entity. The serializer is looked up only for the first serialization and it is reused after that,
+     * because introspection of the entity class is expensive. It means an instance of this class should not be shared between differently configured mappers.
+     *
+     * @param serializers {@link SerializerProvider}. Must not be {@literal null}
+     * @return unwrapping {@link JsonSerializer} of the entity
+     * @throws IOException if the serializer can not be created
+     */
+    private JsonSerializer<Object> getUnwrappingSerializer(SerializerProvider serializers) throws IOException {
+        JsonSerializer<Object> serializer = unwrappingSerializer;
+        if (serializer == null) {
+            JavaType javaType = serializers.constructType(clazz);
+            BeanDescription beanDesc = serializers.getConfig().introspect(javaType);
+            serializer = BeanSerializerFactory.instance.findBeanOrAddOnSerializer(serializers,
+                    javaType,
+                    beanDesc,
+                    serializers.isEnabled(MapperFeature.USE_STATIC_TYPING)).unwrappingSerializer(null);
+            unwrappingSerializer = serializer;
+        }
+        return serializer;
+    }
+
     /**
      * Abstract method to add all extending data to the serialized data of an entity.
      * @param entity which is serialized. Must not be {@literal null}
@@ -0,0 +1,306 @@
+package com.groocraft.couchdb.slacker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.structure.ViewPage;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncCouchDbClientTest {
+
+    @Mock
+    private CloseableHttpAsyncClient httpAsyncClient;
+
+    @Mock
+    private HttpClient httpClient;
+
+    @Mock
+    private HttpHost httpHost;
+
+    @Mock
+    private HttpContext httpContext;
+
+    private AsyncCouchDbClient client;
+    private List<HttpUriRequest> requests;
+    private List<BasicFuture<HttpResponse>> executions;
+
+    @BeforeEach
+    void setUp() throws URISyntaxException {
+        URI baseURI = new URI("http://localhost:5984/");
+        CouchDbClient blockingClient = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(),
+                8, 3, false, 10000, QueryStrategy.MANGO, new ObjectMapper());
+        client = new AsyncCouchDbClient(blockingClient, httpAsyncClient, httpHost, HttpClientContext::create, baseURI);
+        requests = new LinkedList<>();
+        executions = new LinkedList<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respond(Object... bodiesOrExceptions) {
+        List<Object> answers = new LinkedList<>(Arrays.asList(bodiesOrExceptions));
+        doAnswer(invocation -> {
+            requests.add(invocation.getArgument(1));
+            FutureCallback<HttpResponse> callback = invocation.getArgument(3);
+            BasicFuture<HttpResponse> execution = new BasicFuture<>(callback);
+            executions.add(execution);
+            Object answer = answers.isEmpty() ? null : answers.remove(0);
+            if (answer instanceof Exception) {
+                execution.failed((Exception) answer);
+            } else if (answer != null) {
+                BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+                response.setEntity(new StringEntity((String) answer, ContentType.APPLICATION_JSON));
+                execution.completed(response);
+            }
+            return execution;
+        }).when(httpAsyncClient).execute(eq(httpHost), any(HttpUriRequest.class), any(HttpContext.class), any(FutureCallback.class));
+    }
+
+    private AsyncCouchDbClient chunkingClient() {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setBulkMaxSize(2);
+        properties.setBulkParallelism(1);
+        URI baseURI = URI.create("http://localhost:5984/");
+        CouchDbClient blockingClient = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        return new AsyncCouchDbClient(blockingClient, httpAsyncClient, httpHost, HttpClientContext::create, baseURI);
+    }
+
+    @Test
+    void testSaveNew() throws Exception {
+        respond("{\"id\":\"unique\",\"rev\":\"revision\",\"ok\":\"true\"}");
+
+        TestDocument saved = client.save(new TestDocument("test")).get();
+
+        assertEquals(1, requests.size(), "Save has to be done by exactly one request");
+        HttpPut put = (HttpPut) requests.get(0);
+        assertTrue(put.getURI().toString().startsWith("http://localhost:5984/test"), "URI must be based on base URI and database name");
+        assertEquals("{\"value\":\"test\",\"value2\":null,\"value3\":null,\"value4\":null,\"value5\":false}",
+                IOUtils.toString(put.getEntity().getContent(), StandardCharsets.UTF_8), "Body of save request is not properly created");
+        assertEquals("unique", saved.getId(), "Saved document must be updated by new id, if generated");
+        assertEquals("revision", saved.getRevision(), "Saved document must be updated by given revision");
+    }
+
+    @Test
+    void testSaveAllChunked() throws Exception {
+        AsyncCouchDbClient chunking = chunkingClient();
+        respond("[{\"id\":\"a\",\"ok\":true,\"rev\":\"1-a\"},{\"id\":\"a\",\"error\":\"conflict\",\"reason\":\"Document update conflict.\"}]",
+                "[{\"id\":\"b\",\"ok\":true,\"rev\":\"2-b\"}]");
+
+        List<TestDocument> documents = Arrays.asList(new TestDocument("a", null, "a"), new TestDocument("a", null, "duplicate"),
+                new TestDocument("b", "1-b", "b"));
+        chunking.saveAll(documents, TestDocument.class).get();
+
+        assertEquals(2, requests.size(), "Documents must be split by bulk max size");
+        assertEquals("{\"docs\":[{\"_id\":\"b\",\"_rev\":\"1-b\",\"value\":\"b\",\"value2\":null,\"value3\":null,\"value4\":null,\"value5\":false}]}",
+                IOUtils.toString(((HttpPost) requests.get(1)).getEntity().getContent(), StandardCharsets.UTF_8), "Second chunk must contain the rest");
+        assertEquals("1-a", documents.get(0).getRevision(), "Results must be matched by position");
+        assertNull(documents.get(1).getRevision(), "Failed save of duplicate id must not change the entity");
+        assertEquals("2-b", documents.get(2).getRevision(), "Results must be matched by position");
+    }
+
+    @Test
+    void testDeleteAllMissingResult() {
+        AsyncCouchDbClient chunking = chunkingClient();
+        respond("[{\"id\":\"a\",\"ok\":true,\"rev\":\"2-a\"}]");
+
+        List<TestDocument> documents = Arrays.asList(new TestDocument("a", "1-a", "a"), new TestDocument("b", "1-b", "b"));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> chunking.deleteAll(documents, TestDocument.class).get(),
+                "Missing result must fail the delete");
+
+        assertTrue(exception.getCause() instanceof IOException, "Missing result must be reported as IOException");
+        assertEquals(1, requests.size(), "No more chunks must be sent after failure");
+    }
+
+    @Test
+    void testRead() throws Exception {
+        respond("{\"_id\":\"a\",\"_rev\":\"1\",\"value\":\"test\"}");
+
+        TestDocument read = client.read("a", TestDocument.class).get();
+
+        HttpGet get = (HttpGet) requests.get(0);
+        assertEquals("http://localhost:5984/test/a", get.getURI().toString(), "URI must be based on base URI, database name and id");
+        assertEquals("a", read.getId(), "Id of read document must be taken from response");
+        assertEquals("test", read.getValue(), "Data of read document must be taken from response");
+    }
+
+    @Test
+    void testReadAllByIds() throws Exception {
+        respond("{\"results\":[{\"id\":\"a\",\"docs\":[{\"ok\":{\"_id\":\"a\",\"_rev\":\"1\",\"value\":\"a\"}}]}]}");
+
+        List<TestDocument> read = client.readAll(Collections.singletonList("a"), TestDocument.class).get();
+
+        HttpPost post = (HttpPost) requests.get(0);
+        assertEquals("http://localhost:5984/test/_bulk_get", post.getURI().toString(), "Bulk read must be done thru _bulk_get endpoint");
+        assertEquals("{\"docs\":[{\"id\":\"a\"}]}", IOUtils.toString(post.getEntity().getContent(), StandardCharsets.UTF_8),
+                "Body of read all by ids request is not properly created");
+        assertEquals(1, read.size(), "All returned documents must be read");
+        assertEquals("a", read.get(0).getValue(), "Data of read document must be taken from response");
+    }
+
+    @Test
+    void testCountAll() throws Exception {
+        String designDocs = "{\"total_rows\":3,\"offset\":0,\"rows\":[{\"id\":\"_design/all\"}]}";
+        respond("{\"db_name\":\"test\",\"doc_count\":3,\"update_seq\":\"1-a\"}", designDocs, "{\"db_name\":\"test\",\"doc_count\":3,\"update_seq\":\"1-a\"}",
+                "{\"db_name\":\"test\",\"doc_count\":6,\"update_seq\":\"2-b\"}", designDocs);
+
+        assertEquals(2L, client.countAll(TestDocument.class).get(), "Count must be doc_count without design documents");
+        assertEquals("http://localhost:5984/test/_design_docs", requests.get(1).getURI().toString(), "Design documents must be subtracted");
+        assertEquals(2L, client.countAll(TestDocument.class).get(), "Count must be doc_count without remembered design documents");
+        assertEquals(3, requests.size(), "Number of design documents must be remembered while update_seq does not move");
+        assertEquals(5L, client.countAll(TestDocument.class).get(), "Count must be doc_count without design documents");
+        assertEquals(5, requests.size(), "Number of design documents must be read again when update_seq moved");
+    }
+
+    @Test
+    void testReadPage() throws Exception {
+        respond("{\"total_rows\":3,\"offset\":0,\"rows\":[{\"id\":\"a\",\"key\":null},{\"id\":\"b\",\"key\":null}]}",
+                "{\"total_rows\":3,\"offset\":2,\"rows\":[{\"id\":\"c\",\"key\":null}]}");
+
+        ViewPage first = client.readPage(TestDocument.class, null, 2, Sort.unsorted()).get();
+        ViewPage second = client.readPage(TestDocument.class, first, 2, Sort.unsorted()).get();
+
+        assertEquals(Arrays.asList("a", "b"), first.getIds(), "Ids must be read from view");
+        assertEquals("b", first.getLastId(), "Position of the last row must be remembered");
+        assertEquals("http://localhost:5984/test/_design/all/_view/data?limit=2&reduce=false", requests.get(0).getURI().toString(),
+                "First page must be read from the start of the view");
+        assertEquals("http://localhost:5984/test/_design/all/_view/data?skip=1&limit=2&reduce=false&startkey=null&startkey_docid=b",
+                requests.get(1).getURI().toString(), "Next page must continue after the last row instead of skipping read rows");
+        assertEquals(Collections.singletonList("c"), second.getIds(), "Ids must be read from view");
+    }
+
+    @Test
+    void testSortedViewConflict() throws Exception {
+        respond("{\"_id\":\"_design/all\",\"_rev\":\"1-a\",\"views\":{}}",
+                new CouchDbException(HttpStatus.SC_CONFLICT, "PUT", "/test/_design/all", "conflict : Document update conflict."),
+                "{\"_id\":\"_design/all\",\"_rev\":\"2-b\",\"views\":{\"sorted-by-value\":{\"map\":\"m\"}}}",
+                "{\"total_rows\":1,\"offset\":0,\"rows\":[{\"id\":\"1\"}]}");
+
+        List<String> ids = client.readAll(TestDocument.class, null, null, Sort.by(Sort.Order.asc("value"))).get();
+
+        assertEquals(4, requests.size(), "Design must be read again after conflict");
+        assertTrue(requests.get(2) instanceof HttpGet, "Conflicting design must be refreshed");
+        assertTrue(requests.get(3).getURI().getPath().endsWith("/_view/sorted-by-value"), "View created concurrently must be used");
+        assertEquals(Collections.singletonList("1"), ids, "Ids must be read from view");
+    }
+
+    @Test
+    void testFailure() {
+        CouchDbException thrown = new CouchDbException(HttpStatus.SC_NOT_FOUND, "GET", "/test/a", "not_found : missing");
+        respond(thrown);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> client.read("a", TestDocument.class).get(),
+                "Failure of request must be reported thru the returned future");
+        assertEquals(thrown, exception.getCause(), "Asynchronous client should not alternate original exception");
+    }
+
+    @Test
+    void testRetry() throws Exception {
+        respond(new CouchDbException(HttpStatus.SC_SERVICE_UNAVAILABLE, "GET", "/test/a", "unavailable"), "{\"_id\":\"a\",\"_rev\":\"1\",\"value\":\"test\"}");
+
+        TestDocument read = client.read("a", TestDocument.class).get();
+
+        assertEquals(2, requests.size(), "Read must be retried once");
+        assertEquals("test", read.getValue(), "Document must be read by retry");
+    }
+
+    @Test
+    void testSerializationFailure() {
+        CompletableFuture<Object> future = client.save(new Object());
+
+        assertTrue(future.isCompletedExceptionally(), "Failure before request is sent must be reported thru the returned future");
+    }
+
+    @Test
+    void testCancel() {
+        respond((Object) null);
+
+        CompletableFuture<TestDocument> future = client.read("a", TestDocument.class);
+        assertFalse(future.isDone(), "Future must not be completed before response is received");
+        future.cancel(true);
+
+        assertTrue(executions.get(0).isCancelled(), "Cancellation of the future must cancel the HTTP request");
+    }
+
+    @Test
+    void testProcessingOutOfDispatcher() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            FutureCallback<HttpResponse> callback = invocation.getArgument(3);
+            BasicFuture<HttpResponse> execution = new BasicFuture<>(callback);
+            BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+            response.setEntity(new StringEntity("{\"_id\":\"a\",\"_rev\":\"1\",\"value\":\"test\"}", ContentType.APPLICATION_JSON));
+            Thread dispatcher = new Thread(() -> {
+                try {
+                    received.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                execution.completed(response);
+            }, "I/O dispatcher");
+            dispatcher.start();
+            return execution;
+        }).when(httpAsyncClient).execute(eq(httpHost), any(HttpUriRequest.class), any(HttpContext.class), any(FutureCallback.class));
+
+        CompletableFuture<String> thread = client.read("a", TestDocument.class).thenApply(d -> Thread.currentThread().getName());
+        received.countDown();
+
+        assertTrue(thread.get().startsWith("couchdb-async-"), "Future must be completed by executor of the client, not by I/O dispatch thread");
+    }
+
+    @Test
+    void testClose() throws IOException {
+        client.close();
+
+        verify(httpAsyncClient).close();
+        respond("{\"_id\":\"a\",\"_rev\":\"1\",\"value\":\"test\"}");
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> client.read("a", TestDocument.class).get(),
+                "Response must not be processed by closed client");
+        assertTrue(exception.getCause() instanceof RejectedExecutionException, "Shut down executor must be reported");
+    }
+
+}
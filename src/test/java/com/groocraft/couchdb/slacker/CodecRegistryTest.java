@@ -0,0 +1,52 @@
+package com.groocraft.couchdb.slacker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.structure.BulkGetResponse;
+import com.groocraft.couchdb.slacker.structure.BulkRequest;
+import com.groocraft.couchdb.slacker.structure.DocumentFindResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CodecRegistryTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final CodecRegistry registry = new CodecRegistry(mapper, EntityMetadata::new);
+
+    @Test
+    void testCaching() {
+        assertSame(registry.getSavingWriter(ViewedDocument.class), registry.getSavingWriter(ViewedDocument.class), "Saving writer must be built only once");
+        assertSame(registry.getDeletingWriter(TestDocument.class), registry.getDeletingWriter(TestDocument.class), "Deleting writer must be built only once");
+        assertSame(registry.getBulkGetReader(TestDocument.class), registry.getBulkGetReader(TestDocument.class), "Bulk get reader must be built only once");
+        assertSame(registry.getFindReader(TestDocument.class), registry.getFindReader(TestDocument.class), "Find reader must be built only once");
+    }
+
+    @Test
+    void testSavingWriter() throws IOException {
+        ViewedDocument document = new ViewedDocument("value");
+        document.setId("a");
+        for (int i = 0; i < 2; i++) {
+            assertEquals("{\"field\":\"value\",\"_id\":\"a\",\"type\":\"entity\"}", registry.getSavingWriter(ViewedDocument.class).writeValueAsString(document),
+                    "Type field must be added to viewed entity, also when the writer is reused");
+        }
+        assertEquals("{\"docs\":[{\"field\":\"value\",\"_id\":\"a\",\"type\":\"entity\"}]}",
+                registry.getSavingWriter(ViewedDocument.class).writeValueAsString(new BulkRequest<>(Collections.singletonList(document))),
+                "Saving writer must be able to write bulk request");
+        assertEquals(mapper.writeValueAsString(new TestDocument("value")), registry.getSavingWriter(TestDocument.class).writeValueAsString(new TestDocument(
+                "value")), "Non-viewed entity must be written by the given mapper");
+    }
+
+    @Test
+    void testReaders() throws IOException {
+        BulkGetResponse<TestDocument> bulkGet = registry.getBulkGetReader(TestDocument.class).readValue("{\"results\":[{\"id\":\"a\",\"docs\":[{\"ok\":" +
+                "{\"_id\":\"a\",\"value\":\"b\"}}]}]}");
+        assertEquals("b", bulkGet.getDocs().get(0).getValue(), "Bulk get reader must read documents of the given class");
+        DocumentFindResponse<TestDocument> find = registry.getFindReader(TestDocument.class).readValue("{\"docs\":[{\"_id\":\"a\",\"value\":\"c\"}]}");
+        assertEquals("c", find.getDocuments().get(0).getValue(), "Find reader must read documents of the given class");
+    }
+
+}
@@ -1,24 +1,37 @@
 package com.groocraft.couchdb.slacker;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.cache.CacheStatistics;
+import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
 import com.groocraft.couchdb.slacker.repository.CouchDbEntityInformation;
+import com.groocraft.couchdb.slacker.resilience.CircuitBreaker;
+import com.groocraft.couchdb.slacker.structure.BulkReadResult;
 import com.groocraft.couchdb.slacker.structure.DocumentFindRequest;
 import com.groocraft.couchdb.slacker.structure.FindResult;
+import com.groocraft.couchdb.slacker.transport.RequestBody;
 import com.groocraft.couchdb.slacker.utils.FindContext;
 import com.groocraft.couchdb.slacker.utils.ThrowingConsumer;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.protocol.HttpContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,17 +51,35 @@ import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.only;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -153,7 +184,12 @@ class CouchDbClientTest {
         HttpEntity entity = mock(HttpEntity.class);
         when(entity.getContent()).thenReturn(content);
         when(response.getEntity()).thenReturn(entity);
-        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext))).thenReturn(response).thenThrow(thrown);
+        List<InputStream> sent = new LinkedList<>();
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext))).thenAnswer(invocation -> {
+            //bulk body is streamed, so it must be captured when sent, before the saved entities are updated
+            sent.add(((HttpPost) invocation.getArgument(1)).getEntity().getContent());
+            return response;
+        }).thenThrow(thrown);
 
         TestDocument a = new TestDocument("a", null, "a", "a");
         TestDocument b = new TestDocument("b", null, "b", "b");
@@ -165,7 +201,7 @@ class CouchDbClientTest {
         assertEquals("http://localhost:5984/test/_bulk_docs", post.getURI().toString(), "URI must be based on base URI and database name");
         assertEquals("application/json", post.getEntity().getContentType().getValue(), "Content type must be set to json");
         assertContent("{\"docs\":[{\"_id\":\"a\",\"value\":\"a\",\"value2\":\"a\",\"value3\":null,\"value4\":null,\"value5\":false},{\"_id\":\"b\"," +
-                "\"value\":\"b\",\"value2\":\"b\",\"value3\":null,\"value4\":null,\"value5\":false}]}", post.getEntity().getContent(), "Body of save " +
+                "\"value\":\"b\",\"value2\":\"b\",\"value3\":null,\"value4\":null,\"value5\":false}]}", sent.get(0), "Body of save " +
                 "all request is not properly created");
         assertEquals(2, StreamSupport.stream(saved.spliterator(), false).count(), "Two entities were passed to save");
         assertEquals("aaa", a.getId() + a.getValue() + a.getValue2(), "Id must be updated, value must stay");
@@ -213,6 +249,610 @@ class CouchDbClientTest {
         assertTrue(get.isAborted(), "Request must be aborted when exception thrown");
     }
 
+    @Test
+    void testReadCache() throws IOException {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setReadCache(true);
+        CouchDbClient caching = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        String json = "{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"test\"}";
+        BasicHttpResponse ok = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        ok.setHeader(HttpHeaders.ETAG, "\"1-a\"");
+        ok.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+        BasicHttpResponse notModified = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_MODIFIED, "Not Modified");
+        BasicHttpResponse saved = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_CREATED, "Created");
+        saved.setEntity(new StringEntity("{\"id\":\"a\",\"rev\":\"2-b\",\"ok\":\"true\"}", ContentType.APPLICATION_JSON));
+        BasicHttpResponse reread = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        reread.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext))).thenReturn(ok, notModified, saved, reread);
+
+        TestDocument first = caching.read("a", TestDocument.class);
+        TestDocument second = caching.read("a", TestDocument.class);
+
+        List<HttpRequest> requests = requestCaptor.getAllValues();
+        assertNull(requests.get(0).getFirstHeader(HttpHeaders.IF_NONE_MATCH), "First read must not be conditional");
+        assertEquals("\"1-a\"", requests.get(1).getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue(), "Cached document must be revalidated by its ETag");
+        assertEquals("test", second.getValue(), "Not modified document must be served from cache");
+        assertFalse(first == second, "Every read must get its own instance of entity");
+        CacheStatistics statistics = caching.getReadCacheStatistics().orElseThrow(AssertionFailedError::new);
+        assertEquals(1, statistics.getHitCount(), "Not modified response must be counted as hit");
+        assertEquals(1, statistics.getMissCount(), "Transferred document must be counted as miss");
+        assertEquals(1, statistics.getRevalidationCount(), "Not modified response must be counted as revalidation");
+
+        caching.save(second);
+        caching.read("a", TestDocument.class);
+
+        assertNull(requestCaptor.getValue().getFirstHeader(HttpHeaders.IF_NONE_MATCH), "Saved document must be removed from cache");
+        assertEquals(0, caching.getReadCacheStatistics().get().getSize(), "Document without ETag must not be cached");
+        assertFalse(client.getReadCacheStatistics().isPresent(), "Read cache must not be used when it is not configured");
+    }
+
+    @Test
+    void testNearCache() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        CouchDbClient caching = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        List<String> changes = new CopyOnWriteArrayList<>();
+        List<String> reads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(1);
+            String uri = request.getRequestLine().getUri();
+            if (uri.contains("_changes")) {
+                changes.add(uri);
+                Thread.sleep(20);
+                return json(HttpStatus.SC_OK, "{\"results\":[],\"last_seq\":\"1\"}");
+            }
+            reads.add(uri);
+            HttpResponse response = json(HttpStatus.SC_OK, "{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"test\"}");
+            response.setHeader(HttpHeaders.ETAG, "\"1-a\"");
+            return response;
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            caching.read("a", NearCachedDocument.class);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (changes.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(changes.get(0).contains("feed=longpoll") && changes.get(0).contains("since=now"), "Changes feed must be followed from now");
+            caching.read("a", NearCachedDocument.class);
+            NearCachedDocument read = caching.read("a", NearCachedDocument.class);
+
+            assertEquals(2, reads.size(), "Document must be served from near cache once the feed is followed");
+            assertEquals("test", read.getValue(), "Document must be parsed from cached content");
+            assertEquals(1, caching.getNearCacheStatistics().getHitCount(), "Read from near cache must be counted as hit");
+            caching.read("a", TestDocument.class);
+            assertEquals(3, reads.size(), "Not near cached entity must not be served from near cache");
+        } finally {
+            caching.close();
+        }
+    }
+
+    @Test
+    void testExists() throws Exception {
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext))).thenReturn(json(HttpStatus.SC_OK, ""))
+                .thenThrow(new CouchDbException(HttpStatus.SC_NOT_FOUND, "HEAD", "/test/b", "not_found : missing"));
+
+        assertTrue(client.exists("a", TestDocument.class), "Existing document must be reported");
+        assertFalse(client.exists("b", TestDocument.class), "Not found document must be reported as not existing");
+
+        assertEquals(HttpHead.class, requestCaptor.getAllValues().get(0).getClass(), "Existence must be tested by HEAD request");
+        assertEquals("http://localhost:5984/test/a", ((HttpHead) requestCaptor.getAllValues().get(0)).getURI().toString(),
+                "URI must be based on base URI, database name and id");
+    }
+
+    @Test
+    void testExistenceIndex() throws Exception {
+        CouchDbClient indexing = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(),
+                new CouchDbProperties());
+        List<String> allDocs = new CopyOnWriteArrayList<>();
+        List<String> reads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(1);
+            String uri = request.getRequestLine().getUri();
+            if (uri.contains("_changes")) {
+                Thread.sleep(20);
+                return json(HttpStatus.SC_OK, "{\"results\":[],\"last_seq\":\"1\"}");
+            }
+            if (uri.contains("_all_docs")) {
+                allDocs.add(uri);
+                return json(HttpStatus.SC_OK, "{\"total_rows\":1,\"offset\":0,\"rows\":[{\"id\":\"a\",\"key\":\"a\",\"value\":{\"rev\":\"1-a\"}}]}");
+            }
+            reads.add(request.getRequestLine().getMethod() + " " + uri);
+            return json(HttpStatus.SC_OK, "{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"test\"}");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (indexing.exists("x", IndexedDocument.class) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertFalse(indexing.exists("x", IndexedDocument.class), "Missing document must be reported by built index");
+            assertTrue(allDocs.get(0).contains("limit="), "Ids must be read from _all_docs by pages");
+            int requests = reads.size();
+
+            assertThrows(CouchDbException.class, () -> indexing.read("x", IndexedDocument.class), "Missing document must not be found");
+            assertEquals(requests, reads.size(), "Missing document must be reported without any request");
+            assertTrue(indexing.exists("a", IndexedDocument.class), "Indexed document must be checked by CouchDB");
+            assertEquals("test", indexing.read("a", IndexedDocument.class).getValue(), "Indexed document must be read from CouchDB");
+            assertEquals(Arrays.asList("HEAD http://localhost:5984/indexed/a", "GET http://localhost:5984/indexed/a"), reads.subList(requests, reads.size()),
+                    "Possibly existing documents must be requested");
+        } finally {
+            indexing.close();
+        }
+    }
+
+    @Test
+    void testReadCoalescing() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setReadCoalescing(true);
+        CouchDbClient coalescing = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> requests = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            requests.add(((HttpRequest) invocation.getArgument(1)).getRequestLine().getUri());
+            release.await(5, TimeUnit.SECONDS);
+            return json(HttpStatus.SC_OK, "{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"test\"}");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<TestDocument> first = executor.submit(() -> coalescing.read("a", TestDocument.class));
+            Future<TestDocument> second = executor.submit(() -> coalescing.read("a", TestDocument.class));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (coalescing.getCoalescingStatistics().get().getCoalescedCount() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals("test", first.get().getValue(), "Document must be read");
+            assertEquals("test", second.get().getValue(), "Document must be read by coalesced call");
+            assertNotSame(first.get(), second.get(), "Every call must get its own instance");
+            assertEquals(1, requests.size(), "Identical concurrent reads must be sent as one request");
+            assertEquals(1, coalescing.getCoalescingStatistics().get().getCoalescedCount(), "Coalesced call must be counted");
+            assertFalse(client.getCoalescingStatistics().isPresent(), "Coalescing must be off by default");
+        } finally {
+            executor.shutdownNow();
+            coalescing.close();
+        }
+    }
+
+    @Test
+    void testReadCoalescingAfterWrite() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setReadCoalescing(true);
+        CouchDbClient coalescing = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        doAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(1);
+            if (request instanceof HttpPut) {
+                return json(HttpStatus.SC_CREATED, "{\"id\":\"a\",\"rev\":\"2-a\",\"ok\":true}");
+            }
+            if (reads.incrementAndGet() == 1) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return json(HttpStatus.SC_OK, "{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"old\"}");
+            }
+            return json(HttpStatus.SC_OK, "{\"_id\":\"a\",\"_rev\":\"2-a\",\"value\":\"new\"}");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<TestDocument> before = executor.submit(() -> coalescing.read("a", TestDocument.class));
+            started.await(5, TimeUnit.SECONDS);
+            coalescing.save(new TestDocument("a", "1-a", "new"));
+            TestDocument after = coalescing.read("a", TestDocument.class);
+            release.countDown();
+
+            assertEquals("2-a", after.getRevision(), "Read after write must not join the read in flight before the write");
+            assertEquals("1-a", before.get().getRevision(), "Read in flight must get its own result");
+            assertEquals(2, reads.get(), "Read after write must send a new request");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            coalescing.close();
+        }
+    }
+
+    @Test
+    void testReadBatched() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setReadBatchWindow(50);
+        CouchDbClient batching = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            HttpEntityEnclosingRequest request = invocation.getArgument(1);
+            bodies.add(IOUtils.toString(request.getEntity().getContent(), StandardCharsets.UTF_8));
+            return json(HttpStatus.SC_OK, "{\"results\":[" +
+                    "{\"id\":\"a\",\"docs\":[{\"ok\":{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"first\"}}]}," +
+                    "{\"id\":\"b\",\"docs\":[{\"ok\":{\"_id\":\"b\",\"_rev\":\"1-b\",\"value\":\"second\"}}]}," +
+                    "{\"id\":\"c\",\"docs\":[{\"error\":{\"id\":\"c\",\"error\":\"not_found\",\"reason\":\"missing\"}}]}]}");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            CompletableFuture<BatchedDocument> a = batching.readBatched("a", BatchedDocument.class);
+            CompletableFuture<BatchedDocument> again = batching.readBatched("a", BatchedDocument.class);
+            CompletableFuture<BatchedDocument> c = batching.readBatched("c", BatchedDocument.class);
+            BatchedDocument b = batching.read("b", BatchedDocument.class);
+
+            assertEquals("second", b.getValue(), "Blocking read must get its own document from the batch");
+            assertEquals("first", a.get().getValue(), "Every call must get its own document");
+            assertNotSame(a.get(), again.get(), "Every call must get its own instance of entity");
+            ExecutionException notFound = assertThrows(ExecutionException.class, c::get, "Missing document must fail the read");
+            assertEquals(HttpStatus.SC_NOT_FOUND, ((CouchDbException) notFound.getCause()).getStatusCode(), "Missing document must be reported as not found");
+            assertEquals(Collections.singletonList("{\"docs\":[{\"id\":\"a\"},{\"id\":\"c\"},{\"id\":\"b\"}]}"), bodies,
+                    "Reads within the window must be sent as one _bulk_get request with every id once");
+        } finally {
+            batching.close();
+        }
+    }
+
+    @Test
+    void testSaveAllParallel() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setBulkMaxSize(2);
+        properties.setBulkParallelism(2);
+        CouchDbClient chunking = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        ObjectMapper mapper = new ObjectMapper();
+        CountDownLatch inFlight = new CountDownLatch(2);
+        List<Boolean> concurrent = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            HttpEntityEnclosingRequest request = invocation.getArgument(1);
+            String body = IOUtils.toString(request.getEntity().getContent(), StandardCharsets.UTF_8);
+            inFlight.countDown();
+            concurrent.add(inFlight.await(2, TimeUnit.SECONDS));
+            StringBuilder results = new StringBuilder("[");
+            for (JsonNode doc : mapper.readTree(body).get("docs")) {
+                String id = doc.get("_id").asText();
+                results.append(results.length() > 1 ? "," : "").append("{\"id\":\"").append(id).append("\",\"ok\":true,\"rev\":\"1-").append(id).append("\"}");
+            }
+            return json(HttpStatus.SC_CREATED, results.append("]").toString());
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            List<TestDocument> documents = Arrays.asList(new TestDocument("a", null, "a"), new TestDocument("b", null, "b"), new TestDocument("c", null, "c"),
+                    new TestDocument("d", null, "d"));
+            chunking.saveAll(documents, TestDocument.class);
+
+            assertEquals(Arrays.asList(true, true), concurrent, "Two chunks must be in flight at the same time");
+            assertEquals("1-a1-b1-c1-d", documents.stream().map(TestDocument::getRevision).collect(Collectors.joining()),
+                    "Results of parallel chunks must be mapped to documents by position");
+        } finally {
+            chunking.close();
+        }
+    }
+
+    @Test
+    void testSaveAllChunked() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setBulkMaxSize(2);
+        properties.setBulkParallelism(2);
+        CouchDbClient chunking = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            HttpEntityEnclosingRequest request = invocation.getArgument(1);
+            String body = IOUtils.toString(request.getEntity().getContent(), StandardCharsets.UTF_8);
+            bodies.add(body);
+            StringBuilder results = new StringBuilder("[");
+            for (JsonNode doc : mapper.readTree(body).get("docs")) {
+                String id = doc.get("_id").asText();
+                results.append(results.length() > 1 ? "," : "").append("c".equals(id) ? "{\"id\":\"c\",\"error\":\"conflict\"}" :
+                        "{\"id\":\"" + id + "\",\"ok\":true,\"rev\":\"1-" + id + "\"}");
+            }
+            return json(HttpStatus.SC_CREATED, results.append("]").toString());
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            List<TestDocument> documents = Arrays.asList(new TestDocument("a", null, "a"), new TestDocument("b", null, "b"), new TestDocument("c", null, "c"),
+                    new TestDocument("d", null, "d"), new TestDocument("e", null, "e"));
+            chunking.saveAll(documents, TestDocument.class);
+
+            assertEquals(3, bodies.size(), "Five documents must be split into three requests by bulk max size");
+            assertEquals(5, bodies.stream().mapToInt(b -> b.split("\"_id\"").length - 1).sum(), "Every document must be sent once");
+            assertEquals("1-a1-bnull1-d1-e", documents.stream().map(TestDocument::getRevision).collect(Collectors.joining()),
+                    "Results must be mapped to documents by position");
+
+            bodies.clear();
+            properties.setBulkMaxSize(10);
+            properties.setBulkMaxBytes(60);
+            CouchDbClient limited = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+            List<TestDocument> deleted = limited.deleteAll(documents.subList(1, 4), TestDocument.class);
+            limited.close();
+
+            assertTrue(bodies.size() > 1, "Documents which do not fit into bulk max bytes must be split into more requests");
+            assertTrue(bodies.stream().allMatch(b -> b.length() <= 60 || b.split("\"_id\"").length == 2),
+                    "Request must not be bigger than bulk max bytes, except of a single bigger document");
+            assertEquals(Arrays.asList(documents.get(1), documents.get(3)), deleted, "Only successfully deleted documents must be returned");
+        } finally {
+            chunking.close();
+        }
+    }
+
+    private HttpResponse bulkGet(ObjectMapper mapper, String body, String missing) throws IOException {
+        StringBuilder results = new StringBuilder("{\"results\":[");
+        for (JsonNode doc : mapper.readTree(body).get("docs")) {
+            String id = doc.get("id").asText();
+            results.append(results.length() > 12 ? "," : "").append("{\"id\":\"").append(id).append("\",\"docs\":[").append(missing.equals(id) ?
+                    "{\"error\":{\"id\":\"" + id + "\",\"error\":\"not_found\"}}" :
+                    "{\"ok\":{\"_id\":\"" + id + "\",\"_rev\":\"1\",\"value\":\"" + id + "\"}}").append("]}");
+        }
+        return json(HttpStatus.SC_OK, results.append("]}").toString());
+    }
+
+    @Test
+    void testReadAllNearCachedChunked() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setBulkGetChunkSize(2);
+        CouchDbClient chunking = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(1);
+            if (request.getRequestLine().getUri().contains("_changes")) {
+                Thread.sleep(20);
+                return json(HttpStatus.SC_OK, "{\"results\":[],\"last_seq\":\"1\"}");
+            }
+            assertTrue(request.getRequestLine().getUri().endsWith("/cached/_bulk_get"), "Documents must be read by _bulk_get");
+            String body = IOUtils.toString(((HttpEntityEnclosingRequest) request).getEntity().getContent(), StandardCharsets.UTF_8);
+            bodies.add(body);
+            return bulkGet(mapper, body, "b");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            BulkReadResult<NearCachedDocument> read = chunking.bulkRead(Arrays.asList("a", "b", "c"), NearCachedDocument.class);
+
+            assertEquals(2, bodies.size(), "Ids not served by near cache must be split by bulk get chunk size");
+            assertEquals("ac", read.getEntities().stream().map(NearCachedDocument::getValue).collect(Collectors.joining()),
+                    "Documents must be returned in order of ids");
+            assertEquals(Collections.singletonList("b"), read.getMissingIds(), "Not found ids must be reported");
+        } finally {
+            chunking.close();
+        }
+    }
+
+    @Test
+    void testReadAllChunked() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setBulkGetChunkSize(2);
+        properties.setBulkParallelism(3);
+        CouchDbClient chunking = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            HttpEntityEnclosingRequest request = invocation.getArgument(1);
+            assertEquals("/test/_bulk_get", new URI(request.getRequestLine().getUri()).getPath(), "Documents must be read by _bulk_get");
+            String body = IOUtils.toString(request.getEntity().getContent(), StandardCharsets.UTF_8);
+            bodies.add(body);
+            if (body.contains("\"a\"")) {
+                //the first chunk is answered as the last one
+                Thread.sleep(200);
+            }
+            return bulkGet(mapper, body, "c");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            BulkReadResult<TestDocument> read = chunking.bulkRead(Arrays.asList("a", "b", "c", "d", "e"), TestDocument.class);
+
+            assertEquals(3, bodies.size(), "Five ids must be split into three requests by bulk get chunk size");
+            assertTrue(bodies.contains("{\"docs\":[{\"id\":\"c\"},{\"id\":\"d\"}]}"), "Chunk must contain consecutive ids");
+            assertEquals("abde", read.getEntities().stream().map(TestDocument::getId).collect(Collectors.joining()),
+                    "Documents must be merged in order of ids, not found ids must be skipped");
+            assertEquals(Collections.singletonList("c"), read.getMissingIds(), "Not found ids must be reported");
+            assertTrue(chunking.readAll(Collections.emptyList(), TestDocument.class).isEmpty(), "No documents must be read for no ids");
+            assertEquals(3, bodies.size(), "No request must be sent for no ids");
+        } finally {
+            chunking.close();
+        }
+    }
+
+    @Test
+    void testSaveBehind() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setWriteBehind(true);
+        properties.setWriteBehindFlushInterval(50);
+        CouchDbClient buffering = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            HttpEntityEnclosingRequest request = invocation.getArgument(1);
+            assertEquals("/test/_bulk_docs", new URI(request.getRequestLine().getUri()).getPath(), "Buffered writes must be sent to _bulk_docs");
+            bodies.add(IOUtils.toString(request.getEntity().getContent(), StandardCharsets.UTF_8));
+            return json(HttpStatus.SC_OK, "[{\"id\":\"a\",\"ok\":true,\"rev\":\"2-a\"}," +
+                    "{\"id\":\"b\",\"error\":\"conflict\",\"reason\":\"Document update conflict.\"}]");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            TestDocument a = new TestDocument("a", null, "old", null);
+            CompletableFuture<String> first = buffering.saveBehind(a);
+            a.setValue("new");
+            CompletableFuture<String> second = buffering.saveBehind(a);
+            CompletableFuture<String> deleted = buffering.deleteBehind(new TestDocument("b", "1-b", "b", null));
+
+            assertEquals("2-a", second.get(), "Future must be completed by the new revision");
+            assertEquals("2-a", first.get(), "Merged save must be completed by the final revision");
+            assertEquals("2-a", a.getRevision(), "Revision of saved entity must be updated");
+            ExecutionException conflict = assertThrows(ExecutionException.class, deleted::get, "Refused write must fail its future");
+            assertEquals(HttpStatus.SC_CONFLICT, ((CouchDbException) conflict.getCause()).getStatusCode(), "Conflict must be reported by its status");
+            assertEquals(Collections.singletonList("{\"docs\":[{\"_id\":\"a\",\"value\":\"new\",\"value2\":null,\"value3\":null,\"value4\":null," +
+                    "\"value5\":false},{\"_id\":\"b\",\"_rev\":\"1-b\",\"value\":\"b\",\"value5\":false,\"_deleted\":true}]}"), bodies,
+                    "Writes must be sent by one _bulk_docs request, the last save of id wins");
+        } finally {
+            buffering.close();
+        }
+    }
+
+    @Test
+    void testSaveBehindDisabled() throws Exception {
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext)))
+                .thenReturn(json(HttpStatus.SC_CREATED, "{\"id\":\"a\",\"rev\":\"1-a\",\"ok\":\"true\"}"),
+                        json(HttpStatus.SC_OK, "{\"id\":\"a\",\"rev\":\"2-a\",\"ok\":\"true\"}"));
+
+        TestDocument document = new TestDocument("a", null, "a", null);
+        assertEquals("1-a", client.saveBehind(document).get(), "Entity must be saved immediately");
+        assertEquals(HttpPut.class, requestCaptor.getValue().getClass(), "Entity must be saved by PUT request without write-behind buffer");
+        assertEquals("2-a", client.deleteBehind(document).get(), "Revision of the deletion must be returned, the same as by write-behind buffer");
+        assertEquals(HttpDelete.class, requestCaptor.getValue().getClass(), "Entity must be deleted by DELETE request without write-behind buffer");
+        assertEquals("1-a", document.getRevision(), "Deleted entity must not be changed");
+    }
+
+    @Test
+    void testQueryCacheUpdateSeq() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setQueryCache(true);
+        CouchDbClient caching = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        List<String> requests = new CopyOnWriteArrayList<>();
+        String[] updateSeq = {"1-a"};
+        doAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(1);
+            String uri = request.getRequestLine().getUri();
+            if (uri.contains("_changes")) {
+                throw new CouchDbException(HttpStatus.SC_BAD_REQUEST, "GET", uri, "feed is not available");
+            }
+            requests.add(uri);
+            if (uri.endsWith("/test")) {
+                return json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"update_seq\":\"" + updateSeq[0] + "\"}");
+            }
+            return json(HttpStatus.SC_OK, "{\"docs\":[{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"test\"}],\"bookmark\":\"b\"}");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            caching.find("{}", TestDocument.class);
+            List<TestDocument> read = caching.find("{}", TestDocument.class).getFirst();
+
+            assertEquals(3, requests.size(), "Cached result must be served after check of update_seq only");
+            assertTrue(requests.get(2).endsWith("/test"), "Cached result must be validated by update_seq of database");
+            assertEquals("test", read.get(0).getValue(), "Entities must be parsed from cached result");
+            assertEquals(1, caching.getQueryCacheStatistics().orElseThrow(AssertionFailedError::new).getHitCount(),
+                    "Result served from cache must be counted as hit");
+
+            caching.find("{\"limit\":1}", TestDocument.class);
+            assertEquals(5, requests.size(), "Different query must not be served from cache");
+
+            updateSeq[0] = "2-b";
+            caching.find("{}", TestDocument.class);
+            assertEquals(7, requests.size(), "Result must be queried again when update_seq moved");
+            assertTrue(requests.get(6).endsWith("/_find"), "Result must be queried again when update_seq moved");
+            assertFalse(client.getQueryCacheStatistics().isPresent(), "Query cache must not be used when it is not configured");
+        } finally {
+            caching.close();
+        }
+    }
+
+    @Test
+    void testQueryCacheChanges() throws Exception {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setQueryCache(true);
+        CouchDbClient caching = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        List<String> changes = new CopyOnWriteArrayList<>();
+        List<String> requests = new CopyOnWriteArrayList<>();
+        String[] feed = {"[]"};
+        doAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(1);
+            String uri = request.getRequestLine().getUri();
+            if (uri.contains("_changes")) {
+                changes.add(uri);
+                Thread.sleep(20);
+                String results = feed[0];
+                feed[0] = "[]";
+                return json(HttpStatus.SC_OK, "{\"results\":" + results + ",\"last_seq\":\"" + changes.size() + "\"}");
+            }
+            requests.add(uri);
+            if (uri.endsWith("/test")) {
+                return json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"update_seq\":\"1-a\"}");
+            }
+            return json(HttpStatus.SC_OK, "{\"total_rows\":1,\"offset\":0,\"rows\":[{\"id\":\"a\",\"key\":\"a\",\"value\":null}]}");
+        }).when(httpClient).execute(eq(httpHost), any(HttpRequest.class), eq(httpContext));
+
+        try {
+            caching.readAll(TestDocument.class);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (changes.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(Collections.singletonList("a"), caching.readAll(TestDocument.class), "Ids must be read from view");
+            assertEquals(Collections.singletonList("a"), caching.readAll(TestDocument.class), "Ids must be served from cache");
+            assertEquals(4, requests.size(), "Result must be served without request while feed of database is followed");
+
+            int polls = changes.size();
+            feed[0] = "[{\"id\":\"a\",\"changes\":[{\"rev\":\"2-b\"}]}]";
+            while (changes.size() < polls + 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            caching.readAll(TestDocument.class);
+            assertEquals(6, requests.size(), "Change of database must remove cached results");
+        } finally {
+            caching.close();
+        }
+    }
+
+    @Test
+    void testReadCacheTtl() throws IOException {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setReadCache(true);
+        properties.setReadCacheTtl(60000);
+        CouchDbClient caching = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        BasicHttpResponse ok = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        ok.setHeader(HttpHeaders.ETAG, "\"1-a\"");
+        ok.setEntity(new StringEntity("{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"test\"}", ContentType.APPLICATION_JSON));
+        when(httpClient.execute(eq(httpHost), any(HttpGet.class), eq(httpContext))).thenReturn(ok);
+
+        caching.read("a", TestDocument.class);
+        TestDocument cached = caching.read("a", TestDocument.class);
+
+        verify(httpClient, times(1)).execute(eq(httpHost), any(HttpGet.class), eq(httpContext));
+        assertEquals("test", cached.getValue(), "Fresh document must be served from cache without request");
+    }
+
+    @Test
+    void testReadCacheNotFound() throws IOException {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setReadCache(true);
+        CouchDbClient caching = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        BasicHttpResponse ok = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        ok.setHeader(HttpHeaders.ETAG, "\"1-a\"");
+        ok.setEntity(new StringEntity("{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"test\"}", ContentType.APPLICATION_JSON));
+        CouchDbException thrown = new CouchDbException(HttpStatus.SC_NOT_FOUND, "GET", "/test/a", "not_found : deleted");
+        when(httpClient.execute(eq(httpHost), any(HttpGet.class), eq(httpContext))).thenReturn(ok).thenThrow(thrown);
+
+        caching.read("a", TestDocument.class);
+
+        assertEquals(thrown, assertThrows(CouchDbException.class, () -> caching.read("a", TestDocument.class)), "Not found document must be reported");
+        assertEquals(0, caching.getReadCacheStatistics().get().getSize(), "Not found document must be removed from cache");
+    }
+
+    @Test
+    void testReadRetry() throws IOException {
+        InputStream content = new ByteArrayInputStream("{\"_id\":\"a\",\"_rev\":\"1\",\"value\":\"test\"}".getBytes());
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        HttpResponse response = mock(HttpResponse.class);
+        HttpEntity entity = mock(HttpEntity.class);
+        when(entity.getContent()).thenReturn(content);
+        when(response.getEntity()).thenReturn(entity);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext)))
+                .thenThrow(new CouchDbException(HttpStatus.SC_SERVICE_UNAVAILABLE, "GET", "/test/a", "unavailable"))
+                .thenReturn(response);
+
+        TestDocument read = client.read("a", TestDocument.class);
+
+        assertEquals("test", read.getValue(), "Document must be read by retry");
+        assertEquals(2, requestCaptor.getAllValues().size(), "Read must be retried once");
+        assertFalse(((HttpGet) requestCaptor.getValue()).isAborted(), "Retried request must be reset");
+        assertEquals(Collections.singletonMap("test", CircuitBreaker.State.CLOSED), client.getCircuitBreakerStates(),
+                "Circuit breaker of database must be closed after success");
+    }
+
+    @Test
+    void testSaveNoRetry() throws IOException {
+        CouchDbException thrown = new CouchDbException(HttpStatus.SC_SERVICE_UNAVAILABLE, "PUT", "/test/a", "unavailable");
+        when(httpClient.execute(eq(httpHost), any(HttpPut.class), eq(httpContext))).thenThrow(thrown);
+
+        assertEquals(thrown, assertThrows(IOException.class, () -> client.save(new TestDocument("test"))), "Not idempotent request must not be retried");
+        verify(httpClient, times(1)).execute(eq(httpHost), any(HttpPut.class), eq(httpContext));
+    }
+
     @Test
     void testReadAllByIds() throws IOException {
         IOException thrown = new IOException("error");
@@ -363,28 +1003,102 @@ class CouchDbClientTest {
     @Test
     void testCountAll() throws IOException {
         IOException thrown = new IOException("error");
-        InputStream content = new ByteArrayInputStream(("{\"rows\": [{\"key\": null,\"value\": 40}]}").getBytes());
         ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
-        HttpResponse response = mock(HttpResponse.class);
-        HttpEntity entity = mock(HttpEntity.class);
-        when(entity.getContent()).thenReturn(content);
-        when(response.getEntity()).thenReturn(entity);
-        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext))).thenReturn(response).thenThrow(thrown);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext)))
+                .thenReturn(json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"doc_count\":42,\"update_seq\":\"1-a\"}"),
+                        json(HttpStatus.SC_OK, "{\"total_rows\":42,\"offset\":0,\"rows\":[{\"id\":\"_design/all\"},{\"id\":\"_design/x\"}]}"),
+                        json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"doc_count\":42,\"update_seq\":\"1-a\"}"),
+                        json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"doc_count\":45,\"update_seq\":\"2-b\"}"),
+                        json(HttpStatus.SC_OK, "{\"total_rows\":45,\"offset\":0,\"rows\":[{\"id\":\"_design/all\"},{\"id\":\"_design/x\"}]}"))
+                .thenThrow(thrown);
         long count = client.countAll(TestDocument.class);
-        HttpRequest request = requestCaptor.getValue();
-        assertEquals(HttpGet.class, request.getClass(), "Find has to be done as GET request");
-        HttpGet get = (HttpGet) request;
-        assertEquals("http://localhost:5984/test/_design/all/_view/data", get.getURI().toString(), "URI must be based on base URI and database name");
-        assertEquals("application/json", get.getFirstHeader(HttpHeaders.ACCEPT).getValue(), "Get document request should declare accepting json");
-        assertEquals(40, count, "Result of find was not properly read or filtered");
+        List<HttpRequest> requests = requestCaptor.getAllValues();
+        assertEquals(HttpGet.class, requests.get(0).getClass(), "Count has to be done as GET request");
+        assertEquals("http://localhost:5984/test", ((HttpGet) requests.get(0)).getURI().toString(), "Count of not viewed entity must be taken from database");
+        assertEquals("application/json", requests.get(0).getFirstHeader(HttpHeaders.ACCEPT).getValue(), "Get request should declare accepting json");
+        assertEquals("http://localhost:5984/test/_design_docs", ((HttpGet) requests.get(1)).getURI().toString(), "Design documents must be subtracted");
+        assertEquals(40, count, "Count must be doc_count without design documents");
+
+        assertEquals(40, client.countAll(TestDocument.class), "Count must be served from cache when update_seq did not move");
+        assertEquals(3, requestCaptor.getAllValues().size(), "Cached count must be validated by update_seq only");
+        assertEquals(43, client.countAll(TestDocument.class), "Count must be read again when update_seq moved");
+        assertEquals(5, requestCaptor.getAllValues().size(), "Number of design documents must be read again when update_seq moved");
 
         assertEquals(thrown, assertThrows(IOException.class, () -> client.countAll(TestDocument.class)), "CouchDb client should not alternate original " +
                 "exception");
-        request = requestCaptor.getValue();
-        get = (HttpGet) request;
+        HttpGet get = (HttpGet) requestCaptor.getValue();
         assertTrue(get.isAborted(), "Request must be aborted when exception thrown");
     }
 
+    @Test
+    void testCountAllAfterIndex() throws IOException {
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext)))
+                .thenReturn(json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"doc_count\":10,\"update_seq\":\"1-a\"}"),
+                        json(HttpStatus.SC_OK, "{\"total_rows\":10,\"offset\":0,\"rows\":[{\"id\":\"_design/all\"}]}"),
+                        json(HttpStatus.SC_OK, "{\"result\":\"created\",\"id\":\"_design/a\",\"name\":\"value-value: asc\"}"),
+                        json(HttpStatus.SC_OK, "{\"docs\":[],\"bookmark\":\"nil\"}"),
+                        json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"doc_count\":11,\"update_seq\":\"2-b\"}"),
+                        json(HttpStatus.SC_OK, "{\"total_rows\":11,\"offset\":0,\"rows\":[{\"id\":\"_design/all\"},{\"id\":\"_design/a\"}]}"));
+
+        assertEquals(9, client.countAll(TestDocument.class), "Count must be doc_count without design documents");
+        client.find(new TestFindRequest(null, null, null, Sort.by(Sort.Order.asc("value")), false), TestDocument.class, null);
+        assertEquals(9, client.countAll(TestDocument.class), "Design document of the created index must not be counted");
+
+        List<HttpRequest> requests = requestCaptor.getAllValues();
+        assertEquals("http://localhost:5984/test/_index", ((HttpPost) requests.get(2)).getURI().toString(), "Sorted find must create index");
+        assertEquals("http://localhost:5984/test/_design_docs", ((HttpGet) requests.get(5)).getURI().toString(),
+                "Design documents must be counted again after index was created");
+    }
+
+    @Test
+    void testCountAllViewed() throws IOException {
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext)))
+                .thenReturn(json(HttpStatus.SC_OK, "{\"update_seq\":\"1-a\",\"rows\": [{\"key\": null,\"value\": 40}]}"),
+                        json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"doc_count\":43,\"update_seq\":\"2-b\"}"),
+                        json(HttpStatus.SC_OK, "{\"update_seq\":\"2-b\",\"rows\": [{\"key\": null,\"value\": 41}]}"),
+                        json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"doc_count\":43,\"update_seq\":\"2-b\"}"));
+
+        assertEquals(40, client.countAll(ViewedDocument.class), "Count of viewed entity must be read from its view");
+        assertEquals("http://localhost:5984/test/_design/byType/_view/entity?update_seq=true", ((HttpGet) requestCaptor.getValue()).getURI().toString(),
+                "Count of viewed entity must be read from its view together with update_seq");
+        assertEquals(1, requestCaptor.getAllValues().size(), "Not cached count of viewed entity must be read by one request");
+        assertEquals(41, client.countAll(ViewedDocument.class), "Count must be read again when update_seq moved");
+        assertEquals(3, requestCaptor.getAllValues().size(), "Count must be read again when update_seq moved");
+        assertEquals(41, client.countAll(ViewedDocument.class), "Count must be served from cache when update_seq did not move");
+        assertEquals(4, requestCaptor.getAllValues().size(), "Cached count must be validated by update_seq only");
+    }
+
+    @Test
+    void testCountAllTtl() throws IOException {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setCountCacheTtl(60000);
+        CouchDbClient caching = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext)))
+                .thenReturn(json(HttpStatus.SC_OK, "{\"update_seq\":\"1-a\",\"rows\": [{\"key\": null,\"value\": 40}]}"),
+                        json(HttpStatus.SC_OK, "{\"update_seq\":\"2-b\",\"rows\": [{\"key\": null,\"value\": 41}]}"));
+
+        assertEquals(40, caching.countAll(ViewedDocument.class), "Count of viewed entity must be read from its view");
+        assertEquals(40, caching.countAll(ViewedDocument.class), "Count must be served from cache within time to live");
+        assertEquals(1, requestCaptor.getAllValues().size(), "Count must be served without request within time to live");
+
+        caching.evict("test", "a");
+        assertEquals(41, caching.countAll(ViewedDocument.class), "Count must be read again after write");
+        assertEquals(2, requestCaptor.getAllValues().size(), "Write thru client must remove cached count");
+    }
+
+    @Test
+    void testEstimatedCount() throws IOException {
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext)))
+                .thenReturn(json(HttpStatus.SC_OK, "{\"db_name\":\"test\",\"doc_count\":42,\"update_seq\":\"1-a\"}"));
+
+        assertEquals(42, client.estimatedCount(ViewedDocument.class), "Estimated count must be doc_count of database");
+        assertEquals("http://localhost:5984/test", ((HttpGet) requestCaptor.getValue()).getURI().toString(), "Estimated count must not use a view");
+    }
+
     @Test
     void testDeleteById() throws IOException {
         IOException thrown = new IOException("error");
@@ -724,6 +1438,99 @@ class CouchDbClientTest {
 
     }
 
+    @Test
+    void testSortedReadAllDesignRegistry() throws IOException {
+        Sort sort = Sort.by(Sort.Order.asc("value"));
+        String rows = "{\"total_rows\":1,\"offset\":0,\"rows\":[{\"id\":\"1\",\"key\":[\"a\"],\"value\":null}]}";
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext))).thenReturn(
+                json(HttpStatus.SC_OK, "{\"_id\":\"_design/all\",\"_rev\":\"1-a\",\"views\":{\"data\":{\"map\":\"function(doc){emit(null);}\"}}}"),
+                json(HttpStatus.SC_CREATED, "{\"id\":\"_design/all\",\"rev\":\"2-b\",\"ok\":\"true\"}"),
+                json(HttpStatus.SC_OK, rows),
+                json(HttpStatus.SC_OK, rows));
+
+        client.readAll(TestDocument.class, null, null, sort);
+        List<String> ids = client.readAll(TestDocument.class, null, null, sort);
+
+        List<HttpRequest> requests = requestCaptor.getAllValues();
+        assertEquals(4, requests.size(), "Design must be read only by the first sorted read");
+        assertEquals(HttpPut.class, requests.get(1).getClass(), "Missing sorted view must be added to the design");
+        assertEquals("http://localhost:5984/test/_design/all/_view/sorted-by-value?descending=false&reduce=false",
+                ((HttpGet) requests.get(3)).getURI().toString(), "Known view must be queried without reading of design");
+        assertEquals(Collections.singletonList("1"), ids, "Ids must be read from view");
+    }
+
+    @Test
+    void testSortedViewConflict() throws IOException {
+        Sort sort = Sort.by(Sort.Order.asc("value"));
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext))).thenReturn(
+                json(HttpStatus.SC_OK, "{\"_id\":\"_design/all\",\"_rev\":\"1-a\",\"views\":{}}"))
+                .thenThrow(new CouchDbException(HttpStatus.SC_CONFLICT, "PUT", "/test/_design/all", "conflict : Document update conflict."))
+                .thenReturn(json(HttpStatus.SC_OK, "{\"_id\":\"_design/all\",\"_rev\":\"2-b\",\"views\":{\"sorted-by-value\":{\"map\":\"m\"}}}"),
+                        json(HttpStatus.SC_OK, "{\"total_rows\":0,\"offset\":0,\"rows\":[]}"));
+
+        client.readAll(TestDocument.class, null, null, sort);
+
+        List<HttpRequest> requests = requestCaptor.getAllValues();
+        assertEquals(4, requests.size(), "Design must be read again after conflict");
+        assertEquals(HttpGet.class, requests.get(2).getClass(), "Conflicting design must be refreshed");
+        assertTrue(((HttpGet) requests.get(3)).getURI().getPath().endsWith("/_view/sorted-by-value"), "View created concurrently must be used");
+    }
+
+    @Test
+    void testCountByViewDesignRegistry() throws IOException {
+        PartTree partTree = new PartTree("findByValue", TestDocument.class);
+        FindContext context = new FindContext(partTree, Collections.singletonMap("value", "test"), new EntityMetadata(TestDocument.class));
+        DocumentFindRequest findRequest = new DocumentFindRequest(context, null, null, null, Sort.unsorted(), false);
+        CouchDbException notFound = new CouchDbException(HttpStatus.SC_NOT_FOUND, "GET", "/test/_design/x", "not_found : missing");
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        when(httpClient.execute(eq(httpHost), requestCaptor.capture(), eq(httpContext)))
+                .thenThrow(notFound)
+                .thenReturn(json(HttpStatus.SC_CREATED, "{\"id\":\"_design/x\",\"rev\":\"1-a\",\"ok\":\"true\"}"),
+                        json(HttpStatus.SC_OK, "{\"rows\":[{\"key\":null,\"value\":4}]}"),
+                        json(HttpStatus.SC_OK, "{\"rows\":[{\"key\":null,\"value\":5}]}"))
+                .thenThrow(notFound, notFound)
+                .thenReturn(json(HttpStatus.SC_CREATED, "{\"id\":\"_design/x\",\"rev\":\"1-b\",\"ok\":\"true\"}"),
+                        json(HttpStatus.SC_OK, "{\"rows\":[{\"key\":null,\"value\":6}]}"));
+
+        assertEquals(4, client.countByView(findRequest, TestDocument.class), "Count must be read from view");
+        assertEquals(5, client.countByView(findRequest, TestDocument.class), "Count must be read from view");
+        assertEquals(4, requestCaptor.getAllValues().size(), "Known view must be queried without reading of design");
+
+        assertEquals(6, client.countByView(findRequest, TestDocument.class), "Count must be read from recreated view");
+        List<HttpRequest> requests = requestCaptor.getAllValues();
+        assertEquals(8, requests.size(), "Deleted design must be forgotten, read and created again");
+        assertEquals(HttpPut.class, requests.get(6).getClass(), "Deleted design must be created again");
+    }
+
+    @Test
+    void testRequestCompression() throws IOException {
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setRequestCompression(true);
+        properties.setRequestCompressionThreshold(10);
+        CouchDbClient compressing = new CouchDbClient(httpClient, httpHost, httpContext, baseURI, Collections.emptyList(), new ObjectMapper(), properties);
+
+        RequestBody small = compressing.createBody("{}");
+        assertNull(small.getContentEncoding(), "Body under threshold must not be compressed");
+        assertContent("{}", small.getContent(), "Body under threshold must be sent as is");
+
+        String json = "{\"value\":\"test\",\"value2\":null}";
+        RequestBody large = compressing.createBody(json);
+        assertEquals("gzip", large.getContentEncoding(), "Body over threshold must be declared as gzip encoded");
+        assertEquals("application/json", large.getContentType(), "Content type must be kept for compressed body");
+        assertTrue(large.getContentLength() > 0, "Length of compressed body must be known");
+        assertContent(json, new GZIPInputStream(large.getContent()), "Compressed body must contain original json");
+
+        assertNull(client.createBody(json).getContentEncoding(), "Body must not be compressed when compression is not enabled");
+    }
+
+    private static HttpResponse json(int status, String body) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+        response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
+
     private static void assertContent(String s, InputStream actual, String message) throws IOException {
         InputStream expected = new ByteArrayInputStream(s.getBytes());
         if (!IOUtils.contentEquals(actual, expected)) {
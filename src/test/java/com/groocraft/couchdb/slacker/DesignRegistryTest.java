@@ -0,0 +1,78 @@
+package com.groocraft.couchdb.slacker;
+
+import com.groocraft.couchdb.slacker.structure.DesignDocument;
+import com.groocraft.couchdb.slacker.structure.View;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DesignRegistryTest {
+
+    @Test
+    void testRegister() {
+        DesignRegistry registry = new DesignRegistry();
+        DesignDocument design = new DesignDocument("design", Collections.singleton(new View("view", "map", null)));
+        registry.register("db", design);
+
+        assertTrue(registry.contains("db", "design"), "Registered design must be known");
+        assertTrue(registry.contains("db", "design", "view"), "View of registered design must be known");
+        assertFalse(registry.contains("db", "design", "other"), "Only views of registered design must be known");
+        assertFalse(registry.contains("other", "design"), "Designs of different databases must not be mixed");
+
+        design.addView(new View("other", "map", null));
+        assertFalse(registry.contains("db", "design", "other"), "Later changes of registered instance must not change the registry");
+        registry.register("db", design);
+        assertTrue(registry.contains("db", "design", "other"), "Registration must replace known views of design");
+    }
+
+    @Test
+    void testInvalidate() {
+        DesignRegistry registry = new DesignRegistry();
+        registry.register("db", new DesignDocument("a", Collections.emptySet()));
+        registry.register("db", new DesignDocument("b", Collections.emptySet()));
+        registry.register("db2", new DesignDocument("a", Collections.emptySet()));
+
+        registry.invalidate("db", "a");
+        assertFalse(registry.contains("db", "a"), "Invalidated design must be forgotten");
+        assertTrue(registry.contains("db", "b"), "Other designs must be kept");
+
+        registry.invalidateDatabase("db");
+        assertFalse(registry.contains("db", "b"), "All designs of invalidated database must be forgotten");
+        assertTrue(registry.contains("db2", "a"), "Designs of other databases must be kept");
+    }
+
+    @Test
+    void testDesignCount() {
+        DesignRegistry registry = new DesignRegistry();
+        registry.register("db", new DesignDocument("a", Collections.emptySet()));
+        registry.setDesignCount("db", "1-a", 1);
+        registry.setDesignCount("db2", "1-a", 3);
+
+        registry.register("db", new DesignDocument("a", Collections.emptySet()));
+        assertEquals(1L, registry.getDesignCount("db", "1-a"), "Registration of known design must not change the count");
+        assertNull(registry.getDesignCount("db", "2-b"), "Count read at another update_seq must not be used");
+        registry.register("db", new DesignDocument("b", Collections.emptySet()));
+        assertNull(registry.getDesignCount("db", "1-a"), "Registration of new design must forget the count");
+        assertEquals(3L, registry.getDesignCount("db2", "1-a"), "Counts of other databases must be kept");
+
+        registry.setDesignCount("db", "1-a", 2);
+        registry.invalidate("db", "b");
+        assertNull(registry.getDesignCount("db", "1-a"), "Invalidation of design must forget the count");
+        registry.invalidateDatabase("db2");
+        assertNull(registry.getDesignCount("db2", "1-a"), "Invalidation of database must forget the count");
+        registry.setDesignCount("db", "1-a", 2);
+        registry.invalidateDesignCount("db");
+        assertNull(registry.getDesignCount("db", "1-a"), "Count must be forgotten when index is created");
+    }
+
+    @Test
+    void testGetName() {
+        assertEquals("design", DesignRegistry.getName(new DesignDocument("design", Collections.emptySet())), "Prefix of design id must be removed");
+    }
+
+}
@@ -16,6 +16,7 @@ class EntityMetadataTest {
         EntityMetadata entityMetadata = new EntityMetadata(FieldTestDocument.class);
         assertFalse(entityMetadata.isViewed(), "FieldTestDocument is not annotated as view accessed document");
         assertEquals("test", entityMetadata.getDatabaseName(), "Wrongly parsed Database annotation");
+        assertFalse(entityMetadata.isNearCached(), "FieldTestDocument is not annotated as near cached document");
 
         entityMetadata.getIdWriter().write(testDocument, "idTest");
         assertEquals("idTest", testDocument.a, "Id field writer is not properly parsed");
@@ -128,6 +129,11 @@ class EntityMetadataTest {
         assertThrows(IllegalArgumentException.class, () -> new EntityMetadata(NoDatabaseTestDocument.class));
     }
 
+    @Test
+    void testNearCached() {
+        assertTrue(new EntityMetadata(NearCachedDocument.class).isNearCached(), "NearCachedDocument is annotated as near cached document");
+    }
+
     @Test
     void testDefaultViewed() {
         EntityMetadata em = new EntityMetadata(DefaultViewedDocument.class);
@@ -0,0 +1,174 @@
+package com.groocraft.couchdb.slacker;
+
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.structure.DocumentPutResponse;
+import com.groocraft.couchdb.slacker.utils.BatchLoader;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindBufferTest {
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService executor;
+    private List<List<String>> batches;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = BatchLoader.createScheduler();
+        executor = BatchLoader.createExecutor(false);
+        batches = new CopyOnWriteArrayList<>();
+        release = new CountDownLatch(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static void awaitEmpty(String message, WriteBehindBuffer buffer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (buffer.getSize() > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(message);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static DocumentPutResponse response(String id, String rev, String error) {
+        DocumentPutResponse response = new DocumentPutResponse();
+        response.setId(id);
+        response.setRev(rev);
+        response.setOk(error == null ? "true" : null);
+        response.setError(error);
+        response.setReason(error);
+        return response;
+    }
+
+    private List<DocumentPutResponse> write(String databaseName, List<String> docs) throws IOException {
+        batches.add(docs);
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        List<DocumentPutResponse> responses = new ArrayList<>();
+        for (String doc : docs) {
+            responses.add(doc.startsWith("conflict") ? response(doc, null, "conflict") : response(doc, "rev-" + doc, null));
+        }
+        return responses;
+    }
+
+    @Test
+    void testMerge() throws Exception {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(100, 100, 50, this::write, scheduler, executor);
+
+        CompletableFuture<String> first = buffer.write("db", "a", "a1");
+        CompletableFuture<String> other = buffer.write("db", "b", "b1");
+        CompletableFuture<String> second = buffer.write("db", "a", "a2");
+
+        assertEquals("rev-a2", second.get(5, TimeUnit.SECONDS), "Write must be completed by revision of the written document");
+        assertEquals("rev-a2", first.get(5, TimeUnit.SECONDS), "Merged write must be completed by revision of the last write");
+        assertEquals("rev-b1", other.get(5, TimeUnit.SECONDS), "Every write must get its own revision");
+        assertEquals(Collections.singletonList(Arrays.asList("a2", "b1")), batches, "Writes within interval must be flushed together, the last write of id wins");
+        awaitEmpty("Flushed writes must leave the buffer", buffer);
+    }
+
+    @Test
+    void testMaxBatchSize() throws Exception {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(100, 2, 60000, this::write, scheduler, executor);
+
+        CompletableFuture<String> a = buffer.write("db", "a", "a");
+        CompletableFuture<String> b = buffer.write("db", "b", "b");
+        CompletableFuture<String> c = buffer.write("db", "c", "c");
+
+        assertEquals("rev-a", a.get(5, TimeUnit.SECONDS), "Full batch must be flushed without waiting for interval");
+        assertEquals("rev-b", b.get(5, TimeUnit.SECONDS), "Full batch must be flushed without waiting for interval");
+        assertFalse(c.isDone(), "Write over the maximal size must wait for the next batch");
+
+        buffer.close();
+        assertEquals("rev-c", c.get(5, TimeUnit.SECONDS), "Buffered writes must be flushed by close");
+        assertTrue(assertThrows(ExecutionException.class, () -> buffer.write("db", "d", "d").get(5, TimeUnit.SECONDS),
+                "Closed buffer must refuse writes").getCause() instanceof IOException, "Refused write must fail by IOException");
+    }
+
+    @Test
+    void testSerialFlushes() throws Exception {
+        release = new CountDownLatch(1);
+        WriteBehindBuffer buffer = new WriteBehindBuffer(100, 1, 0, this::write, scheduler, executor);
+
+        CompletableFuture<String> first = buffer.write("db", "a", "a1");
+        CompletableFuture<String> second = buffer.write("db", "a", "a2");
+        CompletableFuture<String> third = buffer.write("db", "a", "a3");
+        assertFalse(first.isDone(), "Write must wait for response");
+        release.countDown();
+
+        assertEquals("rev-a1", first.get(5, TimeUnit.SECONDS), "Write in flight must not be merged");
+        assertEquals("rev-a3", second.get(5, TimeUnit.SECONDS), "Writes buffered during flush must be merged");
+        assertSame(third.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS), "Merged writes must get the same revision");
+        assertEquals(Arrays.asList(Collections.singletonList("a1"), Collections.singletonList("a3")), batches,
+                "Writes of database must be flushed one batch after another in order");
+    }
+
+    @Test
+    void testErrors() throws Exception {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(100, 100, 0, this::write, scheduler, executor);
+
+        CompletableFuture<String> conflict = buffer.write("db", "conflict", "conflict");
+        ExecutionException refused = assertThrows(ExecutionException.class, () -> conflict.get(5, TimeUnit.SECONDS), "Refused write must fail");
+        assertEquals(HttpStatus.SC_CONFLICT, ((CouchDbException) refused.getCause()).getStatusCode(), "Conflict must be reported by its status");
+
+        IOException thrown = new IOException("error");
+        WriteBehindBuffer failing = new WriteBehindBuffer(100, 100, 0, (d, docs) -> {
+            throw thrown;
+        }, scheduler, executor);
+        CompletableFuture<String> failed = failing.write("db", "a", "a");
+        assertSame(thrown, assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS), "Failed flush must fail writes").getCause(),
+                "Failure of request must be passed to every write");
+        awaitEmpty("Failed writes must leave the buffer", failing);
+    }
+
+    @Test
+    void testBackpressure() throws Exception {
+        release = new CountDownLatch(1);
+        WriteBehindBuffer buffer = new WriteBehindBuffer(1, 1, 0, this::write, scheduler, executor);
+        buffer.write("db", "a", "a");
+
+        CompletableFuture<CompletableFuture<String>> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return buffer.write("db", "b", "b");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+        Thread.sleep(50);
+        assertFalse(blocked.isDone(), "Write into the full buffer must wait");
+        release.countDown();
+
+        assertEquals("rev-b", blocked.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS), "Waiting write must be buffered when a space is made");
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.benchmark;
+
+import com.groocraft.couchdb.slacker.CouchDbClient;
+import com.groocraft.couchdb.slacker.TestDocument;
+import com.groocraft.couchdb.slacker.Transport;
+import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
+import com.groocraft.couchdb.slacker.utils.FanOut;
+import com.groocraft.couchdb.slacker.utils.VirtualThreads;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of throughput of 10 000 concurrent callers which read one document from in-process HTTP server thru one client. Callers are platform threads,
+ * or virtual threads if virtual thread mode is on, which needs Java 21 or newer. Score is number of reads per second.
+ *
+ * @author Majlanky
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConcurrencyBenchmark {
+
+    private static final int CALLERS = 10000;
+
+    @Param({"APACHE", "JDK"})
+    private Transport transport;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CouchDbClient client;
+    private FanOut callers;
+    private List<String> ids;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ConcurrencyBenchmark.class.getName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        if (virtualThreads && !VirtualThreads.isAvailable()) {
+            throw new IllegalStateException("Virtual thread mode can be measured only on Java 21 or newer");
+        }
+        byte[] body = "{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"value\",\"value2\":\"value2\",\"value3\":1,\"value4\":[\"a\",\"b\"],\"value5\":true}"
+                .getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), CALLERS);
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setUrl("http://localhost:" + server.getAddress().getPort());
+        properties.setUsername("admin");
+        properties.setPassword("password");
+        properties.setResponseCompression(false);
+        properties.setTransport(transport);
+        properties.setVirtualThreads(virtualThreads);
+        properties.setConnectionRequestTimeout(0);
+        client = CouchDbClient.builder().properties(properties).build();
+        callers = FanOut.create(virtualThreads);
+        ids = Collections.nCopies(CALLERS, "a");
+    }
+
+    @TearDown
+    public void tearDown() {
+        callers.close();
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdown();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(CALLERS)
+    public List<TestDocument> read() throws IOException {
+        return callers.map(ids, CALLERS, id -> client.read(id, TestDocument.class));
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.groocraft.couchdb.slacker.TestDocument;
+import com.groocraft.couchdb.slacker.structure.DocumentFindResponse;
+import com.groocraft.couchdb.slacker.utils.FoundDocumentDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of deserialization of _find result with 1000 documents. The tree variant reads documents into {@link JsonNode}, serializes it and parses it again
+ * as it was done before {@link FoundDocumentDeserializer} started to bind documents directly from the parser. Run with the GC profiler, the
+ * gc.alloc.rate.norm metric shows allocation per one deserialization.
+ *
+ * @author Majlanky
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeserializationBenchmark {
+
+    private byte[] json;
+    private ObjectMapper streamingMapper;
+    private ObjectMapper treeMapper;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(DeserializationBenchmark.class.getName()).addProfiler(GCProfiler.class).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("{\"docs\":[");
+        for (int i = 0; i < 1000; i++) {
+            builder.append(i == 0 ? "" : ",").append("{\"_id\":\"").append(i).append("\",\"_rev\":\"1-").append(i)
+                    .append("\",\"value\":\"value").append(i).append("\",\"value2\":\"value2\",\"value3\":").append(i)
+                    .append(",\"value4\":[\"a\",\"b\",\"c\"],\"value5\":true}");
+        }
+        json = builder.append("],\"bookmark\":\"1234\"}").toString().getBytes(StandardCharsets.UTF_8);
+        streamingMapper = new ObjectMapper();
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(List.class, new FoundDocumentDeserializer<>(TestDocument.class, new ObjectMapper()));
+        streamingMapper.registerModule(module);
+        treeMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    @Fork(warmups = 1, value = 1)
+    @BenchmarkMode(Mode.AverageTime)
+    public DocumentFindResponse<TestDocument> streaming() throws IOException {
+        return streamingMapper.readValue(json, streamingMapper.getTypeFactory().constructParametricType(DocumentFindResponse.class, TestDocument.class));
+    }
+
+    @Benchmark
+    @Fork(warmups = 1, value = 1)
+    @BenchmarkMode(Mode.AverageTime)
+    public List<TestDocument> tree() throws IOException {
+        JsonNode docs = treeMapper.readTree(json).get("docs");
+        return new ObjectMapper().readValue(docs.toString(), treeMapper.getTypeFactory().constructCollectionType(List.class, TestDocument.class));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.TestDocument;
+import com.groocraft.couchdb.slacker.cache.DocumentCache;
+import com.groocraft.couchdb.slacker.cache.OffHeapStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link DocumentCache} with content kept on the heap, in {@link OffHeapStore} and in {@link OffHeapStore} compressed. The cache is filled by
+ * 100000 documents, the hit variant reads a random document and binds it to entity, the put variant replaces a random document. Run with the heap profiler,
+ * the used-heap metric shows how much of the heap the cached documents take.
+ *
+ * @author Majlanky
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DocumentCacheBenchmark {
+
+    private static final int DOCUMENTS = 100000;
+
+    @Param({"heap", "offHeap", "offHeapCompressed"})
+    private String storage;
+
+    private DocumentCache cache;
+    private ObjectMapper mapper;
+    private byte[][] documents;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(DocumentCacheBenchmark.class.getName()).addProfiler(GCProfiler.class).addProfiler(HeapProfiler.class)
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper();
+        cache = new DocumentCache(0, DOCUMENTS, 512L * 1024 * 1024, !"heap".equals(storage), "offHeapCompressed".equals(storage));
+        documents = new byte[DOCUMENTS][];
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents[i] = ("{\"_id\":\"" + i + "\",\"_rev\":\"1-" + i + "\",\"value\":\"value" + i + "\",\"value2\":\"value2\",\"value3\":" + i +
+                    ",\"value4\":[\"a\",\"b\",\"c\"],\"value5\":true}").getBytes(StandardCharsets.UTF_8);
+            cache.put("test", Integer.toString(i), "\"1-" + i + "\"", documents[i]);
+        }
+    }
+
+    @Benchmark
+    @Fork(warmups = 1, value = 1)
+    @BenchmarkMode(Mode.AverageTime)
+    public TestDocument hit() throws IOException {
+        DocumentCache.Entry entry = cache.get("test", Integer.toString(ThreadLocalRandom.current().nextInt(DOCUMENTS)));
+        return mapper.readValue(entry.getContent(), TestDocument.class);
+    }
+
+    @Benchmark
+    @Fork(warmups = 1, value = 1)
+    @BenchmarkMode(Mode.AverageTime)
+    public boolean put() {
+        int i = ThreadLocalRandom.current().nextInt(DOCUMENTS);
+        return cache.put("test", Integer.toString(i), "\"1-" + i + "\"", documents[i], cache.getStamp());
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.benchmark;
+
+import com.groocraft.couchdb.slacker.CouchDbClient;
+import com.groocraft.couchdb.slacker.TestDocument;
+import com.groocraft.couchdb.slacker.Transport;
+import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of HTTP engines which read one document from in-process HTTP server, so the measured time is dominated by the client side of the request.
+ * Run with the GC profiler, the gc.alloc.rate.norm metric shows allocation per one request. JDK engine needs Java 11 or newer.
+ *
+ * @author Majlanky
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransportBenchmark {
+
+    @Param({"APACHE", "JDK"})
+    private Transport transport;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CouchDbClient client;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TransportBenchmark.class.getName()).addProfiler(GCProfiler.class).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] body = "{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"value\",\"value2\":\"value2\",\"value3\":1,\"value4\":[\"a\",\"b\"],\"value5\":true}"
+                .getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        CouchDbProperties properties = new CouchDbProperties();
+        properties.setUrl("http://localhost:" + server.getAddress().getPort());
+        properties.setUsername("admin");
+        properties.setPassword("password");
+        properties.setResponseCompression(false);
+        properties.setTransport(transport);
+        client = CouchDbClient.builder().properties(properties).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdown();
+    }
+
+    @Benchmark
+    @Fork(warmups = 1, value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+    @Threads(4)
+    @BenchmarkMode(Mode.AverageTime)
+    public TestDocument read() throws IOException {
+        return client.read("a", TestDocument.class);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.groocraft.couchdb.slacker.benchmark;
+
+import com.groocraft.couchdb.slacker.CouchDbClient;
+import com.groocraft.couchdb.slacker.TestDocument;
+import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
+import com.groocraft.couchdb.slacker.http.ChannelHttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of reading of one document from in-process HTTP server thru loopback TCP and thru Unix domain socket. The same server implementation serves
+ * both, so the difference is given by the socket type. Unix domain socket needs Java 16 or newer.
+ *
+ * @author Majlanky
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnixDomainSocketBenchmark {
+
+    private static final String BODY = "{\"_id\":\"a\",\"_rev\":\"1-a\",\"value\":\"value\",\"value2\":\"value2\",\"value3\":1,\"value4\":[\"a\",\"b\"],\"value5\":true}";
+
+    @Param({"tcp", "unix"})
+    private String socket;
+
+    private Path directory;
+    private ChannelHttpServer server;
+    private CouchDbClient client;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(UnixDomainSocketBenchmark.class.getName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        CouchDbProperties properties = new CouchDbProperties();
+        if ("unix".equals(socket)) {
+            directory = Files.createTempDirectory("couchdb");
+            String path = directory.resolve("couchdb.sock").toString();
+            server = new ChannelHttpServer(ChannelHttpServer.openUnix(path), BODY);
+            properties.setUrl("unix://" + path);
+        } else {
+            ServerSocketChannel channel = ChannelHttpServer.openTcp();
+            server = new ChannelHttpServer(channel, BODY);
+            properties.setUrl("http://localhost:" + ((InetSocketAddress) channel.getLocalAddress()).getPort());
+        }
+        properties.setUsername("admin");
+        properties.setPassword("password");
+        properties.setResponseCompression(false);
+        client = CouchDbClient.builder().properties(properties).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+        if (directory != null) {
+            Files.deleteIfExists(directory.resolve("couchdb.sock"));
+            Files.delete(directory);
+        }
+    }
+
+    @Benchmark
+    @Fork(warmups = 1, value = 1)
+    @Threads(4)
+    @BenchmarkMode(Mode.AverageTime)
+    public TestDocument read() throws IOException {
+        return client.read("a", TestDocument.class);
+    }
+
+}
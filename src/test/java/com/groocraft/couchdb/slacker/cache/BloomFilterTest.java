@@ -0,0 +1,61 @@
+package com.groocraft.couchdb.slacker.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void testMightContain() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        assertFalse(filter.mightContain("a"), "Empty filter must not contain anything");
+        filter.add("a");
+        filter.add("ž");
+        assertTrue(filter.mightContain("a"), "Added value must be reported");
+        assertTrue(filter.mightContain("ž"), "Added value with non ASCII characters must be reported");
+    }
+
+    @Test
+    void testGrowth() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("id" + i);
+        }
+        assertTrue(filter.getStages() > 1, "Filter must grow when the first stage is full");
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("id" + i), "Filter must never lose added value");
+        }
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("id" + i);
+        }
+        int positives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other" + i)) {
+                positives++;
+            }
+        }
+        assertTrue(positives < 200, "False positive rate must stay near the configured one after growth, but was " + positives / 10000.0);
+    }
+
+    @Test
+    void testHash() {
+        assertEquals(BloomFilter.hash("a"), BloomFilter.hash("a"), "Hash must be deterministic");
+        assertTrue(BloomFilter.hash("a") != BloomFilter.hash("b"), "Hash of different values should differ");
+    }
+
+    @Test
+    void testParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01), "Capacity must be positive");
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1), "False positive rate must be lower than 1");
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.groocraft.couchdb.slacker.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentCacheTest {
+
+    private static final byte[] JSON = "{\"_id\":\"a\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testPutAndGet() {
+        DocumentCache cache = new DocumentCache(0, 10, 1024 * 1024);
+        cache.put("db", "a", "\"1-a\"", JSON);
+
+        DocumentCache.Entry entry = cache.get("db", "a");
+        assertNotNull(entry, "Stored document must be cached");
+        assertEquals("\"1-a\"", entry.getEtag(), "ETag of document must be kept");
+        assertArrayEquals(JSON, entry.getContent(), "Content of document must be kept");
+        assertNull(cache.get("other", "a"), "Documents of different databases must not be mixed");
+        assertFalse(cache.isFresh(entry), "Entry must be always revalidated when time to live is zero");
+    }
+
+    @Test
+    void testEvictionByEntries() {
+        DocumentCache cache = new DocumentCache(0, 2, 1024 * 1024);
+        cache.put("db", "a", "1", JSON);
+        cache.put("db", "b", "1", JSON);
+        cache.get("db", "a");
+        cache.put("db", "c", "1", JSON);
+
+        assertNotNull(cache.get("db", "a"), "Recently used entry must not be evicted");
+        assertNull(cache.get("db", "b"), "Least recently used entry must be evicted");
+        assertNotNull(cache.get("db", "c"), "New entry must be stored");
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getSize(), "Number of entries must not exceed the limit");
+        assertEquals(1, statistics.getEvictionCount(), "Eviction must be counted");
+    }
+
+    @Test
+    void testEvictionByBytes() {
+        DocumentCache cache = new DocumentCache(0, 100, 400);
+        cache.put("db", "a", "1", new byte[200]);
+        cache.put("db", "b", "1", new byte[200]);
+
+        assertNull(cache.get("db", "a"), "Entry over byte limit must be evicted");
+        assertNotNull(cache.get("db", "b"), "New entry must be stored");
+        assertTrue(cache.getStatistics().getBytes() <= 400, "Size of entries must not exceed the limit");
+
+        cache.put("db", "b", "2", new byte[1000]);
+        assertNull(cache.get("db", "b"), "Entry bigger than the whole cache must not be stored and the old one must be removed");
+        assertEquals(0, cache.getStatistics().getBytes(), "Size of removed entries must be released");
+    }
+
+    @Test
+    void testInvalidate() {
+        DocumentCache cache = new DocumentCache(0, 10, 1024 * 1024);
+        cache.put("db", "a", "1", JSON);
+        cache.put("db", "b", "1", JSON);
+        cache.put("db2", "a", "1", JSON);
+
+        cache.invalidate("db", "a");
+        assertNull(cache.get("db", "a"), "Invalidated entry must be removed");
+
+        cache.invalidateDatabase("db");
+        assertNull(cache.get("db", "b"), "All entries of invalidated database must be removed");
+        assertNotNull(cache.get("db2", "a"), "Entries of other databases must be kept");
+        assertEquals(1, cache.getStatistics().getSize(), "Only entries of other databases must be kept");
+    }
+
+    @Test
+    void testFreshness() {
+        DocumentCache cache = new DocumentCache(60000, 10, 1024 * 1024);
+        cache.put("db", "a", "1", JSON);
+
+        assertTrue(cache.isFresh(cache.get("db", "a")), "Entry younger than time to live must be fresh");
+    }
+
+    @Test
+    void testStatistics() {
+        DocumentCache cache = new DocumentCache(0, 10, 1024 * 1024);
+        cache.put("db", "a", "1", JSON);
+        DocumentCache.Entry entry = cache.get("db", "a");
+        cache.miss();
+        cache.hit(entry, true);
+        cache.hit(entry, false);
+        cache.hit(entry, false);
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(3, statistics.getHitCount(), "Hits must be counted");
+        assertEquals(1, statistics.getMissCount(), "Misses must be counted");
+        assertEquals(1, statistics.getRevalidationCount(), "Revalidations must be counted");
+        assertEquals(0.75, statistics.getHitRatio(), 0.001, "Hit ratio must be computed from hits and misses");
+    }
+
+    @Test
+    void testStamp() {
+        DocumentCache cache = new DocumentCache(0, 10, 1024 * 1024);
+        long stamp = cache.getStamp();
+        cache.invalidate("db", "a");
+        cache.invalidate("db", "b");
+        cache.invalidateDatabase("db2");
+
+        assertFalse(cache.put("db", "a", "1", JSON, stamp), "Document read before invalidation must not be stored");
+        assertNull(cache.get("db", "a"), "Document read before invalidation must not be stored");
+        assertTrue(cache.put("db", "c", "1", JSON, stamp), "Invalidation of other documents must not reject the read");
+        assertTrue(cache.put("db", "a", "1", JSON, cache.getStamp()), "Document read after invalidation must be stored");
+
+        stamp = cache.getStamp();
+        cache.invalidateDatabase("db");
+        assertFalse(cache.put("db", "d", "1", JSON, stamp), "Document read before invalidation of its database must not be stored");
+        assertTrue(cache.put("db2", "d", "1", JSON, stamp), "Invalidation of other database must not reject the read");
+    }
+
+    @Test
+    void testStampForgotten() {
+        DocumentCache cache = new DocumentCache(0, 2, 1024 * 1024);
+        long stamp = cache.getStamp();
+        cache.invalidate("db", "a");
+        cache.invalidate("db", "b");
+        cache.invalidate("db", "c");
+
+        assertFalse(cache.put("db", "a", "1", JSON, stamp), "Read before invalidation of forgotten document must not be stored");
+        assertFalse(cache.put("db", "x", "1", JSON, stamp), "Read older than forgotten invalidation must not be stored");
+        assertTrue(cache.put("db", "x", "1", JSON, cache.getStamp()), "Read after forgotten invalidation must be stored");
+    }
+
+    @Test
+    void testRefresh() {
+        DocumentCache cache = new DocumentCache(0, 10, 1024 * 1024);
+        cache.refresh("db", "a", "2", JSON);
+        assertNull(cache.get("db", "a"), "Not cached document must not be stored by refresh");
+
+        cache.put("db", "a", "1", JSON);
+        long stamp = cache.getStamp();
+        cache.refresh("db", "a", "2", JSON);
+        assertEquals("2", cache.get("db", "a").getEtag(), "Cached document must be replaced by refresh");
+        assertFalse(cache.put("db", "a", "1", JSON, stamp), "Previous version read before refresh must not be stored");
+        assertEquals("2", cache.get("db", "a").getEtag(), "Refreshed document must be kept");
+    }
+
+    @Test
+    void testOffHeap() {
+        DocumentCache cache = new DocumentCache(0, 100, 1024, true, false);
+        cache.put("db", "a", "1", JSON);
+
+        DocumentCache.Entry entry = cache.get("db", "a");
+        assertArrayEquals(JSON, entry.getContent(), "Content kept off-heap must be loaded unchanged");
+        assertEquals(OffHeapStore.DEFAULT_CHUNK_SIZE, cache.getStatistics().getBytes(), "Off-heap memory must be counted by chunks");
+        cache.hit(entry, true);
+
+        cache.put("db", "b", "1", new byte[600]);
+        cache.put("db", "c", "1", new byte[200]);
+        assertNull(cache.get("db", "a"), "Least recently used entry must be evicted when off-heap memory is exhausted");
+        assertEquals(1024, cache.getStatistics().getBytes(), "Off-heap memory must not exceed the limit");
+        assertNotNull(cache.get("db", "b"), "Only as many entries as needed must be evicted");
+        assertArrayEquals(new byte[200], cache.get("db", "c").getContent(), "Content stored to released memory must be loaded unchanged");
+
+        cache.invalidateDatabase("db");
+        assertEquals(0, cache.getStatistics().getBytes(), "Off-heap memory of removed entries must be released");
+    }
+
+    @Test
+    void testCompression() {
+        StringBuilder json = new StringBuilder("{\"_id\":\"a\",\"values\":[");
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "" : ",").append("\"value\"");
+        }
+        byte[] content = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        DocumentCache plain = new DocumentCache(0, 100, 1024 * 1024);
+        DocumentCache compressed = new DocumentCache(0, 100, 1024 * 1024, false, true);
+        DocumentCache offHeap = new DocumentCache(0, 100, 1024 * 1024, true, true);
+        plain.put("db", "a", "1", content);
+        compressed.put("db", "a", "1", content);
+        offHeap.put("db", "a", "1", content);
+        compressed.put("db", "b", "1", JSON);
+
+        assertArrayEquals(content, compressed.get("db", "a").getContent(), "Compressed content must be decompressed unchanged");
+        assertArrayEquals(content, offHeap.get("db", "a").getContent(), "Compressed content kept off-heap must be decompressed unchanged");
+        assertArrayEquals(JSON, compressed.get("db", "b").getContent(), "Content which can not be compressed must be kept as is");
+        assertTrue(compressed.getStatistics().getBytes() < plain.getStatistics().getBytes() + 200, "Compressed content must take less memory");
+        assertEquals(OffHeapStore.DEFAULT_CHUNK_SIZE, offHeap.getStatistics().getBytes(), "Compressed content must take less off-heap memory");
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DocumentCache(-1, 10, 10), "Negative time to live must be refused");
+        assertThrows(IllegalArgumentException.class, () -> new DocumentCache(0, 0, 10), "Zero entries limit must be refused");
+        assertThrows(IllegalArgumentException.class, () -> new DocumentCache(0, 10, 0), "Zero bytes limit must be refused");
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.groocraft.couchdb.slacker.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.structure.ChangesResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExistenceIndexTest {
+
+    private BlockingQueue<ChangesResponse> changes;
+    private List<String> pages;
+    private NearCache nearCache;
+    private ExistenceIndex index;
+    private volatile boolean failing;
+
+    @BeforeEach
+    void setUp() {
+        changes = new LinkedBlockingQueue<>();
+        pages = new CopyOnWriteArrayList<>();
+        ChangesSource changesSource = (databaseName, since, timeout, docs) -> {
+            try {
+                ChangesResponse answer = changes.poll(timeout, TimeUnit.MILLISECONDS);
+                return answer == null ? new ChangesResponse(Collections.emptyList(), since) : answer;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        };
+        IdSource idSource = (databaseName, after, limit) -> {
+            pages.add(databaseName + ":" + after);
+            if (failing) {
+                throw new IOException("unavailable");
+            }
+            return Arrays.asList("a", "b");
+        };
+        nearCache = new NearCache(new DocumentCache(0, 100, 1024 * 1024), changesSource, new ObjectMapper(), 2000, 100, false,
+                NearCache.createExecutor(false));
+        index = new ExistenceIndex(nearCache, idSource, 100, 0.01, NearCache.createExecutor(false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+        nearCache.close();
+    }
+
+    private static void await(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(message);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private void build() throws InterruptedException {
+        assertTrue(index.mightContain("db", "x"), "Every document must possibly exist before the feed is synced");
+        changes.add(new ChangesResponse(Collections.emptyList(), "1"));
+        await("Database must be synced", () -> nearCache.isSynced("db"));
+        assertTrue(index.mightContain("db", "x"), "Every document must possibly exist before the index is built");
+        await("Index must be built after the feed is synced", () -> index.isBuilt("db"));
+    }
+
+    @Test
+    void testBuild() throws InterruptedException {
+        build();
+
+        assertEquals(Collections.singletonList("db:null"), pages, "Ids must be read from the first page after the feed is synced");
+        assertTrue(index.mightContain("db", "a"), "Id read by build must be reported");
+        assertFalse(index.mightContain("db", "x"), "Missing id must be reported when the index is built");
+    }
+
+    @Test
+    void testChanges() throws InterruptedException {
+        build();
+
+        changes.add(new ChangesResponse(Arrays.asList(new ChangesResponse.Change("c", false, null), new ChangesResponse.Change("d", true, null)), "2"));
+        await("Created document must be added by the feed", () -> index.mightContain("db", "c"));
+        assertFalse(index.mightContain("db", "d"), "Deleted document must not be added by the feed");
+
+        index.add("db", "e");
+        assertTrue(index.mightContain("db", "e"), "Document written by the client must be added");
+        index.add("other", "e");
+        assertTrue(index.mightContain("other", "e"), "Not indexed database must report every document as possibly existing");
+    }
+
+    @Test
+    void testInvalidate() throws InterruptedException {
+        build();
+
+        index.invalidateDatabase("db");
+        assertFalse(index.isBuilt("db"), "Index of invalidated database must be dropped");
+        assertTrue(index.mightContain("db", "x"), "Every document must possibly exist while the index is built again");
+        await("Index must be built again", () -> index.isBuilt("db"));
+        assertEquals(2, pages.size(), "Ids must be read again");
+    }
+
+    @Test
+    void testFailure() throws InterruptedException {
+        failing = true;
+        changes.add(new ChangesResponse(Collections.emptyList(), "1"));
+        index.mightContain("db", "x");
+        await("Database must be synced", () -> nearCache.isSynced("db"));
+        index.mightContain("db", "x");
+        await("Build must be tried", () -> pages.size() == 1);
+        failing = false;
+
+        await("Failed build must be started again by the next check", () -> !index.mightContain("db", "x") && index.isBuilt("db"));
+        assertTrue(index.mightContain("db", "a"), "Id read by repeated build must be reported");
+    }
+
+}
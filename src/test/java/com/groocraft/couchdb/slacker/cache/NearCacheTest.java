@@ -0,0 +1,168 @@
+package com.groocraft.couchdb.slacker.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groocraft.couchdb.slacker.structure.ChangesResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearCacheTest {
+
+    private static final byte[] JSON = "{\"_id\":\"a\",\"_rev\":\"1-a\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private BlockingQueue<Object> answers;
+    private List<String> polls;
+    private NearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        answers = new LinkedBlockingQueue<>();
+        polls = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (nearCache != null) {
+            nearCache.close();
+        }
+    }
+
+    private NearCache create(boolean includeDocs) {
+        ChangesSource source = (databaseName, since, timeout, docs) -> {
+            polls.add(databaseName + ":" + since + ":" + docs);
+            Object answer;
+            try {
+                answer = answers.poll(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (answer instanceof IOException) {
+                throw (IOException) answer;
+            }
+            return answer == null ? new ChangesResponse(Collections.emptyList(), since) : (ChangesResponse) answer;
+        };
+        nearCache = new NearCache(new DocumentCache(0, 100, 1024 * 1024), source, mapper, 2000, 100, includeDocs, NearCache.createExecutor(false));
+        return nearCache;
+    }
+
+    private static void await(String message, java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(message);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testSync() throws InterruptedException {
+        NearCache nearCache = create(false);
+        nearCache.getCache().put("db", "a", "\"1-a\"", JSON);
+
+        assertFalse(nearCache.isSynced("db"), "Database must not be synced before the first response of feed");
+        answers.add(new ChangesResponse(Collections.emptyList(), "1"));
+        await("Database must be synced after the first response of feed", () -> nearCache.isSynced("db"));
+
+        assertEquals("db:now:false", polls.get(0), "Feed must be followed from the current sequence");
+        await("Next poll must continue from the last sequence", () -> polls.contains("db:1:false"));
+        assertNull(nearCache.getCache().get("db", "a"), "Documents cached before the feed was followed must be dropped");
+    }
+
+    @Test
+    void testInvalidation() throws InterruptedException {
+        NearCache nearCache = create(false);
+        nearCache.isSynced("db");
+        answers.add(new ChangesResponse(Collections.emptyList(), "1"));
+        await("Database must be synced", () -> nearCache.isSynced("db"));
+        nearCache.getCache().put("db", "a", "\"1-a\"", JSON);
+        nearCache.getCache().put("db", "b", "\"1-b\"", JSON);
+
+        answers.add(new ChangesResponse(Collections.singletonList(new ChangesResponse.Change("a", false, null)), "2"));
+        await("Changed document must be removed", () -> nearCache.getCache().get("db", "a") == null);
+        assertNotNull(nearCache.getCache().get("db", "b"), "Not changed document must be kept");
+    }
+
+    @Test
+    void testDependent() throws InterruptedException {
+        NearCache nearCache = create(false);
+        DocumentCache dependent = new DocumentCache(0, 100, 1024 * 1024);
+        nearCache.attach(dependent);
+        dependent.put("db", "query", "1", JSON);
+        nearCache.isSynced("db");
+        answers.add(new ChangesResponse(Collections.emptyList(), "1"));
+        await("Database must be synced", () -> nearCache.isSynced("db"));
+        assertNull(dependent.get("db", "query"), "Entries of dependent cache stored before the feed was followed must be dropped");
+
+        dependent.put("db", "query", "1", JSON);
+        dependent.put("other", "query", "1", JSON);
+        answers.add(new ChangesResponse(Collections.emptyList(), "2"));
+        await("Next poll must be done", () -> polls.contains("db:2:false"));
+        assertNotNull(dependent.get("db", "query"), "Entries of dependent cache must be kept when nothing changed");
+
+        answers.add(new ChangesResponse(Collections.singletonList(new ChangesResponse.Change("a", false, null)), "3"));
+        await("Any change must drop entries of database from dependent cache", () -> dependent.get("db", "query") == null);
+        assertNotNull(dependent.get("other", "query"), "Entries of other databases must be kept");
+    }
+
+    @Test
+    void testRefresh() throws Exception {
+        NearCache nearCache = create(true);
+        nearCache.isSynced("db");
+        answers.add(new ChangesResponse(Collections.emptyList(), "1"));
+        await("Database must be synced", () -> nearCache.isSynced("db"));
+        nearCache.getCache().put("db", "a", "\"1-a\"", JSON);
+
+        answers.add(new ChangesResponse(Collections.singletonList(new ChangesResponse.Change("a", false,
+                mapper.readTree("{\"_id\":\"a\",\"_rev\":\"2-b\",\"value\":\"new\"}"))), "2"));
+        await("Changed document must be replaced", () -> "\"2-b\"".equals(nearCache.getCache().get("db", "a").getEtag()));
+        assertEquals("new", mapper.readTree(nearCache.getCache().get("db", "a").getContent()).get("value").asText(),
+                "New version of document must be cached");
+        assertTrue(polls.get(0).endsWith(":true"), "Documents must be requested with feed");
+
+        answers.add(new ChangesResponse(Collections.singletonList(new ChangesResponse.Change("a", true, null)), "3"));
+        await("Deleted document must be removed", () -> nearCache.getCache().get("db", "a") == null);
+    }
+
+    @Test
+    void testFailure() throws InterruptedException {
+        NearCache nearCache = create(false);
+        nearCache.isSynced("db");
+        answers.add(new IOException("feed failed"));
+        answers.add(new ChangesResponse(Collections.emptyList(), "1"));
+
+        await("Feed must be followed again after failure", () -> nearCache.isSynced("db"));
+        assertTrue(polls.size() >= 2, "Failed poll must be repeated");
+    }
+
+    @Test
+    void testClose() throws InterruptedException {
+        NearCache nearCache = create(false);
+        nearCache.isSynced("db");
+        answers.add(new ChangesResponse(Collections.emptyList(), "1"));
+        await("Database must be synced", () -> nearCache.isSynced("db"));
+
+        nearCache.close();
+
+        await("Database must not be synced after close", () -> !nearCache.isSynced("db"));
+        assertFalse(nearCache.isSynced("other"), "Closed near cache must not follow new databases");
+    }
+
+}
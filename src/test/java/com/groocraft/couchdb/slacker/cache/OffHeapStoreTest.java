@@ -0,0 +1,71 @@
+package com.groocraft.couchdb.slacker.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapStoreTest {
+
+    private static byte[] random(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    @Test
+    void testStoreAndLoad() {
+        OffHeapStore store = new OffHeapStore(4096, 64);
+        byte[] small = random(10);
+        byte[] large = random(1000);
+
+        int[] smallChunks = store.store(small);
+        int[] largeChunks = store.store(large);
+
+        assertNotNull(smallChunks, "Content must be stored when there is free memory");
+        assertEquals(1, smallChunks.length, "Small content must occupy one chunk");
+        assertEquals(16, largeChunks.length, "Content must occupy as many chunks as it needs");
+        assertArrayEquals(small, store.load(smallChunks, small.length), "Stored content must be loaded unchanged");
+        assertArrayEquals(large, store.load(largeChunks, large.length), "Content stored in more chunks must be loaded unchanged");
+        assertEquals(17 * 64, store.getUsedBytes(), "Used memory must be counted by chunks");
+        assertEquals(17 * 64, store.getOccupiedSize(10) + store.getOccupiedSize(1000), "Occupied size must be counted by chunks");
+    }
+
+    @Test
+    void testCapacity() {
+        OffHeapStore store = new OffHeapStore(256, 64);
+        int[] first = store.store(random(200));
+
+        assertNull(store.store(random(100)), "Content must not be stored when there is not enough free memory");
+        store.release(first);
+        assertEquals(0, store.getUsedBytes(), "Released memory must not be counted as used");
+        byte[] content = random(256);
+        int[] second = store.store(content);
+        assertArrayEquals(content, store.load(second, content.length), "Released chunks must be reused");
+        assertEquals(256, store.getAllocatedBytes(), "Slabs must not exceed capacity");
+    }
+
+    @Test
+    void testSlabs() {
+        OffHeapStore store = new OffHeapStore(3 * 1048576, 1048576);
+        assertEquals(0, store.getAllocatedBytes(), "Slabs must be allocated lazily");
+        byte[] content = random(1048576 + 10);
+
+        int[] chunks = store.store(content);
+
+        assertEquals(2 * 1048576, store.getAllocatedBytes(), "Only slabs needed for stored content must be allocated");
+        assertArrayEquals(content, store.load(chunks, content.length), "Content spread across slabs must be loaded unchanged");
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStore(100, 0), "Chunk size must be positive");
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStore(10, 64), "Capacity must contain at least one chunk");
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.groocraft.couchdb.slacker.cluster;
+
+import org.apache.http.HttpHost;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NodeSelectionPolicyTest {
+
+    private final Node a = new Node(new HttpHost("a", 5984));
+    private final Node b = new Node(new HttpHost("b", 5984));
+    private final Node c = new Node(new HttpHost("c", 5984));
+    private final List<Node> nodes = Arrays.asList(a, b, c);
+
+    @Test
+    void testRoundRobin() {
+        RoundRobinPolicy policy = new RoundRobinPolicy();
+        for (int i = 0; i < 6; i++) {
+            assertSame(nodes.get(i % 3), policy.select(nodes), "Nodes must be used one after another");
+        }
+    }
+
+    @Test
+    void testLeastOutstandingRequests() {
+        a.requestStarted();
+        a.requestStarted();
+        c.requestStarted();
+        LeastOutstandingRequestsPolicy policy = new LeastOutstandingRequestsPolicy();
+        for (int i = 0; i < 10; i++) {
+            assertSame(b, policy.select(nodes), "Node without requests in progress must be chosen");
+        }
+        a.requestFinished(1000);
+        assertEquals(1, a.getOutstandingRequests(), "Finished request must not be counted as outstanding");
+    }
+
+    @Test
+    void testLatencyWeighted() {
+        a.requestStarted();
+        a.requestFinished(100_000_000);
+        b.requestStarted();
+        b.requestFinished(1_000_000);
+        c.requestStarted();
+        c.requestFinished(100_000_000);
+        LatencyWeightedPolicy policy = new LatencyWeightedPolicy();
+        int fast = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (policy.select(nodes) == b) {
+                fast++;
+            }
+        }
+        assertTrue(fast > 900, "Node with hundred times lower latency must be chosen in most cases");
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.groocraft.couchdb.slacker.cluster;
+
+import com.groocraft.couchdb.slacker.transport.ApacheTransport;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.HttpHostConnectException;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NodeSelectorTest {
+
+    private static final HttpHost A = new HttpHost("a", 5984, "http");
+    private static final HttpHost B = new HttpHost("b", 5984, "http");
+
+    @Mock
+    private HttpClient httpClient;
+
+    @Test
+    void testSingleNode() {
+        NodeSelector selector = new NodeSelector(A);
+        Node node = selector.select();
+        assertEquals(A, node.getHost(), "The only node must be always selected");
+        selector.failed(node, new ConnectException());
+        assertSame(node, selector.select(), "The only node must be selected even if it failed");
+    }
+
+    @Test
+    void testEjection() throws IOException {
+        NodeSelector selector = new NodeSelector(Arrays.asList(A, B), new RoundRobinPolicy());
+        Node a = selector.getNodes().get(0);
+        selector.failed(a, new ConnectException());
+        assertTrue(a.isHealthy(), "Node must not be ejected without health checks, because nothing would return it back");
+
+        when(httpClient.execute(any(HttpHost.class), any(HttpUriRequest.class), any(HttpContext.class))).thenReturn(response("{\"status\":\"ok\"}"));
+        selector.startHealthChecks(new ApacheTransport(httpClient, new BasicHttpContext()), URI.create("http://a:5984"), 60000);
+        try {
+            selector.failed(a, new SocketTimeoutException());
+            assertTrue(a.isHealthy(), "Read timeout can be caused by long query, node must not be ejected");
+            selector.failed(a, new HttpHostConnectException(new ConnectException(), A));
+            assertFalse(a.isHealthy(), "Not reachable node must be ejected");
+            for (int i = 0; i < 4; i++) {
+                assertNotSame(a, selector.select(), "Ejected node must not be selected");
+            }
+            selector.checkHealth(new ApacheTransport(httpClient, new BasicHttpContext()), URI.create("http://a:5984"));
+            assertTrue(a.isHealthy(), "Node must be returned back when health check passes");
+        } finally {
+            selector.close();
+        }
+        assertFalse(selector.isHealthChecking(), "Health checks must be stopped by close");
+    }
+
+    @Test
+    void testAllUnhealthy() throws IOException {
+        NodeSelector selector = new NodeSelector(Arrays.asList(A, B), new RoundRobinPolicy());
+        ArgumentCaptor<HttpUriRequest> requests = ArgumentCaptor.forClass(HttpUriRequest.class);
+        when(httpClient.execute(any(HttpHost.class), requests.capture(), any(HttpContext.class))).thenThrow(new ConnectException());
+
+        selector.checkHealth(new ApacheTransport(httpClient, new BasicHttpContext()), URI.create("http://a:5984/couchdb"));
+
+        assertEquals(Arrays.asList("http://a:5984/couchdb/_up", "http://b:5984/couchdb/_up"), requests.getAllValues().stream()
+                .map(r -> r.getURI().toString()).collect(Collectors.toList()), "Every node must be asked thru _up endpoint with path of base URI kept");
+        assertTrue(selector.getNodes().stream().noneMatch(Node::isHealthy), "Nodes not passing health check must be ejected");
+        assertNotSame(selector.select(), selector.select(), "All nodes must be used if there is no healthy one");
+    }
+
+    @Test
+    void testDiscover() throws IOException {
+        NodeSelector selector = new NodeSelector(Arrays.asList(A, B), new RoundRobinPolicy());
+        when(httpClient.execute(eq(A), any(HttpUriRequest.class), any(HttpContext.class))).thenReturn(response("{\"all_nodes\":[\"couchdb@a\"," +
+                "\"couchdb@b\",\"couchdb@c\"],\"cluster_nodes\":[\"couchdb@a\",\"couchdb@b\",\"couchdb@c\"]}"));
+
+        List<Node> discovered = selector.discover(new ApacheTransport(httpClient, new BasicHttpContext()), URI.create("http://a:5984"));
+
+        assertEquals(1, discovered.size(), "Only not known nodes must be added");
+        assertEquals(new HttpHost("c", 5984, "http"), discovered.get(0).getHost(), "Scheme and port of discovered node must be taken from base URI");
+        assertEquals(3, selector.getNodes().size(), "Discovered node must be used for next requests");
+    }
+
+    @Test
+    void testDiscoverFailure() throws IOException {
+        NodeSelector selector = new NodeSelector(Arrays.asList(A, B), new RoundRobinPolicy());
+        when(httpClient.execute(eq(A), any(HttpUriRequest.class), any(HttpContext.class))).thenThrow(new ConnectException());
+
+        assertTrue(selector.discover(new ApacheTransport(httpClient, new BasicHttpContext()), URI.create("http://a:5984")).isEmpty(),
+                "Nothing must be discovered on failure");
+        assertEquals(2, selector.getNodes().size(), "Configured nodes must be kept when discovery fails");
+    }
+
+    private static HttpResponse response(String body) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.groocraft.couchdb.slacker.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CouchDbUrlValidatorTest {
+
+    private final CouchDbUrlValidator validator = new CouchDbUrlValidator();
+
+    @Test
+    void testValid() {
+        assertTrue(validator.isValid(null, null), "Missing url is not validated by the constraint");
+        assertTrue(validator.isValid("http://localhost:5984", null), "Http url must be valid");
+        assertTrue(validator.isValid("https://couchdb.example.com:6984/prefix", null), "Https url with path must be valid");
+        assertTrue(validator.isValid("unix:///var/run/couchdb.sock", null), "Absolute path of Unix domain socket must be valid");
+    }
+
+    @Test
+    void testInvalid() {
+        assertFalse(validator.isValid("localhost 5984", null), "Malformed url must be invalid");
+        assertFalse(validator.isValid("ftp2://localhost", null), "Unknown scheme must be invalid");
+        assertFalse(validator.isValid("unix://host/couchdb.sock", null), "Unix url with host must be invalid");
+        assertFalse(validator.isValid("unix:///", null), "Unix url without path must be invalid");
+    }
+
+}
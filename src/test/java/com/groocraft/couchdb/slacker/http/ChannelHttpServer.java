@@ -0,0 +1,121 @@
+package com.groocraft.couchdb.slacker.http;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Minimal HTTP/1.1 server with keep-alive which answers every request by the same JSON body. It listens on any {@link ServerSocketChannel}, so it can be
+ * used for TCP and Unix domain socket the same way.
+ */
+public class ChannelHttpServer implements Closeable {
+
+    private final ServerSocketChannel server;
+    private final byte[] response;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    public ChannelHttpServer(ServerSocketChannel server, String body) {
+        this.server = server;
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        byte[] head = ("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + content.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        response = new byte[head.length + content.length];
+        System.arraycopy(head, 0, response, 0, head.length);
+        System.arraycopy(content, 0, response, head.length, content.length);
+        Thread acceptor = new Thread(this::accept, "channel-http-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public static ServerSocketChannel openTcp() throws IOException {
+        return ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+    }
+
+    public static ServerSocketChannel openUnix(String path) throws IOException {
+        try {
+            ServerSocketChannel channel = (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class)
+                    .invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+            return channel.bind(UnixDomainSocketFactory.getAddress(path));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unix domain socket is not supported", e);
+        }
+    }
+
+    /**
+     * @return request lines and headers of all received requests, one string per request
+     */
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    private void accept() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                Thread handler = new Thread(() -> handle(channel), "channel-http-server-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (SocketChannel closed = channel) {
+            InputStream input = new BufferedInputStream(Channels.newInputStream(channel));
+            OutputStream output = Channels.newOutputStream(channel);
+            String request;
+            while ((request = readHead(input)) != null) {
+                requests.add(request);
+                long length = getContentLength(request);
+                while (length > 0) {
+                    length -= input.skip(length);
+                }
+                output.write(response);
+                output.flush();
+            }
+        } catch (IOException e) {
+            //connection is dropped
+        }
+    }
+
+    private static String readHead(InputStream input) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        int b;
+        while (matched < 4 && (b = input.read()) >= 0) {
+            head.write(b);
+            matched = (b == '\r' && matched % 2 == 0) || (b == '\n' && matched % 2 == 1) ? matched + 1 : 0;
+        }
+        return matched == 4 ? head.toString("US-ASCII") : null;
+    }
+
+    private static long getContentLength(String head) {
+        for (String line : head.split("\r\n")) {
+            if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                return Long.parseLong(line.substring("content-length:".length()).trim());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+}
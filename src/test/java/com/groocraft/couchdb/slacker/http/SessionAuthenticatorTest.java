@@ -0,0 +1,111 @@
+package com.groocraft.couchdb.slacker.http;
+
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.transport.ApacheResponse;
+import com.groocraft.couchdb.slacker.transport.ApacheTransport;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionAuthenticatorTest {
+
+    private static final HttpHost HOST = new HttpHost("localhost", 5984);
+
+    @Mock
+    private HttpClient httpClient;
+
+    private final HttpContext httpContext = new BasicHttpContext();
+
+    @Test
+    void testLogin() throws IOException {
+        ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
+        when(httpClient.execute(eq(HOST), captor.capture(), eq(httpContext))).thenReturn(response("AuthSession=first; Version=1; Path=/; HttpOnly"));
+        SessionAuthenticator authenticator = new SessionAuthenticator(new ApacheTransport(httpClient, httpContext), URI.create("http://localhost:5984/"), "admin", "pa&ss", 600000);
+        CouchRequest get = new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/a"));
+
+        assertEquals("AuthSession=first", authenticator.authenticate(get, HOST), "Cookie must be taken from response of _session");
+        assertEquals("AuthSession=first", authenticator.authenticate(new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/b")), HOST), "Cookie must be reused");
+
+        verify(httpClient, times(1)).execute(eq(HOST), any(HttpUriRequest.class), eq(httpContext));
+        HttpPost post = (HttpPost) captor.getValue();
+        assertEquals("http://localhost:5984/_session", post.getURI().toString(), "Cookie must be obtained from _session endpoint");
+        assertEquals("name=admin&password=pa%26ss", IOUtils.toString(post.getEntity().getContent(), StandardCharsets.UTF_8),
+                "Credentials must be sent as form");
+        assertEquals("application/x-www-form-urlencoded", post.getEntity().getContentType().getValue(), "Credentials must be sent as form");
+        assertEquals("AuthSession=first", get.getHeader("Cookie"), "Cookie must be added to authenticated request");
+        assertNull(get.getHeader("Authorization"), "Credentials must not be sent with authenticated request");
+    }
+
+    @Test
+    void testUpdateAndInvalidate() throws IOException {
+        when(httpClient.execute(eq(HOST), any(HttpUriRequest.class), eq(httpContext))).thenReturn(response("AuthSession=first; Path=/"),
+                response("AuthSession=third; Path=/"));
+        SessionAuthenticator authenticator = new SessionAuthenticator(new ApacheTransport(httpClient, httpContext), URI.create("http://localhost:5984"), "admin", "password", 600000);
+
+        assertEquals("AuthSession=first", authenticator.getCookie(HOST), "Cookie must be taken from response of _session");
+        authenticator.update(new ApacheResponse(response("AuthSession=second; Path=/")));
+        assertEquals("AuthSession=second", authenticator.getCookie(HOST), "Cookie refreshed by CouchDB must be used");
+        authenticator.update(new ApacheResponse(new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK")));
+        assertEquals("AuthSession=second", authenticator.getCookie(HOST), "Cookie must be kept if response does not refresh it");
+        authenticator.invalidate("AuthSession=first");
+        assertEquals("AuthSession=second", authenticator.getCookie(HOST), "Newer cookie must not be dropped by invalidation of older one");
+        authenticator.invalidate("AuthSession=second");
+        assertEquals("AuthSession=third", authenticator.getCookie(HOST), "New cookie must be obtained when the current one is rejected");
+    }
+
+    @Test
+    void testRefresh() throws IOException, InterruptedException {
+        when(httpClient.execute(eq(HOST), any(HttpUriRequest.class), eq(httpContext))).thenReturn(response("AuthSession=first"), response("AuthSession=second"));
+        SessionAuthenticator authenticator = new SessionAuthenticator(new ApacheTransport(httpClient, httpContext), URI.create("http://localhost:5984"), "admin", "password", 10);
+
+        assertEquals("AuthSession=first", authenticator.getCookie(HOST), "Cookie must be taken from response of _session");
+        Thread.sleep(20);
+        assertEquals("AuthSession=second", authenticator.getCookie(HOST), "New cookie must be obtained before the current one expires");
+    }
+
+    @Test
+    void testNoCookie() throws IOException {
+        when(httpClient.execute(eq(HOST), any(HttpUriRequest.class), eq(httpContext))).thenReturn(response("Other=value"));
+        SessionAuthenticator authenticator = new SessionAuthenticator(new ApacheTransport(httpClient, httpContext), URI.create("http://localhost:5984"), "admin", "password", 600000);
+
+        assertThrows(CouchDbException.class, () -> authenticator.getCookie(HOST), "Missing session cookie must be reported");
+        assertTrue(SessionAuthenticator.isRejected(new CouchDbException(HttpStatus.SC_UNAUTHORIZED, "GET", "/test", "unauthorized")),
+                "Unauthorized response means rejected cookie");
+    }
+
+    private static HttpResponse response(String setCookie) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        response.addHeader("Set-Cookie", setCookie);
+        return response;
+    }
+
+}
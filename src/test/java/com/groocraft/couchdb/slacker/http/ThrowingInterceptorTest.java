@@ -8,6 +8,7 @@ import org.apache.http.RequestLine;
 import org.apache.http.StatusLine;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -15,11 +16,16 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -72,6 +78,27 @@ class ThrowingInterceptorTest {
         }, "Every non OK response must be processed as exception with detail message what is wrong");
     }
 
+    @Test
+    public void testCreateException() throws IOException {
+        CouchDbException json = ThrowingInterceptor.createException(HttpStatus.SC_NOT_FOUND, "GET", "testURI", "Not Found",
+                new ByteArrayInputStream("{\"error\":\"not_found\",\"reason\":\"missing\"}".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(json.getMessage().endsWith("not_found : missing"), "Error and reason of json body must be used as reason");
+
+        CouchDbException nested = ThrowingInterceptor.createException(HttpStatus.SC_BAD_REQUEST, "POST", "testURI", "Bad Request",
+                new ByteArrayInputStream("{\"error\":\"bad_request\",\"reason\":{\"field\":\"invalid\"}}".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(nested.getMessage().endsWith("bad_request : {\"field\":\"invalid\"}"), "Non textual reason must be used as json");
+
+        CouchDbException html = ThrowingInterceptor.createException(HttpStatus.SC_SERVICE_UNAVAILABLE, "GET", "testURI", "Service Unavailable",
+                new ByteArrayInputStream("<html>\n<body>503 Service Unavailable</body>\n</html>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(HttpStatus.SC_SERVICE_UNAVAILABLE, html.getStatusCode(), "Status code must be kept for non-json body");
+        assertTrue(html.getMessage().endsWith("Service Unavailable : <html> <body>503 Service Unavailable</body> </html>"),
+                "Reason phrase and the body must be used as reason of non-json body");
+
+        CouchDbException empty = ThrowingInterceptor.createException(HttpStatus.SC_BAD_GATEWAY, "GET", "testURI", "Bad Gateway",
+                new ByteArrayInputStream(new byte[0]));
+        assertTrue(empty.getMessage().endsWith("Bad Gateway"), "Reason phrase must be used for empty body");
+    }
+
     private static Stream<Integer> getNonOkHttpStatuses() {
         return Arrays.stream(HttpStatus.class.getFields()).map(f -> {
             try {
@@ -0,0 +1,80 @@
+package com.groocraft.couchdb.slacker.http;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UnixDomainSocketFactoryTest {
+
+    private Path directory;
+    private String path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("couchdb");
+        path = directory.resolve("couchdb.sock").toString();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("couchdb.sock"));
+        Files.delete(directory);
+    }
+
+    @Test
+    void testUnavailable() {
+        if (!UnixDomainSocketFactory.isAvailable()) {
+            assertThrows(IllegalStateException.class, () -> new UnixDomainSocketFactory(path), "Missing support of Unix domain socket must be reported");
+        }
+    }
+
+    @Test
+    void testExchange() throws IOException {
+        assumeTrue(UnixDomainSocketFactory.isAvailable(), "Unix domain socket requires Java 16 or newer");
+        try (ChannelHttpServer ignored = new ChannelHttpServer(ChannelHttpServer.openUnix(path), "{}")) {
+            UnixDomainSocketFactory factory = new UnixDomainSocketFactory(path);
+            try (Socket socket = factory.connectSocket(0, factory.createSocket(null), null, null, null, null)) {
+                assertTrue(socket.isConnected(), "Socket must be connected to Unix domain socket");
+                socket.setSoTimeout(100);
+                InputStream input = socket.getInputStream();
+                socket.getOutputStream().write("GET / HTTP/1.1\r\n".getBytes(StandardCharsets.US_ASCII));
+                assertThrows(SocketTimeoutException.class, input::read, "Read timeout must be respected");
+
+                socket.getOutputStream().write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                byte[] expected = "HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: 2\r\n\r\n{}".getBytes(StandardCharsets.US_ASCII);
+                byte[] read = new byte[expected.length];
+                IOUtils.readFully(input, read);
+                assertEquals(new String(expected, StandardCharsets.US_ASCII), new String(read, StandardCharsets.US_ASCII),
+                        "Response must be read from Unix domain socket");
+            }
+        }
+    }
+
+    @Test
+    void testNotListening() throws IOException {
+        assumeTrue(UnixDomainSocketFactory.isAvailable(), "Unix domain socket requires Java 16 or newer");
+        UnixDomainSocketFactory factory = new UnixDomainSocketFactory(path);
+        Socket socket = factory.createSocket(null);
+
+        assertThrows(ConnectException.class, () -> factory.connectSocket(0, socket, null, null, null, null), "Missing socket must be reported");
+        assertFalse(socket.isConnected(), "Socket must not be connected");
+        assertTrue(socket.isClosed(), "Socket must be closed when connection fails");
+    }
+
+}
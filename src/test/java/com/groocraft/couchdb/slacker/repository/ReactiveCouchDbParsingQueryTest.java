@@ -0,0 +1,130 @@
+package com.groocraft.couchdb.slacker.repository;
+
+import com.groocraft.couchdb.slacker.AsyncCouchDbClient;
+import com.groocraft.couchdb.slacker.CouchDbClient;
+import com.groocraft.couchdb.slacker.EntityMetadata;
+import com.groocraft.couchdb.slacker.QueryStrategy;
+import com.groocraft.couchdb.slacker.TestDocument;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.ResultProcessor;
+import org.springframework.data.repository.query.ReturnedType;
+import org.springframework.data.util.Pair;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveCouchDbParsingQueryTest {
+
+    private AsyncCouchDbClient client;
+    private QueryMethod queryMethod;
+    private Method method;
+    private ArgumentCaptor<String> captor;
+
+    @SuppressWarnings("unchecked")
+    private void prepare(String name, Class<?> returnType) {
+        client = mock(AsyncCouchDbClient.class);
+        CouchDbClient blockingClient = mock(CouchDbClient.class);
+        queryMethod = mock(QueryMethod.class);
+        ResultProcessor resultProcessor = mock(ResultProcessor.class);
+        ReturnedType returnedType = mock(ReturnedType.class);
+        method = mock(Method.class);
+        Parameter parameter = mock(Parameter.class);
+        Parameters<?, ?> parameters = mock(Parameters.class);
+        captor = ArgumentCaptor.forClass(String.class);
+
+        when(client.getBlockingClient()).thenReturn(blockingClient);
+        when(blockingClient.getEntityMetadata(TestDocument.class)).thenReturn(new EntityMetadata(TestDocument.class));
+        when(blockingClient.getQueryStrategy()).thenReturn(QueryStrategy.MANGO);
+        when(queryMethod.getName()).thenReturn(name);
+        when(queryMethod.getResultProcessor()).thenReturn(resultProcessor);
+        when(resultProcessor.getReturnedType()).thenReturn(returnedType);
+        doReturn(TestDocument.class).when(returnedType).getDomainType();
+        doReturn(returnType).when(method).getReturnType();
+        when(parameter.getName()).thenReturn(Optional.of("value"));
+        when(parameter.getIndex()).thenReturn(0);
+        doReturn(String.class).when(parameter).getType();
+        doReturn(Collections.singletonList(parameter).iterator()).when(parameters).iterator();
+        doReturn(parameters).when(queryMethod).getParameters();
+        when(parameters.getSortIndex()).thenReturn(-1);
+        when(parameters.getPageableIndex()).thenReturn(-1);
+        when(client.find(captor.capture(), eq(TestDocument.class)))
+                .thenReturn(page("first", new TestDocument("a"), new TestDocument("b")))
+                .thenReturn(page("second", new TestDocument("c"), new TestDocument("d")))
+                .thenReturn(page("third", new TestDocument("e")));
+    }
+
+    private static CompletableFuture<Pair<List<TestDocument>, String>> page(String bookmark, TestDocument... documents) {
+        return CompletableFuture.completedFuture(Pair.of(Arrays.asList(documents), bookmark));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPagingOnDemand() {
+        prepare("findByValue", Flux.class);
+        ReactiveCouchDbParsingQuery<TestDocument> query = new ReactiveCouchDbParsingQuery<>(client, false, 2, method, queryMethod, TestDocument.class);
+        assertEquals(queryMethod, query.getQueryMethod(), "ReactiveCouchDbParsingQuery do not remember given queryMethod");
+
+        Flux<TestDocument> result = (Flux<TestDocument>) query.execute(new Object[]{"test"});
+        verify(client, times(0).description("Nothing can be requested before subscription")).find(captor.capture(), eq(TestDocument.class));
+
+        List<TestDocument> taken = result.take(3).collectList().block();
+        assertEquals(3, taken.size(), "Requested number of entities must be returned");
+        verify(client, times(2).description("Only pages covering the demand can be requested")).find(captor.capture(), eq(TestDocument.class));
+        assertEquals("{\"limit\":2,\"selector\":{\"$or\":[{\"value\":{\"$eq\":\"test\"}}]}}", captor.getAllValues().get(0),
+                "First page must be requested without bookmark");
+        assertTrue(captor.getAllValues().get(1).contains("\"bookmark\":\"first\""), "Next page must be requested with bookmark of the previous one");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAllPages() {
+        prepare("findByValue", Flux.class);
+        ReactiveCouchDbParsingQuery<TestDocument> query = new ReactiveCouchDbParsingQuery<>(client, false, 2, method, queryMethod, TestDocument.class);
+
+        List<TestDocument> all = ((Flux<TestDocument>) query.execute(new Object[]{"test"})).collectList().block();
+        assertEquals(5, all.size(), "Pages must be read until a page is not full");
+        assertEquals("e", all.get(4).getValue(), "Order of entities must be kept");
+        verify(client, times(3).description("Page which is not full must be the last one")).find(captor.capture(), eq(TestDocument.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCountAndExists() {
+        prepare("countByValue", Mono.class);
+        ReactiveCouchDbParsingQuery<TestDocument> count = new ReactiveCouchDbParsingQuery<>(client, false, 2, method, queryMethod, TestDocument.class);
+        assertEquals(5L, ((Mono<Long>) count.execute(new Object[]{"test"})).block(), "Count must be done above all pages");
+
+        prepare("existsByValue", Mono.class);
+        ReactiveCouchDbParsingQuery<TestDocument> exists = new ReactiveCouchDbParsingQuery<>(client, false, 2, method, queryMethod, TestDocument.class);
+        assertTrue(((Mono<Boolean>) exists.execute(new Object[]{"test"})).block(), "Exists must be true when something found");
+        verify(client, times(1).description("Exists must not read more than the first page")).find(captor.capture(), eq(TestDocument.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSingle() {
+        prepare("findByValue", Mono.class);
+        ReactiveCouchDbParsingQuery<TestDocument> query = new ReactiveCouchDbParsingQuery<>(client, false, 2, method, queryMethod, TestDocument.class);
+        assertEquals("a", ((Mono<TestDocument>) query.execute(new Object[]{"test"})).block().getValue(), "The first found entity must be returned");
+    }
+
+}
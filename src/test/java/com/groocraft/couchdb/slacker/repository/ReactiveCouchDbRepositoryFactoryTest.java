@@ -0,0 +1,57 @@
+package com.groocraft.couchdb.slacker.repository;
+
+import com.groocraft.couchdb.slacker.AsyncCouchDbClient;
+import com.groocraft.couchdb.slacker.CouchDbClient;
+import com.groocraft.couchdb.slacker.TestDocument;
+import com.groocraft.couchdb.slacker.configuration.CouchDbProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryMethodEvaluationContextProvider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReactiveCouchDbRepositoryFactoryTest {
+
+    @Test
+    void test() {
+        AsyncCouchDbClient client = mock(AsyncCouchDbClient.class);
+        RepositoryMetadata repositoryMetadata = mock(RepositoryMetadata.class);
+        QueryLookupStrategy.Key key = mock(QueryLookupStrategy.Key.class);
+        QueryMethodEvaluationContextProvider evaluationContextProvider = mock(QueryMethodEvaluationContextProvider.class);
+        RepositoryInformation information = mock(RepositoryInformation.class);
+        CouchDbProperties properties = mock(CouchDbProperties.class);
+        when(client.getBlockingClient()).thenReturn(mock(CouchDbClient.class));
+        doReturn(SimpleReactiveCouchDbRepository.class).when(information).getRepositoryBaseClass();
+        doReturn(TestDocument.class).when(information).getDomainType();
+        when(properties.getBulkMaxSize()).thenReturn(100);
+        ReactiveCouchDbRepositoryFactory factory = new ReactiveCouchDbRepositoryFactory(client, properties);
+        factory.getEntityInformation(TestDocument.class);
+        assertEquals(SimpleReactiveCouchDbRepository.class, factory.getRepositoryBaseClass(repositoryMetadata),
+                "Factory must report " + SimpleReactiveCouchDbRepository.class + "as base repository");
+        assertTrue(factory.getQueryLookupStrategy(key, evaluationContextProvider).isPresent(), ReactiveCouchDbRepositoryFactory.class + " must support querying");
+        assertEquals(ReactiveCouchDbQueryLookupStrategy.class, factory.getQueryLookupStrategy(key, evaluationContextProvider).get().getClass(),
+                ReactiveCouchDbRepositoryFactory.class + " must support querying by " + ReactiveCouchDbQueryLookupStrategy.class);
+        assertEquals(SimpleReactiveCouchDbRepository.class, factory.getTargetRepository(information).getClass(),
+                "Factory must return " + SimpleReactiveCouchDbRepository.class);
+    }
+
+    @Test
+    void testExtensionsSplitRepositories() {
+        RepositoryMetadata reactive = mock(RepositoryMetadata.class);
+        RepositoryMetadata blocking = mock(RepositoryMetadata.class);
+        when(reactive.isReactiveRepository()).thenReturn(true);
+        when(blocking.isReactiveRepository()).thenReturn(false);
+        assertTrue(new ReactiveCouchDbRepositoryConfigurationExtension().useRepositoryConfiguration(reactive), "Reactive extension must take reactive repositories");
+        assertFalse(new ReactiveCouchDbRepositoryConfigurationExtension().useRepositoryConfiguration(blocking), "Reactive extension must skip blocking repositories");
+        assertTrue(new CouchDbRepositoryConfigurationExtension().useRepositoryConfiguration(blocking), "Blocking extension must take blocking repositories");
+        assertFalse(new CouchDbRepositoryConfigurationExtension().useRepositoryConfiguration(reactive), "Blocking extension must skip reactive repositories");
+    }
+
+}
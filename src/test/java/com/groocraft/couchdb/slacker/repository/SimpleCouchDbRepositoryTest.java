@@ -15,6 +15,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -103,10 +104,9 @@ class SimpleCouchDbRepositoryTest {
 
     @Test
     void testExistsById() throws IOException {
-        TestDocument clientProcessed = new TestDocument("something");
-        when(client.read("unique", TestDocument.class)).thenReturn(clientProcessed).thenThrow(new IOException("error"));
+        when(client.exists("unique", TestDocument.class)).thenReturn(true).thenThrow(new IOException("error"));
         assertTrue(repository.existsById("unique"), "If client find data, the existence must be reported");
-        verify(client, only().description("Repository must do real search for the id")).read("unique", TestDocument.class);
+        verify(client, only().description("Repository must check existence without reading of the document")).exists("unique", TestDocument.class);
         CouchDbRuntimeException ex = assertThrows(CouchDbRuntimeException.class, () -> repository.existsById("unique"), "All exceptions thrown by client must be reported");
         assertEquals("error", ex.getCause().getMessage(), "Repository must pass original cause of exceptional state");
     }
@@ -158,4 +158,22 @@ class SimpleCouchDbRepositoryTest {
         assertEquals("error", ex.getCause().getMessage(), "Repository must pass original cause of exceptional state");
     }
 
-}
\ No newline at end of file
+    @Test
+    void testEstimatedCount() throws IOException {
+        when(client.estimatedCount(TestDocument.class)).thenReturn(4L).thenThrow(new IOException("error"));
+        assertEquals(4L, repository.estimatedCount(), "Estimated count must be taken from client");
+        CouchDbRuntimeException ex = assertThrows(CouchDbRuntimeException.class, () -> repository.estimatedCount(),
+                "All exceptions thrown by client must be reported");
+        assertEquals("error", ex.getCause().getMessage(), "Repository must pass original cause of exceptional state");
+    }
+
+    @Test
+    void testSaveBehind() {
+        TestDocument document = new TestDocument("something");
+        when(client.saveBehind(document)).thenReturn(CompletableFuture.completedFuture("1-a"));
+        when(client.deleteBehind(document)).thenReturn(CompletableFuture.completedFuture("2-a"));
+        assertEquals("1-a", repository.saveBehind(document).join(), "Save behind must be done by client");
+        assertEquals("2-a", repository.deleteBehind(document).join(), "Delete behind must be done by client");
+    }
+
+}
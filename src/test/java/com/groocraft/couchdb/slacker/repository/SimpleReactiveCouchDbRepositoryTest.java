@@ -0,0 +1,166 @@
+package com.groocraft.couchdb.slacker.repository;
+
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.groocraft.couchdb.slacker.AsyncCouchDbClient;
+import com.groocraft.couchdb.slacker.TestDocument;
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.exception.CouchDbRuntimeException;
+import com.groocraft.couchdb.slacker.structure.ViewPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.notNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SimpleReactiveCouchDbRepositoryTest {
+
+    @Mock
+    private AsyncCouchDbClient client;
+
+    private SimpleReactiveCouchDbRepository<TestDocument> repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new SimpleReactiveCouchDbRepository<>(client, TestDocument.class, 2);
+    }
+
+    private static <DataT> CompletableFuture<DataT> failed(Throwable throwable) {
+        CompletableFuture<DataT> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    @Test
+    void testSave() {
+        TestDocument clientProcessed = new TestDocument("something");
+        when(client.save(any())).thenReturn(CompletableFuture.completedFuture(clientProcessed)).thenReturn(failed(new IOException("error")));
+        assertEquals(clientProcessed, repository.save(new TestDocument()).block(), "Repository should not alternate returned objects");
+        CouchDbRuntimeException ex = assertThrows(CouchDbRuntimeException.class, () -> repository.save(new TestDocument()).block(),
+                "All exceptions thrown by client must be reported");
+        assertEquals("error", ex.getCause().getMessage(), "Repository must pass original cause of exceptional state");
+    }
+
+    @Test
+    void testSaveAllInBatches() {
+        when(client.saveAll(anyList(), eq(TestDocument.class))).thenAnswer(i -> CompletableFuture.completedFuture(i.getArgument(0)));
+        List<TestDocument> saved = repository.saveAll(Flux.just(new TestDocument("a"), new TestDocument("b"), new TestDocument("c"))).collectList().block();
+        assertEquals(3, saved.size(), "All given entities must be saved");
+        verify(client, times(2).description("Entities must be saved in batches of bulk size")).saveAll(anyList(), eq(TestDocument.class));
+    }
+
+    @Test
+    void testFindById() {
+        TestDocument clientProcessed = new TestDocument("something");
+        when(client.read("unique", TestDocument.class)).thenReturn(CompletableFuture.completedFuture(clientProcessed))
+                .thenReturn(failed(new CouchDbException(404, "GET", "uri", "reason")))
+                .thenReturn(failed(new IOException("error")));
+        assertEquals(clientProcessed, repository.findById("unique").block(), "Repository should not alternate returned objects");
+        assertNull(repository.findById("unique").block(), "Mono must be empty when 404 is returned");
+        CouchDbRuntimeException ex = assertThrows(CouchDbRuntimeException.class, () -> repository.findById("unique").block(),
+                "All exceptions thrown by client must be reported");
+        assertEquals("error", ex.getCause().getMessage(), "Repository must pass original cause of exceptional state");
+    }
+
+    @Test
+    void testExistsById() {
+        when(client.read("unique", TestDocument.class)).thenReturn(CompletableFuture.completedFuture(new TestDocument()))
+                .thenReturn(failed(new CouchDbException(404, "GET", "uri", "reason")));
+        assertTrue(repository.existsById("unique").block(), "Existing document must be reported");
+        assertFalse(repository.existsById("unique").block(), "Non-existing document must be reported");
+    }
+
+    private static ViewPage page(String... ids) {
+        return ViewPage.of(Arrays.asList(ids), NullNode.getInstance(), ids.length == 0 ? null : ids[ids.length - 1]);
+    }
+
+    @Test
+    void testFindAllOnDemand() {
+        when(client.readPage(TestDocument.class, null, 2, Sort.unsorted())).thenReturn(CompletableFuture.completedFuture(page("a", "b")));
+        when(client.readAll(Arrays.asList("a", "b"), TestDocument.class))
+                .thenReturn(CompletableFuture.completedFuture(Arrays.asList(new TestDocument("a"), new TestDocument("b"))));
+
+        List<TestDocument> first = repository.findAll().take(1).collectList().block();
+
+        assertEquals(1, first.size(), "Requested number of entities must be returned");
+        verify(client, never().description("Next page must not be read if not demanded")).readPage(eq(TestDocument.class), notNull(), eq(2),
+                eq(Sort.unsorted()));
+    }
+
+    @Test
+    void testFindAll() {
+        ViewPage first = page("a", "b");
+        when(client.readPage(TestDocument.class, null, 2, Sort.unsorted())).thenReturn(CompletableFuture.completedFuture(first));
+        when(client.readPage(TestDocument.class, first, 2, Sort.unsorted())).thenReturn(CompletableFuture.completedFuture(page("c")));
+        when(client.readAll(Arrays.asList("a", "b"), TestDocument.class))
+                .thenReturn(CompletableFuture.completedFuture(Arrays.asList(new TestDocument("a"), new TestDocument("b"))));
+        when(client.readAll(Collections.singletonList("c"), TestDocument.class))
+                .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(new TestDocument("c"))));
+
+        List<TestDocument> all = repository.findAll().collectList().block();
+
+        assertEquals(3, all.size(), "All pages must be read");
+        assertEquals("c", all.get(2).getValue(), "Order of entities must be kept");
+    }
+
+    @Test
+    void testCount() {
+        when(client.countAll(TestDocument.class)).thenReturn(CompletableFuture.completedFuture(5L));
+        assertEquals(5L, repository.count().block(), "Repository should not alternate returned count");
+    }
+
+    @Test
+    void testDeleteAll() {
+        List<TestDocument> firstPage = Arrays.asList(new TestDocument("a"), new TestDocument("b"));
+        List<TestDocument> secondPage = Collections.singletonList(new TestDocument("c"));
+        when(client.readPage(TestDocument.class, null, 2, Sort.unsorted())).thenReturn(CompletableFuture.completedFuture(page("a", "b")))
+                .thenReturn(CompletableFuture.completedFuture(page("c")), CompletableFuture.completedFuture(page()));
+        when(client.readAll(Arrays.asList("a", "b"), TestDocument.class)).thenReturn(CompletableFuture.completedFuture(firstPage));
+        when(client.readAll(Collections.singletonList("c"), TestDocument.class)).thenReturn(CompletableFuture.completedFuture(secondPage));
+        when(client.deleteAll(firstPage, TestDocument.class)).thenReturn(CompletableFuture.completedFuture(firstPage));
+        when(client.deleteAll(secondPage, TestDocument.class)).thenReturn(CompletableFuture.completedFuture(secondPage));
+
+        repository.deleteAll().block();
+
+        verify(client, times(3).description("The first page must be deleted until it is empty")).readPage(TestDocument.class, null, 2, Sort.unsorted());
+        verify(client).deleteAll(secondPage, TestDocument.class);
+    }
+
+    @Test
+    void testDeleteAllFailure() {
+        TestDocument conflicting = new TestDocument("b");
+        List<TestDocument> firstPage = Arrays.asList(new TestDocument("a"), conflicting);
+        when(client.readPage(TestDocument.class, null, 2, Sort.unsorted())).thenReturn(CompletableFuture.completedFuture(page("a", "b")));
+        when(client.readAll(Arrays.asList("a", "b"), TestDocument.class)).thenReturn(CompletableFuture.completedFuture(firstPage));
+        when(client.deleteAll(firstPage, TestDocument.class)).thenReturn(CompletableFuture.completedFuture(firstPage.subList(0, 1)));
+
+        CouchDbRuntimeException ex = assertThrows(CouchDbRuntimeException.class, () -> repository.deleteAll().block(),
+                "Documents which were not deleted must be reported");
+
+        assertTrue(ex.getCause().getMessage().contains(conflicting.toString()), "Not deleted documents must be named");
+        verify(client, times(1).description("No more pages must be deleted after failure")).readPage(TestDocument.class, null, 2, Sort.unsorted());
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.groocraft.couchdb.slacker.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void testOpen() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60000);
+        breaker.failure();
+        breaker.failure();
+        breaker.success();
+        breaker.failure();
+        breaker.failure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Only consecutive failures can open the breaker");
+        assertTrue(breaker.tryAcquire(), "Closed breaker must let requests thru");
+        breaker.failure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "Breaker must be open after threshold of consecutive failures");
+        assertFalse(breaker.tryAcquire(), "Open breaker must fail requests fast");
+    }
+
+    @Test
+    void testHalfOpen() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 20);
+        breaker.failure();
+        assertFalse(breaker.tryAcquire(), "Open breaker must fail requests fast");
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire(), "Trial request must be let thru after open duration");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "Breaker must be half-open during trial");
+        assertFalse(breaker.tryAcquire(), "Only one trial request can be let thru");
+        breaker.failure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "Failed trial must open the breaker again");
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire(), "Trial request must be let thru after open duration");
+        breaker.success();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Passed trial must close the breaker");
+        assertTrue(breaker.tryAcquire(), "Closed breaker must let requests thru");
+    }
+
+    @Test
+    void testLostTrial() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 20);
+        breaker.failure();
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire(), "Trial request must be let thru after open duration");
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire(), "Another trial must be let thru when result of the previous one is not reported");
+    }
+
+}
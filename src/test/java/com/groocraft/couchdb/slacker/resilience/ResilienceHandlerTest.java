@@ -0,0 +1,100 @@
+package com.groocraft.couchdb.slacker.resilience;
+
+import com.groocraft.couchdb.slacker.exception.CircuitBreakerOpenException;
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResilienceHandlerTest {
+
+    private static final CouchDbException UNAVAILABLE = new CouchDbException(503, "GET", "/test/a", "unavailable");
+
+    @Test
+    void testRetry() throws IOException {
+        ResilienceHandler handler = new ResilienceHandler(new RetryPolicy(2, 1, 1), new RetryBudget(0.2, 10), 0, 1000);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = handler.execute(new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/a")), "test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw UNAVAILABLE;
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result, "Result of passed retry must be returned");
+        assertEquals(3, attempts.get(), "Request must be retried until it passes");
+        assertEquals(8, handler.getRetryBudget().getBalance(), 0.001, "Every retry must be withdrawn from full budget");
+    }
+
+    @Test
+    void testNoRetry() {
+        ResilienceHandler handler = new ResilienceHandler(new RetryPolicy(2, 1, 1), new RetryBudget(0.2, 10), 0, 1000);
+        AtomicInteger attempts = new AtomicInteger();
+
+        IOException thrown = assertThrows(IOException.class, () -> handler.execute(new CouchRequest(CouchRequest.PUT, URI.create("http://localhost:5984/test/a")), "test", () -> {
+            attempts.incrementAndGet();
+            throw UNAVAILABLE;
+        }), "Failure must be thrown if request is not retried");
+
+        assertSame(UNAVAILABLE, thrown, "Original failure must be thrown");
+        assertEquals(1, attempts.get(), "Not idempotent request must not be retried");
+    }
+
+    @Test
+    void testBudget() {
+        ResilienceHandler handler = new ResilienceHandler(new RetryPolicy(5, 1, 1), new RetryBudget(0, 2), 0, 1000);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IOException.class, () -> handler.execute(new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/a")), "test", () -> {
+            attempts.incrementAndGet();
+            throw UNAVAILABLE;
+        }), "Failure must be thrown when retries are exhausted");
+
+        assertEquals(3, attempts.get(), "Retries must be limited by budget");
+        assertEquals(0, handler.getRetryBudget().getBalance(), 0.001, "Budget must be exhausted");
+    }
+
+    @Test
+    void testCircuitBreaker() {
+        ResilienceHandler handler = new ResilienceHandler(new RetryPolicy(0, 1, 1), new RetryBudget(0.2, 10), 2, 60000);
+        CouchRequest get = new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/a"));
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CouchDbException.class, () -> handler.execute(get, "test", () -> {
+                attempts.incrementAndGet();
+                throw UNAVAILABLE;
+            }), "Failure must be thrown while breaker is closed");
+        }
+        CircuitBreakerOpenException thrown = assertThrows(CircuitBreakerOpenException.class, () -> handler.execute(get, "test", () -> {
+            attempts.incrementAndGet();
+            return "ok";
+        }), "Request must fail fast when breaker is open");
+
+        assertEquals("test", thrown.getDatabase(), "Database of open breaker must be reported");
+        assertEquals(2, attempts.get(), "Request must not be sent when breaker is open");
+        assertEquals(Collections.singletonMap("test", CircuitBreaker.State.OPEN), handler.getCircuitBreakerStates(), "State of breaker must be exposed");
+    }
+
+    @Test
+    void testGetDatabase() {
+        assertEquals("test", ResilienceHandler.getDatabase(URI.create("http://localhost:5984"), URI.create("http://localhost:5984/test/a")),
+                "Database must be the first segment of path");
+        assertEquals("test", ResilienceHandler.getDatabase(URI.create("http://localhost:5984/"), URI.create("http://localhost:5984/test")),
+                "Database must be the first segment of path");
+        assertEquals("test", ResilienceHandler.getDatabase(URI.create("http://localhost/couchdb/"), URI.create("http://localhost/couchdb/test/_find")),
+                "Path of base URI must be skipped");
+        assertEquals("_up", ResilienceHandler.getDatabase(URI.create("http://localhost:5984"), URI.create("http://localhost:5984/_up")),
+                "Endpoint must be used for server requests");
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.groocraft.couchdb.slacker.resilience;
+
+import com.groocraft.couchdb.slacker.exception.CouchDbException;
+import com.groocraft.couchdb.slacker.transport.CouchRequest;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    private final RetryPolicy policy = new RetryPolicy(2, 100, 250);
+
+    @Test
+    void testIdempotent() {
+        assertTrue(policy.isIdempotent(new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/a"))), "GET must be idempotent");
+        assertTrue(policy.isIdempotent(new CouchRequest(CouchRequest.HEAD, URI.create("http://localhost:5984/test"))), "HEAD must be idempotent");
+        assertTrue(policy.isIdempotent(new CouchRequest(CouchRequest.POST, URI.create("http://localhost:5984/test/_find"))), "POST to _find must be idempotent");
+        assertTrue(policy.isIdempotent(new CouchRequest(CouchRequest.POST, URI.create("http://localhost:5984/test/_bulk_get"))), "POST to _bulk_get must be idempotent");
+        assertFalse(policy.isIdempotent(new CouchRequest(CouchRequest.POST, URI.create("http://localhost:5984/test/_bulk_docs"))), "POST to _bulk_docs changes data");
+        assertFalse(policy.isIdempotent(new CouchRequest(CouchRequest.PUT, URI.create("http://localhost:5984/test/a"))), "PUT of document creates new revision");
+        assertFalse(policy.isIdempotent(new CouchRequest(CouchRequest.DELETE, URI.create("http://localhost:5984/test/a"))), "DELETE of document creates new revision");
+    }
+
+    @Test
+    void testTransient() {
+        assertTrue(RetryPolicy.isTransient(new CouchDbException(503, "GET", "/test", "")), "Service unavailable must be transient");
+        assertTrue(RetryPolicy.isTransient(new CouchDbException(429, "GET", "/test", "")), "Too many requests must be transient");
+        assertTrue(RetryPolicy.isTransient(new SocketException("Connection reset")), "Reset connection must be transient");
+        assertTrue(RetryPolicy.isTransient(new ConnectException()), "Refused connection must be transient");
+        assertTrue(RetryPolicy.isTransient(new NoHttpResponseException("")), "Closed connection without response must be transient");
+        assertTrue(RetryPolicy.isTransient(new ConnectTimeoutException()), "Connect timeout must be transient");
+        assertFalse(RetryPolicy.isTransient(new CouchDbException(404, "GET", "/test", "")), "Not found must not be transient");
+        assertFalse(RetryPolicy.isTransient(new CouchDbException(409, "PUT", "/test", "")), "Conflict must not be transient");
+        assertFalse(RetryPolicy.isTransient(new SocketTimeoutException()), "Read timeout can be caused by long query, retry would add load");
+        assertFalse(RetryPolicy.isTransient(new IOException()), "Unknown failure must not be transient");
+    }
+
+    @Test
+    void testRetryable() {
+        CouchRequest get = new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/a"));
+        IOException failure = new ConnectException();
+        assertTrue(policy.isRetryable(get, 1, failure), "Transient failure of idempotent request must be retried");
+        assertFalse(policy.isRetryable(get, 2, failure), "Request must not be retried more than configured");
+        assertFalse(policy.isRetryable(new CouchRequest(CouchRequest.PUT, URI.create("http://localhost:5984/test/a")), 0, failure), "Not idempotent request must not be retried");
+    }
+
+    @Test
+    void testBackoff() {
+        for (int i = 0; i < 100; i++) {
+            long first = policy.getBackoff(0);
+            assertTrue(first >= 0 && first <= 100, "First backoff must be between zero and initial backoff");
+            long third = policy.getBackoff(2);
+            assertTrue(third >= 0 && third <= 250, "Backoff must not be longer than max backoff");
+        }
+    }
+
+}
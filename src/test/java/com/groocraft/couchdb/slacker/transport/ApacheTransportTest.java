@@ -0,0 +1,103 @@
+package com.groocraft.couchdb.slacker.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ApacheTransportTest {
+
+    private static final HttpHost HOST = new HttpHost("localhost", 5984);
+
+    @Mock
+    private HttpClient httpClient;
+
+    private final HttpContext httpContext = new BasicHttpContext();
+
+    @Test
+    void testToHttpRequest() throws IOException {
+        URI uri = URI.create("http://localhost:5984/test/a");
+        assertTrue(ApacheTransport.toHttpRequest(new CouchRequest(CouchRequest.GET, uri)) instanceof HttpGet, "GET must be mapped to HttpGet");
+        assertTrue(ApacheTransport.toHttpRequest(new CouchRequest(CouchRequest.HEAD, uri)) instanceof HttpHead, "HEAD must be mapped to HttpHead");
+        assertTrue(ApacheTransport.toHttpRequest(new CouchRequest(CouchRequest.DELETE, uri)) instanceof HttpDelete, "DELETE must be mapped to HttpDelete");
+        assertThrows(IllegalArgumentException.class, () -> ApacheTransport.toHttpRequest(new CouchRequest("PATCH", uri)),
+                "Unknown method must be reported");
+
+        CouchRequest request = new CouchRequest(CouchRequest.POST, uri, new JsonBody(new ObjectMapper().writer(), Collections.singletonMap("a", "b"), false));
+        request.setHeader("accept", "application/json");
+        HttpPost post = (HttpPost) ApacheTransport.toHttpRequest(request);
+        assertEquals(uri, post.getURI(), "URI must be kept");
+        assertEquals("application/json", post.getFirstHeader("Accept").getValue(), "Headers must be copied");
+        assertEquals("application/json", post.getEntity().getContentType().getValue(), "Content type must be taken from body");
+        assertTrue(post.getEntity().isChunked(), "Body of unknown length must be sent chunked");
+        assertTrue(post.getEntity().isRepeatable(), "Body must be repeatable, so request can be retried");
+        assertFalse(post.getEntity().isStreaming(), "Body does not depend on any underlying stream");
+        assertEquals("{\"a\":\"b\"}", IOUtils.toString(post.getEntity().getContent(), StandardCharsets.UTF_8), "Content must be taken from body");
+
+        HttpPost known = (HttpPost) ApacheTransport.toHttpRequest(new CouchRequest(CouchRequest.POST, uri,
+                new ByteArrayBody(new byte[]{1, 2}, "application/json", "gzip")));
+        assertFalse(known.getEntity().isChunked(), "Body of known length must not be sent chunked");
+        assertEquals(2, known.getEntity().getContentLength(), "Length must be taken from body");
+        assertEquals("gzip", known.getEntity().getContentEncoding().getValue(), "Encoding must be taken from body");
+    }
+
+    @Test
+    void testExecute() throws IOException {
+        BasicHttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        httpResponse.addHeader("Set-Cookie", "a=b");
+        httpResponse.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+        when(httpClient.execute(eq(HOST), any(HttpUriRequest.class), eq(httpContext))).thenReturn(httpResponse);
+
+        try (CouchResponse response = new ApacheTransport(httpClient, httpContext).execute(new CouchRequest(CouchRequest.GET,
+                URI.create("http://localhost:5984/test/a")), HOST)) {
+            assertEquals(HttpStatus.SC_OK, response.getStatusCode(), "Status must be taken from response");
+            assertEquals(Collections.singletonList("a=b"), response.getHeaders("set-cookie"), "Headers must be taken from response");
+            assertEquals("{}", IOUtils.toString(response.getContent(), StandardCharsets.UTF_8), "Body must be taken from response");
+        }
+    }
+
+    @Test
+    void testAbort() throws IOException {
+        ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
+        ConnectException thrown = new ConnectException();
+        when(httpClient.execute(eq(HOST), captor.capture(), eq(httpContext))).thenThrow(thrown);
+
+        assertEquals(thrown, assertThrows(IOException.class, () -> new ApacheTransport(httpClient, httpContext).execute(
+                new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/a")), HOST)), "Original exception must be thrown");
+        assertTrue(((HttpRequestBase) captor.getValue()).isAborted(), "Request must be aborted when exception thrown");
+    }
+
+}
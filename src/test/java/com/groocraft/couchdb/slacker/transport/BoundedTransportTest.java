@@ -0,0 +1,82 @@
+package com.groocraft.couchdb.slacker.transport;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedTransportTest {
+
+    private static final HttpHost HOST = new HttpHost("localhost", 5984);
+    private static final CouchRequest REQUEST = new CouchRequest(CouchRequest.GET, URI.create("http://localhost:5984/test/a"));
+
+    @Mock
+    private CouchTransport delegate;
+
+    @Mock
+    private CouchResponse response;
+
+    @Test
+    void testLimit() throws IOException {
+        when(delegate.execute(eq(REQUEST), eq(HOST))).thenReturn(response);
+        BoundedTransport transport = new BoundedTransport(delegate, 1, 50);
+
+        CouchResponse first = transport.execute(REQUEST, HOST);
+        assertEquals(0, transport.getAvailablePermits(), "Permit must be held until response is closed");
+        assertThrows(ConnectionPoolTimeoutException.class, () -> transport.execute(REQUEST, HOST),
+                "Request over the limit must fail when no permit is released in timeout");
+
+        first.close();
+        first.close();
+        verify(response).close();
+        assertEquals(1, transport.getAvailablePermits(), "Permit must be released exactly once when response is closed");
+        transport.execute(REQUEST, HOST).close();
+        assertEquals(1, transport.getAvailablePermits(), "Released permit must be usable by next request");
+    }
+
+    @Test
+    void testFailure() throws IOException {
+        when(delegate.execute(any(CouchRequest.class), any(HttpHost.class))).thenThrow(new ConnectException("refused"));
+        BoundedTransport transport = new BoundedTransport(delegate, 1, 0);
+
+        assertThrows(ConnectException.class, () -> transport.execute(REQUEST, HOST), "Failure of delegate must be propagated");
+        assertEquals(1, transport.getAvailablePermits(), "Permit must be released when request fails");
+    }
+
+    @Test
+    void testInterrupt() throws IOException {
+        when(delegate.execute(eq(REQUEST), eq(HOST))).thenReturn(response);
+        BoundedTransport transport = new BoundedTransport(delegate, 1, 0);
+        transport.execute(REQUEST, HOST);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedIOException.class, () -> transport.execute(REQUEST, HOST), "Interrupted waiting must be reported as I/O exception");
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testClose() {
+        new BoundedTransport(delegate, 1, 0).close();
+
+        verify(delegate).close();
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.groocraft.couchdb.slacker.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonBodyTest {
+
+    @Test
+    void testWriteTo() throws IOException {
+        JsonBody body = new JsonBody(new ObjectMapper().writer(), Collections.singletonMap("docs", Collections.singletonList("a")), false);
+        assertEquals("application/json", body.getContentType(), "Content type must be set to json");
+        assertNull(body.getContentEncoding(), "Non-compressed body must not declare encoding");
+        assertTrue(body.getContentLength() < 0, "Length of streamed body is not known");
+
+        ClosingAwareOutputStream output = new ClosingAwareOutputStream();
+        body.writeTo(output);
+        body.writeTo(output);
+        assertFalse(output.closed, "Output stream of connection must not be closed by the body");
+        assertEquals("{\"docs\":[\"a\"]}{\"docs\":[\"a\"]}", output.toString(StandardCharsets.UTF_8.name()), "Value must be serialized for every write");
+        assertEquals("{\"docs\":[\"a\"]}", IOUtils.toString(body.getContent(), StandardCharsets.UTF_8), "Content must contain serialized value");
+    }
+
+    @Test
+    void testCompressed() throws IOException {
+        JsonBody body = new JsonBody(new ObjectMapper().writer(), Collections.singletonMap("docs", Collections.singletonList("a")), true);
+        assertEquals("gzip", body.getContentEncoding(), "Compressed body must declare gzip encoding");
+
+        ClosingAwareOutputStream output = new ClosingAwareOutputStream();
+        body.writeTo(output);
+        assertFalse(output.closed, "Output stream of connection must not be closed by the compressing stream");
+        assertEquals("{\"docs\":[\"a\"]}", IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())), StandardCharsets.UTF_8),
+                "Written body must be gzip of serialized value");
+    }
+
+    private static class ClosingAwareOutputStream extends ByteArrayOutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.groocraft.couchdb.slacker.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService executor;
+    private List<List<String>> batches;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = BatchLoader.createScheduler();
+        executor = BatchLoader.createExecutor(false);
+        batches = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private Map<String, String> load(List<String> ids) {
+        batches.add(ids);
+        return ids.stream().filter(id -> !id.startsWith("missing")).collect(Collectors.toMap(Function.identity(), id -> "value-" + id));
+    }
+
+    @Test
+    void testWindow() throws Exception {
+        BatchLoader<String> loader = new BatchLoader<>(50, 100, scheduler, executor, this::load);
+
+        CompletableFuture<String> a = loader.load("a");
+        CompletableFuture<String> b = loader.load("b");
+        CompletableFuture<String> again = loader.load("a");
+        CompletableFuture<String> missing = loader.load("missing");
+
+        assertEquals("value-a", a.get(5, TimeUnit.SECONDS), "Every call must get its own value");
+        assertEquals("value-b", b.get(5, TimeUnit.SECONDS), "Every call must get its own value");
+        assertSame(a, again, "Id wanted by more calls must be loaded once per batch");
+        assertNull(missing.get(5, TimeUnit.SECONDS), "Not loaded value must be reported as null");
+        assertEquals(Arrays.asList("a", "b", "missing"), batches.get(0), "Ids within the window must be loaded as one batch in order of calls");
+        assertEquals(1, batches.size(), "Only one batch must be loaded");
+
+        assertEquals("value-c", loader.load("c").get(5, TimeUnit.SECONDS), "Call after dispatch must start a new batch");
+        assertEquals(2, batches.size(), "New batch must be loaded");
+    }
+
+    @Test
+    void testMaxBatchSize() throws Exception {
+        BatchLoader<String> loader = new BatchLoader<>(60000, 2, scheduler, executor, this::load);
+
+        CompletableFuture<String> a = loader.load("a");
+        CompletableFuture<String> b = loader.load("b");
+        CompletableFuture<String> c = loader.load("c");
+
+        assertEquals("value-a", a.get(5, TimeUnit.SECONDS), "Full batch must be dispatched without waiting for the window");
+        assertEquals("value-b", b.get(5, TimeUnit.SECONDS), "Full batch must be dispatched without waiting for the window");
+        assertFalse(c.isDone(), "Id over the maximal size must wait in the next batch");
+        assertEquals(Arrays.asList("a", "b"), batches.get(0), "Batch must not be bigger than the maximal size");
+
+        loader.close();
+        assertEquals("value-c", c.get(5, TimeUnit.SECONDS), "Pending batch must be dispatched by close");
+        assertTrue(assertThrows(ExecutionException.class, () -> loader.load("d").get(5, TimeUnit.SECONDS),
+                "Closed loader must refuse next loads").getCause() instanceof IOException, "Refused load must fail by IOException");
+    }
+
+    @Test
+    void testFailure() {
+        IOException thrown = new IOException("error");
+        BatchLoader<String> loader = new BatchLoader<>(0, 100, scheduler, executor, ids -> {
+            throw thrown;
+        });
+
+        CompletableFuture<String> a = loader.load("a");
+        CompletableFuture<String> b = loader.load("b");
+
+        assertSame(thrown, assertThrows(ExecutionException.class, () -> a.get(5, TimeUnit.SECONDS), "Failure must be reported").getCause(),
+                "Failure of batch must be passed to every call");
+        assertSame(thrown, assertThrows(ExecutionException.class, () -> b.get(5, TimeUnit.SECONDS), "Failure must be reported").getCause(),
+                "Failure of batch must be passed to every call");
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.groocraft.couchdb.slacker.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkChunkerTest {
+
+    private final ObjectWriter writer = new ObjectMapper().writer();
+
+    private List<BulkChunker.Chunk> drain(BulkChunker<?> chunker) throws IOException {
+        List<BulkChunker.Chunk> chunks = new ArrayList<>();
+        BulkChunker.Chunk chunk;
+        while ((chunk = chunker.next()) != null) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private String body(BulkChunker.Chunk chunk) {
+        return new String(chunk.getBody(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testMaxSize() throws IOException {
+        List<BulkChunker.Chunk> chunks = drain(new BulkChunker<>(Arrays.asList("a", "b", "c", "d", "e"), writer, 2, Long.MAX_VALUE));
+
+        assertEquals(3, chunks.size(), "Documents must be split by max size");
+        assertEquals("{\"docs\":[\"a\",\"b\"]}", body(chunks.get(0)), "Chunk body must be body of _bulk_docs request");
+        assertEquals("{\"docs\":[\"e\"]}", body(chunks.get(2)), "The last chunk must contain the rest of documents");
+        assertEquals(Arrays.asList(0, 2, 4), Arrays.asList(chunks.get(0).getOffset(), chunks.get(1).getOffset(), chunks.get(2).getOffset()),
+                "Offsets must be positions of the first documents of chunks");
+        assertEquals(Arrays.asList(0, 1, 2), Arrays.asList(chunks.get(0).getIndex(), chunks.get(1).getIndex(), chunks.get(2).getIndex()),
+                "Chunks must be indexed in order");
+    }
+
+    @Test
+    void testMaxBytes() throws IOException {
+        List<BulkChunker.Chunk> chunks = drain(new BulkChunker<>(Arrays.asList("aaaa", "bbbb", "cccccccccccccccccccc", "d"), writer, 10, 20));
+
+        assertEquals("{\"docs\":[\"aaaa\"]}", body(chunks.get(0)), "Document which does not fit must be moved into the next chunk");
+        assertEquals("{\"docs\":[\"bbbb\"]}", body(chunks.get(1)), "Document which does not fit must be moved into the next chunk");
+        assertEquals("{\"docs\":[\"cccccccccccccccccccc\"]}", body(chunks.get(2)), "Document bigger than limit must be sent alone");
+        assertEquals(3, chunks.get(3).getOffset(), "Offset must count documents moved into the next chunk");
+        assertEquals(4, chunks.size(), "Every document must be in a chunk");
+        assertTrue(chunks.stream().filter(c -> c.getSize() > 1).allMatch(c -> c.getBody().length <= 20), "Chunks must not be bigger than limit");
+    }
+
+    @Test
+    void testClose() throws IOException {
+        BulkChunker<String> chunker = new BulkChunker<>(Arrays.asList("a", "b"), writer, 1, 100);
+        chunker.next();
+        assertTrue(chunker.hasNext(), "Chunker must know about not taken documents");
+        chunker.close();
+
+        assertFalse(chunker.hasNext(), "Closed chunker must not have next chunk");
+        assertNull(chunker.next(), "Closed chunker must not return next chunk");
+        assertNull(new BulkChunker<>(Collections.emptyList(), writer, 1, 100).next(), "There must be no chunk of no documents");
+    }
+
+}
@@ -7,6 +7,7 @@ import com.groocraft.couchdb.slacker.TestDocument;
 import com.groocraft.couchdb.slacker.structure.BulkGetResponse;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,4 +34,19 @@ class BulkGetDeserializerTest {
         assertEquals("value2b", response.getDocs().get(1).getValue2(), "Value2 was not properly deserialize");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testErrorAndNestedList() throws JsonProcessingException {
+        String json = "{\"results\": [{\"id\": \"a\", \"docs\": [{\"error\":{\"id\":\"a\",\"rev\":\"undefined\",\"error\":\"not_found\",\"reason\":\"missing\"}}]}," +
+                "{\"id\": \"b\", \"docs\": [{\"ok\":{\"_id\":\"b\",\"_rev\":\"revB\",\"value4\":[\"x\",\"y\"]}},{\"ok\":{\"_id\":\"b\",\"_rev\":\"revC\"}}]}]}";
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(List.class, new BulkGetDeserializer<>(TestDocument.class, new ObjectMapper()));
+        mapper.registerModule(module);
+        BulkGetResponse<TestDocument> response = mapper.readValue(json, mapper.getTypeFactory().constructParametricType(BulkGetResponse.class,
+                TestDocument.class));
+        assertEquals(1, response.getDocs().size(), "Not found document must be skipped and only the first document of result must be read");
+        assertEquals("revB", response.getDocs().get(0).getRevision(), "Only the first document of result must be read");
+        assertEquals(Arrays.asList("x", "y"), response.getDocs().get(0).getValue4(), "List inside of document must be read as list of entity");
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.groocraft.couchdb.slacker.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutTest {
+
+    @Test
+    void testOrder() throws IOException {
+        List<Integer> parameters = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        try (FanOut fanOut = FanOut.create(false)) {
+            List<Integer> results = fanOut.map(parameters, 8, i -> i * 2);
+
+            assertEquals(parameters.stream().map(i -> i * 2).collect(Collectors.toList()), results, "Results must be in order of parameters");
+        }
+    }
+
+    @Test
+    void testParallelism() throws IOException {
+        CountDownLatch latch = new CountDownLatch(4);
+        try (FanOut fanOut = FanOut.create(false)) {
+            List<Boolean> results = fanOut.map(Arrays.asList(1, 2, 3, 4), 4, i -> {
+                latch.countDown();
+                try {
+                    return latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            });
+
+            assertEquals(Arrays.asList(true, true, true, true), results, "All parts must run at the same time");
+        }
+    }
+
+    @Test
+    void testSequential() throws IOException {
+        Thread caller = Thread.currentThread();
+        try (FanOut fanOut = FanOut.create(false)) {
+            List<Boolean> results = fanOut.map(Arrays.asList(1, 2, 3), 1, i -> Thread.currentThread() == caller);
+
+            assertEquals(Arrays.asList(true, true, true), results, "Parallelism of one must run all parts in the calling thread");
+        }
+    }
+
+    @Test
+    void testFailure() {
+        IOException failure = new IOException("failure");
+        try (FanOut fanOut = FanOut.create(false)) {
+            IOException thrown = assertThrows(IOException.class, () -> fanOut.map(Arrays.asList(1, 2, 3, 4), 4, i -> {
+                if (i == 3) {
+                    throw failure;
+                }
+                return i;
+            }), "Failure of a part must be reported");
+
+            assertEquals(failure, thrown, "Original exception must be thrown");
+        }
+    }
+
+    @Test
+    void testClosed() throws IOException {
+        FanOut fanOut = FanOut.create(false);
+        fanOut.close();
+
+        assertEquals(Arrays.asList(1, 2, 3), fanOut.map(Arrays.asList(1, 2, 3), 4, i -> i), "Calling thread must finish operation if executor is closed");
+    }
+
+    @Test
+    void testVirtualThreads() throws IOException {
+        if (VirtualThreads.isAvailable()) {
+            try (FanOut fanOut = FanOut.create(true)) {
+                assertEquals(Arrays.asList(1, 2), fanOut.map(Arrays.asList(1, 2), 2, i -> i), "Virtual threads must be usable when available");
+            }
+        } else {
+            assertThrows(IllegalStateException.class, () -> FanOut.create(true), "Missing virtual threads must be reported");
+        }
+        assertTrue(VirtualThreads.isAvailable() || !System.getProperty("java.specification.version").matches("2[1-9]|[3-9]\\d"),
+                "Virtual threads must be detected on Java 21 or newer");
+    }
+
+}
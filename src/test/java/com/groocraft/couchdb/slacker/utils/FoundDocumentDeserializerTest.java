@@ -0,0 +1,49 @@
+package com.groocraft.couchdb.slacker.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.groocraft.couchdb.slacker.TestDocument;
+import com.groocraft.couchdb.slacker.structure.DocumentFindResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FoundDocumentDeserializerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    FoundDocumentDeserializerTest() {
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(List.class, new FoundDocumentDeserializer<>(TestDocument.class, new ObjectMapper()));
+        mapper.registerModule(module);
+    }
+
+    @Test
+    public void test() throws JsonProcessingException {
+        String json = "{\"docs\":[{\"_id\":\"a\",\"_rev\":\"revA\",\"value\":\"valueA\",\"value4\":[\"x\",\"y\"]},{\"_id\":\"b\",\"_rev\":\"revB\"," +
+                "\"value\":\"valueB\"}],\"bookmark\":\"1234\"}";
+        DocumentFindResponse<TestDocument> response = mapper.readValue(json, mapper.getTypeFactory().constructParametricType(DocumentFindResponse.class,
+                TestDocument.class));
+        assertEquals(2, response.getDocuments().size(), "There are two documents in json above");
+        assertEquals("a", response.getDocuments().get(0).getId(), "Id was not properly deserialize");
+        assertEquals("revA", response.getDocuments().get(0).getRevision(), "Revision was not properly deserialize");
+        assertEquals("valueA", response.getDocuments().get(0).getValue(), "Value was not properly deserialize");
+        assertEquals(Arrays.asList("x", "y"), response.getDocuments().get(0).getValue4(), "List inside of document must be read as list of entity");
+        assertEquals("b", response.getDocuments().get(1).getId(), "Id was not properly deserialize");
+        assertEquals("valueB", response.getDocuments().get(1).getValue(), "Value was not properly deserialize");
+        assertEquals("1234", response.getBookmark(), "Fields after documents must be read too");
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue("{\"docs\":{}}", mapper.getTypeFactory().constructParametricType(
+                DocumentFindResponse.class, TestDocument.class)), "Documents must be in array");
+    }
+
+}
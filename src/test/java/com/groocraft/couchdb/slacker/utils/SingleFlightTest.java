@@ -0,0 +1,156 @@
+package com.groocraft.couchdb.slacker.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final byte[] RESULT = "result".getBytes(StandardCharsets.UTF_8);
+
+    private static void await(String message, SingleFlight singleFlight, long coalesced) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getStatistics().getCoalescedCount() < coalesced) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(message);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testCoalescing() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger requests = new AtomicInteger();
+        ThrowingSupplier<byte[], IOException> request = () -> {
+            requests.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return RESULT;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<byte[]> first = executor.submit(() -> singleFlight.execute("GET", "/test/a", null, request));
+            Future<byte[]> second = executor.submit(() -> singleFlight.execute("GET", "/test/a", null, request));
+            Future<byte[]> third = executor.submit(() -> singleFlight.execute("GET", "/test/a", null, request));
+            await("Identical calls must wait for the request in flight", singleFlight, 2);
+            release.countDown();
+
+            assertSame(RESULT, first.get(), "Result must be delivered to the call which sent the request");
+            assertSame(RESULT, second.get(), "Result must be shared with waiting calls");
+            assertSame(RESULT, third.get(), "Result must be shared with waiting calls");
+            assertEquals(1, requests.get(), "Identical concurrent calls must send only one request");
+            assertEquals(1, singleFlight.getStatistics().getRequestCount(), "Sent request must be counted");
+            assertEquals(0, singleFlight.getStatistics().getInFlight(), "Finished request must not be in flight");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        singleFlight.execute("GET", "/test/a", null, request);
+        assertEquals(2, requests.get(), "Call after the result is delivered must send a new request");
+    }
+
+    @Test
+    void testDetach() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ThrowingSupplier<byte[], IOException> blocked = () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return RESULT;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> document = executor.submit(() -> singleFlight.execute("GET", "/test/a", null, blocked));
+            Future<byte[]> query = executor.submit(() -> singleFlight.execute("POST", "/test/_find", "{}", blocked));
+            started.await(5, TimeUnit.SECONDS);
+            singleFlight.detach("/test/a");
+            singleFlight.detachPrefix("/test/_");
+            assertEquals(0, singleFlight.getStatistics().getInFlight(), "Detached requests must not be in flight");
+
+            byte[] fresh = "fresh".getBytes(StandardCharsets.UTF_8);
+            assertSame(fresh, singleFlight.execute("GET", "/test/a", null, () -> fresh), "Call after detach must send a new request");
+            assertSame(fresh, singleFlight.execute("POST", "/test/_find", "{}", () -> fresh), "Call after detach must send a new request");
+            release.countDown();
+            assertSame(RESULT, document.get(), "Detached request must deliver its result");
+            assertSame(RESULT, query.get(), "Detached request must deliver its result");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, singleFlight.getStatistics().getInFlight(), "Detached request must not remove a newer one");
+    }
+
+    @Test
+    void testKey() throws IOException {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger requests = new AtomicInteger();
+        singleFlight.execute("POST", "/test/_find", "{\"a\":1}", () -> {
+            singleFlight.execute("POST", "/test/_find", "{\"a\":2}", () -> {
+                requests.incrementAndGet();
+                return RESULT;
+            });
+            singleFlight.execute("GET", "/test/_find", "{\"a\":1}", () -> {
+                requests.incrementAndGet();
+                return RESULT;
+            });
+            return RESULT;
+        });
+
+        assertEquals(2, requests.get(), "Requests with different body or method must not be coalesced");
+        assertEquals(0, singleFlight.getStatistics().getCoalescedCount(), "Nothing must be coalesced");
+    }
+
+    @Test
+    void testFailure() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IOException thrown = new IOException("error");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = executor.submit(() -> singleFlight.execute("GET", "/test/a", null, () -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                throw thrown;
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            Future<byte[]> second = executor.submit(() -> singleFlight.execute("GET", "/test/a", null, () -> RESULT));
+            await("Identical call must wait for the request in flight", singleFlight, 1);
+            release.countDown();
+
+            assertSame(thrown, assertThrows(ExecutionException.class, first::get, "Failure must be thrown").getCause(),
+                    "Original exception must be thrown");
+            assertSame(thrown, assertThrows(ExecutionException.class, second::get, "Failure must be shared with waiting calls").getCause(),
+                    "Original exception must be shared");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertSame(RESULT, singleFlight.execute("GET", "/test/a", null, () -> RESULT), "Failed request must not stay in flight");
+    }
+
+}